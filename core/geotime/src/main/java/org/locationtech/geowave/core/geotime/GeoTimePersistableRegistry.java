@@ -36,11 +36,18 @@ import org.locationtech.geowave.core.geotime.store.query.SpatialQuery;
 import org.locationtech.geowave.core.geotime.store.query.SpatialTemporalQuery;
 import org.locationtech.geowave.core.geotime.store.query.TemporalQuery;
 import org.locationtech.geowave.core.geotime.store.query.aggregate.CommonIndexBoundingBoxAggregation;
+import org.locationtech.geowave.core.geotime.store.query.aggregate.CommonIndexSpatialBinningAggregation;
 import org.locationtech.geowave.core.geotime.store.query.aggregate.CommonIndexTimeRangeAggregation;
 import org.locationtech.geowave.core.geotime.store.query.aggregate.FieldNameParam;
+import org.locationtech.geowave.core.geotime.store.query.aggregate.GroupByParam;
 import org.locationtech.geowave.core.geotime.store.query.aggregate.OptimalVectorBoundingBoxAggregation;
+import org.locationtech.geowave.core.geotime.store.query.aggregate.OptimalVectorSpatialBinningAggregation;
 import org.locationtech.geowave.core.geotime.store.query.aggregate.OptimalVectorTimeRangeAggregation;
+import org.locationtech.geowave.core.geotime.store.query.aggregate.SpatialBinningParam;
+import org.locationtech.geowave.core.geotime.store.query.aggregate.SpatialBins;
 import org.locationtech.geowave.core.geotime.store.query.aggregate.VectorBoundingBoxAggregation;
+import org.locationtech.geowave.core.geotime.store.query.aggregate.VectorGroupByAggregation;
+import org.locationtech.geowave.core.geotime.store.query.aggregate.VectorSpatialBinningAggregation;
 import org.locationtech.geowave.core.geotime.store.query.aggregate.VectorTimeRangeAggregation;
 import org.locationtech.geowave.core.geotime.store.query.filter.SpatialQueryFilter;
 import org.locationtech.geowave.core.index.dimension.bin.BasicBinningStrategy;
@@ -86,7 +93,14 @@ public class GeoTimePersistableRegistry implements PersistableRegistrySpi {
         new PersistableIdAndConstructor((short) 332, SpatialTemporalQuery::new),
         new PersistableIdAndConstructor((short) 333, TemporalQuery::new),
         new PersistableIdAndConstructor((short) 334, SimpleTimeDefinition::new),
-        new PersistableIdAndConstructor((short) 335, SimpleTimeIndexStrategy::new)};
+        new PersistableIdAndConstructor((short) 335, SimpleTimeIndexStrategy::new),
+        new PersistableIdAndConstructor((short) 336, SpatialBinningParam::new),
+        new PersistableIdAndConstructor((short) 337, SpatialBins::new),
+        new PersistableIdAndConstructor((short) 338, VectorSpatialBinningAggregation::new),
+        new PersistableIdAndConstructor((short) 339, CommonIndexSpatialBinningAggregation::new),
+        new PersistableIdAndConstructor((short) 340, OptimalVectorSpatialBinningAggregation::new),
+        new PersistableIdAndConstructor((short) 341, GroupByParam::new),
+        new PersistableIdAndConstructor((short) 342, VectorGroupByAggregation::new)};
 
   }
 }
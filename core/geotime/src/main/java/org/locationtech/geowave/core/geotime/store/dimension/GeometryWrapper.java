@@ -8,6 +8,8 @@
  */
 package org.locationtech.geowave.core.geotime.store.dimension;
 
+import org.locationtech.geowave.core.geotime.util.GeometryUtils;
+import org.locationtech.geowave.core.geotime.util.TWKBReader;
 import org.locationtech.geowave.core.index.sfc.data.NumericData;
 import org.locationtech.geowave.core.index.sfc.data.NumericRange;
 import org.locationtech.geowave.core.store.dimension.NumericDimensionField;
@@ -23,11 +25,23 @@ import com.google.common.math.DoubleMath;
 public class GeometryWrapper implements CommonIndexValue {
   public static final String DEFAULT_GEOMETRY_FIELD_NAME = "default_geom_dimension";
   private byte[] visibility;
-  private final org.locationtech.jts.geom.Geometry geometry;
+  private org.locationtech.jts.geom.Geometry geometry;
+  private final byte[] twkb;
   private static final double DOUBLE_TOLERANCE = 1E-12d;
+  private static final TWKBReader ENVELOPE_READER = new TWKBReader();
 
   public GeometryWrapper(final org.locationtech.jts.geom.Geometry geometry) {
     this.geometry = geometry;
+    twkb = null;
+  }
+
+  /**
+   * Wrap a TWKB encoded geometry, which is not decoded until it is first requested.
+   *
+   * @param twkb the TWKB encoded geometry
+   */
+  public GeometryWrapper(final byte[] twkb) {
+    this.twkb = twkb;
   }
 
   public GeometryWrapper(
@@ -35,6 +49,7 @@ public class GeometryWrapper implements CommonIndexValue {
       final byte[] visibility) {
     this.visibility = visibility;
     this.geometry = geometry;
+    twkb = null;
   }
 
   @Override
@@ -48,15 +63,36 @@ public class GeometryWrapper implements CommonIndexValue {
   }
 
   public org.locationtech.jts.geom.Geometry getGeometry() {
+    if ((geometry == null) && (twkb != null)) {
+      geometry = GeometryUtils.geometryFromBinary(twkb, GeometryUtils.MAX_GEOMETRY_PRECISION);
+    }
     return geometry;
   }
 
+  /**
+   * Get the envelope of the geometry if it is available without decoding the geometry, either
+   * because the geometry has already been decoded or because the encoding includes it.
+   *
+   * @return the envelope or null if getting it would require decoding the geometry
+   */
+  public Envelope getEnvelopeIfAvailable() {
+    final org.locationtech.jts.geom.Geometry decoded = geometry;
+    if (decoded != null) {
+      return decoded.getEnvelopeInternal();
+    }
+    if (twkb != null) {
+      return ENVELOPE_READER.readEnvelope(twkb);
+    }
+    return null;
+  }
+
   /** Expects Longitude before Latitude */
   @Override
   public boolean overlaps(final NumericDimensionField[] fields, final NumericData[] rangeData) {
 
     final int latPosition = fields[0] instanceof LatitudeField ? 0 : 1;
     final int longPosition = fields[0] instanceof LatitudeField ? 1 : 0;
+    final org.locationtech.jts.geom.Geometry geometry = getGeometry();
     if (fields.length == 1) {
       final Envelope env = geometry.getEnvelopeInternal();
       final NumericRange r =
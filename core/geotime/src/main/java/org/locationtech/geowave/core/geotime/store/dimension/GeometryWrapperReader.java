@@ -26,6 +26,10 @@ public class GeometryWrapperReader implements FieldReader<GeometryWrapper> {
 
   @Override
   public GeometryWrapper readField(final byte[] fieldData) {
-    return new GeometryWrapper(GeometryUtils.geometryFromBinary(fieldData, geometryPrecision));
+    if (geometryPrecision == null) {
+      return new GeometryWrapper(GeometryUtils.geometryFromBinary(fieldData, null));
+    }
+    // defer decoding TWKB so that filters can reject rows by their envelope alone
+    return new GeometryWrapper(fieldData);
   }
 }
@@ -13,6 +13,16 @@ import org.locationtech.geowave.core.geotime.util.GeometryUtils;
 import org.locationtech.geowave.core.store.data.field.FieldWriter;
 
 public class GeometryWrapperWriter implements FieldWriter<Object, GeometryWrapper> {
+  /**
+   * Whether TWKB geometries are written with a bounding box header so that spatial filters can test
+   * the envelope without decoding the geometry. This is off by default because versions that
+   * predate the header cannot read data written with it. Enable it with
+   * -Dgeowave.geometry.boundingBox=true only once every process that reads the data, including
+   * server-side iterators and coprocessors, has been upgraded. Readers handle geometries with and
+   * without the header, so it can be turned on or off at any time after that.
+   */
+  private static final boolean INCLUDE_BOUNDING_BOX =
+      Boolean.parseBoolean(System.getProperty("geowave.geometry.boundingBox", "false"));
 
   private Integer geometryPrecision = null;
 
@@ -26,7 +36,10 @@ public class GeometryWrapperWriter implements FieldWriter<Object, GeometryWrappe
 
   @Override
   public byte[] writeField(final GeometryWrapper geometry) {
-    return GeometryUtils.geometryToBinary(geometry.getGeometry(), geometryPrecision);
+    return GeometryUtils.geometryToBinary(
+        geometry.getGeometry(),
+        geometryPrecision,
+        INCLUDE_BOUNDING_BOX);
   }
 
   @Override
@@ -10,7 +10,6 @@ package org.locationtech.geowave.core.geotime.store.query.aggregate;
 
 import org.locationtech.geowave.core.geotime.store.GeotoolsFeatureDataAdapter;
 import org.locationtech.geowave.core.index.persist.Persistable;
-import org.locationtech.geowave.core.store.adapter.InternalDataAdapter;
 import org.locationtech.geowave.core.store.api.Aggregation;
 import org.locationtech.geowave.core.store.api.DataTypeAdapter;
 import org.locationtech.geowave.core.store.api.Index;
@@ -46,13 +45,9 @@ public abstract class BaseOptimalVectorAggregation<P extends Persistable, R, T>
   public Aggregation<P, R, T> createAggregation(
       final DataTypeAdapter<T> adapter,
       final Index index) {
-    GeotoolsFeatureDataAdapter gtAdapter;
-    if (adapter instanceof GeotoolsFeatureDataAdapter) {
-      gtAdapter = (GeotoolsFeatureDataAdapter) adapter;
-    } else if ((adapter instanceof InternalDataAdapter)
-        && (((InternalDataAdapter) adapter).getAdapter() instanceof GeotoolsFeatureDataAdapter)) {
-      gtAdapter = (GeotoolsFeatureDataAdapter) ((InternalDataAdapter) adapter).getAdapter();
-    } else {
+    final GeotoolsFeatureDataAdapter gtAdapter =
+        VectorAggregationStatistics.getFeatureAdapter(adapter);
+    if (gtAdapter == null) {
       LOGGER.error(
           "Unable to perform aggregation on non-geotools feature adapter '"
               + adapter.getTypeName()
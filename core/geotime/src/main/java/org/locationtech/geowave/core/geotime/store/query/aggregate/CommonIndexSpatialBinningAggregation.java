@@ -0,0 +1,57 @@
+/**
+ * Copyright (c) 2013-2019 Contributors to the Eclipse Foundation
+ *
+ * <p> See the NOTICE file distributed with this work for additional information regarding copyright
+ * ownership. All rights reserved. This program and the accompanying materials are made available
+ * under the terms of the Apache License, Version 2.0 which accompanies this distribution and is
+ * available at http://www.apache.org/licenses/LICENSE-2.0.txt
+ */
+package org.locationtech.geowave.core.geotime.store.query.aggregate;
+
+import org.locationtech.geowave.core.geotime.store.dimension.GeometryWrapper;
+import org.locationtech.geowave.core.store.data.CommonIndexedPersistenceEncoding;
+import org.locationtech.geowave.core.store.index.CommonIndexValue;
+import org.locationtech.geowave.core.store.query.aggregate.CommonIndexAggregation;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+
+/**
+ * Bins entries by their indexed geometry, which avoids decoding the features. Every entry has a
+ * weight of one.
+ */
+public class CommonIndexSpatialBinningAggregation extends
+    SpatialBinningAggregation<CommonIndexedPersistenceEncoding> implements
+    CommonIndexAggregation<SpatialBinningParam, SpatialBins> {
+
+  public CommonIndexSpatialBinningAggregation() {
+    this(null);
+  }
+
+  public CommonIndexSpatialBinningAggregation(final SpatialBinningParam param) {
+    super(param);
+  }
+
+  @Override
+  protected Envelope getEnvelope(final CommonIndexedPersistenceEncoding entry) {
+    final CommonIndexValue v =
+        entry.getCommonData().getValue(GeometryWrapper.DEFAULT_GEOMETRY_FIELD_NAME);
+    if ((v != null) && (v instanceof GeometryWrapper)) {
+      final GeometryWrapper wrapper = (GeometryWrapper) v;
+      // the encoded envelope is enough to bin the entry without decoding its geometry
+      final Envelope envelope = wrapper.getEnvelopeIfAvailable();
+      if (envelope != null) {
+        return envelope;
+      }
+      final Geometry geometry = wrapper.getGeometry();
+      if ((geometry != null) && !geometry.isEmpty()) {
+        return geometry.getEnvelopeInternal();
+      }
+    }
+    return null;
+  }
+
+  @Override
+  protected double getWeight(final CommonIndexedPersistenceEncoding entry) {
+    return 1;
+  }
+}
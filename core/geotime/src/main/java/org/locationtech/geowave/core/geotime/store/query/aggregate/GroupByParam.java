@@ -0,0 +1,116 @@
+/**
+ * Copyright (c) 2013-2019 Contributors to the Eclipse Foundation
+ *
+ * <p> See the NOTICE file distributed with this work for additional information regarding copyright
+ * ownership. All rights reserved. This program and the accompanying materials are made available
+ * under the terms of the Apache License, Version 2.0 which accompanies this distribution and is
+ * available at http://www.apache.org/licenses/LICENSE-2.0.txt
+ */
+package org.locationtech.geowave.core.geotime.store.query.aggregate;
+
+import java.nio.ByteBuffer;
+import org.locationtech.geowave.core.index.ByteArrayUtils;
+import org.locationtech.geowave.core.index.StringUtils;
+import org.locationtech.geowave.core.index.VarintUtils;
+import org.locationtech.geowave.core.index.persist.Persistable;
+
+/**
+ * The attribute to group features by, either by its value or, for a temporal attribute, by a fixed
+ * time bin, and the numeric attribute to summarize within each group. Without a numeric attribute
+ * every feature has a value of one, so the count of each group is the number of features in it.
+ */
+public class GroupByParam implements Persistable {
+  private String groupByFieldName;
+  private long timeBinMillis;
+  private String valueFieldName;
+  private boolean percentiles;
+
+  public GroupByParam() {}
+
+  /**
+   * @param groupByFieldName the attribute to group by
+   * @param valueFieldName the numeric attribute to summarize, or null to only count
+   * @param percentiles whether to estimate percentiles of the values
+   */
+  public GroupByParam(
+      final String groupByFieldName,
+      final String valueFieldName,
+      final boolean percentiles) {
+    this(groupByFieldName, 0, valueFieldName, percentiles);
+  }
+
+  /**
+   * @param groupByFieldName the attribute to group by
+   * @param timeBinMillis if positive, the attribute is temporal and is grouped into bins of this
+   *        many milliseconds since the epoch
+   * @param valueFieldName the numeric attribute to summarize, or null to only count
+   * @param percentiles whether to estimate percentiles of the values
+   */
+  public GroupByParam(
+      final String groupByFieldName,
+      final long timeBinMillis,
+      final String valueFieldName,
+      final boolean percentiles) {
+    this.groupByFieldName = groupByFieldName;
+    this.timeBinMillis = timeBinMillis;
+    this.valueFieldName = valueFieldName;
+    this.percentiles = percentiles;
+  }
+
+  public String getGroupByFieldName() {
+    return groupByFieldName;
+  }
+
+  public long getTimeBinMillis() {
+    return timeBinMillis;
+  }
+
+  public boolean isTimeBinned() {
+    return timeBinMillis > 0;
+  }
+
+  public String getValueFieldName() {
+    return valueFieldName;
+  }
+
+  public boolean isPercentiles() {
+    return percentiles;
+  }
+
+  @Override
+  public byte[] toBinary() {
+    final byte[] groupByBinary = StringUtils.stringToBinary(groupByFieldName);
+    final byte[] valueBinary =
+        valueFieldName == null ? new byte[0] : StringUtils.stringToBinary(valueFieldName);
+    final ByteBuffer buf =
+        ByteBuffer.allocate(
+            1
+                + VarintUtils.unsignedLongByteLength(timeBinMillis)
+                + VarintUtils.unsignedIntByteLength(groupByBinary.length)
+                + groupByBinary.length
+                + valueBinary.length);
+    buf.put(percentiles ? (byte) 1 : (byte) 0);
+    VarintUtils.writeUnsignedLong(timeBinMillis, buf);
+    VarintUtils.writeUnsignedInt(groupByBinary.length, buf);
+    buf.put(groupByBinary);
+    buf.put(valueBinary);
+    return buf.array();
+  }
+
+  @Override
+  public void fromBinary(final byte[] bytes) {
+    final ByteBuffer buf = ByteBuffer.wrap(bytes);
+    percentiles = buf.get() != 0;
+    timeBinMillis = VarintUtils.readUnsignedLong(buf);
+    groupByFieldName =
+        StringUtils.stringFromBinary(
+            ByteArrayUtils.safeRead(buf, VarintUtils.readUnsignedInt(buf)));
+    if (buf.hasRemaining()) {
+      final byte[] valueBinary = new byte[buf.remaining()];
+      buf.get(valueBinary);
+      valueFieldName = StringUtils.stringFromBinary(valueBinary);
+    } else {
+      valueFieldName = null;
+    }
+  }
+}
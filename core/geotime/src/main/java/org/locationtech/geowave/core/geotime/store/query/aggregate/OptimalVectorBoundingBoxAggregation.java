@@ -12,11 +12,15 @@ import org.locationtech.geowave.core.geotime.store.GeotoolsFeatureDataAdapter;
 import org.locationtech.geowave.core.geotime.util.IndexOptimizationUtils;
 import org.locationtech.geowave.core.index.persist.Persistable;
 import org.locationtech.geowave.core.store.api.Aggregation;
+import org.locationtech.geowave.core.store.api.DataTypeAdapter;
 import org.locationtech.geowave.core.store.api.Index;
+import org.locationtech.geowave.core.store.api.StatisticsQuery;
+import org.locationtech.geowave.core.store.query.aggregate.StatisticsBackedAggregation;
 import org.locationtech.jts.geom.Envelope;
 
 public class OptimalVectorBoundingBoxAggregation<P extends Persistable, T> extends
-    BaseOptimalVectorAggregation<P, Envelope, T> {
+    BaseOptimalVectorAggregation<P, Envelope, T> implements
+    StatisticsBackedAggregation<Envelope, Envelope> {
   public OptimalVectorBoundingBoxAggregation() {}
 
   public OptimalVectorBoundingBoxAggregation(final FieldNameParam fieldNameParam) {
@@ -39,4 +43,16 @@ public class OptimalVectorBoundingBoxAggregation<P extends Persistable, T> exten
   protected Aggregation<P, Envelope, T> createAggregation() {
     return (Aggregation<P, Envelope, T>) new VectorBoundingBoxAggregation(fieldNameParam);
   }
+
+  @Override
+  public StatisticsQuery<Envelope> getStatisticsQuery(
+      final DataTypeAdapter<?> adapter,
+      final String[] authorizations) {
+    return VectorAggregationStatistics.boundingBoxQuery(adapter, fieldNameParam, authorizations);
+  }
+
+  @Override
+  public Envelope resultFromStatistics(final Envelope statistic) {
+    return statistic;
+  }
 }
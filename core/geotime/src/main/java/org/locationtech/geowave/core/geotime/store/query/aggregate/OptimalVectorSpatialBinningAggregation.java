@@ -0,0 +1,93 @@
+/**
+ * Copyright (c) 2013-2019 Contributors to the Eclipse Foundation
+ *
+ * <p> See the NOTICE file distributed with this work for additional information regarding copyright
+ * ownership. All rights reserved. This program and the accompanying materials are made available
+ * under the terms of the Apache License, Version 2.0 which accompanies this distribution and is
+ * available at http://www.apache.org/licenses/LICENSE-2.0.txt
+ */
+package org.locationtech.geowave.core.geotime.store.query.aggregate;
+
+import org.locationtech.geowave.core.geotime.store.GeotoolsFeatureDataAdapter;
+import org.locationtech.geowave.core.geotime.util.IndexOptimizationUtils;
+import org.locationtech.geowave.core.index.persist.PersistenceUtils;
+import org.locationtech.geowave.core.store.adapter.InternalDataAdapter;
+import org.locationtech.geowave.core.store.api.Aggregation;
+import org.locationtech.geowave.core.store.api.DataTypeAdapter;
+import org.locationtech.geowave.core.store.api.Index;
+import org.locationtech.geowave.core.store.query.aggregate.AdapterAndIndexBasedAggregation;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.feature.type.GeometryDescriptor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Bins on the indexed geometry when it is the binned geometry and no weight is summed, so that
+ * features do not need to be decoded, and otherwise bins the features.
+ */
+public class OptimalVectorSpatialBinningAggregation implements
+    AdapterAndIndexBasedAggregation<SpatialBinningParam, SpatialBins, SimpleFeature> {
+  private static final Logger LOGGER =
+      LoggerFactory.getLogger(OptimalVectorSpatialBinningAggregation.class);
+
+  private SpatialBinningParam param;
+
+  public OptimalVectorSpatialBinningAggregation() {}
+
+  public OptimalVectorSpatialBinningAggregation(final SpatialBinningParam param) {
+    this.param = param;
+  }
+
+  @Override
+  public SpatialBinningParam getParameters() {
+    return param;
+  }
+
+  @Override
+  public void setParameters(final SpatialBinningParam param) {
+    this.param = param;
+  }
+
+  @Override
+  public Aggregation<SpatialBinningParam, SpatialBins, SimpleFeature> createAggregation(
+      final DataTypeAdapter<SimpleFeature> adapter,
+      final Index index) {
+    GeotoolsFeatureDataAdapter gtAdapter;
+    if (adapter instanceof GeotoolsFeatureDataAdapter) {
+      gtAdapter = (GeotoolsFeatureDataAdapter) adapter;
+    } else if ((adapter instanceof InternalDataAdapter)
+        && (((InternalDataAdapter) adapter).getAdapter() instanceof GeotoolsFeatureDataAdapter)) {
+      gtAdapter = (GeotoolsFeatureDataAdapter) ((InternalDataAdapter) adapter).getAdapter();
+    } else {
+      LOGGER.error(
+          "Unable to perform aggregation on non-geotools feature adapter '"
+              + adapter.getTypeName()
+              + "'");
+      return null;
+    }
+    if (isCommonIndex(index, gtAdapter)) {
+      return (Aggregation) new CommonIndexSpatialBinningAggregation(param);
+    }
+    return new VectorSpatialBinningAggregation(param);
+  }
+
+  private boolean isCommonIndex(final Index index, final GeotoolsFeatureDataAdapter adapter) {
+    // the common index only holds the default geometry, so a type without one is binned by feature
+    final GeometryDescriptor geometryDescriptor = adapter.getFeatureType().getGeometryDescriptor();
+    return (param.getWeightFieldName() == null)
+        && (geometryDescriptor != null)
+        && ((param.getGeometryFieldName() == null)
+            || param.getGeometryFieldName().equals(geometryDescriptor.getLocalName()))
+        && IndexOptimizationUtils.hasAtLeastSpatial(index);
+  }
+
+  @Override
+  public byte[] toBinary() {
+    return PersistenceUtils.toBinary(param);
+  }
+
+  @Override
+  public void fromBinary(final byte[] bytes) {
+    param = (SpatialBinningParam) PersistenceUtils.fromBinary(bytes);
+  }
+}
@@ -12,11 +12,15 @@ import org.locationtech.geowave.core.geotime.store.GeotoolsFeatureDataAdapter;
 import org.locationtech.geowave.core.geotime.util.IndexOptimizationUtils;
 import org.locationtech.geowave.core.index.persist.Persistable;
 import org.locationtech.geowave.core.store.api.Aggregation;
+import org.locationtech.geowave.core.store.api.DataTypeAdapter;
 import org.locationtech.geowave.core.store.api.Index;
+import org.locationtech.geowave.core.store.api.StatisticsQuery;
+import org.locationtech.geowave.core.store.query.aggregate.StatisticsBackedAggregation;
 import org.threeten.extra.Interval;
 
 public class OptimalVectorTimeRangeAggregation<P extends Persistable, T> extends
-    BaseOptimalVectorAggregation<P, Interval, T> {
+    BaseOptimalVectorAggregation<P, Interval, T> implements
+    StatisticsBackedAggregation<Interval, Interval> {
   public OptimalVectorTimeRangeAggregation() {}
 
   public OptimalVectorTimeRangeAggregation(final FieldNameParam fieldNameParam) {
@@ -44,4 +48,16 @@ public class OptimalVectorTimeRangeAggregation<P extends Persistable, T> extends
   protected Aggregation<P, Interval, T> createAggregation() {
     return (Aggregation<P, Interval, T>) new VectorTimeRangeAggregation(fieldNameParam);
   }
+
+  @Override
+  public StatisticsQuery<Interval> getStatisticsQuery(
+      final DataTypeAdapter<?> adapter,
+      final String[] authorizations) {
+    return VectorAggregationStatistics.timeRangeQuery(adapter, fieldNameParam, authorizations);
+  }
+
+  @Override
+  public Interval resultFromStatistics(final Interval statistic) {
+    return statistic;
+  }
 }
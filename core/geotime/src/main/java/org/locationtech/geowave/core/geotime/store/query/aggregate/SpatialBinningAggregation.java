@@ -0,0 +1,102 @@
+/**
+ * Copyright (c) 2013-2019 Contributors to the Eclipse Foundation
+ *
+ * <p> See the NOTICE file distributed with this work for additional information regarding copyright
+ * ownership. All rights reserved. This program and the accompanying materials are made available
+ * under the terms of the Apache License, Version 2.0 which accompanies this distribution and is
+ * available at http://www.apache.org/licenses/LICENSE-2.0.txt
+ */
+package org.locationtech.geowave.core.geotime.store.query.aggregate;
+
+import org.locationtech.geowave.core.index.persist.PersistenceUtils;
+import org.locationtech.geowave.core.store.api.Aggregation;
+import org.locationtech.jts.geom.Envelope;
+
+/**
+ * Counts entries (and optionally sums a weight) within each cell of a grid, binning each entry by
+ * the center of its envelope. As a distributable aggregation this runs within the data store where
+ * it is supported, so only the per-cell results are returned to the client, for example to render a
+ * heatmap without retrieving every feature.
+ */
+public abstract class SpatialBinningAggregation<T> implements
+    Aggregation<SpatialBinningParam, SpatialBins, T> {
+  protected SpatialBinningParam param;
+  private SpatialBins bins;
+
+  public SpatialBinningAggregation() {
+    this(null);
+  }
+
+  public SpatialBinningAggregation(final SpatialBinningParam param) {
+    setParameters(param);
+  }
+
+  @Override
+  public SpatialBinningParam getParameters() {
+    return param;
+  }
+
+  @Override
+  public void setParameters(final SpatialBinningParam param) {
+    this.param = param;
+    bins = param == null ? null : new SpatialBins(param);
+  }
+
+  @Override
+  public SpatialBins getResult() {
+    return bins;
+  }
+
+  @Override
+  public void clearResult() {
+    if (bins != null) {
+      bins.clear();
+    }
+  }
+
+  @Override
+  public void aggregate(final T entry) {
+    if (bins == null) {
+      return;
+    }
+    final Envelope env = getEnvelope(entry);
+    if ((env != null) && !env.isNull()) {
+      bins.add(
+          (env.getMinX() + env.getMaxX()) / 2,
+          (env.getMinY() + env.getMaxY()) / 2,
+          getWeight(entry));
+    }
+  }
+
+  @Override
+  public byte[] resultToBinary(final SpatialBins result) {
+    if (result == null) {
+      return new byte[0];
+    }
+    return result.toBinary();
+  }
+
+  @Override
+  public SpatialBins resultFromBinary(final byte[] binary) {
+    if (binary.length == 0) {
+      return null;
+    }
+    final SpatialBins result = new SpatialBins();
+    result.fromBinary(binary);
+    return result;
+  }
+
+  @Override
+  public byte[] toBinary() {
+    return PersistenceUtils.toBinary(param);
+  }
+
+  @Override
+  public void fromBinary(final byte[] bytes) {
+    setParameters((SpatialBinningParam) PersistenceUtils.fromBinary(bytes));
+  }
+
+  protected abstract Envelope getEnvelope(T entry);
+
+  protected abstract double getWeight(T entry);
+}
@@ -0,0 +1,166 @@
+/**
+ * Copyright (c) 2013-2019 Contributors to the Eclipse Foundation
+ *
+ * <p> See the NOTICE file distributed with this work for additional information regarding copyright
+ * ownership. All rights reserved. This program and the accompanying materials are made available
+ * under the terms of the Apache License, Version 2.0 which accompanies this distribution and is
+ * available at http://www.apache.org/licenses/LICENSE-2.0.txt
+ */
+package org.locationtech.geowave.core.geotime.store.query.aggregate;
+
+import java.nio.ByteBuffer;
+import org.locationtech.geowave.core.index.ByteArrayUtils;
+import org.locationtech.geowave.core.index.StringUtils;
+import org.locationtech.geowave.core.index.VarintUtils;
+import org.locationtech.geowave.core.index.persist.Persistable;
+import org.locationtech.jts.geom.Envelope;
+
+/**
+ * The grid used by a spatial binning aggregation: the bounds of the grid, the number of columns and
+ * rows it is divided into, and optionally the geometry attribute to bin (otherwise the default
+ * geometry) and a numeric attribute to sum within each cell.
+ */
+public class SpatialBinningParam implements Persistable {
+  private Envelope bounds;
+  private int columns;
+  private int rows;
+  private String geometryFieldName;
+  private String weightFieldName;
+
+  public SpatialBinningParam() {}
+
+  public SpatialBinningParam(final Envelope bounds, final int columns, final int rows) {
+    this(bounds, columns, rows, null, null);
+  }
+
+  public SpatialBinningParam(
+      final Envelope bounds,
+      final int columns,
+      final int rows,
+      final String geometryFieldName,
+      final String weightFieldName) {
+    if ((bounds == null) || bounds.isNull()) {
+      throw new IllegalArgumentException("A spatial binning grid must have bounds");
+    }
+    if ((columns <= 0) || (rows <= 0)) {
+      throw new IllegalArgumentException("A spatial binning grid must have at least one cell");
+    }
+    this.bounds = bounds;
+    this.columns = columns;
+    this.rows = rows;
+    this.geometryFieldName = geometryFieldName;
+    this.weightFieldName = weightFieldName;
+  }
+
+  /**
+   * Create a grid for a rendered map, with one cell for every block of pixels.
+   *
+   * @param bounds the bounds of the map
+   * @param width the width of the map in pixels
+   * @param height the height of the map in pixels
+   * @param pixelsPerCell the width and height of each cell in pixels
+   * @return the grid
+   */
+  public static SpatialBinningParam forMap(
+      final Envelope bounds,
+      final int width,
+      final int height,
+      final int pixelsPerCell) {
+    return new SpatialBinningParam(
+        bounds,
+        Math.max(1, (int) Math.ceil((double) width / pixelsPerCell)),
+        Math.max(1, (int) Math.ceil((double) height / pixelsPerCell)));
+  }
+
+  public Envelope getBounds() {
+    return bounds;
+  }
+
+  public int getColumns() {
+    return columns;
+  }
+
+  public int getRows() {
+    return rows;
+  }
+
+  public String getGeometryFieldName() {
+    return geometryFieldName;
+  }
+
+  public String getWeightFieldName() {
+    return weightFieldName;
+  }
+
+  @Override
+  public byte[] toBinary() {
+    final byte[] geometryFieldNameBinary = toBinary(geometryFieldName);
+    final byte[] weightFieldNameBinary = toBinary(weightFieldName);
+    final ByteBuffer buf =
+        ByteBuffer.allocate(
+            32
+                + VarintUtils.unsignedIntByteLength(columns)
+                + VarintUtils.unsignedIntByteLength(rows)
+                + VarintUtils.unsignedIntByteLength(geometryFieldNameBinary.length)
+                + geometryFieldNameBinary.length
+                + weightFieldNameBinary.length);
+    writeBounds(bounds, buf);
+    VarintUtils.writeUnsignedInt(columns, buf);
+    VarintUtils.writeUnsignedInt(rows, buf);
+    VarintUtils.writeUnsignedInt(geometryFieldNameBinary.length, buf);
+    buf.put(geometryFieldNameBinary);
+    buf.put(weightFieldNameBinary);
+    return buf.array();
+  }
+
+  @Override
+  public void fromBinary(final byte[] bytes) {
+    final ByteBuffer buf = ByteBuffer.wrap(bytes);
+    bounds = readBounds(buf);
+    columns = VarintUtils.readUnsignedInt(buf);
+    rows = VarintUtils.readUnsignedInt(buf);
+    geometryFieldName = fromBinary(ByteArrayUtils.safeRead(buf, VarintUtils.readUnsignedInt(buf)));
+    final byte[] weightFieldNameBinary = new byte[buf.remaining()];
+    buf.get(weightFieldNameBinary);
+    weightFieldName = fromBinary(weightFieldNameBinary);
+  }
+
+  /** Write the bounds of a grid as 32 bytes, with a null envelope written as NaN */
+  static void writeBounds(final Envelope bounds, final ByteBuffer buf) {
+    if ((bounds == null) || bounds.isNull()) {
+      for (int i = 0; i < 4; i++) {
+        buf.putDouble(Double.NaN);
+      }
+    } else {
+      buf.putDouble(bounds.getMinX());
+      buf.putDouble(bounds.getMinY());
+      buf.putDouble(bounds.getMaxX());
+      buf.putDouble(bounds.getMaxY());
+    }
+  }
+
+  static Envelope readBounds(final ByteBuffer buf) {
+    final double minX = buf.getDouble();
+    final double minY = buf.getDouble();
+    final double maxX = buf.getDouble();
+    final double maxY = buf.getDouble();
+    if (Double.isNaN(minX)) {
+      return null;
+    }
+    return new Envelope(minX, maxX, minY, maxY);
+  }
+
+  private static byte[] toBinary(final String fieldName) {
+    if ((fieldName == null) || fieldName.isEmpty()) {
+      return new byte[0];
+    }
+    return StringUtils.stringToBinary(fieldName);
+  }
+
+  private static String fromBinary(final byte[] bytes) {
+    if (bytes.length > 0) {
+      return StringUtils.stringFromBinary(bytes);
+    }
+    return null;
+  }
+}
@@ -0,0 +1,210 @@
+/**
+ * Copyright (c) 2013-2019 Contributors to the Eclipse Foundation
+ *
+ * <p> See the NOTICE file distributed with this work for additional information regarding copyright
+ * ownership. All rights reserved. This program and the accompanying materials are made available
+ * under the terms of the Apache License, Version 2.0 which accompanies this distribution and is
+ * available at http://www.apache.org/licenses/LICENSE-2.0.txt
+ */
+package org.locationtech.geowave.core.geotime.store.query.aggregate;
+
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import org.locationtech.geowave.core.index.Mergeable;
+import org.locationtech.geowave.core.index.VarintUtils;
+import org.locationtech.jts.geom.Envelope;
+
+/**
+ * The result of a spatial binning aggregation: the count and summed weight of the entries within
+ * each cell of a grid. Only cells that contain entries are kept, so sparse results over a fine grid
+ * remain small, and results for the same grid can be merged cell by cell.
+ */
+public class SpatialBins implements Mergeable {
+  private Envelope bounds;
+  private int columns;
+  private int rows;
+  private Map<Integer, Bin> bins = new HashMap<>();
+
+  public SpatialBins() {}
+
+  public SpatialBins(final SpatialBinningParam param) {
+    this(param.getBounds(), param.getColumns(), param.getRows());
+  }
+
+  public SpatialBins(final Envelope bounds, final int columns, final int rows) {
+    this.bounds = bounds;
+    this.columns = columns;
+    this.rows = rows;
+  }
+
+  public static class Bin {
+    private long count;
+    private double weight;
+
+    private Bin(final long count, final double weight) {
+      this.count = count;
+      this.weight = weight;
+    }
+
+    public long getCount() {
+      return count;
+    }
+
+    public double getWeight() {
+      return weight;
+    }
+  }
+
+  public Envelope getBounds() {
+    return bounds;
+  }
+
+  public int getColumns() {
+    return columns;
+  }
+
+  public int getRows() {
+    return rows;
+  }
+
+  /**
+   * Add an entry to the cell containing the given coordinate. Coordinates outside of the bounds of
+   * the grid are ignored.
+   *
+   * @param x the x coordinate
+   * @param y the y coordinate
+   * @param weight the weight of the entry
+   * @return true if the coordinate is within the grid
+   */
+  public boolean add(final double x, final double y, final double weight) {
+    if (bounds == null) {
+      return false;
+    }
+    final int column = cellIndex(x, bounds.getMinX(), bounds.getMaxX(), columns);
+    final int row = cellIndex(y, bounds.getMinY(), bounds.getMaxY(), rows);
+    if ((column < 0) || (row < 0)) {
+      return false;
+    }
+    add((row * columns) + column, 1, weight);
+    return true;
+  }
+
+  private void add(final int cell, final long count, final double weight) {
+    final Bin bin = bins.get(cell);
+    if (bin == null) {
+      bins.put(cell, new Bin(count, weight));
+    } else {
+      bin.count += count;
+      bin.weight += weight;
+    }
+  }
+
+  private static int cellIndex(
+      final double value,
+      final double min,
+      final double max,
+      final int cells) {
+    if ((value < min) || (value > max) || Double.isNaN(value)) {
+      return -1;
+    }
+    if (max <= min) {
+      return 0;
+    }
+    // the maximum edge belongs to the last cell
+    return Math.min(cells - 1, (int) (((value - min) / (max - min)) * cells));
+  }
+
+  /**
+   * @return the non-empty cells, keyed by cell number, which is {@code row * columns + column} with
+   *         row 0 along the minimum y of the bounds
+   */
+  public Map<Integer, Bin> getBins() {
+    return bins;
+  }
+
+  public Bin getBin(final int column, final int row) {
+    return bins.get((row * columns) + column);
+  }
+
+  public Envelope getCellEnvelope(final int column, final int row) {
+    final double cellWidth = bounds.getWidth() / columns;
+    final double cellHeight = bounds.getHeight() / rows;
+    final double minX = bounds.getMinX() + (column * cellWidth);
+    final double minY = bounds.getMinY() + (row * cellHeight);
+    return new Envelope(minX, minX + cellWidth, minY, minY + cellHeight);
+  }
+
+  public boolean isEmpty() {
+    return bins.isEmpty();
+  }
+
+  public void clear() {
+    bins.clear();
+  }
+
+  @Override
+  public void merge(final Mergeable merge) {
+    if (merge instanceof SpatialBins) {
+      final SpatialBins other = (SpatialBins) merge;
+      if (other.bounds == null) {
+        // bins without a grid are always empty
+        return;
+      }
+      if (bounds == null) {
+        bounds = other.bounds;
+        columns = other.columns;
+        rows = other.rows;
+      } else if ((other.columns != columns)
+          || (other.rows != rows)
+          || !other.bounds.equals(bounds)) {
+        throw new IllegalArgumentException("Unable to merge spatial bins of different grids");
+      }
+      for (final Entry<Integer, Bin> e : other.bins.entrySet()) {
+        add(e.getKey(), e.getValue().count, e.getValue().weight);
+      }
+    }
+  }
+
+  @Override
+  public byte[] toBinary() {
+    int byteLength =
+        32
+            + VarintUtils.unsignedIntByteLength(columns)
+            + VarintUtils.unsignedIntByteLength(rows)
+            + VarintUtils.unsignedIntByteLength(bins.size());
+    for (final Entry<Integer, Bin> e : bins.entrySet()) {
+      byteLength +=
+          VarintUtils.unsignedIntByteLength(e.getKey())
+              + VarintUtils.unsignedLongByteLength(e.getValue().count)
+              + 8;
+    }
+    final ByteBuffer buf = ByteBuffer.allocate(byteLength);
+    SpatialBinningParam.writeBounds(bounds, buf);
+    VarintUtils.writeUnsignedInt(columns, buf);
+    VarintUtils.writeUnsignedInt(rows, buf);
+    VarintUtils.writeUnsignedInt(bins.size(), buf);
+    for (final Entry<Integer, Bin> e : bins.entrySet()) {
+      VarintUtils.writeUnsignedInt(e.getKey(), buf);
+      VarintUtils.writeUnsignedLong(e.getValue().count, buf);
+      buf.putDouble(e.getValue().weight);
+    }
+    return buf.array();
+  }
+
+  @Override
+  public void fromBinary(final byte[] bytes) {
+    final ByteBuffer buf = ByteBuffer.wrap(bytes);
+    bounds = SpatialBinningParam.readBounds(buf);
+    columns = VarintUtils.readUnsignedInt(buf);
+    rows = VarintUtils.readUnsignedInt(buf);
+    final int size = VarintUtils.readUnsignedInt(buf);
+    bins = new HashMap<>(size);
+    for (int i = 0; i < size; i++) {
+      final int cell = VarintUtils.readUnsignedInt(buf);
+      final long count = VarintUtils.readUnsignedLong(buf);
+      bins.put(cell, new Bin(count, buf.getDouble()));
+    }
+  }
+}
@@ -59,8 +59,8 @@ public abstract class TimeRangeAggregation<P extends Persistable, T> implements
     } else if (result2 == null) {
       return result1;
     }
-    final long min = Math.min(result1.getStart().toEpochMilli(), result1.getEnd().toEpochMilli());
-    final long max = Math.max(result2.getStart().toEpochMilli(), result2.getEnd().toEpochMilli());
+    final long min = Math.min(result1.getStart().toEpochMilli(), result2.getStart().toEpochMilli());
+    final long max = Math.max(result1.getEnd().toEpochMilli(), result2.getEnd().toEpochMilli());
     return Interval.of(Instant.ofEpochMilli(min), Instant.ofEpochMilli(max));
   }
 
@@ -84,7 +84,7 @@ public abstract class TimeRangeAggregation<P extends Persistable, T> implements
     final ByteBuffer buffer = ByteBuffer.wrap(binary);
     final long minTime = VarintUtils.readTime(buffer);
     final long maxTime = VarintUtils.readTime(buffer);
-    if ((min == Long.MAX_VALUE) || (max == Long.MIN_VALUE)) {
+    if ((minTime == Long.MAX_VALUE) || (maxTime == Long.MIN_VALUE)) {
       return null;
     }
     return Interval.of(Instant.ofEpochMilli(minTime), Instant.ofEpochMilli(maxTime));
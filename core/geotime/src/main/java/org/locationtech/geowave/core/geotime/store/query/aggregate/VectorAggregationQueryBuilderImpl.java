@@ -47,8 +47,46 @@ public class VectorAggregationQueryBuilderImpl<P extends Persistable, R> extends
       final String timeFieldName) {
     options =
         new AggregateTypeQueryOptions(
-            new VectorBoundingBoxAggregation(new FieldNameParam(timeFieldName)),
+            new VectorTimeRangeAggregation(new FieldNameParam(timeFieldName)),
             typeName);
     return this;
   }
+
+  @Override
+  public VectorAggregationQueryBuilder<P, R> spatialBinsOfResults(
+      final SpatialBinningParam binning,
+      final String... typeNames) {
+    options =
+        new AggregateTypeQueryOptions(
+            new OptimalVectorSpatialBinningAggregation(binning),
+            typeNames);
+    return this;
+  }
+
+  @Override
+  public VectorAggregationQueryBuilder<P, R> groupByAttribute(
+      final String typeName,
+      final String groupByAttributeName,
+      final String valueAttributeName) {
+    return groupBy(typeName, new GroupByParam(groupByAttributeName, valueAttributeName, false));
+  }
+
+  @Override
+  public VectorAggregationQueryBuilder<P, R> groupByTimeBin(
+      final String typeName,
+      final String timeAttributeName,
+      final long binMillis,
+      final String valueAttributeName) {
+    return groupBy(
+        typeName,
+        new GroupByParam(timeAttributeName, binMillis, valueAttributeName, false));
+  }
+
+  @Override
+  public VectorAggregationQueryBuilder<P, R> groupBy(
+      final String typeName,
+      final GroupByParam groupBy) {
+    options = new AggregateTypeQueryOptions(new VectorGroupByAggregation(groupBy), typeName);
+    return this;
+  }
 }
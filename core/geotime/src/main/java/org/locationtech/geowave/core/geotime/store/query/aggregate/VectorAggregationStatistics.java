@@ -0,0 +1,74 @@
+/**
+ * Copyright (c) 2013-2019 Contributors to the Eclipse Foundation
+ *
+ * <p> See the NOTICE file distributed with this work for additional information regarding copyright
+ * ownership. All rights reserved. This program and the accompanying materials are made available
+ * under the terms of the Apache License, Version 2.0 which accompanies this distribution and is
+ * available at http://www.apache.org/licenses/LICENSE-2.0.txt
+ */
+package org.locationtech.geowave.core.geotime.store.query.aggregate;
+
+import org.locationtech.geowave.core.geotime.store.GeotoolsFeatureDataAdapter;
+import org.locationtech.geowave.core.geotime.store.query.api.VectorStatisticsQueryBuilder;
+import org.locationtech.geowave.core.store.adapter.InternalDataAdapter;
+import org.locationtech.geowave.core.store.api.DataTypeAdapter;
+import org.locationtech.geowave.core.store.api.StatisticsQuery;
+import org.locationtech.jts.geom.Envelope;
+import org.opengis.feature.type.AttributeDescriptor;
+import org.threeten.extra.Interval;
+
+/** Statistics queries that answer the vector bounding box and time range aggregations */
+class VectorAggregationStatistics {
+  static GeotoolsFeatureDataAdapter getFeatureAdapter(final DataTypeAdapter<?> adapter) {
+    if (adapter instanceof GeotoolsFeatureDataAdapter) {
+      return (GeotoolsFeatureDataAdapter) adapter;
+    } else if ((adapter instanceof InternalDataAdapter)
+        && (((InternalDataAdapter) adapter).getAdapter() instanceof GeotoolsFeatureDataAdapter)) {
+      return (GeotoolsFeatureDataAdapter) ((InternalDataAdapter) adapter).getAdapter();
+    }
+    return null;
+  }
+
+  static StatisticsQuery<Envelope> boundingBoxQuery(
+      final DataTypeAdapter<?> adapter,
+      final FieldNameParam fieldNameParam,
+      final String[] authorizations) {
+    final GeotoolsFeatureDataAdapter gtAdapter = getFeatureAdapter(adapter);
+    if (gtAdapter == null) {
+      return null;
+    }
+    final String fieldName;
+    if ((fieldNameParam != null) && !fieldNameParam.isEmpty()) {
+      fieldName = fieldNameParam.getFieldName();
+    } else if (gtAdapter.getFeatureType().getGeometryDescriptor() != null) {
+      fieldName = gtAdapter.getFeatureType().getGeometryDescriptor().getLocalName();
+    } else {
+      return null;
+    }
+    return VectorStatisticsQueryBuilder.newBuilder().factory().bbox().fieldName(fieldName).dataType(
+        adapter.getTypeName()).setAuthorizations(authorizations).build();
+  }
+
+  static StatisticsQuery<Interval> timeRangeQuery(
+      final DataTypeAdapter<?> adapter,
+      final FieldNameParam fieldNameParam,
+      final String[] authorizations) {
+    final GeotoolsFeatureDataAdapter gtAdapter = getFeatureAdapter(adapter);
+    if (gtAdapter == null) {
+      return null;
+    }
+    final String fieldName;
+    if ((fieldNameParam != null) && !fieldNameParam.isEmpty()) {
+      fieldName = fieldNameParam.getFieldName();
+    } else {
+      // a time range over start and end attributes is not kept as a single statistic
+      final AttributeDescriptor time = gtAdapter.getTimeDescriptors().getTime();
+      if (time == null) {
+        return null;
+      }
+      fieldName = time.getLocalName();
+    }
+    return VectorStatisticsQueryBuilder.newBuilder().factory().timeRange().fieldName(
+        fieldName).dataType(adapter.getTypeName()).setAuthorizations(authorizations).build();
+  }
+}
@@ -8,12 +8,16 @@
  */
 package org.locationtech.geowave.core.geotime.store.query.aggregate;
 
+import org.locationtech.geowave.core.store.api.DataTypeAdapter;
+import org.locationtech.geowave.core.store.api.StatisticsQuery;
+import org.locationtech.geowave.core.store.query.aggregate.StatisticsBackedAggregation;
 import org.locationtech.jts.geom.Envelope;
 import org.locationtech.jts.geom.Geometry;
 import org.opengis.feature.simple.SimpleFeature;
 
 public class VectorBoundingBoxAggregation extends
-    BoundingBoxAggregation<FieldNameParam, SimpleFeature> {
+    BoundingBoxAggregation<FieldNameParam, SimpleFeature> implements
+    StatisticsBackedAggregation<Envelope, Envelope> {
   private FieldNameParam fieldNameParam;
 
   public VectorBoundingBoxAggregation() {
@@ -51,4 +55,16 @@ public class VectorBoundingBoxAggregation extends
     }
     return null;
   }
+
+  @Override
+  public StatisticsQuery<Envelope> getStatisticsQuery(
+      final DataTypeAdapter<?> adapter,
+      final String[] authorizations) {
+    return VectorAggregationStatistics.boundingBoxQuery(adapter, fieldNameParam, authorizations);
+  }
+
+  @Override
+  public Envelope resultFromStatistics(final Envelope statistic) {
+    return statistic;
+  }
 }
@@ -0,0 +1,84 @@
+/**
+ * Copyright (c) 2013-2019 Contributors to the Eclipse Foundation
+ *
+ * <p> See the NOTICE file distributed with this work for additional information regarding copyright
+ * ownership. All rights reserved. This program and the accompanying materials are made available
+ * under the terms of the Apache License, Version 2.0 which accompanies this distribution and is
+ * available at http://www.apache.org/licenses/LICENSE-2.0.txt
+ */
+package org.locationtech.geowave.core.geotime.store.query.aggregate;
+
+import java.time.Instant;
+import org.locationtech.geowave.core.geotime.util.TimeUtils;
+import org.locationtech.geowave.core.index.persist.PersistenceUtils;
+import org.locationtech.geowave.core.store.query.aggregate.GroupByAggregation;
+import org.opengis.feature.simple.SimpleFeature;
+
+/**
+ * Groups features by the value of an attribute, or by the time bin of a temporal attribute (named
+ * by the ISO-8601 start of the bin), and summarizes a numeric attribute within each group.
+ */
+public class VectorGroupByAggregation extends GroupByAggregation<GroupByParam, SimpleFeature> {
+  private static final Double ONE = 1.0;
+  private GroupByParam param;
+
+  public VectorGroupByAggregation() {
+    this(null);
+  }
+
+  public VectorGroupByAggregation(final GroupByParam param) {
+    super();
+    this.param = param;
+  }
+
+  @Override
+  public GroupByParam getParameters() {
+    return param;
+  }
+
+  @Override
+  public void setParameters(final GroupByParam param) {
+    this.param = param;
+  }
+
+  @Override
+  protected String getGroup(final SimpleFeature entry) {
+    final Object group = entry.getAttribute(param.getGroupByFieldName());
+    if (group == null) {
+      return null;
+    }
+    if (param.isTimeBinned()) {
+      final long time = TimeUtils.getTimeMillis(group);
+      final long bin = Math.floorDiv(time, param.getTimeBinMillis()) * param.getTimeBinMillis();
+      return Instant.ofEpochMilli(bin).toString();
+    }
+    return group.toString();
+  }
+
+  @Override
+  protected Double getValue(final SimpleFeature entry) {
+    if (param.getValueFieldName() == null) {
+      return ONE;
+    }
+    final Object value = entry.getAttribute(param.getValueFieldName());
+    if (value instanceof Number) {
+      return ((Number) value).doubleValue();
+    }
+    return null;
+  }
+
+  @Override
+  protected boolean isPercentiles() {
+    return param.isPercentiles();
+  }
+
+  @Override
+  public byte[] toBinary() {
+    return PersistenceUtils.toBinary(param);
+  }
+
+  @Override
+  public void fromBinary(final byte[] bytes) {
+    param = (GroupByParam) PersistenceUtils.fromBinary(bytes);
+  }
+}
@@ -0,0 +1,53 @@
+/**
+ * Copyright (c) 2013-2019 Contributors to the Eclipse Foundation
+ *
+ * <p> See the NOTICE file distributed with this work for additional information regarding copyright
+ * ownership. All rights reserved. This program and the accompanying materials are made available
+ * under the terms of the Apache License, Version 2.0 which accompanies this distribution and is
+ * available at http://www.apache.org/licenses/LICENSE-2.0.txt
+ */
+package org.locationtech.geowave.core.geotime.store.query.aggregate;
+
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.opengis.feature.simple.SimpleFeature;
+
+public class VectorSpatialBinningAggregation extends SpatialBinningAggregation<SimpleFeature> {
+
+  public VectorSpatialBinningAggregation() {
+    this(null);
+  }
+
+  public VectorSpatialBinningAggregation(final SpatialBinningParam param) {
+    super(param);
+  }
+
+  @Override
+  protected Envelope getEnvelope(final SimpleFeature entry) {
+    Object o;
+    if (param.getGeometryFieldName() != null) {
+      o = entry.getAttribute(param.getGeometryFieldName());
+    } else {
+      o = entry.getDefaultGeometry();
+    }
+    if ((o != null) && (o instanceof Geometry)) {
+      final Geometry geometry = (Geometry) o;
+      if (!geometry.isEmpty()) {
+        return geometry.getEnvelopeInternal();
+      }
+    }
+    return null;
+  }
+
+  @Override
+  protected double getWeight(final SimpleFeature entry) {
+    if (param.getWeightFieldName() == null) {
+      return 1;
+    }
+    final Object o = entry.getAttribute(param.getWeightFieldName());
+    if (o instanceof Number) {
+      return ((Number) o).doubleValue();
+    }
+    return 0;
+  }
+}
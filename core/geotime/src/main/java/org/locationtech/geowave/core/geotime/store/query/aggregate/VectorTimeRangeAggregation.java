@@ -13,13 +13,17 @@ import java.util.HashMap;
 import java.util.Map;
 import org.locationtech.geowave.core.geotime.util.TimeDescriptors;
 import org.locationtech.geowave.core.geotime.util.TimeUtils;
+import org.locationtech.geowave.core.store.api.DataTypeAdapter;
+import org.locationtech.geowave.core.store.api.StatisticsQuery;
+import org.locationtech.geowave.core.store.query.aggregate.StatisticsBackedAggregation;
 import org.opengis.feature.simple.SimpleFeature;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.threeten.extra.Interval;
 
-public class VectorTimeRangeAggregation extends
-    TimeRangeAggregation<FieldNameParam, SimpleFeature> {
+public class VectorTimeRangeAggregation extends TimeRangeAggregation<FieldNameParam, SimpleFeature>
+    implements
+    StatisticsBackedAggregation<Interval, Interval> {
   private static final Logger LOGGER = LoggerFactory.getLogger(VectorTimeRangeAggregation.class);
   private FieldNameParam fieldNameParam;
   private final Map<String, TimeDescriptors> descMap = new HashMap<>();
@@ -80,4 +84,16 @@ public class VectorTimeRangeAggregation extends
             + "'. Consider explicitly setting field name.");
     return null;
   }
+
+  @Override
+  public StatisticsQuery<Interval> getStatisticsQuery(
+      final DataTypeAdapter<?> adapter,
+      final String[] authorizations) {
+    return VectorAggregationStatistics.timeRangeQuery(adapter, fieldNameParam, authorizations);
+  }
+
+  @Override
+  public Interval resultFromStatistics(final Interval statistic) {
+    return statistic;
+  }
 }
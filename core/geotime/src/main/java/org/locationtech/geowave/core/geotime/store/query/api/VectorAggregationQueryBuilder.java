@@ -10,6 +10,8 @@ package org.locationtech.geowave.core.geotime.store.query.api;
 
 import org.locationtech.geowave.core.geotime.store.query.BaseVectorQueryBuilder;
 import org.locationtech.geowave.core.geotime.store.query.VectorQueryConstraintsFactoryImpl;
+import org.locationtech.geowave.core.geotime.store.query.aggregate.GroupByParam;
+import org.locationtech.geowave.core.geotime.store.query.aggregate.SpatialBinningParam;
 import org.locationtech.geowave.core.geotime.store.query.aggregate.VectorAggregationQueryBuilderImpl;
 import org.locationtech.geowave.core.index.persist.Persistable;
 import org.locationtech.geowave.core.store.api.AggregationQuery;
@@ -83,4 +85,57 @@ public interface VectorAggregationQueryBuilder<P extends Persistable, R> extends
   VectorAggregationQueryBuilder<P, R> timeRangeOfResultsForTimeField(
       String typeName,
       String timeAttributeName);
+
+  /**
+   * convenience method for binning the results of a query into a grid, counting the features (and
+   * optionally summing a numeric attribute) within each cell. This is performed within the data
+   * store where possible, which makes it well suited to rendering heatmaps over large data sets.
+   *
+   * @param binning the grid and the attributes to bin and weight by
+   * @param typeNames the type names to constrain by
+   * @return this builder
+   */
+  VectorAggregationQueryBuilder<P, R> spatialBinsOfResults(
+      SpatialBinningParam binning,
+      String... typeNames);
+
+  /**
+   * convenience method for summarizing a numeric attribute (count, sum, min, max, mean, variance
+   * and optionally percentiles) for each distinct value of another attribute of the results of a
+   * query
+   *
+   * @param typeName the type name
+   * @param groupByAttributeName the attribute to group by
+   * @param valueAttributeName the numeric attribute to summarize, or null to only count each group
+   * @return this builder
+   */
+  VectorAggregationQueryBuilder<P, R> groupByAttribute(
+      String typeName,
+      String groupByAttributeName,
+      String valueAttributeName);
+
+  /**
+   * convenience method for summarizing a numeric attribute for each time bin of a temporal
+   * attribute of the results of a query
+   *
+   * @param typeName the type name
+   * @param timeAttributeName the temporal attribute to group by
+   * @param binMillis the length of each time bin in milliseconds
+   * @param valueAttributeName the numeric attribute to summarize, or null to only count each bin
+   * @return this builder
+   */
+  VectorAggregationQueryBuilder<P, R> groupByTimeBin(
+      String typeName,
+      String timeAttributeName,
+      long binMillis,
+      String valueAttributeName);
+
+  /**
+   * group the results of a query and summarize a numeric attribute within each group
+   *
+   * @param typeName the type name
+   * @param groupBy the grouping, the attribute to summarize, and whether to estimate percentiles
+   * @return this builder
+   */
+  VectorAggregationQueryBuilder<P, R> groupBy(String typeName, GroupByParam groupBy);
 }
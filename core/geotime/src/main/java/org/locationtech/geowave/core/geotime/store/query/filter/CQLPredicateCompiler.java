@@ -0,0 +1,659 @@
+/**
+ * Copyright (c) 2013-2019 Contributors to the Eclipse Foundation
+ *
+ * <p> See the NOTICE file distributed with this work for additional information regarding copyright
+ * ownership. All rights reserved. This program and the accompanying materials are made available
+ * under the terms of the Apache License, Version 2.0 which accompanies this distribution and is
+ * available at http://www.apache.org/licenses/LICENSE-2.0.txt
+ */
+package org.locationtech.geowave.core.geotime.store.query.filter;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+import org.geotools.geometry.jts.JTS;
+import org.geotools.geometry.jts.ReferencedEnvelope;
+import org.geotools.referencing.CRS;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.prep.PreparedGeometry;
+import org.locationtech.jts.geom.prep.PreparedGeometryFactory;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.feature.simple.SimpleFeatureType;
+import org.opengis.feature.type.AttributeDescriptor;
+import org.opengis.filter.And;
+import org.opengis.filter.BinaryComparisonOperator;
+import org.opengis.filter.ExcludeFilter;
+import org.opengis.filter.Filter;
+import org.opengis.filter.IncludeFilter;
+import org.opengis.filter.Not;
+import org.opengis.filter.Or;
+import org.opengis.filter.PropertyIsBetween;
+import org.opengis.filter.PropertyIsEqualTo;
+import org.opengis.filter.PropertyIsGreaterThan;
+import org.opengis.filter.PropertyIsGreaterThanOrEqualTo;
+import org.opengis.filter.PropertyIsLessThan;
+import org.opengis.filter.PropertyIsLessThanOrEqualTo;
+import org.opengis.filter.PropertyIsLike;
+import org.opengis.filter.PropertyIsNotEqualTo;
+import org.opengis.filter.PropertyIsNull;
+import org.opengis.filter.expression.Expression;
+import org.opengis.filter.expression.Literal;
+import org.opengis.filter.expression.PropertyName;
+import org.opengis.filter.spatial.BBOX;
+import org.opengis.filter.spatial.BinarySpatialOperator;
+import org.opengis.filter.spatial.Contains;
+import org.opengis.filter.spatial.Disjoint;
+import org.opengis.filter.spatial.Intersects;
+import org.opengis.filter.spatial.Within;
+
+/**
+ * Compiles the commonly used subset of CQL into predicates that read only the attributes they
+ * reference, so that filtering does not require building a SimpleFeature for every row. The
+ * supported subset is comparisons, BETWEEN, IN (an OR of equalities), LIKE with a prefix pattern,
+ * IS NULL, the intersects, BBOX, within, contains and disjoint spatial predicates, and AND, OR and
+ * NOT of any of these. Anything else is evaluated by GeoTools against the fully decoded feature,
+ * which is only built for rows that reach that part of the filter.
+ *
+ * <p> When a literal or an attribute value has a different type than the feature type binding, or
+ * the value is null, the compiled predicate also defers to GeoTools so that the results are always
+ * identical. A row that needs GeoTools but whose feature cannot be decoded does not match, even if
+ * that part of the filter is negated.
+ */
+public class CQLPredicateCompiler {
+  private static final PreparedGeometryFactory PREPARED_GEOMETRY_FACTORY =
+      new PreparedGeometryFactory();
+  private static final UndecodableFeatureException UNDECODABLE_FEATURE =
+      new UndecodableFeatureException();
+
+  /** The row being filtered, attributes are identified by the slots assigned during compilation */
+  public static interface EncodedFeature {
+    /**
+     * @param slot the index of the attribute in {@link CompiledPredicate#getAttributeNames()}
+     * @return the value of the attribute
+     */
+    Object getAttribute(int slot);
+
+    /**
+     * @return the fully decoded feature, which may be null if it cannot be decoded in which case
+     *         the row does not match
+     */
+    SimpleFeature getFeature();
+  }
+
+  public static class CompiledPredicate implements Predicate<EncodedFeature> {
+    private final Predicate<EncodedFeature> predicate;
+    private final String[] attributeNames;
+    private final boolean fullyCompiled;
+
+    private CompiledPredicate(
+        final Predicate<EncodedFeature> predicate,
+        final String[] attributeNames,
+        final boolean fullyCompiled) {
+      this.predicate = predicate;
+      this.attributeNames = attributeNames;
+      this.fullyCompiled = fullyCompiled;
+    }
+
+    /** @return the names of the attributes referenced by the predicate, indexed by slot */
+    public String[] getAttributeNames() {
+      return attributeNames;
+    }
+
+    /** @return true if no part of the filter needs to be evaluated on a decoded feature */
+    public boolean isFullyCompiled() {
+      return fullyCompiled;
+    }
+
+    @Override
+    public boolean test(final EncodedFeature feature) {
+      try {
+        return predicate.test(feature);
+      } catch (final UndecodableFeatureException e) {
+        return false;
+      }
+    }
+  }
+
+  /**
+   * Compile a filter for the given feature type.
+   *
+   * @param filter the filter
+   * @param featureType the type of the features the filter will be applied to
+   * @return the compiled predicate, or null if no part of the filter could be compiled
+   */
+  public static CompiledPredicate compile(
+      final Filter filter,
+      final SimpleFeatureType featureType) {
+    final CQLPredicateCompiler compiler = new CQLPredicateCompiler(featureType);
+    final Predicate<EncodedFeature> predicate = compiler.compile(filter);
+    if (compiler.compiledNodes == 0) {
+      return null;
+    }
+    return new CompiledPredicate(
+        predicate,
+        compiler.attributeNames.toArray(new String[0]),
+        compiler.fallbackNodes == 0);
+  }
+
+  private final SimpleFeatureType featureType;
+  private final List<String> attributeNames = new ArrayList<>();
+  private int compiledNodes = 0;
+  private int fallbackNodes = 0;
+
+  private CQLPredicateCompiler(final SimpleFeatureType featureType) {
+    this.featureType = featureType;
+  }
+
+  private Predicate<EncodedFeature> compile(final Filter filter) {
+    Predicate<EncodedFeature> predicate = null;
+    if (filter instanceof IncludeFilter) {
+      predicate = f -> true;
+    } else if (filter instanceof ExcludeFilter) {
+      predicate = f -> false;
+    } else if (filter instanceof And) {
+      predicate = compileAnd(((And) filter).getChildren());
+    } else if (filter instanceof Or) {
+      predicate = compileOr((Or) filter);
+    } else if (filter instanceof Not) {
+      predicate = compile(((Not) filter).getFilter()).negate();
+    } else if (filter instanceof BinaryComparisonOperator) {
+      predicate = compileComparison((BinaryComparisonOperator) filter);
+    } else if (filter instanceof PropertyIsBetween) {
+      predicate = compileBetween((PropertyIsBetween) filter);
+    } else if (filter instanceof PropertyIsLike) {
+      predicate = compileLike((PropertyIsLike) filter);
+    } else if (filter instanceof PropertyIsNull) {
+      final Integer slot = getSlot(((PropertyIsNull) filter).getExpression(), false);
+      if (slot != null) {
+        final int s = slot;
+        predicate = f -> f.getAttribute(s) == null;
+      }
+    } else if (filter instanceof BinarySpatialOperator) {
+      predicate = compileSpatial((BinarySpatialOperator) filter);
+    }
+    if (predicate == null) {
+      fallbackNodes++;
+      return geotools(filter);
+    }
+    if (!(filter instanceof And) && !(filter instanceof Or) && !(filter instanceof Not)) {
+      compiledNodes++;
+    }
+    return predicate;
+  }
+
+  @SuppressWarnings("unchecked")
+  private Predicate<EncodedFeature> compileAnd(final List<Filter> children) {
+    final List<Predicate<EncodedFeature>> predicates = new ArrayList<>(children.size());
+    final List<Predicate<EncodedFeature>> fallbacks = new ArrayList<>();
+    for (final Filter child : children) {
+      final int fallbacksBefore = fallbackNodes;
+      final Predicate<EncodedFeature> predicate = compile(child);
+      // evaluate compiled children first so that the feature is only decoded if they all pass
+      if (fallbacksBefore == fallbackNodes) {
+        predicates.add(predicate);
+      } else {
+        fallbacks.add(predicate);
+      }
+    }
+    predicates.addAll(fallbacks);
+    final Predicate<EncodedFeature>[] array = predicates.toArray(new Predicate[0]);
+    return f -> {
+      for (final Predicate<EncodedFeature> p : array) {
+        if (!p.test(f)) {
+          return false;
+        }
+      }
+      return true;
+    };
+  }
+
+  @SuppressWarnings("unchecked")
+  private Predicate<EncodedFeature> compileOr(final Or filter) {
+    final Predicate<EncodedFeature> in = compileIn(filter);
+    if (in != null) {
+      return in;
+    }
+    final List<Filter> children = filter.getChildren();
+    final List<Predicate<EncodedFeature>> predicates = new ArrayList<>(children.size());
+    final List<Predicate<EncodedFeature>> fallbacks = new ArrayList<>();
+    for (final Filter child : children) {
+      final int fallbacksBefore = fallbackNodes;
+      final Predicate<EncodedFeature> predicate = compile(child);
+      if (fallbacksBefore == fallbackNodes) {
+        predicates.add(predicate);
+      } else {
+        fallbacks.add(predicate);
+      }
+    }
+    predicates.addAll(fallbacks);
+    final Predicate<EncodedFeature>[] array = predicates.toArray(new Predicate[0]);
+    return f -> {
+      for (final Predicate<EncodedFeature> p : array) {
+        if (p.test(f)) {
+          return true;
+        }
+      }
+      return false;
+    };
+  }
+
+  /**
+   * CQL IN is parsed as an OR of equalities on the same property, for strings and integral values
+   * this can be a set lookup.
+   */
+  private Predicate<EncodedFeature> compileIn(final Or filter) {
+    final List<Filter> children = filter.getChildren();
+    String propertyName = null;
+    final List<Object> values = new ArrayList<>(children.size());
+    for (final Filter child : children) {
+      if (!(child instanceof PropertyIsEqualTo) || !((PropertyIsEqualTo) child).isMatchingCase()) {
+        return null;
+      }
+      final PropertyIsEqualTo equalTo = (PropertyIsEqualTo) child;
+      final Expression property;
+      final Expression literal;
+      if (equalTo.getExpression2() instanceof Literal) {
+        property = equalTo.getExpression1();
+        literal = equalTo.getExpression2();
+      } else {
+        property = equalTo.getExpression2();
+        literal = equalTo.getExpression1();
+      }
+      if (!(property instanceof PropertyName) || !(literal instanceof Literal)) {
+        return null;
+      }
+      final String name = ((PropertyName) property).getPropertyName();
+      if (propertyName == null) {
+        propertyName = name;
+      } else if (!propertyName.equals(name)) {
+        return null;
+      }
+      values.add(((Literal) literal).getValue());
+    }
+    if (propertyName == null) {
+      return null;
+    }
+    final AttributeDescriptor descriptor = featureType.getDescriptor(propertyName);
+    if (descriptor == null) {
+      return null;
+    }
+    final Class<?> binding = descriptor.getType().getBinding();
+    final Set<Object> set = new HashSet<>();
+    final boolean integral = isIntegral(binding);
+    if (!integral && !String.class.equals(binding)) {
+      return null;
+    }
+    for (final Object value : values) {
+      if (integral) {
+        if (!(value instanceof Number) || !isIntegral(value.getClass())) {
+          return null;
+        }
+        set.add(((Number) value).longValue());
+      } else {
+        if (!(value instanceof String)) {
+          return null;
+        }
+        set.add(value);
+      }
+    }
+    final int slot = getSlot(propertyName);
+    final Predicate<EncodedFeature> geotools = geotools(filter);
+    compiledNodes++;
+    return f -> {
+      final Object value = f.getAttribute(slot);
+      if (integral) {
+        if ((value instanceof Number) && isIntegral(value.getClass())) {
+          return set.contains(((Number) value).longValue());
+        }
+      } else if (value instanceof String) {
+        return set.contains(value);
+      }
+      return geotools.test(f);
+    };
+  }
+
+  private Predicate<EncodedFeature> compileComparison(final BinaryComparisonOperator filter) {
+    final boolean reversed;
+    final Expression property;
+    final Expression literal;
+    if ((filter.getExpression1() instanceof PropertyName)
+        && (filter.getExpression2() instanceof Literal)) {
+      property = filter.getExpression1();
+      literal = filter.getExpression2();
+      reversed = false;
+    } else if ((filter.getExpression2() instanceof PropertyName)
+        && (filter.getExpression1() instanceof Literal)) {
+      property = filter.getExpression2();
+      literal = filter.getExpression1();
+      reversed = true;
+    } else {
+      return null;
+    }
+    final Integer slot = getSlot(property, false);
+    if (slot == null) {
+      return null;
+    }
+    final Class<?> binding =
+        featureType.getDescriptor(attributeNames.get(slot)).getType().getBinding();
+    final Object value = getComparableLiteral(((Literal) literal).getValue(), binding);
+    if (value == null) {
+      return null;
+    }
+    final boolean matchCase = filter.isMatchingCase();
+    final Predicate<EncodedFeature> geotools = geotools(filter);
+    final int s = slot;
+    if ((filter instanceof PropertyIsEqualTo) || (filter instanceof PropertyIsNotEqualTo)) {
+      final boolean negate = filter instanceof PropertyIsNotEqualTo;
+      return f -> {
+        final Boolean equal = isEqual(f.getAttribute(s), value, matchCase);
+        if (equal == null) {
+          return geotools.test(f);
+        }
+        return negate ? !equal : equal;
+      };
+    }
+    if (!matchCase && String.class.equals(binding)) {
+      return null;
+    }
+    final ComparisonTest test;
+    if (filter instanceof PropertyIsLessThan) {
+      test = reversed ? c -> c > 0 : c -> c < 0;
+    } else if (filter instanceof PropertyIsLessThanOrEqualTo) {
+      test = reversed ? c -> c >= 0 : c -> c <= 0;
+    } else if (filter instanceof PropertyIsGreaterThan) {
+      test = reversed ? c -> c < 0 : c -> c > 0;
+    } else if (filter instanceof PropertyIsGreaterThanOrEqualTo) {
+      test = reversed ? c -> c <= 0 : c -> c >= 0;
+    } else {
+      return null;
+    }
+    return f -> {
+      final Integer comparison = compare(f.getAttribute(s), value);
+      if (comparison == null) {
+        return geotools.test(f);
+      }
+      return test.test(comparison);
+    };
+  }
+
+  private Predicate<EncodedFeature> compileBetween(final PropertyIsBetween filter) {
+    if (!(filter.getLowerBoundary() instanceof Literal)
+        || !(filter.getUpperBoundary() instanceof Literal)) {
+      return null;
+    }
+    final Integer slot = getSlot(filter.getExpression(), false);
+    if (slot == null) {
+      return null;
+    }
+    final Class<?> binding =
+        featureType.getDescriptor(attributeNames.get(slot)).getType().getBinding();
+    final Object lower =
+        getComparableLiteral(((Literal) filter.getLowerBoundary()).getValue(), binding);
+    final Object upper =
+        getComparableLiteral(((Literal) filter.getUpperBoundary()).getValue(), binding);
+    if ((lower == null) || (upper == null)) {
+      return null;
+    }
+    final Predicate<EncodedFeature> geotools = geotools(filter);
+    final int s = slot;
+    return f -> {
+      final Object value = f.getAttribute(s);
+      final Integer lowerComparison = compare(value, lower);
+      final Integer upperComparison = compare(value, upper);
+      if ((lowerComparison == null) || (upperComparison == null)) {
+        return geotools.test(f);
+      }
+      return (lowerComparison >= 0) && (upperComparison <= 0);
+    };
+  }
+
+  private Predicate<EncodedFeature> compileLike(final PropertyIsLike filter) {
+    final String pattern = filter.getLiteral();
+    final String wildCard = filter.getWildCard();
+    if ((pattern == null) || (wildCard == null) || !pattern.endsWith(wildCard)) {
+      return null;
+    }
+    final String prefix = pattern.substring(0, pattern.length() - wildCard.length());
+    if (containsSpecial(prefix, wildCard)
+        || containsSpecial(prefix, filter.getSingleChar())
+        || containsSpecial(prefix, filter.getEscape())) {
+      return null;
+    }
+    final Integer slot = getSlot(filter.getExpression(), false);
+    if ((slot == null)
+        || !String.class.equals(
+            featureType.getDescriptor(attributeNames.get(slot)).getType().getBinding())) {
+      return null;
+    }
+    final boolean matchCase = filter.isMatchingCase();
+    final Predicate<EncodedFeature> geotools = geotools(filter);
+    final int s = slot;
+    return f -> {
+      final Object value = f.getAttribute(s);
+      if (!(value instanceof String)) {
+        return geotools.test(f);
+      }
+      return ((String) value).regionMatches(!matchCase, 0, prefix, 0, prefix.length());
+    };
+  }
+
+  private Predicate<EncodedFeature> compileSpatial(final BinarySpatialOperator filter) {
+    final SpatialTest test;
+    if ((filter instanceof Intersects) || (filter instanceof BBOX)) {
+      test = PreparedGeometry::intersects;
+    } else if (filter instanceof Within) {
+      // the attribute is within the literal, so the literal contains the attribute
+      test = PreparedGeometry::contains;
+    } else if (filter instanceof Contains) {
+      test = PreparedGeometry::within;
+    } else if (filter instanceof Disjoint) {
+      test = PreparedGeometry::disjoint;
+    } else {
+      return null;
+    }
+    if (!(filter.getExpression1() instanceof PropertyName)
+        || !(filter.getExpression2() instanceof Literal)) {
+      return null;
+    }
+    final Object literal = ((Literal) filter.getExpression2()).getValue();
+    if ((literal instanceof ReferencedEnvelope)
+        && (((ReferencedEnvelope) literal).getCoordinateReferenceSystem() != null)
+        && !CRS.equalsIgnoreMetadata(
+            ((ReferencedEnvelope) literal).getCoordinateReferenceSystem(),
+            featureType.getCoordinateReferenceSystem())) {
+      // GeoTools reprojects a bounding box in a different CRS
+      return null;
+    }
+    final Geometry geometry = toGeometry(literal);
+    if (geometry == null) {
+      return null;
+    }
+    final Integer slot = getSlot(filter.getExpression1(), true);
+    if (slot == null) {
+      return null;
+    }
+    final PreparedGeometry prepared = PREPARED_GEOMETRY_FACTORY.create(geometry);
+    final Predicate<EncodedFeature> geotools = geotools(filter);
+    final int s = slot;
+    return f -> {
+      final Object value = f.getAttribute(s);
+      if (!(value instanceof Geometry)) {
+        return geotools.test(f);
+      }
+      return test.test(prepared, (Geometry) value);
+    };
+  }
+
+  private static Predicate<EncodedFeature> geotools(final Filter filter) {
+    return f -> {
+      final SimpleFeature feature = f.getFeature();
+      if (feature == null) {
+        // returning false would make a NOT of this part match
+        throw UNDECODABLE_FEATURE;
+      }
+      return filter.evaluate(feature);
+    };
+  }
+
+  private Integer getSlot(final Expression expression, final boolean allowDefaultGeometry) {
+    if (!(expression instanceof PropertyName)) {
+      return null;
+    }
+    String name = ((PropertyName) expression).getPropertyName();
+    if ((name == null) || name.isEmpty()) {
+      if (!allowDefaultGeometry || (featureType.getGeometryDescriptor() == null)) {
+        return null;
+      }
+      name = featureType.getGeometryDescriptor().getLocalName();
+    }
+    if (featureType.getDescriptor(name) == null) {
+      return null;
+    }
+    return getSlot(name);
+  }
+
+  private int getSlot(final String name) {
+    final int slot = attributeNames.indexOf(name);
+    if (slot >= 0) {
+      return slot;
+    }
+    attributeNames.add(name);
+    return attributeNames.size() - 1;
+  }
+
+  private static boolean containsSpecial(final String prefix, final String special) {
+    return (special != null) && !special.isEmpty() && prefix.contains(special);
+  }
+
+  /**
+   * @return the literal if it can be compared with values of the binding, or null if GeoTools has
+   *         to convert between their types, such as comparing a string attribute numerically
+   */
+  private static Object getComparableLiteral(final Object literal, final Class<?> binding) {
+    if (literal == null) {
+      return null;
+    }
+    if (Number.class.isAssignableFrom(binding)) {
+      return literal instanceof Number ? literal : null;
+    }
+    if ((String.class.equals(binding)
+        || Date.class.isAssignableFrom(binding)
+        || Boolean.class.equals(binding)) && binding.isInstance(literal)) {
+      return literal;
+    }
+    return null;
+  }
+
+  private static Geometry toGeometry(final Object literal) {
+    if (literal instanceof Geometry) {
+      return (Geometry) literal;
+    }
+    if (literal instanceof Envelope) {
+      return JTS.toGeometry((Envelope) literal);
+    }
+    return null;
+  }
+
+  private static boolean isIntegral(final Class<?> type) {
+    return Long.class.equals(type)
+        || Integer.class.equals(type)
+        || Short.class.equals(type)
+        || Byte.class.equals(type);
+  }
+
+  private static boolean isPrimitiveNumber(final Class<?> type) {
+    return isIntegral(type) || Double.class.equals(type) || Float.class.equals(type);
+  }
+
+  /** @return whether an integral value survives the conversion to double unchanged */
+  private static boolean isExactDouble(final Number number, final double value) {
+    return !isIntegral(number.getClass())
+        || ((Math.abs(value) < 0x1p63) && ((long) value == number.longValue()));
+  }
+
+  /** @return whether the values are equal, or null if they are not comparable */
+  private static Boolean isEqual(
+      final Object value,
+      final Object literal,
+      final boolean matchCase) {
+    if (value == null) {
+      return null;
+    }
+    if ((value instanceof String) && (literal instanceof String)) {
+      return matchCase ? value.equals(literal)
+          : ((String) value).equalsIgnoreCase((String) literal);
+    }
+    final Integer comparison = compare(value, literal);
+    if (comparison == null) {
+      if (!(value instanceof Number) && value.getClass().equals(literal.getClass())) {
+        return value.equals(literal);
+      }
+      return null;
+    }
+    return comparison == 0;
+  }
+
+  /** @return the comparison of the values, or null if they are not comparable */
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  private static Integer compare(final Object value, final Object literal) {
+    if (value == null) {
+      return null;
+    }
+    if ((value instanceof Number) && (literal instanceof Number)) {
+      if (isIntegral(value.getClass()) && isIntegral(literal.getClass())) {
+        return Long.compare(((Number) value).longValue(), ((Number) literal).longValue());
+      }
+      if (!isPrimitiveNumber(value.getClass()) || !isPrimitiveNumber(literal.getClass())) {
+        return null;
+      }
+      final double v = ((Number) value).doubleValue();
+      final double l = ((Number) literal).doubleValue();
+      if (Double.isNaN(v)
+          || Double.isNaN(l)
+          || !isExactDouble((Number) value, v)
+          || !isExactDouble((Number) literal, l)) {
+        return null;
+      }
+      if ((v == 0) && (l == 0) && (Double.compare(v, l) != 0)) {
+        // signed zeros are equal to GeoTools but not to Double.compare
+        return null;
+      }
+      if ((value instanceof Float) != (literal instanceof Float)
+          && (((Number) value).floatValue() == ((Number) literal).floatValue())) {
+        // GeoTools may compare at float precision, which would make these equal
+        return null;
+      }
+      return Double.compare(v, l);
+    }
+    if ((value instanceof Date) && (literal instanceof Date)) {
+      return Long.compare(((Date) value).getTime(), ((Date) literal).getTime());
+    }
+    if ((value instanceof Comparable) && value.getClass().equals(literal.getClass())) {
+      return ((Comparable) value).compareTo(literal);
+    }
+    return null;
+  }
+
+  /** Stops evaluating a row that needs the decoded feature when it cannot be decoded */
+  private static class UndecodableFeatureException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    private UndecodableFeatureException() {
+      super("Feature cannot be decoded", null, false, false);
+    }
+  }
+
+  @FunctionalInterface
+  private static interface ComparisonTest {
+    boolean test(int comparison);
+  }
+
+  @FunctionalInterface
+  private static interface SpatialTest {
+    boolean test(PreparedGeometry literal, Geometry attribute);
+  }
+}
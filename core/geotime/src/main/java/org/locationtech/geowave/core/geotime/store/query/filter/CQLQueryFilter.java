@@ -10,8 +10,11 @@ package org.locationtech.geowave.core.geotime.store.query.filter;
 
 import java.net.MalformedURLException;
 import java.nio.ByteBuffer;
+import java.util.Arrays;
 import org.geotools.filter.text.ecql.ECQL;
 import org.locationtech.geowave.core.geotime.store.GeotoolsFeatureDataAdapter;
+import org.locationtech.geowave.core.geotime.store.query.filter.CQLPredicateCompiler.CompiledPredicate;
+import org.locationtech.geowave.core.geotime.store.query.filter.CQLPredicateCompiler.EncodedFeature;
 import org.locationtech.geowave.core.geotime.util.FilterToCQLTool;
 import org.locationtech.geowave.core.geotime.util.GeometryUtils;
 import org.locationtech.geowave.core.index.ByteArrayUtils;
@@ -19,11 +22,17 @@ import org.locationtech.geowave.core.index.StringUtils;
 import org.locationtech.geowave.core.index.VarintUtils;
 import org.locationtech.geowave.core.index.persist.PersistenceUtils;
 import org.locationtech.geowave.core.store.adapter.AbstractAdapterPersistenceEncoding;
+import org.locationtech.geowave.core.store.adapter.AbstractDataAdapter;
+import org.locationtech.geowave.core.store.adapter.IndexFieldHandler;
 import org.locationtech.geowave.core.store.adapter.IndexedAdapterPersistenceEncoding;
+import org.locationtech.geowave.core.store.adapter.LazyReadPersistenceEncoding;
 import org.locationtech.geowave.core.store.data.IndexedPersistenceEncoding;
 import org.locationtech.geowave.core.store.data.MultiFieldPersistentDataset;
 import org.locationtech.geowave.core.store.data.PersistentDataset;
+import org.locationtech.geowave.core.store.data.PersistentValue;
+import org.locationtech.geowave.core.store.dimension.NumericDimensionField;
 import org.locationtech.geowave.core.store.index.CommonIndexModel;
+import org.locationtech.geowave.core.store.index.CommonIndexValue;
 import org.locationtech.geowave.core.store.index.IndexImpl;
 import org.locationtech.geowave.core.store.query.filter.QueryFilter;
 import org.opengis.feature.simple.SimpleFeature;
@@ -35,6 +44,9 @@ public class CQLQueryFilter implements QueryFilter {
   private static final Logger LOGGER = LoggerFactory.getLogger(CQLQueryFilter.class);
   private GeotoolsFeatureDataAdapter adapter;
   private Filter filter;
+  private volatile boolean compiled = false;
+  private CompiledPredicate compiledPredicate;
+  private AttributeLocations attributeLocations;
 
   public CQLQueryFilter() {
     super();
@@ -54,51 +66,20 @@ public class CQLQueryFilter implements QueryFilter {
       final CommonIndexModel indexModel,
       final IndexedPersistenceEncoding persistenceEncoding) {
     if ((filter != null) && (indexModel != null) && (adapter != null)) {
-      final PersistentDataset<Object> adapterExtendedValues = new MultiFieldPersistentDataset<>();
-      if (persistenceEncoding instanceof AbstractAdapterPersistenceEncoding) {
-        ((AbstractAdapterPersistenceEncoding) persistenceEncoding).convertUnknownValues(
-            adapter,
-            indexModel);
-        final PersistentDataset<Object> existingExtValues =
-            ((AbstractAdapterPersistenceEncoding) persistenceEncoding).getAdapterExtendedData();
-
-        if (persistenceEncoding.isAsync()) {
+      final CompiledPredicate predicate = getCompiledPredicate();
+      if (predicate != null) {
+        if ((persistenceEncoding instanceof AbstractAdapterPersistenceEncoding)
+            && persistenceEncoding.isAsync()) {
           return false;
         }
-        if (existingExtValues != null) {
-          adapterExtendedValues.addValues(existingExtValues.getValues());
-        }
+        return predicate.test(
+            new EncodedFeatureValues(
+                predicate,
+                getAttributeLocations(indexModel, predicate),
+                indexModel,
+                persistenceEncoding));
       }
-      final IndexedAdapterPersistenceEncoding encoding =
-          new IndexedAdapterPersistenceEncoding(
-              persistenceEncoding.getInternalAdapterId(),
-              persistenceEncoding.getDataId(),
-              persistenceEncoding.getInsertionPartitionKey(),
-              persistenceEncoding.getInsertionSortKey(),
-              persistenceEncoding.getDuplicateCount(),
-              persistenceEncoding.getCommonData(),
-              new MultiFieldPersistentDataset<byte[]>(),
-              adapterExtendedValues);
-
-      final SimpleFeature feature =
-          (SimpleFeature) adapter.decode(
-              encoding,
-              new IndexImpl(
-                  null, // because we
-                  // know the
-                  // feature data
-                  // adapter doesn't use the numeric
-                  // index
-                  // strategy and only the common
-                  // index
-                  // model to decode the simple
-                  // feature,
-                  // we pass along a null strategy to
-                  // eliminate the necessity to send a
-                  // serialization of the strategy in
-                  // the
-                  // options of this iterator
-                  indexModel));
+      final SimpleFeature feature = decodeFeature(indexModel, persistenceEncoding);
       if (feature == null) {
         return false;
       }
@@ -107,6 +88,219 @@ public class CQLQueryFilter implements QueryFilter {
     return true;
   }
 
+  private SimpleFeature decodeFeature(
+      final CommonIndexModel indexModel,
+      final IndexedPersistenceEncoding persistenceEncoding) {
+    final PersistentDataset<Object> adapterExtendedValues = new MultiFieldPersistentDataset<>();
+    if (persistenceEncoding instanceof AbstractAdapterPersistenceEncoding) {
+      ((AbstractAdapterPersistenceEncoding) persistenceEncoding).convertUnknownValues(
+          adapter,
+          indexModel);
+      final PersistentDataset<Object> existingExtValues =
+          ((AbstractAdapterPersistenceEncoding) persistenceEncoding).getAdapterExtendedData();
+
+      if (persistenceEncoding.isAsync()) {
+        return null;
+      }
+      if (existingExtValues != null) {
+        adapterExtendedValues.addValues(existingExtValues.getValues());
+      }
+    }
+    final IndexedAdapterPersistenceEncoding encoding =
+        new IndexedAdapterPersistenceEncoding(
+            persistenceEncoding.getInternalAdapterId(),
+            persistenceEncoding.getDataId(),
+            persistenceEncoding.getInsertionPartitionKey(),
+            persistenceEncoding.getInsertionSortKey(),
+            persistenceEncoding.getDuplicateCount(),
+            persistenceEncoding.getCommonData(),
+            new MultiFieldPersistentDataset<byte[]>(),
+            adapterExtendedValues);
+
+    return (SimpleFeature) adapter.decode(
+        encoding,
+        new IndexImpl(
+            null, // because we
+            // know the
+            // feature data
+            // adapter doesn't use the numeric
+            // index
+            // strategy and only the common
+            // index
+            // model to decode the simple
+            // feature,
+            // we pass along a null strategy to
+            // eliminate the necessity to send a
+            // serialization of the strategy in
+            // the
+            // options of this iterator
+            indexModel));
+  }
+
+  private CompiledPredicate getCompiledPredicate() {
+    if (!compiled) {
+      // the filter can only be compiled for adapters that expose how attributes map to the index
+      if (adapter instanceof AbstractDataAdapter) {
+        try {
+          compiledPredicate = CQLPredicateCompiler.compile(filter, adapter.getFeatureType());
+        } catch (final Exception e) {
+          LOGGER.warn("Unable to compile CQL filter, it will be evaluated on decoded features", e);
+        }
+      }
+      compiled = true;
+    }
+    return compiledPredicate;
+  }
+
+  /**
+   * Determine for each attribute referenced by the predicate whether it is stored as part of an
+   * index field or as an adapter extended field. This only depends on the index model so it is
+   * cached for the most recently used model.
+   */
+  @SuppressWarnings("unchecked")
+  private AttributeLocation[] getAttributeLocations(
+      final CommonIndexModel indexModel,
+      final CompiledPredicate predicate) {
+    final AttributeLocations cached = attributeLocations;
+    if ((cached != null) && (cached.indexModel == indexModel)) {
+      return cached.locations;
+    }
+    final AbstractDataAdapter<?> dataAdapter = (AbstractDataAdapter<?>) adapter;
+    final String[] attributeNames = predicate.getAttributeNames();
+    final AttributeLocation[] locations = new AttributeLocation[attributeNames.length];
+    final NumericDimensionField<? extends CommonIndexValue>[] dimensions =
+        indexModel.getDimensions();
+    for (int i = 0; i < attributeNames.length; i++) {
+      for (final NumericDimensionField<? extends CommonIndexValue> dimension : dimensions) {
+        final IndexFieldHandler<?, CommonIndexValue, Object> fieldHandler =
+            (IndexFieldHandler<?, CommonIndexValue, Object>) dataAdapter.getFieldHandler(dimension);
+        if ((fieldHandler != null)
+            && Arrays.asList(fieldHandler.getNativeFieldNames()).contains(attributeNames[i])) {
+          locations[i] = new AttributeLocation(dimension.getFieldName(), fieldHandler);
+          break;
+        }
+      }
+    }
+    attributeLocations = new AttributeLocations(indexModel, locations);
+    return locations;
+  }
+
+  private static class AttributeLocations {
+    private final CommonIndexModel indexModel;
+    private final AttributeLocation[] locations;
+
+    public AttributeLocations(
+        final CommonIndexModel indexModel,
+        final AttributeLocation[] locations) {
+      this.indexModel = indexModel;
+      this.locations = locations;
+    }
+  }
+
+  /** An attribute that is stored as (part of) a common index value */
+  private static class AttributeLocation {
+    private final String indexFieldName;
+    private final IndexFieldHandler<?, CommonIndexValue, Object> fieldHandler;
+
+    public AttributeLocation(
+        final String indexFieldName,
+        final IndexFieldHandler<?, CommonIndexValue, Object> fieldHandler) {
+      this.indexFieldName = indexFieldName;
+      this.fieldHandler = fieldHandler;
+    }
+  }
+
+  /**
+   * Reads the attributes referenced by a compiled predicate directly from the persistence encoding,
+   * only decoding the full feature if part of the filter could not be compiled.
+   */
+  private class EncodedFeatureValues implements EncodedFeature {
+    private final String[] attributeNames;
+    private final AttributeLocation[] locations;
+    private final CommonIndexModel indexModel;
+    private final IndexedPersistenceEncoding<?> persistenceEncoding;
+    private final Object[] values;
+    private final boolean[] read;
+    private boolean unknownValuesConverted = false;
+    private boolean featureDecoded = false;
+    private SimpleFeature feature;
+
+    public EncodedFeatureValues(
+        final CompiledPredicate predicate,
+        final AttributeLocation[] locations,
+        final CommonIndexModel indexModel,
+        final IndexedPersistenceEncoding<?> persistenceEncoding) {
+      attributeNames = predicate.getAttributeNames();
+      this.locations = locations;
+      this.indexModel = indexModel;
+      this.persistenceEncoding = persistenceEncoding;
+      values = new Object[attributeNames.length];
+      read = new boolean[values.length];
+    }
+
+    @Override
+    public Object getAttribute(final int slot) {
+      if (!read[slot]) {
+        values[slot] = readAttribute(slot);
+        read[slot] = true;
+      }
+      return values[slot];
+    }
+
+    private Object readAttribute(final int slot) {
+      final String attributeName = attributeNames[slot];
+      final AttributeLocation location = locations[slot];
+      if (location != null) {
+        final CommonIndexValue indexValue;
+        if (persistenceEncoding instanceof LazyReadPersistenceEncoding) {
+          indexValue =
+              ((LazyReadPersistenceEncoding) persistenceEncoding).getCommonIndexValue(
+                  location.indexFieldName);
+        } else {
+          indexValue =
+              (CommonIndexValue) persistenceEncoding.getCommonData().getValue(
+                  location.indexFieldName);
+        }
+        if (indexValue == null) {
+          return null;
+        }
+        final PersistentValue<Object>[] nativeValues =
+            location.fieldHandler.toNativeValues(indexValue);
+        if (nativeValues != null) {
+          for (final PersistentValue<Object> nativeValue : nativeValues) {
+            if (attributeName.equals(nativeValue.getFieldName())) {
+              return nativeValue.getValue();
+            }
+          }
+        }
+        return null;
+      }
+      if (persistenceEncoding instanceof LazyReadPersistenceEncoding) {
+        return ((LazyReadPersistenceEncoding) persistenceEncoding).getAdapterExtendedValue(
+            attributeName);
+      }
+      if (persistenceEncoding instanceof AbstractAdapterPersistenceEncoding) {
+        final AbstractAdapterPersistenceEncoding adapterEncoding =
+            (AbstractAdapterPersistenceEncoding) persistenceEncoding;
+        if (!unknownValuesConverted) {
+          adapterEncoding.convertUnknownValues(adapter, indexModel);
+          unknownValuesConverted = true;
+        }
+        return adapterEncoding.getAdapterExtendedData().getValue(attributeName);
+      }
+      return null;
+    }
+
+    @Override
+    public SimpleFeature getFeature() {
+      if (!featureDecoded) {
+        feature = decodeFeature(indexModel, persistenceEncoding);
+        featureDecoded = true;
+      }
+      return feature;
+    }
+  }
+
   @Override
   public byte[] toBinary() {
     byte[] filterBytes;
@@ -141,6 +335,9 @@ public class CQLQueryFilter implements QueryFilter {
     } catch (final MalformedURLException e) {
       LOGGER.error("Unable to initialize GeoTools class loader", e);
     }
+    compiled = false;
+    compiledPredicate = null;
+    attributeLocations = null;
     final ByteBuffer buf = ByteBuffer.wrap(bytes);
     final int filterBytesLength = VarintUtils.readUnsignedInt(buf);
     if (filterBytesLength > 0) {
@@ -15,6 +15,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 import org.locationtech.geowave.core.geotime.store.dimension.GeometryWrapper;
+import org.locationtech.geowave.core.geotime.store.query.filter.TiledPreparedGeometry.Tile;
 import org.locationtech.geowave.core.geotime.util.GeometryUtils;
 import org.locationtech.geowave.core.index.ByteArrayUtils;
 import org.locationtech.geowave.core.index.StringUtils;
@@ -27,6 +28,7 @@ import org.locationtech.geowave.core.store.dimension.NumericDimensionField;
 import org.locationtech.geowave.core.store.index.CommonIndexModel;
 import org.locationtech.geowave.core.store.query.filter.BasicQueryFilter;
 import org.locationtech.geowave.core.store.util.GenericTypeResolver;
+import org.locationtech.jts.geom.Envelope;
 import org.locationtech.jts.geom.Geometry;
 import org.locationtech.jts.geom.prep.PreparedGeometry;
 import org.locationtech.jts.geom.prep.PreparedGeometryFactory;
@@ -271,7 +273,7 @@ public class SpatialQueryFilter extends BasicQueryFilter {
       }
       if ((geomObj != null) && (geomObj instanceof GeometryWrapper)) {
         final GeometryWrapper geom = (GeometryWrapper) geomObj;
-        if (geometryPasses(geom.getGeometry())) {
+        if (geometryPasses(geom)) {
           geometryPasses = true;
           break;
         }
@@ -289,6 +291,74 @@ public class SpatialQueryFilter extends BasicQueryFilter {
     return super.accept(indexModel, persistenceEncoding);
   }
 
+  private boolean geometryPasses(final GeometryWrapper dataGeometry) {
+    final Envelope dataEnvelope = dataGeometry.getEnvelopeIfAvailable();
+    if ((dataEnvelope != null) && (preparedGeometryImage != null)) {
+      final Boolean envelopeResult = envelopePasses(dataEnvelope, preparedGeometryImage);
+      if (envelopeResult != null) {
+        return envelopeResult;
+      }
+      if ((compareOperation == CompareOperation.INTERSECTS)
+          || (compareOperation == CompareOperation.DISJOINT)) {
+        final TiledPreparedGeometry tiles = preparedGeometryImage.getTiles();
+        if ((tiles != null) && !dataEnvelope.isNull()) {
+          return tilePasses(dataGeometry, tiles.locate(dataEnvelope));
+        }
+      }
+    }
+    return geometryPasses(dataGeometry.getGeometry());
+  }
+
+  /**
+   * Decide an intersects or disjoint comparison using the tile of a large query geometry that the
+   * data envelope falls within, so that only data near the boundary of the query geometry is
+   * compared, and then only against the part of the query geometry within that tile.
+   */
+  private boolean tilePasses(final GeometryWrapper dataGeometry, final Tile tile) {
+    final boolean intersects;
+    switch (tile.getType()) {
+      case INSIDE:
+        intersects = true;
+        break;
+      case OUTSIDE:
+        intersects = false;
+        break;
+      default:
+        final Geometry geometry = dataGeometry.getGeometry();
+        if (geometry == null) {
+          return false;
+        }
+        intersects = tile.getGeometry().intersects(geometry);
+    }
+    return (compareOperation == CompareOperation.INTERSECTS) == intersects;
+  }
+
+  /**
+   * Decide the comparison from the data envelope alone when possible, which avoids decoding the
+   * data geometry for the rows that the index ranges over-include.
+   *
+   * @return the result of the comparison or null if the envelope is insufficient to decide it
+   */
+  private Boolean envelopePasses(final Envelope dataEnvelope, final GeometryImage queryImage) {
+    final Envelope queryEnvelope = queryImage.getEnvelope();
+    if (dataEnvelope.isNull() || queryEnvelope.isNull()) {
+      return null;
+    }
+    if (!queryEnvelope.intersects(dataEnvelope)) {
+      // every comparison other than disjoint requires the geometries to share at least one point
+      return compareOperation == CompareOperation.DISJOINT;
+    }
+    if (queryImage.isRectangle() && queryEnvelope.covers(dataEnvelope)) {
+      // a rectangle covering the data envelope covers every point of the data geometry
+      if (compareOperation == CompareOperation.INTERSECTS) {
+        return true;
+      } else if (compareOperation == CompareOperation.DISJOINT) {
+        return false;
+      }
+    }
+    return null;
+  }
+
   private boolean geometryPasses(final Geometry dataGeometry) {
     if (dataGeometry == null) {
       return false;
@@ -367,11 +437,16 @@ public class SpatialQueryFilter extends BasicQueryFilter {
 
     public byte[] geometryBinary;
     public PreparedGeometry preparedGeometry = null;
+    private Envelope envelope = null;
+    private boolean rectangle = false;
+    private volatile boolean tilesInitialized = false;
+    private TiledPreparedGeometry tiles = null;
 
     public GeometryImage(final PreparedGeometry preparedGeometry) {
       super();
       this.preparedGeometry = preparedGeometry;
       geometryBinary = GeometryUtils.geometryToBinary(preparedGeometry.getGeometry(), null);
+      initEnvelope();
     }
 
     public GeometryImage(final byte[] geometryBinary) {
@@ -381,14 +456,54 @@ public class SpatialQueryFilter extends BasicQueryFilter {
 
     public synchronized void init() {
       if (preparedGeometry == null) {
-        preparedGeometry = FACTORY.create(GeometryUtils.geometryFromBinary(geometryBinary, null));
+        // reuse the prepared geometry of a previously tiled query geometry if there is one
+        tiles = TiledPreparedGeometry.getIfPresent(geometryBinary);
+        if (tiles != null) {
+          preparedGeometry = tiles.getPreparedGeometry();
+          tilesInitialized = true;
+        } else {
+          preparedGeometry = FACTORY.create(GeometryUtils.geometryFromBinary(geometryBinary, null));
+        }
+        initEnvelope();
       }
     }
 
+    /**
+     * @return the tiled query geometry if it is large enough to benefit from tiling, otherwise null
+     */
+    public TiledPreparedGeometry getTiles() {
+      if (!tilesInitialized) {
+        synchronized (this) {
+          if (!tilesInitialized) {
+            final Geometry geometry = preparedGeometry.getGeometry();
+            if (TiledPreparedGeometry.isTileable(geometry)) {
+              tiles = TiledPreparedGeometry.get(geometryBinary, geometry);
+            }
+            tilesInitialized = true;
+          }
+        }
+      }
+      return tiles;
+    }
+
+    private void initEnvelope() {
+      final Geometry geometry = preparedGeometry.getGeometry();
+      envelope = geometry.getEnvelopeInternal();
+      rectangle = geometry.isRectangle();
+    }
+
     public PreparedGeometry getGeometry() {
       return preparedGeometry;
     }
 
+    public Envelope getEnvelope() {
+      return envelope;
+    }
+
+    public boolean isRectangle() {
+      return rectangle;
+    }
+
     @Override
     public int hashCode() {
       final int prime = 31;
@@ -0,0 +1,253 @@
+/**
+ * Copyright (c) 2013-2019 Contributors to the Eclipse Foundation
+ *
+ * <p> See the NOTICE file distributed with this work for additional information regarding copyright
+ * ownership. All rights reserved. This program and the accompanying materials are made available
+ * under the terms of the Apache License, Version 2.0 which accompanies this distribution and is
+ * available at http://www.apache.org/licenses/LICENSE-2.0.txt
+ */
+package org.locationtech.geowave.core.geotime.store.query.filter;
+
+import java.util.concurrent.TimeUnit;
+import org.locationtech.geowave.core.index.ByteArray;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.Polygonal;
+import org.locationtech.jts.geom.TopologyException;
+import org.locationtech.jts.geom.prep.PreparedGeometry;
+import org.locationtech.jts.geom.prep.PreparedGeometryFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * A large polygonal query geometry that has been split into a quadtree of tiles. Each tile is
+ * classified as inside the query geometry, outside of it, or on its boundary, and boundary tiles
+ * keep a prepared geometry clipped to the tile. Data geometries that fall within an inside or
+ * outside tile can then be answered without any geometric comparison, and the rest only need to be
+ * compared against the much smaller clipped geometry of their tile.
+ *
+ * <p> Tiling is relatively expensive, so tiled geometries are cached by their binary encoding and
+ * reused across queries that filter by the same geometry.
+ */
+public class TiledPreparedGeometry {
+  private static final Logger LOGGER = LoggerFactory.getLogger(TiledPreparedGeometry.class);
+
+  /** Geometries with fewer vertices than this are cheap enough to compare directly */
+  private static final int MIN_TILED_VERTICES = 1000;
+  /** Tiles are subdivided until the clipped geometry has no more than this many vertices */
+  private static final int MAX_TILE_VERTICES = 256;
+  private static final int MAX_DEPTH = 8;
+  private static final long MAX_CACHED_VERTICES = 10_000_000L;
+
+  private static final PreparedGeometryFactory PREPARED_GEOMETRY_FACTORY =
+      new PreparedGeometryFactory();
+  private static final Cache<ByteArray, TiledPreparedGeometry> CACHE =
+      Caffeine.newBuilder().maximumWeight(MAX_CACHED_VERTICES).weigher(
+          TiledPreparedGeometry::weigh).expireAfterAccess(1, TimeUnit.HOURS).build();
+
+  public static enum TileType {
+    INSIDE, OUTSIDE, BOUNDARY
+  }
+
+  /** A leaf tile, or the result of locating an envelope that spans several tiles */
+  public static class Tile {
+    private final TileType type;
+    private final PreparedGeometry geometry;
+
+    private Tile(final TileType type, final PreparedGeometry geometry) {
+      this.type = type;
+      this.geometry = geometry;
+    }
+
+    public TileType getType() {
+      return type;
+    }
+
+    /**
+     * @return for a boundary tile, the query geometry clipped to the tile (or the full query
+     *         geometry if the located envelope spans tiles), otherwise null
+     */
+    public PreparedGeometry getGeometry() {
+      return geometry;
+    }
+  }
+
+  private static final Tile INSIDE = new Tile(TileType.INSIDE, null);
+  private static final Tile OUTSIDE = new Tile(TileType.OUTSIDE, null);
+
+  private static class Node {
+    private final Envelope envelope;
+    private Tile tile;
+    private Node[] children;
+
+    private Node(final Envelope envelope) {
+      this.envelope = envelope;
+    }
+  }
+
+  private final PreparedGeometry preparedGeometry;
+  private final Tile whole;
+  private final Node root;
+  private int vertexCount;
+
+  private TiledPreparedGeometry(final Geometry geometry) {
+    preparedGeometry = PREPARED_GEOMETRY_FACTORY.create(geometry);
+    whole = new Tile(TileType.BOUNDARY, preparedGeometry);
+    vertexCount = geometry.getNumPoints();
+    root = new Node(geometry.getEnvelopeInternal());
+    subdivide(root, geometry, 0);
+  }
+
+  /**
+   * Determine whether a geometry is large enough to benefit from tiling.
+   *
+   * @param geometry the query geometry
+   * @return true if it should be tiled
+   */
+  public static boolean isTileable(final Geometry geometry) {
+    return (geometry instanceof Polygonal)
+        && !geometry.isEmpty()
+        && (geometry.getNumPoints() >= MIN_TILED_VERTICES);
+  }
+
+  /**
+   * Get a previously tiled geometry from the cache.
+   *
+   * @param geometryBinary the binary encoding of the geometry
+   * @return the tiled geometry or null if it is not cached
+   */
+  public static TiledPreparedGeometry getIfPresent(final byte[] geometryBinary) {
+    return CACHE.getIfPresent(new ByteArray(geometryBinary));
+  }
+
+  /**
+   * Get the tiled geometry, tiling it if it is not already cached.
+   *
+   * @param geometryBinary the binary encoding of the geometry, used as the cache key
+   * @param geometry the geometry, which must be {@link #isTileable(Geometry) tileable}
+   * @return the tiled geometry
+   */
+  public static TiledPreparedGeometry get(final byte[] geometryBinary, final Geometry geometry) {
+    return CACHE.get(new ByteArray(geometryBinary), k -> new TiledPreparedGeometry(geometry));
+  }
+
+  private static int weigh(final ByteArray geometryBinary, final TiledPreparedGeometry tiled) {
+    return tiled.vertexCount;
+  }
+
+  /** @return the full query geometry, prepared */
+  public PreparedGeometry getPreparedGeometry() {
+    return preparedGeometry;
+  }
+
+  /**
+   * Locate the tile that the given envelope falls within. If the envelope spans several tiles the
+   * result is inside or outside only if all of those tiles are, otherwise it is a boundary tile
+   * with the full query geometry.
+   *
+   * @param envelope the envelope of a data geometry
+   * @return the tile
+   */
+  public Tile locate(final Envelope envelope) {
+    if (!root.envelope.intersects(envelope)) {
+      return OUTSIDE;
+    }
+    if (!root.envelope.covers(envelope)) {
+      return whole;
+    }
+    Node node = root;
+    while (node.children != null) {
+      Node next = null;
+      for (final Node child : node.children) {
+        if (child.envelope.covers(envelope)) {
+          next = child;
+          break;
+        }
+      }
+      if (next == null) {
+        final TileType type = uniformType(node, envelope);
+        if (type == TileType.INSIDE) {
+          return INSIDE;
+        } else if (type == TileType.OUTSIDE) {
+          return OUTSIDE;
+        }
+        return whole;
+      }
+      node = next;
+    }
+    return node.tile;
+  }
+
+  private static TileType uniformType(final Node node, final Envelope envelope) {
+    if (node.children == null) {
+      return node.tile.type == TileType.BOUNDARY ? null : node.tile.type;
+    }
+    TileType type = null;
+    for (final Node child : node.children) {
+      if (child.envelope.intersects(envelope)) {
+        final TileType childType = uniformType(child, envelope);
+        if ((childType == null) || ((type != null) && (type != childType))) {
+          return null;
+        }
+        type = childType;
+      }
+    }
+    return type;
+  }
+
+  private void subdivide(final Node node, final Geometry clipped, final int depth) {
+    if ((clipped.getNumPoints() <= MAX_TILE_VERTICES) || (depth >= MAX_DEPTH)) {
+      setBoundary(node, clipped);
+      return;
+    }
+    final Envelope env = node.envelope;
+    final double midX = env.getMinX() + (env.getWidth() / 2);
+    final double midY = env.getMinY() + (env.getHeight() / 2);
+    final Node[] children =
+        new Node[] {
+            new Node(new Envelope(env.getMinX(), midX, env.getMinY(), midY)),
+            new Node(new Envelope(midX, env.getMaxX(), env.getMinY(), midY)),
+            new Node(new Envelope(env.getMinX(), midX, midY, env.getMaxY())),
+            new Node(new Envelope(midX, env.getMaxX(), midY, env.getMaxY()))};
+    final GeometryFactory factory = clipped.getFactory();
+    final Geometry[] childGeometries = new Geometry[children.length];
+    try {
+      for (int i = 0; i < children.length; i++) {
+        childGeometries[i] = clipped.intersection(factory.toGeometry(children[i].envelope));
+      }
+    } catch (final TopologyException e) {
+      LOGGER.debug("Unable to clip query geometry, comparing against the enclosing tile", e);
+      setBoundary(node, clipped);
+      return;
+    }
+    node.children = children;
+    for (int i = 0; i < children.length; i++) {
+      final Node child = children[i];
+      final Geometry childGeometry = childGeometries[i];
+      if (childGeometry.isEmpty()) {
+        child.tile = OUTSIDE;
+      } else if (coversEnvelope(childGeometry, child.envelope)) {
+        child.tile = INSIDE;
+      } else {
+        subdivide(child, childGeometry, depth + 1);
+      }
+    }
+  }
+
+  private void setBoundary(final Node node, final Geometry clipped) {
+    node.tile = new Tile(TileType.BOUNDARY, PREPARED_GEOMETRY_FACTORY.create(clipped));
+    vertexCount += clipped.getNumPoints();
+  }
+
+  private static boolean coversEnvelope(final Geometry clipped, final Envelope envelope) {
+    final double envelopeArea = envelope.getArea();
+    if ((envelopeArea <= 0) || (clipped.getArea() < (envelopeArea * (1 - 1E-9)))) {
+      return false;
+    }
+    // the areas match, but make sure there is no sliver missing
+    return clipped.covers(clipped.getFactory().toGeometry(envelope));
+  }
+}
@@ -325,10 +325,27 @@ public class GeometryUtils {
   public static byte[] geometryToBinary(
       final Geometry geometry,
       final @Nullable Integer precision) {
+    return geometryToBinary(geometry, precision, false);
+  }
+
+  /**
+   * Converts a JTS geometry to binary, optionally including a bounding box header when the geometry
+   * is written as TWKB
+   *
+   * @param geometry The JTS geometry
+   * @param precision The TWKB precision, or null to use WKB
+   * @param includeBoundingBox whether to include the TWKB bounding box header, this is ignored for
+   *        WKB
+   * @return The binary representation of the geometry
+   */
+  public static byte[] geometryToBinary(
+      final Geometry geometry,
+      final @Nullable Integer precision,
+      final boolean includeBoundingBox) {
     if (precision == null) {
       return new WKBWriter().write(geometry);
     }
-    return new TWKBWriter(precision).write(geometry);
+    return new TWKBWriter(precision, includeBoundingBox).write(geometry);
   }
 
   /**
@@ -12,7 +12,10 @@ import java.io.ByteArrayInputStream;
 import java.io.DataInput;
 import java.io.DataInputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import org.locationtech.geowave.core.index.VarintUtils;
 import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Envelope;
 import org.locationtech.jts.geom.Geometry;
 import org.locationtech.jts.geom.GeometryCollection;
 import org.locationtech.jts.geom.LineString;
@@ -44,12 +47,20 @@ public class TWKBReader {
     final int basePrecision = TWKBUtils.zigZagDecode((typeAndPrecision & 0xF0) >> 4);
     final byte metadata = input.readByte();
     PrecisionReader precision;
+    int numDimensions = 2;
     if ((metadata & TWKBUtils.EXTENDED_DIMENSIONS) != 0) {
       final byte extendedDimensions = input.readByte();
       precision = new ExtendedPrecisionReader(basePrecision, extendedDimensions);
+      numDimensions += Integer.bitCount(extendedDimensions & 0x3);
     } else {
       precision = new PrecisionReader(basePrecision);
     }
+    if ((metadata & TWKBUtils.BOUNDING_BOX) != 0) {
+      // the bounding box is only needed by readEnvelope, skip the min and delta of each dimension
+      for (int i = 0; i < (numDimensions * 2); i++) {
+        Varint.readSignedVarLong(input);
+      }
+    }
     switch (type) {
       case TWKBUtils.POINT_TYPE:
         return readPoint(precision, metadata, input);
@@ -69,6 +80,53 @@ public class TWKBReader {
     return null;
   }
 
+  /**
+   * Read the envelope of an encoded geometry without decoding the geometry. This is only possible
+   * for points and for geometries that were written with a bounding box header.
+   *
+   * @param bytes the TWKB encoded geometry
+   * @return the envelope of the geometry, or null if it cannot be determined from the header
+   */
+  public Envelope readEnvelope(final byte[] bytes) {
+    if ((bytes == null) || (bytes.length < 2)) {
+      return null;
+    }
+    final byte typeAndPrecision = bytes[0];
+    final byte metadata = bytes[1];
+    if ((metadata & TWKBUtils.EMPTY_GEOMETRY) != 0) {
+      return null;
+    }
+    final byte type = (byte) (typeAndPrecision & 0x0F);
+    if (((metadata & TWKBUtils.BOUNDING_BOX) == 0) && (type != TWKBUtils.POINT_TYPE)) {
+      return null;
+    }
+    final double precisionMultiplier =
+        Math.pow(10, TWKBUtils.zigZagDecode((typeAndPrecision & 0xF0) >> 4));
+    final ByteBuffer buf = ByteBuffer.wrap(bytes, 2, bytes.length - 2);
+    if ((metadata & TWKBUtils.EXTENDED_DIMENSIONS) != 0) {
+      // the extended precision byte is not needed, x and y always come first
+      buf.get();
+    }
+    final double minX;
+    final double maxX;
+    final double minY;
+    final double maxY;
+    if ((metadata & TWKBUtils.BOUNDING_BOX) != 0) {
+      final long x = VarintUtils.readSignedLong(buf);
+      final long deltaX = VarintUtils.readSignedLong(buf);
+      final long y = VarintUtils.readSignedLong(buf);
+      final long deltaY = VarintUtils.readSignedLong(buf);
+      minX = x / precisionMultiplier;
+      maxX = (x + deltaX) / precisionMultiplier;
+      minY = y / precisionMultiplier;
+      maxY = (y + deltaY) / precisionMultiplier;
+    } else {
+      minX = maxX = VarintUtils.readSignedLong(buf) / precisionMultiplier;
+      minY = maxY = VarintUtils.readSignedLong(buf) / precisionMultiplier;
+    }
+    return new Envelope(minX, maxX, minY, maxY);
+  }
+
   private Point readPoint(
       final PrecisionReader precision,
       final byte metadata,
@@ -26,13 +26,25 @@ import com.clearspring.analytics.util.Varint;
 
 public class TWKBWriter {
   private final int maxPrecision;
+  private final boolean includeBoundingBox;
 
   public TWKBWriter() {
     this(TWKBUtils.MAX_COORD_PRECISION);
   }
 
   public TWKBWriter(final int maxPrecision) {
+    this(maxPrecision, false);
+  }
+
+  /**
+   * @param maxPrecision the maximum number of decimal digits to retain
+   * @param includeBoundingBox whether to write the bounding box header for non-point geometries so
+   *        that the envelope can be read without decoding the geometry (see
+   *        {@link TWKBReader#readEnvelope(byte[])})
+   */
+  public TWKBWriter(final int maxPrecision, final boolean includeBoundingBox) {
     this.maxPrecision = Math.min(TWKBUtils.MAX_COORD_PRECISION, maxPrecision);
+    this.includeBoundingBox = includeBoundingBox;
   }
 
   public byte[] write(final Geometry geom) {
@@ -62,9 +74,17 @@ public class TWKBWriter {
     } else {
       precision = new PrecisionWriter().calculate(coordinates, maxPrecision);
     }
+    // a point is its own bounding box so there is no need to write one
+    final boolean writeBoundingBox = includeBoundingBox && (type != TWKBUtils.POINT_TYPE);
+    if (writeBoundingBox) {
+      metadata |= TWKBUtils.BOUNDING_BOX;
+    }
     output.writeByte(getTypeAndPrecisionByte(type, precision.precision));
     output.writeByte(metadata);
     precision.writeExtendedPrecision(output);
+    if (writeBoundingBox) {
+      precision.writeBoundingBox(coordinates, output);
+    }
 
     switch (type) {
       case TWKBUtils.POINT_TYPE:
@@ -216,6 +236,30 @@ public class TWKBWriter {
       return;
     }
 
+    public void writeBoundingBox(final Coordinate[] coordinates, final DataOutput output)
+        throws IOException {
+      long minX = Long.MAX_VALUE;
+      long maxX = Long.MIN_VALUE;
+      long minY = Long.MAX_VALUE;
+      long maxY = Long.MIN_VALUE;
+      for (final Coordinate c : coordinates) {
+        final long x = Math.round(c.getX() * precisionMultiplier);
+        final long y = Math.round(c.getY() * precisionMultiplier);
+        minX = Math.min(minX, x);
+        maxX = Math.max(maxX, x);
+        minY = Math.min(minY, y);
+        maxY = Math.max(maxY, y);
+      }
+      writeRange(minX, maxX, output);
+      writeRange(minY, maxY, output);
+    }
+
+    protected void writeRange(final long min, final long max, final DataOutput output)
+        throws IOException {
+      Varint.writeSignedVarLong(min, output);
+      Varint.writeSignedVarLong(max - min, output);
+    }
+
     public void writePoint(final Coordinate coordinate, final DataOutput output)
         throws IOException {
       Varint.writeSignedVarLong(Math.round(coordinate.getX() * precisionMultiplier), output);
@@ -294,6 +338,32 @@ public class TWKBWriter {
       output.writeByte(extendedDimensions);
     }
 
+    @Override
+    public void writeBoundingBox(final Coordinate[] coordinates, final DataOutput output)
+        throws IOException {
+      super.writeBoundingBox(coordinates, output);
+      if (hasZ) {
+        long minZ = Long.MAX_VALUE;
+        long maxZ = Long.MIN_VALUE;
+        for (final Coordinate c : coordinates) {
+          final long z = Math.round(c.getZ() * zPrecisionMultiplier);
+          minZ = Math.min(minZ, z);
+          maxZ = Math.max(maxZ, z);
+        }
+        writeRange(minZ, maxZ, output);
+      }
+      if (hasM) {
+        long minM = Long.MAX_VALUE;
+        long maxM = Long.MIN_VALUE;
+        for (final Coordinate c : coordinates) {
+          final long m = Math.round(c.getM() * mPrecisionMultiplier);
+          minM = Math.min(minM, m);
+          maxM = Math.max(maxM, m);
+        }
+        writeRange(minM, maxM, output);
+      }
+    }
+
     @Override
     public void writePoint(final Coordinate coordinate, final DataOutput output)
         throws IOException {
@@ -327,7 +397,7 @@ public class TWKBWriter {
           lastZ = z;
         }
         if (hasM) {
-          final long m = Math.round(c.getZ() * mPrecisionMultiplier);
+          final long m = Math.round(c.getM() * mPrecisionMultiplier);
           Varint.writeSignedVarLong(m - lastM, output);
           lastM = m;
         }
@@ -21,6 +21,7 @@ import org.locationtech.geowave.core.index.sfc.SpaceFillingCurve;
 import org.locationtech.geowave.core.index.sfc.data.BasicNumericDataset;
 import org.locationtech.geowave.core.index.sfc.data.NumericData;
 import org.locationtech.geowave.core.index.sfc.data.NumericRange;
+import org.locationtech.geowave.core.index.sfc.hilbert.HilbertSFCDecompositionCache;
 import com.google.common.primitives.SignedBytes;
 
 public class HilbertSFCTest {
@@ -179,5 +180,42 @@ public class HilbertSFCTest {
     Assert.assertEquals(20, rangeDecomposition.getRanges().length);
   }
 
+  @Test
+  public void testDecomposeQuery_SharedCacheQuantized() {
+
+    final int LATITUDE_BITS = 10;
+    final int LONGITUDE_BITS = 10;
+
+    final SFCDimensionDefinition[] SPATIAL_DIMENSIONS =
+        new SFCDimensionDefinition[] {
+            new SFCDimensionDefinition(new LongitudeDefinition(), LONGITUDE_BITS),
+            new SFCDimensionDefinition(new LatitudeDefinition(), LATITUDE_BITS)};
+
+    // two separate instances with identical dimensions should share decompositions
+    final SpaceFillingCurve hilbertSFC1 =
+        SFCFactory.createSpaceFillingCurve(SPATIAL_DIMENSIONS, SFCType.HILBERT);
+    final SpaceFillingCurve hilbertSFC2 =
+        SFCFactory.createSpaceFillingCurve(SPATIAL_DIMENSIONS, SFCType.HILBERT);
+
+    final HilbertSFCDecompositionCache cache = HilbertSFCDecompositionCache.getInstance();
+    final RangeDecomposition decomposition1 =
+        hilbertSFC1.decomposeRange(
+            new BasicNumericDataset(
+                new NumericData[] {new NumericRange(10.1, 20.1), new NumericRange(10.1, 20.1)}),
+            true,
+            17);
+    final long hits = cache.getHitCount();
+    // with 10 bits of precision a bin is ~0.35 degrees of longitude, so this query is within the
+    // same bins as the previous query
+    final RangeDecomposition decomposition2 =
+        hilbertSFC2.decomposeRange(
+            new BasicNumericDataset(
+                new NumericData[] {new NumericRange(10.11, 20.11), new NumericRange(10.11, 20.11)}),
+            true,
+            17);
+    Assert.assertEquals(hits + 1, cache.getHitCount());
+    Assert.assertSame(decomposition1, decomposition2);
+  }
+
   /* public void testDecomposeQuery_2DSpatialRanges() {} */
 }
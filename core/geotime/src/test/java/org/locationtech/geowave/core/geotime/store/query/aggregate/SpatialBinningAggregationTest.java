@@ -0,0 +1,305 @@
+/**
+ * Copyright (c) 2013-2019 Contributors to the Eclipse Foundation
+ *
+ * <p> See the NOTICE file distributed with this work for additional information regarding copyright
+ * ownership. All rights reserved. This program and the accompanying materials are made available
+ * under the terms of the Apache License, Version 2.0 which accompanies this distribution and is
+ * available at http://www.apache.org/licenses/LICENSE-2.0.txt
+ */
+package org.locationtech.geowave.core.geotime.store.query.aggregate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import java.lang.reflect.Proxy;
+import org.geotools.feature.simple.SimpleFeatureBuilder;
+import org.geotools.feature.simple.SimpleFeatureTypeBuilder;
+import org.junit.Test;
+import org.locationtech.geowave.core.geotime.ingest.SpatialDimensionalityTypeProvider;
+import org.locationtech.geowave.core.geotime.ingest.SpatialOptions;
+import org.locationtech.geowave.core.geotime.store.GeotoolsFeatureDataAdapter;
+import org.locationtech.geowave.core.geotime.store.dimension.GeometryWrapper;
+import org.locationtech.geowave.core.geotime.store.query.aggregate.SpatialBins.Bin;
+import org.locationtech.geowave.core.index.StringUtils;
+import org.locationtech.geowave.core.index.persist.PersistableFactory;
+import org.locationtech.geowave.core.index.persist.PersistenceUtils;
+import org.locationtech.geowave.core.store.api.Aggregation;
+import org.locationtech.geowave.core.store.api.DataTypeAdapter;
+import org.locationtech.geowave.core.store.api.Index;
+import org.locationtech.geowave.core.store.data.CommonIndexedPersistenceEncoding;
+import org.locationtech.geowave.core.store.data.MultiFieldPersistentDataset;
+import org.locationtech.geowave.core.store.data.PersistentDataset;
+import org.locationtech.geowave.core.store.index.CommonIndexValue;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.Point;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.feature.simple.SimpleFeatureType;
+
+public class SpatialBinningAggregationTest {
+  private static final GeometryFactory GEOMETRY_FACTORY = new GeometryFactory();
+  // 5 columns of width 2 and 2 rows of height 5
+  private static final SpatialBinningParam GRID =
+      new SpatialBinningParam(new Envelope(0, 10, 0, 10), 5, 2);
+
+  @Test
+  public void testRegisteredPersistables() {
+    final Class<?>[] classes =
+        new Class<?>[] {
+            SpatialBinningParam.class,
+            SpatialBins.class,
+            VectorSpatialBinningAggregation.class,
+            CommonIndexSpatialBinningAggregation.class,
+            OptimalVectorSpatialBinningAggregation.class};
+    for (int i = 0; i < classes.length; i++) {
+      assertEquals(
+          classes[i].getName(),
+          Short.valueOf((short) (336 + i)),
+          PersistableFactory.getInstance().getClassIdMapping().get(classes[i]));
+    }
+  }
+
+  @Test
+  public void testParamRoundTrip() {
+    final SpatialBinningParam param =
+        new SpatialBinningParam(new Envelope(-180, 180, -90, 90), 360, 180, "geom", "pop");
+    final SpatialBinningParam copy =
+        (SpatialBinningParam) PersistenceUtils.fromBinary(PersistenceUtils.toBinary(param));
+    assertParamEquals(param, copy);
+
+    final SpatialBinningParam defaults = new SpatialBinningParam(new Envelope(0, 1, 2, 3), 1, 1);
+    final SpatialBinningParam defaultsCopy =
+        (SpatialBinningParam) PersistenceUtils.fromBinary(PersistenceUtils.toBinary(defaults));
+    assertParamEquals(defaults, defaultsCopy);
+    assertNull(defaultsCopy.getGeometryFieldName());
+    assertNull(defaultsCopy.getWeightFieldName());
+
+    // a param that was never given a grid
+    final SpatialBinningParam empty = new SpatialBinningParam();
+    final SpatialBinningParam emptyCopy = new SpatialBinningParam();
+    emptyCopy.fromBinary(empty.toBinary());
+    assertNull(emptyCopy.getBounds());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testParamRequiresBounds() {
+    new SpatialBinningParam(null, 1, 1);
+  }
+
+  @Test
+  public void testForMap() {
+    final SpatialBinningParam param =
+        SpatialBinningParam.forMap(new Envelope(0, 10, 0, 10), 1000, 500, 64);
+    assertEquals(16, param.getColumns());
+    assertEquals(8, param.getRows());
+  }
+
+  private static void assertParamEquals(
+      final SpatialBinningParam expected,
+      final SpatialBinningParam actual) {
+    assertEquals(expected.getBounds(), actual.getBounds());
+    assertEquals(expected.getColumns(), actual.getColumns());
+    assertEquals(expected.getRows(), actual.getRows());
+    assertEquals(expected.getGeometryFieldName(), actual.getGeometryFieldName());
+    assertEquals(expected.getWeightFieldName(), actual.getWeightFieldName());
+  }
+
+  @Test
+  public void testBinsRoundTrip() {
+    final SpatialBins bins = new SpatialBins(GRID);
+    assertTrue(bins.add(1, 1, 2.5));
+    assertTrue(bins.add(1.5, 1.5, 0.5));
+    assertTrue(bins.add(9, 9, 1));
+    assertEquals(false, bins.add(11, 1, 1));
+    final SpatialBins copy =
+        (SpatialBins) PersistenceUtils.fromBinary(PersistenceUtils.toBinary(bins));
+    assertEquals(GRID.getBounds(), copy.getBounds());
+    assertEquals(5, copy.getColumns());
+    assertEquals(2, copy.getRows());
+    assertEquals(2, copy.getBins().size());
+    assertBin(copy.getBin(0, 0), 2, 3);
+    assertBin(copy.getBin(4, 1), 1, 1);
+
+    final SpatialBins empty = new SpatialBins();
+    final SpatialBins emptyCopy = new SpatialBins();
+    emptyCopy.fromBinary(empty.toBinary());
+    assertNull(emptyCopy.getBounds());
+    assertTrue(emptyCopy.isEmpty());
+  }
+
+  @Test
+  public void testBinsMerge() {
+    final SpatialBins bins1 = new SpatialBins(GRID);
+    bins1.add(1, 1, 1);
+    bins1.add(3, 6, 1);
+    final SpatialBins bins2 = new SpatialBins(GRID);
+    bins2.add(1, 1, 2);
+    bins2.add(10, 10, 1);
+
+    final SpatialBins merged = new SpatialBins();
+    merged.merge(new SpatialBins());
+    merged.merge(bins1);
+    merged.merge(bins2);
+    merged.merge(new SpatialBins());
+    assertEquals(GRID.getBounds(), merged.getBounds());
+    assertEquals(3, merged.getBins().size());
+    assertBin(merged.getBin(0, 0), 2, 3);
+    assertBin(merged.getBin(1, 1), 1, 1);
+    // the maximum edge belongs to the last cell
+    assertBin(merged.getBin(4, 1), 1, 1);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testMergeDifferentBounds() {
+    final SpatialBins bins = new SpatialBins(GRID);
+    bins.merge(new SpatialBins(new Envelope(0, 20, 0, 10), 5, 2));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testMergeDifferentGrid() {
+    final SpatialBins bins = new SpatialBins(GRID);
+    bins.merge(new SpatialBins(GRID.getBounds(), 10, 2));
+  }
+
+  private static void assertBin(final Bin bin, final long count, final double weight) {
+    assertEquals(count, bin.getCount());
+    assertEquals(weight, bin.getWeight(), 0);
+  }
+
+  @Test
+  public void testCommonIndexAggregation() {
+    final CommonIndexSpatialBinningAggregation aggregation =
+        (CommonIndexSpatialBinningAggregation) PersistenceUtils.fromBinary(
+            PersistenceUtils.toBinary(new CommonIndexSpatialBinningAggregation(GRID)));
+    aggregation.aggregate(encode(point(1, 1)));
+    // binned by the center of its envelope
+    aggregation.aggregate(encode(GEOMETRY_FACTORY.toGeometry(new Envelope(0, 4, 0, 2))));
+    aggregation.aggregate(encode(point(5, 9)));
+    aggregation.aggregate(encode(point(-1, 5)));
+    final SpatialBins result =
+        aggregation.resultFromBinary(aggregation.resultToBinary(aggregation.getResult()));
+    assertEquals(3, result.getBins().size());
+    assertBin(result.getBin(0, 0), 1, 1);
+    assertBin(result.getBin(1, 0), 1, 1);
+    assertBin(result.getBin(2, 1), 1, 1);
+
+    aggregation.clearResult();
+    assertTrue(aggregation.getResult().isEmpty());
+  }
+
+  @Test
+  public void testVectorAggregation() {
+    final SimpleFeatureType type = createType(true);
+    final VectorSpatialBinningAggregation aggregation =
+        (VectorSpatialBinningAggregation) PersistenceUtils.fromBinary(
+            PersistenceUtils.toBinary(
+                new VectorSpatialBinningAggregation(
+                    new SpatialBinningParam(GRID.getBounds(), 5, 2, null, "pop"))));
+    aggregation.aggregate(createFeature(type, point(1, 1), 10L));
+    aggregation.aggregate(createFeature(type, point(1.5, 4), 5L));
+    aggregation.aggregate(createFeature(type, point(9, 9), null));
+    aggregation.aggregate(createFeature(type, null, 100L));
+    final SpatialBins result = aggregation.getResult();
+    assertEquals(2, result.getBins().size());
+    assertBin(result.getBin(0, 0), 2, 15);
+    assertBin(result.getBin(4, 1), 1, 0);
+  }
+
+  @Test
+  public void testOptimalAggregation() {
+    final Index index = new SpatialDimensionalityTypeProvider().createIndex(new SpatialOptions());
+    final DataTypeAdapter<SimpleFeature> adapter = createAdapter(createType(true));
+    assertTrue(
+        createAggregation(GRID, adapter, index) instanceof CommonIndexSpatialBinningAggregation);
+    assertTrue(
+        createAggregation(
+            new SpatialBinningParam(GRID.getBounds(), 5, 2, "geom", null),
+            adapter,
+            index) instanceof CommonIndexSpatialBinningAggregation);
+    assertTrue(
+        createAggregation(
+            new SpatialBinningParam(GRID.getBounds(), 5, 2, "other", null),
+            adapter,
+            index) instanceof VectorSpatialBinningAggregation);
+    assertTrue(
+        createAggregation(
+            new SpatialBinningParam(GRID.getBounds(), 5, 2, null, "pop"),
+            adapter,
+            index) instanceof VectorSpatialBinningAggregation);
+    // a type without a default geometry can't use the common index
+    assertTrue(
+        createAggregation(
+            new SpatialBinningParam(GRID.getBounds(), 5, 2, "geom", null),
+            createAdapter(createType(false)),
+            index) instanceof VectorSpatialBinningAggregation);
+  }
+
+  private static Aggregation<SpatialBinningParam, SpatialBins, SimpleFeature> createAggregation(
+      final SpatialBinningParam param,
+      final DataTypeAdapter<SimpleFeature> adapter,
+      final Index index) {
+    final OptimalVectorSpatialBinningAggregation aggregation =
+        (OptimalVectorSpatialBinningAggregation) PersistenceUtils.fromBinary(
+            PersistenceUtils.toBinary(new OptimalVectorSpatialBinningAggregation(param)));
+    return aggregation.createAggregation(adapter, index);
+  }
+
+  private static Point point(final double x, final double y) {
+    return GEOMETRY_FACTORY.createPoint(new Coordinate(x, y));
+  }
+
+  private static CommonIndexedPersistenceEncoding encode(final Geometry geometry) {
+    final PersistentDataset<CommonIndexValue> commonData = new MultiFieldPersistentDataset<>();
+    commonData.addValue(GeometryWrapper.DEFAULT_GEOMETRY_FIELD_NAME, new GeometryWrapper(geometry));
+    return new CommonIndexedPersistenceEncoding(
+        (short) 1,
+        StringUtils.stringToBinary("1"),
+        StringUtils.stringToBinary("1"),
+        StringUtils.stringToBinary("1"),
+        1,
+        commonData,
+        new MultiFieldPersistentDataset<byte[]>());
+  }
+
+  private static SimpleFeatureType createType(final boolean defaultGeometry) {
+    final SimpleFeatureTypeBuilder builder = new SimpleFeatureTypeBuilder();
+    builder.setName("test");
+    // the builder makes the first geometry attribute the default geometry
+    if (defaultGeometry) {
+      builder.add("geom", Geometry.class);
+      builder.add("other", Geometry.class);
+    }
+    builder.add("pop", Long.class);
+    return builder.buildFeatureType();
+  }
+
+  private static SimpleFeature createFeature(
+      final SimpleFeatureType type,
+      final Geometry geometry,
+      final Long pop) {
+    final SimpleFeatureBuilder builder = new SimpleFeatureBuilder(type);
+    builder.set("geom", geometry);
+    builder.set("pop", pop);
+    return builder.buildFeature(null);
+  }
+
+  /** Only the feature type is needed to choose between the aggregations */
+  @SuppressWarnings("unchecked")
+  private static DataTypeAdapter<SimpleFeature> createAdapter(final SimpleFeatureType type) {
+    return (DataTypeAdapter<SimpleFeature>) Proxy.newProxyInstance(
+        SpatialBinningAggregationTest.class.getClassLoader(),
+        new Class<?>[] {GeotoolsFeatureDataAdapter.class},
+        (proxy, method, args) -> {
+          switch (method.getName()) {
+            case "getFeatureType":
+              return type;
+            case "getTypeName":
+              return type.getTypeName();
+            default:
+              throw new UnsupportedOperationException(method.getName());
+          }
+        });
+  }
+}
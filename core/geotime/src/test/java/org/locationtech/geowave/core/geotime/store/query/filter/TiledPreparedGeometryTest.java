@@ -0,0 +1,224 @@
+/**
+ * Copyright (c) 2013-2019 Contributors to the Eclipse Foundation
+ *
+ * <p> See the NOTICE file distributed with this work for additional information regarding copyright
+ * ownership. All rights reserved. This program and the accompanying materials are made available
+ * under the terms of the Apache License, Version 2.0 which accompanies this distribution and is
+ * available at http://www.apache.org/licenses/LICENSE-2.0.txt
+ */
+package org.locationtech.geowave.core.geotime.store.query.filter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import org.junit.Test;
+import org.locationtech.geowave.core.geotime.ingest.SpatialDimensionalityTypeProvider;
+import org.locationtech.geowave.core.geotime.ingest.SpatialOptions;
+import org.locationtech.geowave.core.geotime.store.dimension.GeometryWrapper;
+import org.locationtech.geowave.core.geotime.store.query.ExplicitSpatialQuery;
+import org.locationtech.geowave.core.geotime.store.query.filter.SpatialQueryFilter.CompareOperation;
+import org.locationtech.geowave.core.geotime.store.query.filter.TiledPreparedGeometry.TileType;
+import org.locationtech.geowave.core.geotime.util.GeometryUtils;
+import org.locationtech.geowave.core.index.StringUtils;
+import org.locationtech.geowave.core.store.api.Index;
+import org.locationtech.geowave.core.store.data.IndexedPersistenceEncoding;
+import org.locationtech.geowave.core.store.data.MultiFieldPersistentDataset;
+import org.locationtech.geowave.core.store.data.PersistentDataset;
+import org.locationtech.geowave.core.store.index.CommonIndexValue;
+import org.locationtech.geowave.core.store.query.filter.QueryFilter;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.LinearRing;
+import org.locationtech.jts.geom.Polygon;
+import org.locationtech.jts.geom.prep.PreparedGeometry;
+
+public class TiledPreparedGeometryTest {
+  private static final GeometryFactory FACTORY = new GeometryFactory();
+  // every query geometry spans whole numbers, so that the tile edges (which halve the envelope of
+  // the query geometry) are exact and data can be placed on them
+  private static final double EXTENT = 16;
+  private static final int TILE_EDGES = 16;
+
+  private final Index index =
+      new SpatialDimensionalityTypeProvider().createIndex(new SpatialOptions());
+
+  @Test
+  public void testPolygonWithHoles() {
+    final Polygon polygon =
+        FACTORY.createPolygon(
+            ring(0, 0, EXTENT, 1200, 0),
+            new LinearRing[] {ring(0, 0, 6, 600, 0), ring(11, 0, 2, 200, 0)});
+    assertTiled(polygon);
+    assertMatchesPreparedGeometry(polygon);
+  }
+
+  @Test
+  public void testMultiPolygon() {
+    final Polygon left =
+        FACTORY.createPolygon(
+            ring(-EXTENT / 2, 0, EXTENT / 2, 600, 0),
+            new LinearRing[] {ring(-EXTENT / 2, 0, 3, 300, 0)});
+    final Polygon right = FACTORY.createPolygon(ring(9, 0, 7, 600, 0.4));
+    final Geometry multiPolygon = FACTORY.createMultiPolygon(new Polygon[] {left, right});
+    assertTiled(multiPolygon);
+    assertMatchesPreparedGeometry(multiPolygon);
+  }
+
+  @Test
+  public void testStar() {
+    // a star has many boundary tiles that only touch a small part of the query geometry
+    final Polygon star = FACTORY.createPolygon(ring(0, 0, EXTENT, 1200, 0.5));
+    assertTiled(star);
+    assertMatchesPreparedGeometry(star);
+  }
+
+  @Test
+  public void testSmallGeometryIsNotTiled() {
+    final Polygon polygon = FACTORY.createPolygon(ring(0, 0, EXTENT, 100, 0));
+    assertEquals(false, TiledPreparedGeometry.isTileable(polygon));
+    assertEquals(false, TiledPreparedGeometry.isTileable(polygon.getExteriorRing()));
+    assertMatchesPreparedGeometry(polygon);
+  }
+
+  /**
+   * Create a closed ring around a center point.
+   *
+   * @param points the number of vertices, a multiple of 4 so that the extremes of the ring fall on
+   *        whole numbers
+   * @param spikiness the fraction by which every other vertex is pulled in toward the center
+   */
+  private static LinearRing ring(
+      final double centerX,
+      final double centerY,
+      final double radius,
+      final int points,
+      final double spikiness) {
+    final Coordinate[] coordinates = new Coordinate[points + 1];
+    for (int i = 0; i < points; i++) {
+      final double angle = (2 * Math.PI * i) / points;
+      final double r = (i % 2) == 0 ? radius : radius * (1 - spikiness);
+      coordinates[i] =
+          new Coordinate(
+              round(centerX + (r * Math.cos(angle))),
+              round(centerY + (r * Math.sin(angle))));
+    }
+    coordinates[points] = coordinates[0];
+    return FACTORY.createLinearRing(coordinates);
+  }
+
+  private static double round(final double value) {
+    return Math.round(value * 10000) / 10000.0;
+  }
+
+  private static void assertTiled(final Geometry queryGeometry) {
+    assertTrue(TiledPreparedGeometry.isTileable(queryGeometry));
+    final TiledPreparedGeometry tiled =
+        TiledPreparedGeometry.get(
+            GeometryUtils.geometryToBinary(queryGeometry, null),
+            queryGeometry);
+    final Set<TileType> types = EnumSet.noneOf(TileType.class);
+    final Envelope envelope = queryGeometry.getEnvelopeInternal();
+    final Random random = new Random(0);
+    for (int i = 0; i < 1000; i++) {
+      final double x = envelope.getMinX() + (random.nextDouble() * envelope.getWidth());
+      final double y = envelope.getMinY() + (random.nextDouble() * envelope.getHeight());
+      types.add(tiled.locate(new Envelope(x, x, y, y)).getType());
+    }
+    // make sure the comparisons below exercise every kind of tile
+    assertEquals(EnumSet.allOf(TileType.class), types);
+    assertEquals(
+        TileType.OUTSIDE,
+        tiled.locate(new Envelope(EXTENT * 2, EXTENT * 3, 0, 1)).getType());
+  }
+
+  private void assertMatchesPreparedGeometry(final Geometry queryGeometry) {
+    final PreparedGeometry prepared = SpatialQueryFilter.FACTORY.create(queryGeometry);
+    final List<Geometry> data = createData(queryGeometry);
+    for (final CompareOperation op : new CompareOperation[] {
+        CompareOperation.INTERSECTS,
+        CompareOperation.DISJOINT}) {
+      final List<QueryFilter> filters =
+          new ExplicitSpatialQuery(queryGeometry, op).createFilters(index);
+      for (final Geometry dataGeometry : data) {
+        final boolean expected =
+            op == CompareOperation.INTERSECTS ? prepared.intersects(dataGeometry)
+                : prepared.disjoint(dataGeometry);
+        for (final QueryFilter filter : filters) {
+          assertEquals(
+              op + " " + dataGeometry,
+              expected,
+              filter.accept(index.getIndexModel(), wrap(dataGeometry)));
+        }
+      }
+    }
+  }
+
+  private static List<Geometry> createData(final Geometry queryGeometry) {
+    final List<Geometry> data = new ArrayList<>();
+    final Envelope envelope = queryGeometry.getEnvelopeInternal();
+    final double stepX = envelope.getWidth() / TILE_EDGES;
+    final double stepY = envelope.getHeight() / TILE_EDGES;
+    for (int i = 0; i <= TILE_EDGES; i++) {
+      final double x = envelope.getMinX() + (i * stepX);
+      // lines along the tile edges
+      data.add(line(x, envelope.getMinY(), x, envelope.getMaxY()));
+      data.add(line(x, envelope.getMinY(), x, envelope.getMinY() + stepY));
+      for (int j = 0; j <= TILE_EDGES; j++) {
+        final double y = envelope.getMinY() + (j * stepY);
+        // points on the tile corners, and boxes that either share or straddle the tile edges
+        data.add(FACTORY.createPoint(new Coordinate(x, y)));
+        data.add(FACTORY.toGeometry(new Envelope(x, x + (stepX / 4), y, y + (stepY / 4))));
+        data.add(
+            FACTORY.toGeometry(
+                new Envelope(x - (stepX / 8), x + (stepX / 8), y - (stepY / 8), y + (stepY / 8))));
+        data.add(FACTORY.toGeometry(new Envelope(x - stepX, x, y - stepY, y)));
+      }
+    }
+    for (int j = 0; j <= TILE_EDGES; j++) {
+      final double y = envelope.getMinY() + (j * stepY);
+      data.add(line(envelope.getMinX(), y, envelope.getMaxX(), y));
+    }
+    // the vertices of the query geometry touch its boundary
+    final Coordinate[] vertices = queryGeometry.getCoordinates();
+    for (int i = 0; i < vertices.length; i += 7) {
+      data.add(FACTORY.createPoint(vertices[i]));
+      data.add(line(vertices[i].x, vertices[i].y, vertices[i].x + 0.001, vertices[i].y + 0.002));
+    }
+    final Random random = new Random(42);
+    for (int i = 0; i < 2000; i++) {
+      final double x =
+          round((envelope.getMinX() - 1) + (random.nextDouble() * (envelope.getWidth() + 2)));
+      final double y =
+          round((envelope.getMinY() - 1) + (random.nextDouble() * (envelope.getHeight() + 2)));
+      final double size = random.nextDouble() * stepX;
+      data.add(FACTORY.createPoint(new Coordinate(x, y)));
+      data.add(FACTORY.toGeometry(new Envelope(x, x + size, y, y + size)));
+      data.add(line(x, y, x + size, y - size));
+    }
+    return data;
+  }
+
+  private static Geometry line(final double x1, final double y1, final double x2, final double y2) {
+    return FACTORY.createLineString(
+        new Coordinate[] {new Coordinate(x1, y1), new Coordinate(x2, y2)});
+  }
+
+  private static IndexedPersistenceEncoding wrap(final Geometry geometry) {
+    final PersistentDataset<CommonIndexValue> commonData = new MultiFieldPersistentDataset<>();
+    commonData.addValue(GeometryWrapper.DEFAULT_GEOMETRY_FIELD_NAME, new GeometryWrapper(geometry));
+    return new IndexedPersistenceEncoding(
+        (short) 1,
+        StringUtils.stringToBinary("1"),
+        StringUtils.stringToBinary("1"),
+        StringUtils.stringToBinary("1"),
+        1,
+        commonData,
+        new MultiFieldPersistentDataset<byte[]>());
+  }
+}
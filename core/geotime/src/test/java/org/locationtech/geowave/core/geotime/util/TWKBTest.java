@@ -8,10 +8,15 @@
  */
 package org.locationtech.geowave.core.geotime.util;
 
+import java.io.ByteArrayInputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.IOException;
 import org.junit.Assert;
 import org.junit.BeforeClass;
 import org.junit.Test;
 import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.CoordinateXYM;
 import org.locationtech.jts.geom.Geometry;
 import org.locationtech.jts.geom.GeometryCollection;
 import org.locationtech.jts.geom.GeometryFactory;
@@ -23,6 +28,7 @@ import org.locationtech.jts.geom.MultiPolygon;
 import org.locationtech.jts.geom.Point;
 import org.locationtech.jts.geom.Polygon;
 import org.locationtech.jts.io.ParseException;
+import com.clearspring.analytics.util.Varint;
 
 public class TWKBTest {
   private static GeometryFactory factory = null;
@@ -829,4 +835,82 @@ public class TWKBTest {
     decoded = reader.read(encoded);
     Assert.assertEquals(expected, decoded);
   }
+
+  @Test
+  public void testReadWriteBoundingBox() throws ParseException {
+    final TWKBWriter bboxWriter = new TWKBWriter(3, true);
+    final Polygon poly =
+        factory.createPolygon(
+            new Coordinate[] {
+                new Coordinate(12.13281248321, -1518.375),
+                new Coordinate(24.875, -1518.38281248325),
+                new Coordinate(24.2634, -1284.75),
+                new Coordinate(12.325, -1282.125),
+                new Coordinate(12.13281248321, -1518.375)});
+    final Polygon expected =
+        factory.createPolygon(
+            new Coordinate[] {
+                new Coordinate(12.133, -1518.375),
+                new Coordinate(24.875, -1518.383),
+                new Coordinate(24.263, -1284.75),
+                new Coordinate(12.325, -1282.125),
+                new Coordinate(12.133, -1518.375)});
+    byte[] encoded = bboxWriter.write(poly);
+    Assert.assertNotEquals(0, encoded[1] & TWKBUtils.BOUNDING_BOX);
+    final Geometry decoded = reader.read(encoded);
+    Assert.assertEquals(expected, decoded);
+    Assert.assertEquals(expected.getEnvelopeInternal(), reader.readEnvelope(encoded));
+
+    // without the header the envelope can't be read without decoding
+    Assert.assertNull(reader.readEnvelope(writer3Precision.write(poly)));
+
+    // points never need the header
+    final Point point = factory.createPoint(new Coordinate(12.13281248321, -1518.375));
+    encoded = bboxWriter.write(point);
+    Assert.assertEquals(0, encoded[1] & TWKBUtils.BOUNDING_BOX);
+    Assert.assertEquals(
+        factory.createPoint(new Coordinate(12.133, -1518.375)).getEnvelopeInternal(),
+        reader.readEnvelope(encoded));
+
+    // nested geometries each carry their own header
+    final GeometryCollection geoms =
+        factory.createGeometryCollection(new Geometry[] {poly, point, factory.createPolygon()});
+    encoded = bboxWriter.write(geoms);
+    Assert.assertEquals(
+        factory.createGeometryCollection(
+            new Geometry[] {
+                expected,
+                factory.createPoint(new Coordinate(12.133, -1518.375)),
+                factory.createPolygon()}),
+        reader.read(encoded));
+    Assert.assertEquals(expected.getEnvelopeInternal(), reader.readEnvelope(encoded));
+
+    Assert.assertNull(reader.readEnvelope(bboxWriter.write(factory.createPolygon())));
+  }
+
+  @Test
+  public void testWriteMeasures() throws IOException {
+    final LineString line =
+        factory.createLineString(
+            new Coordinate[] {new CoordinateXYM(1, 2, 3.5), new CoordinateXYM(4, 5, 7.25)});
+    final DataInput input =
+        new DataInputStream(new ByteArrayInputStream(writerFullPrecision.write(line)));
+    // type and precision
+    input.readByte();
+    Assert.assertNotEquals(0, input.readByte() & TWKBUtils.EXTENDED_DIMENSIONS);
+    final byte extendedDimensions = input.readByte();
+    Assert.assertEquals(0, extendedDimensions & 0x1);
+    Assert.assertNotEquals(0, extendedDimensions & 0x2);
+    final double mPrecisionMultiplier =
+        Math.pow(10, TWKBUtils.zigZagDecode((extendedDimensions >> 5) & 0x7));
+    Assert.assertEquals(2, Varint.readUnsignedVarInt(input));
+    long m = 0;
+    for (final double expected : new double[] {3.5, 7.25}) {
+      // x and y
+      Varint.readSignedVarLong(input);
+      Varint.readSignedVarLong(input);
+      m += Varint.readSignedVarLong(input);
+      Assert.assertEquals(expected, m / mPrecisionMultiplier, 0);
+    }
+  }
 }
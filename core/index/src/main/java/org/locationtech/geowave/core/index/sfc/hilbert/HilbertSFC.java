@@ -12,9 +12,7 @@ import java.math.BigInteger;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Map;
 import org.locationtech.geowave.core.index.ByteArrayUtils;
 import org.locationtech.geowave.core.index.VarintUtils;
 import org.locationtech.geowave.core.index.persist.PersistenceUtils;
@@ -22,78 +20,12 @@ import org.locationtech.geowave.core.index.sfc.RangeDecomposition;
 import org.locationtech.geowave.core.index.sfc.SFCDimensionDefinition;
 import org.locationtech.geowave.core.index.sfc.SpaceFillingCurve;
 import org.locationtech.geowave.core.index.sfc.data.MultiDimensionalNumericData;
+import org.locationtech.geowave.core.index.sfc.hilbert.HilbertSFCDecompositionCache.QueryCacheKey;
 import com.google.uzaygezen.core.CompactHilbertCurve;
 import com.google.uzaygezen.core.MultiDimensionalSpec;
 
 /** * Implementation of a Compact Hilbert space filling curve */
 public class HilbertSFC implements SpaceFillingCurve {
-  private static class QueryCacheKey {
-    private final double[] minsPerDimension;
-    private final double[] maxesPerDimension;
-    private final boolean overInclusiveOnEdge;
-    private final int maxFilteredIndexedRanges;
-
-    public QueryCacheKey(
-        final double[] minsPerDimension,
-        final double[] maxesPerDimension,
-        final boolean overInclusiveOnEdge,
-        final int maxFilteredIndexedRanges) {
-      this.minsPerDimension = minsPerDimension;
-      this.maxesPerDimension = maxesPerDimension;
-      this.overInclusiveOnEdge = overInclusiveOnEdge;
-      this.maxFilteredIndexedRanges = maxFilteredIndexedRanges;
-    }
-
-    @Override
-    public int hashCode() {
-      final int prime = 31;
-      int result = 1;
-      result = (prime * result) + maxFilteredIndexedRanges;
-      result = (prime * result) + Arrays.hashCode(maxesPerDimension);
-      result = (prime * result) + Arrays.hashCode(minsPerDimension);
-      result = (prime * result) + (overInclusiveOnEdge ? 1231 : 1237);
-      return result;
-    }
-
-    @Override
-    public boolean equals(final Object obj) {
-      if (this == obj) {
-        return true;
-      }
-      if (obj == null) {
-        return false;
-      }
-      if (getClass() != obj.getClass()) {
-        return false;
-      }
-      final QueryCacheKey other = (QueryCacheKey) obj;
-      if (maxFilteredIndexedRanges != other.maxFilteredIndexedRanges) {
-        return false;
-      }
-      if (!Arrays.equals(maxesPerDimension, other.maxesPerDimension)) {
-        return false;
-      }
-      if (!Arrays.equals(minsPerDimension, other.minsPerDimension)) {
-        return false;
-      }
-      if (overInclusiveOnEdge != other.overInclusiveOnEdge) {
-        return false;
-      }
-      return true;
-    }
-  }
-
-  private static final int MAX_CACHED_QUERIES = 500;
-  private final Map<QueryCacheKey, RangeDecomposition> queryDecompositionCache =
-      new LinkedHashMap<QueryCacheKey, RangeDecomposition>(MAX_CACHED_QUERIES + 1, .75F, true) {
-        private static final long serialVersionUID = 1L;
-
-        @Override
-        public boolean removeEldestEntry(
-            final Map.Entry<QueryCacheKey, RangeDecomposition> eldest) {
-          return size() > MAX_CACHED_QUERIES;
-        }
-      };
   protected CompactHilbertCurve compactHilbertCurve;
   protected SFCDimensionDefinition[] dimensionDefinitions;
   protected int totalPrecision;
@@ -189,24 +121,42 @@ public class HilbertSFC implements SpaceFillingCurve {
     }
     final QueryCacheKey key =
         new QueryCacheKey(
-            query.getMinValuesPerDimension(),
-            query.getMaxValuesPerDimension(),
+            dimensionDefinitions,
+            quantizeQuery(query, overInclusiveOnEdge),
             overInclusiveOnEdge,
             maxFilteredIndexedRanges);
-    RangeDecomposition rangeDecomp = queryDecompositionCache.get(key);
-    if (rangeDecomp == null) {
-      rangeDecomp =
-          decomposeQueryOperations.decomposeRange(
-              query.getDataPerDimension(),
-              compactHilbertCurve,
-              dimensionDefinitions,
-              totalPrecision,
-              maxFilteredIndexedRanges,
-              REMOVE_VACUUM,
-              overInclusiveOnEdge);
-      queryDecompositionCache.put(key, rangeDecomp);
+    final int maxRanges = maxFilteredIndexedRanges;
+    return HilbertSFCDecompositionCache.getInstance().get(
+        key,
+        k -> decomposeQueryOperations.decomposeRange(
+            query.getDataPerDimension(),
+            compactHilbertCurve,
+            dimensionDefinitions,
+            totalPrecision,
+            maxRanges,
+            REMOVE_VACUUM,
+            overInclusiveOnEdge));
+  }
+
+  private long[] quantizeQuery(
+      final MultiDimensionalNumericData query,
+      final boolean overInclusiveOnEdge) {
+    if (decomposeQueryOperations instanceof PrimitiveHilbertSFCOperations) {
+      // the decomposition only depends on the bins the query normalizes to, so queries that differ
+      // only within a cell can share the same cache entry
+      return ((PrimitiveHilbertSFCOperations) decomposeQueryOperations).normalizeQuery(
+          query.getDataPerDimension(),
+          dimensionDefinitions,
+          overInclusiveOnEdge);
+    }
+    final double[] mins = query.getMinValuesPerDimension();
+    final double[] maxes = query.getMaxValuesPerDimension();
+    final long[] quantizedQuery = new long[mins.length * 2];
+    for (int d = 0; d < mins.length; d++) {
+      quantizedQuery[2 * d] = Double.doubleToLongBits(mins[d]);
+      quantizedQuery[(2 * d) + 1] = Double.doubleToLongBits(maxes[d]);
     }
-    return rangeDecomp;
+    return quantizedQuery;
   }
 
   protected static byte[] fitExpectedByteCount(final int expectedByteCount, final byte[] bytes) {
@@ -0,0 +1,156 @@
+/**
+ * Copyright (c) 2013-2019 Contributors to the Eclipse Foundation
+ *
+ * <p> See the NOTICE file distributed with this work for additional information regarding copyright
+ * ownership. All rights reserved. This program and the accompanying materials are made available
+ * under the terms of the Apache License, Version 2.0 which accompanies this distribution and is
+ * available at http://www.apache.org/licenses/LICENSE-2.0.txt
+ */
+package org.locationtech.geowave.core.index.sfc.hilbert;
+
+import java.util.Arrays;
+import java.util.function.Function;
+import org.locationtech.geowave.core.index.sfc.RangeDecomposition;
+import org.locationtech.geowave.core.index.sfc.SFCDimensionDefinition;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+/**
+ * A process-wide, thread-safe cache of Hilbert range decompositions. Entries are shared across all
+ * {@link HilbertSFC} instances with identical dimension definitions, and the cache is bounded by
+ * the total number of ranges held rather than the number of queries so that a few very fine
+ * decompositions cannot crowd out memory. The maximum weight can be configured with the
+ * {@value #MAX_CACHED_RANGES_PROPERTY} system property.
+ */
+public class HilbertSFCDecompositionCache {
+  public static final String MAX_CACHED_RANGES_PROPERTY = "geowave.sfc.hilbert.maxCachedRanges";
+  private static final long DEFAULT_MAX_CACHED_RANGES = 1000000L;
+  private static HilbertSFCDecompositionCache singletonInstance;
+
+  public static synchronized HilbertSFCDecompositionCache getInstance() {
+    if (singletonInstance == null) {
+      singletonInstance =
+          new HilbertSFCDecompositionCache(
+              Long.getLong(MAX_CACHED_RANGES_PROPERTY, DEFAULT_MAX_CACHED_RANGES));
+    }
+    return singletonInstance;
+  }
+
+  private final Cache<QueryCacheKey, RangeDecomposition> decompositionCache;
+
+  protected HilbertSFCDecompositionCache(final long maxCachedRanges) {
+    decompositionCache =
+        Caffeine.newBuilder().maximumWeight(maxCachedRanges).weigher(
+            (final QueryCacheKey key, final RangeDecomposition value) -> rangeCount(
+                value)).recordStats().build();
+  }
+
+  public RangeDecomposition get(
+      final QueryCacheKey key,
+      final Function<QueryCacheKey, RangeDecomposition> decomposition) {
+    return decompositionCache.get(key, decomposition);
+  }
+
+  /** @return a snapshot of the hit, miss and eviction counts of this cache */
+  public CacheStats getStats() {
+    return decompositionCache.stats();
+  }
+
+  public long getHitCount() {
+    return decompositionCache.stats().hitCount();
+  }
+
+  public long getMissCount() {
+    return decompositionCache.stats().missCount();
+  }
+
+  public long getEvictionCount() {
+    return decompositionCache.stats().evictionCount();
+  }
+
+  public long getEstimatedSize() {
+    return decompositionCache.estimatedSize();
+  }
+
+  public void invalidateAll() {
+    decompositionCache.invalidateAll();
+  }
+
+  private static int rangeCount(final RangeDecomposition value) {
+    // count the decomposition itself so that empty decompositions still carry some weight
+    if ((value == null) || (value.getRanges() == null)) {
+      return 1;
+    }
+    return value.getRanges().length + 1;
+  }
+
+  /**
+   * The query portion of the key is expected to already be quantized (ie. normalized to the bins of
+   * the space filling curve) so that queries that differ only within a single cell share an entry.
+   */
+  protected static class QueryCacheKey {
+    private final SFCDimensionDefinition[] dimensionDefinitions;
+    private final long[] quantizedQuery;
+    private final boolean overInclusiveOnEdge;
+    private final int maxFilteredIndexedRanges;
+    private final int hashCode;
+
+    public QueryCacheKey(
+        final SFCDimensionDefinition[] dimensionDefinitions,
+        final long[] quantizedQuery,
+        final boolean overInclusiveOnEdge,
+        final int maxFilteredIndexedRanges) {
+      this.dimensionDefinitions = dimensionDefinitions;
+      this.quantizedQuery = quantizedQuery;
+      this.overInclusiveOnEdge = overInclusiveOnEdge;
+      this.maxFilteredIndexedRanges = maxFilteredIndexedRanges;
+      hashCode = computeHashCode();
+    }
+
+    private int computeHashCode() {
+      final int prime = 31;
+      int result = 1;
+      result = (prime * result) + Arrays.hashCode(dimensionDefinitions);
+      result = (prime * result) + maxFilteredIndexedRanges;
+      result = (prime * result) + (overInclusiveOnEdge ? 1231 : 1237);
+      result = (prime * result) + Arrays.hashCode(quantizedQuery);
+      return result;
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+      if (this == obj) {
+        return true;
+      }
+      if (obj == null) {
+        return false;
+      }
+      if (getClass() != obj.getClass()) {
+        return false;
+      }
+      final QueryCacheKey other = (QueryCacheKey) obj;
+      if (hashCode != other.hashCode) {
+        return false;
+      }
+      if (maxFilteredIndexedRanges != other.maxFilteredIndexedRanges) {
+        return false;
+      }
+      if (overInclusiveOnEdge != other.overInclusiveOnEdge) {
+        return false;
+      }
+      if (!Arrays.equals(quantizedQuery, other.quantizedQuery)) {
+        return false;
+      }
+      if (!Arrays.equals(dimensionDefinitions, other.dimensionDefinitions)) {
+        return false;
+      }
+      return true;
+    }
+  }
+}
@@ -275,25 +275,23 @@ public class PrimitiveHilbertSFCOperations implements HilbertSFCOperations {
         boundedDimensionDefinition.denormalize(max));
   }
 
-  @Override
-  public RangeDecomposition decomposeRange(
+  /**
+   * * Normalizes a query to the bins of each dimension. The range decomposition is entirely
+   * determined by these bins, so any two queries that normalize to the same bins will have the same
+   * decomposition.
+   *
+   * @param rangePerDimension the query range for each dimension
+   * @param dimensionDefinitions the dimension definitions of the space filling curve
+   * @param overInclusiveOnEdge whether values on the edge of a bin should include that bin
+   * @return the normalized min and max bin for each dimension, interleaved as min0, max0, min1,
+   *         max1,...
+   */
+  public long[] normalizeQuery(
       final NumericData[] rangePerDimension,
-      final CompactHilbertCurve compactHilbertCurve,
       final SFCDimensionDefinition[] dimensionDefinitions,
-      final int totalPrecision,
-      final int maxFilteredIndexedRanges,
-      final boolean removeVacuum,
-      final boolean overInclusiveOnEdge) { // List of query range minimum
-    // and
-    // maximum
-    // values
-    final List<Long> minRangeList = new ArrayList<>();
-    final List<Long> maxRangeList = new ArrayList<>();
-
-    final LongContent zero = new LongContent(0L);
-    final List<LongRange> region = new ArrayList<>(dimensionDefinitions.length);
+      final boolean overInclusiveOnEdge) {
+    final long[] normalizedQuery = new long[dimensionDefinitions.length * 2];
     for (int d = 0; d < dimensionDefinitions.length; d++) {
-
       final long normalizedMin =
           normalizeDimension(
               dimensionDefinitions[d],
@@ -314,6 +312,34 @@ public class PrimitiveHilbertSFCOperations implements HilbertSFCOperations {
         // inclusive in this case)
         normalizedMax = normalizedMin;
       }
+      normalizedQuery[2 * d] = normalizedMin;
+      normalizedQuery[(2 * d) + 1] = normalizedMax;
+    }
+    return normalizedQuery;
+  }
+
+  @Override
+  public RangeDecomposition decomposeRange(
+      final NumericData[] rangePerDimension,
+      final CompactHilbertCurve compactHilbertCurve,
+      final SFCDimensionDefinition[] dimensionDefinitions,
+      final int totalPrecision,
+      final int maxFilteredIndexedRanges,
+      final boolean removeVacuum,
+      final boolean overInclusiveOnEdge) { // List of query range minimum
+    // and
+    // maximum
+    // values
+    final List<Long> minRangeList = new ArrayList<>();
+    final List<Long> maxRangeList = new ArrayList<>();
+
+    final LongContent zero = new LongContent(0L);
+    final List<LongRange> region = new ArrayList<>(dimensionDefinitions.length);
+    final long[] normalizedQuery =
+        normalizeQuery(rangePerDimension, dimensionDefinitions, overInclusiveOnEdge);
+    for (int d = 0; d < dimensionDefinitions.length; d++) {
+      final long normalizedMin = normalizedQuery[2 * d];
+      final long normalizedMax = normalizedQuery[(2 * d) + 1];
       minRangeList.add(normalizedMin);
       maxRangeList.add(normalizedMax);
       region.add(LongRange.of(normalizedMin, normalizedMax + 1L));
@@ -0,0 +1,218 @@
+/**
+ * Copyright (c) 2013-2019 Contributors to the Eclipse Foundation
+ *
+ * <p> See the NOTICE file distributed with this work for additional information regarding copyright
+ * ownership. All rights reserved. This program and the accompanying materials are made available
+ * under the terms of the Apache License, Version 2.0 which accompanies this distribution and is
+ * available at http://www.apache.org/licenses/LICENSE-2.0.txt
+ */
+package org.locationtech.geowave.core.ingest;
+
+/**
+ * Splits delimited text lines, such as tab or comma separated values, into fields without the
+ * regular expression, array and substring allocations of {@link String#split(String)}. A parser is
+ * reused across lines, it only records the bounds of each field and numeric fields are parsed
+ * directly from the characters of the line. Strings are only created for the fields that are
+ * requested with {@link #getString(int)}.
+ *
+ * <p> Unlike {@link String#split(String)}, trailing empty fields are counted. A parser is not
+ * thread-safe.
+ */
+public class DelimitedFieldParser {
+  private static final double[] POWERS_OF_TEN = new double[23];
+  // mantissas up to 2^53 and powers of ten up to 10^22 are exact doubles, so dividing them rounds
+  // the same as parsing the decimal string
+  private static final long MAX_EXACT_MANTISSA = 1L << 53;
+  private static final int MAX_MANTISSA_DIGITS = 18;
+
+  static {
+    POWERS_OF_TEN[0] = 1;
+    for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+      POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+    }
+  }
+
+  private final char delimiter;
+  private CharSequence line;
+  // the start of each field, followed by the position after the end of the line plus one
+  private int[] fieldStarts = new int[64];
+  private int fieldCount = 0;
+
+  public DelimitedFieldParser(final char delimiter) {
+    this.delimiter = delimiter;
+  }
+
+  /**
+   * Parse a line, replacing the fields of the previous line.
+   *
+   * @param line the line without its line terminator
+   * @return this parser
+   */
+  public DelimitedFieldParser parse(final CharSequence line) {
+    this.line = line;
+    fieldCount = 0;
+    final int length = line.length();
+    addFieldStart(0);
+    for (int i = 0; i < length; i++) {
+      if (line.charAt(i) == delimiter) {
+        addFieldStart(i + 1);
+      }
+    }
+    fieldStarts[fieldCount] = length + 1;
+    return this;
+  }
+
+  private void addFieldStart(final int start) {
+    if ((fieldCount + 1) >= fieldStarts.length) {
+      final int[] newFieldStarts = new int[fieldStarts.length * 2];
+      System.arraycopy(fieldStarts, 0, newFieldStarts, 0, fieldStarts.length);
+      fieldStarts = newFieldStarts;
+    }
+    fieldStarts[fieldCount++] = start;
+  }
+
+  /** @return the number of fields of the current line */
+  public int getFieldCount() {
+    return fieldCount;
+  }
+
+  /**
+   * @param field the index of the field
+   * @return true if the field is empty or only contains whitespace
+   */
+  public boolean isEmpty(final int field) {
+    return trimmedStart(field) >= trimmedEnd(field);
+  }
+
+  /**
+   * @param field the index of the field
+   * @return the field, as is
+   */
+  public String getString(final int field) {
+    checkField(field);
+    return line.subSequence(fieldStarts[field], fieldStarts[field + 1] - 1).toString();
+  }
+
+  /**
+   * @param field the index of the field
+   * @return the field parsed as an integer, ignoring surrounding whitespace
+   * @throws NumberFormatException if the field is not an integer
+   */
+  public int getInt(final int field) {
+    final long value = getLong(field);
+    if ((value < Integer.MIN_VALUE) || (value > Integer.MAX_VALUE)) {
+      throw numberFormatException(field);
+    }
+    return (int) value;
+  }
+
+  /**
+   * @param field the index of the field
+   * @return the field parsed as a long, ignoring surrounding whitespace
+   * @throws NumberFormatException if the field is not an integer
+   */
+  public long getLong(final int field) {
+    int i = trimmedStart(field);
+    final int end = trimmedEnd(field);
+    final boolean negative = (i < end) && (line.charAt(i) == '-');
+    if ((i < end) && (negative || (line.charAt(i) == '+'))) {
+      i++;
+    }
+    if (i >= end) {
+      throw numberFormatException(field);
+    }
+    // accumulate negatively so that Long.MIN_VALUE can be parsed
+    long value = 0;
+    for (; i < end; i++) {
+      final int digit = line.charAt(i) - '0';
+      if ((digit < 0) || (digit > 9) || (value < ((Long.MIN_VALUE + digit) / 10))) {
+        throw numberFormatException(field);
+      }
+      value = (value * 10) - digit;
+    }
+    if (!negative) {
+      if (value == Long.MIN_VALUE) {
+        throw numberFormatException(field);
+      }
+      return -value;
+    }
+    return value;
+  }
+
+  /**
+   * Parse a field as a double. Plain decimal numbers with a limited number of digits are parsed
+   * directly, anything else, such as exponents or special values, falls back to
+   * {@link Double#parseDouble(String)}.
+   *
+   * @param field the index of the field
+   * @return the field parsed as a double, ignoring surrounding whitespace
+   * @throws NumberFormatException if the field is not a number
+   */
+  public double getDouble(final int field) {
+    int i = trimmedStart(field);
+    final int end = trimmedEnd(field);
+    final boolean negative = (i < end) && (line.charAt(i) == '-');
+    if ((i < end) && (negative || (line.charAt(i) == '+'))) {
+      i++;
+    }
+    long mantissa = 0;
+    int digits = 0;
+    int scale = 0;
+    boolean decimalPoint = false;
+    for (; i < end; i++) {
+      final char c = line.charAt(i);
+      if ((c >= '0') && (c <= '9')) {
+        if (++digits > MAX_MANTISSA_DIGITS) {
+          return parseDoubleFallback(field);
+        }
+        mantissa = (mantissa * 10) + (c - '0');
+        if (decimalPoint) {
+          scale++;
+        }
+      } else if ((c == '.') && !decimalPoint) {
+        decimalPoint = true;
+      } else {
+        return parseDoubleFallback(field);
+      }
+    }
+    if ((digits == 0) || (mantissa > MAX_EXACT_MANTISSA) || (scale >= POWERS_OF_TEN.length)) {
+      return parseDoubleFallback(field);
+    }
+    final double value = mantissa / POWERS_OF_TEN[scale];
+    return negative ? -value : value;
+  }
+
+  private double parseDoubleFallback(final int field) {
+    return Double.parseDouble(getString(field));
+  }
+
+  private int trimmedStart(final int field) {
+    checkField(field);
+    int start = fieldStarts[field];
+    final int end = fieldStarts[field + 1] - 1;
+    while ((start < end) && Character.isWhitespace(line.charAt(start))) {
+      start++;
+    }
+    return start;
+  }
+
+  private int trimmedEnd(final int field) {
+    final int start = fieldStarts[field];
+    int end = fieldStarts[field + 1] - 1;
+    while ((end > start) && Character.isWhitespace(line.charAt(end - 1))) {
+      end--;
+    }
+    return end;
+  }
+
+  private void checkField(final int field) {
+    if ((field < 0) || (field >= fieldCount)) {
+      throw new IndexOutOfBoundsException(
+          "Field " + field + " requested from a line with " + fieldCount + " fields");
+    }
+  }
+
+  private NumberFormatException numberFormatException(final int field) {
+    return new NumberFormatException("For input string: \"" + getString(field) + "\"");
+  }
+}
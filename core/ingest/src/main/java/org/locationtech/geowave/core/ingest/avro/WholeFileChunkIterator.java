@@ -0,0 +1,139 @@
+/**
+ * Copyright (c) 2013-2019 Contributors to the Eclipse Foundation
+ *
+ * <p> See the NOTICE file distributed with this work for additional information regarding copyright
+ * ownership. All rights reserved. This program and the accompanying materials are made available
+ * under the terms of the Apache License, Version 2.0 which accompanies this distribution and is
+ * available at http://www.apache.org/licenses/LICENSE-2.0.txt
+ */
+package org.locationtech.geowave.core.ingest.avro;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import org.locationtech.geowave.core.store.CloseableIterator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Stages a line-based text file as a series of chunks rather than a single {@link AvroWholeFile},
+ * so that files of any size can be staged and the chunks can be ingested in parallel. The file is
+ * streamed and each chunk ends on a line boundary, so no line is split across chunks. A chunk may
+ * exceed the chunk size when a single line is longer than it.
+ */
+public class WholeFileChunkIterator implements CloseableIterator<AvroWholeFile> {
+  private static final Logger LOGGER = LoggerFactory.getLogger(WholeFileChunkIterator.class);
+
+  private final InputStream in;
+  private final String path;
+  private final int chunkSize;
+  private byte[] buffer;
+  private int length = 0;
+  private boolean endOfStream = false;
+  private AvroWholeFile next = null;
+
+  /**
+   * @param in the contents of the file, which will be closed when this is closed
+   * @param path the path of the original file
+   * @param chunkSize the size of chunks in bytes
+   */
+  public WholeFileChunkIterator(final InputStream in, final String path, final int chunkSize) {
+    this.in = in;
+    this.path = path;
+    this.chunkSize = Math.max(1, chunkSize);
+    buffer = new byte[this.chunkSize];
+  }
+
+  private void computeNext() {
+    if ((next != null) || (endOfStream && (length == 0))) {
+      return;
+    }
+    try {
+      int searchedLength = 0;
+      while (true) {
+        while (!endOfStream && (length < buffer.length)) {
+          final int read = in.read(buffer, length, buffer.length - length);
+          if (read < 0) {
+            endOfStream = true;
+          } else {
+            length += read;
+          }
+        }
+        if (endOfStream && (length <= chunkSize)) {
+          if (length > 0) {
+            nextChunk(length);
+          }
+          return;
+        }
+        if (searchedLength == 0) {
+          // end the chunk on the last line boundary within the chunk size
+          for (int i = chunkSize - 1; i >= 0; i--) {
+            if (buffer[i] == '\n') {
+              nextChunk(i + 1);
+              return;
+            }
+          }
+          searchedLength = chunkSize;
+        }
+        // a single line is longer than the chunk size, so the chunk ends with that line
+        for (int i = searchedLength; i < length; i++) {
+          if (buffer[i] == '\n') {
+            nextChunk(i + 1);
+            return;
+          }
+        }
+        searchedLength = length;
+        if (endOfStream) {
+          nextChunk(length);
+          return;
+        }
+        buffer = Arrays.copyOf(buffer, buffer.length * 2);
+      }
+    } catch (final IOException e) {
+      LOGGER.warn("Unable to read file: " + path, e);
+      endOfStream = true;
+      length = 0;
+    }
+  }
+
+  private void nextChunk(final int chunkLength) {
+    next = new AvroWholeFile(ByteBuffer.wrap(Arrays.copyOf(buffer, chunkLength)), path);
+    length -= chunkLength;
+    if ((buffer.length > chunkSize) && (length <= chunkSize)) {
+      // the buffer was grown for a long line
+      final byte[] remaining = new byte[chunkSize];
+      System.arraycopy(buffer, chunkLength, remaining, 0, length);
+      buffer = remaining;
+    } else {
+      System.arraycopy(buffer, chunkLength, buffer, 0, length);
+    }
+  }
+
+  @Override
+  public boolean hasNext() {
+    computeNext();
+    return next != null;
+  }
+
+  @Override
+  public AvroWholeFile next() {
+    computeNext();
+    if (next == null) {
+      throw new NoSuchElementException();
+    }
+    final AvroWholeFile retVal = next;
+    next = null;
+    return retVal;
+  }
+
+  @Override
+  public void close() {
+    try {
+      in.close();
+    } catch (final IOException e) {
+      LOGGER.warn("Unable to close file: " + path, e);
+    }
+  }
+}
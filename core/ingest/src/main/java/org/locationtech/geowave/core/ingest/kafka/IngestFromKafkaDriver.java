@@ -11,15 +11,26 @@ package org.locationtech.geowave.core.ingest.kafka;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import org.apache.kafka.clients.consumer.ConsumerRebalanceListener;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
 import org.locationtech.geowave.core.ingest.avro.GenericAvroSerializer;
 import org.locationtech.geowave.core.ingest.avro.GeoWaveAvroFormatPlugin;
 import org.locationtech.geowave.core.store.CloseableIterator;
@@ -45,6 +56,8 @@ import kafka.javaapi.consumer.ConsumerConnector;
 /** This class executes the ingestion of intermediate data from a Kafka topic into GeoWave. */
 public class IngestFromKafkaDriver {
   private static final Logger LOGGER = LoggerFactory.getLogger(IngestFromKafkaDriver.class);
+  private static final long POLL_TIMEOUT_MS = 1000;
+  private static final long LAG_UPDATE_INTERVAL_MS = 10000;
 
   private final DataStorePluginOptions storeOptions;
   private final List<IndexPluginOptions> indexOptions;
@@ -52,6 +65,7 @@ public class IngestFromKafkaDriver {
   private final KafkaConsumerCommandLineOptions kafkaOptions;
   private final VisibilityOptions ingestOptions;
   private final List<Future<?>> futures = new ArrayList<>();
+  private final Map<String, KafkaIngestMetrics> metrics = new HashMap<>();
 
   public IngestFromKafkaDriver(
       final DataStorePluginOptions storeOptions,
@@ -70,7 +84,8 @@ public class IngestFromKafkaDriver {
 
     final DataStore dataStore = storeOptions.createDataStore();
 
-    final List<String> queue = new ArrayList<>();
+    // consumer threads remove their plugin once they are subscribed while this thread waits on it
+    final List<String> queue = new CopyOnWriteArrayList<>();
     addPluginsToQueue(ingestPlugins, queue);
 
     configureAndLaunchPlugins(dataStore, ingestPlugins, queue);
@@ -126,6 +141,15 @@ public class IngestFromKafkaDriver {
           final DataTypeAdapter<?>[] dataAdapters =
               ingestWithAvroPlugin.getDataAdapters(ingestOptions.getVisibility());
           adapters.addAll(Arrays.asList(dataAdapters));
+          if (kafkaOptions.isBatchConsumer()) {
+            launchBatchConsumers(
+                pluginProvider.getKey(),
+                avroFormatPlugin,
+                adapters,
+                dataStore,
+                queue);
+            continue;
+          }
           final KafkaIngestRunData runData = new KafkaIngestRunData(adapters, dataStore);
 
           futures.add(
@@ -257,15 +281,232 @@ public class IngestFromKafkaDriver {
     }
   }
 
+  private void launchBatchConsumers(
+      final String formatPluginName,
+      final GeoWaveAvroFormatPlugin<?, ?> avroFormatPlugin,
+      final List<DataTypeAdapter<?>> adapters,
+      final DataStore dataStore,
+      final List<String> queue) {
+    final int consumerThreads = Math.max(1, kafkaOptions.getConsumerThreads());
+    final KafkaIngestMetrics topicMetrics = new KafkaIngestMetrics(formatPluginName);
+    synchronized (metrics) {
+      metrics.put(formatPluginName, topicMetrics);
+    }
+    final ExecutorService executorService = Executors.newFixedThreadPool(consumerThreads);
+    for (int i = 0; i < consumerThreads; i++) {
+      // each consumer has its own writers so that a flush only waits for its own records
+      final KafkaIngestRunData runData = new KafkaIngestRunData(adapters, dataStore);
+      futures.add(executorService.submit(() -> {
+        try {
+          consumeFromTopicInBatches(
+              formatPluginName,
+              avroFormatPlugin,
+              runData,
+              topicMetrics,
+              queue);
+        } catch (final Exception e) {
+          LOGGER.error("Error consuming from Kafka topic [" + formatPluginName + "]", e);
+        }
+      }));
+    }
+    executorService.shutdown();
+  }
+
+  /**
+   * Consume a topic with the polling Kafka consumer. Records are written as they are polled, and
+   * the offsets of a batch of records are committed only once the writers have been flushed, so if
+   * ingest fails the records since the last commit are consumed again rather than lost.
+   */
+  public <T> void consumeFromTopicInBatches(
+      final String formatPluginName,
+      final GeoWaveAvroFormatPlugin<T, ?> avroFormatPlugin,
+      final KafkaIngestRunData ingestRunData,
+      final KafkaIngestMetrics topicMetrics,
+      final List<String> queue) throws IOException {
+    final Map<String, Index> indexMap = getIndexMap(avroFormatPlugin);
+    final Map<String, Writer> writerMap = new HashMap<>();
+    final int batchSize = kafkaOptions.getBatchSize();
+    final long timeoutMs = kafkaOptions.getBatchConsumerTimeoutMs();
+    try (KafkaConsumer<byte[], byte[]> consumer =
+        new KafkaConsumer<>(
+            kafkaOptions.getBatchConsumerProperties(),
+            new ByteArrayDeserializer(),
+            new ByteArrayDeserializer())) {
+      final PendingOffsets pendingOffsets =
+          new PendingOffsets(consumer, ingestRunData, topicMetrics);
+      consumer.subscribe(
+          Collections.singletonList(formatPluginName),
+          new ConsumerRebalanceListener() {
+            @Override
+            public void onPartitionsRevoked(final Collection<TopicPartition> partitions) {
+              // the new owners of these partitions continue from the last commit
+              try {
+                pendingOffsets.flushAndCommit();
+              } catch (final RuntimeException e) {
+                // the consumer only logs what is thrown from here and keeps polling, so the poll
+                // loop is stopped instead
+                pendingOffsets.revokeFailed(partitions, e);
+              }
+              topicMetrics.partitionsRevoked(partitions);
+            }
+
+            @Override
+            public void onPartitionsAssigned(final Collection<TopicPartition> partitions) {
+              LOGGER.info("[" + formatPluginName + "] assigned partitions " + partitions);
+            }
+          });
+      LOGGER.debug(
+          "Kafka batch consumer setup for format ["
+              + formatPluginName
+              + "] against topic ["
+              + formatPluginName
+              + "]");
+      queue.remove(formatPluginName);
+
+      long lastRecordMillis = System.currentTimeMillis();
+      long nextLagUpdateMillis = lastRecordMillis;
+      while (true) {
+        final ConsumerRecords<byte[], byte[]> records = consumer.poll(POLL_TIMEOUT_MS);
+        pendingOffsets.checkRevoke();
+        if (records.isEmpty()) {
+          // caught up with the topic, don't hold back what has been written so far
+          pendingOffsets.flushAndCommit();
+          if ((timeoutMs >= 0) && ((System.currentTimeMillis() - lastRecordMillis) > timeoutMs)) {
+            LOGGER.info("Consumer timed out from Kafka topic [" + formatPluginName + "]... ");
+            if (!kafkaOptions.isFlushAndReconnect()) {
+              break;
+            }
+            lastRecordMillis = System.currentTimeMillis();
+          }
+        } else {
+          lastRecordMillis = System.currentTimeMillis();
+          for (final ConsumerRecord<byte[], byte[]> record : records) {
+            final T dataRecord =
+                GenericAvroSerializer.deserialize(record.value(), avroFormatPlugin.getAvroSchema());
+            if (dataRecord != null) {
+              // a failed write stops the consumer before the offset of the record is committed, so
+              // it is consumed again rather than lost
+              writeMessage(
+                  dataRecord,
+                  ingestRunData,
+                  avroFormatPlugin.getIngestWithAvroPlugin(),
+                  indexMap,
+                  writerMap);
+            }
+            pendingOffsets.add(record);
+          }
+          topicMetrics.recordsConsumed(records.count());
+          if (pendingOffsets.getRecordCount() >= batchSize) {
+            pendingOffsets.flushAndCommit();
+          }
+        }
+        if (System.currentTimeMillis() >= nextLagUpdateMillis) {
+          updateLag(consumer, topicMetrics);
+          nextLagUpdateMillis = System.currentTimeMillis() + LAG_UPDATE_INTERVAL_MS;
+        }
+        if (topicMetrics.isProgressDue()) {
+          LOGGER.info(topicMetrics.getSummary());
+        }
+      }
+      pendingOffsets.flushAndCommit();
+    } finally {
+      ingestRunData.close();
+      LOGGER.info(topicMetrics.getSummary());
+    }
+  }
+
+  private static void updateLag(
+      final KafkaConsumer<?, ?> consumer,
+      final KafkaIngestMetrics topicMetrics) {
+    final Set<TopicPartition> partitions = consumer.assignment();
+    if (!partitions.isEmpty()) {
+      for (final Entry<TopicPartition, Long> endOffset : consumer.endOffsets(
+          partitions).entrySet()) {
+        topicMetrics.lagUpdated(
+            endOffset.getKey(),
+            Math.max(0, endOffset.getValue() - consumer.position(endOffset.getKey())));
+      }
+    }
+  }
+
+  /** The offsets following the records that have been written but not yet flushed */
+  private static class PendingOffsets {
+    private final KafkaConsumer<?, ?> consumer;
+    private final KafkaIngestRunData ingestRunData;
+    private final KafkaIngestMetrics topicMetrics;
+    private final Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>();
+    private int recordCount = 0;
+    private RuntimeException revokeFailure = null;
+
+    private PendingOffsets(
+        final KafkaConsumer<?, ?> consumer,
+        final KafkaIngestRunData ingestRunData,
+        final KafkaIngestMetrics topicMetrics) {
+      this.consumer = consumer;
+      this.ingestRunData = ingestRunData;
+      this.topicMetrics = topicMetrics;
+    }
+
+    private void add(final ConsumerRecord<?, ?> record) {
+      offsets.put(
+          new TopicPartition(record.topic(), record.partition()),
+          new OffsetAndMetadata(record.offset() + 1));
+      recordCount++;
+    }
+
+    private int getRecordCount() {
+      return recordCount;
+    }
+
+    private void flushAndCommit() {
+      if (offsets.isEmpty()) {
+        return;
+      }
+      if (LOGGER.isDebugEnabled()) {
+        LOGGER.debug(String.format("Flushing %d items", recordCount));
+      }
+      final long startNanos = System.nanoTime();
+      // if the flush fails nothing is committed, so the records are consumed again
+      ingestRunData.flush();
+      consumer.commitSync(offsets);
+      topicMetrics.recordsCommitted(recordCount, System.nanoTime() - startNanos);
+      offsets.clear();
+      recordCount = 0;
+    }
+
+    /**
+     * The records of revoked partitions could not be flushed, so their offsets must not be
+     * committed by this consumer anymore, and the consumer stops.
+     */
+    private void revokeFailed(
+        final Collection<TopicPartition> partitions,
+        final RuntimeException failure) {
+      LOGGER.error("Unable to flush records of revoked partitions " + partitions, failure);
+      partitions.forEach(offsets::remove);
+      revokeFailure = failure;
+    }
+
+    /** Stops the consumer if flushing on revocation failed during the last poll */
+    private void checkRevoke() {
+      if (revokeFailure != null) {
+        throw revokeFailure;
+      }
+    }
+  }
+
   protected synchronized <T> void processMessage(
       final T dataRecord,
       final KafkaIngestRunData ingestRunData,
       final GeoWaveAvroFormatPlugin<T, ?> plugin) throws IOException {
+    writeMessage(
+        dataRecord,
+        ingestRunData,
+        plugin.getIngestWithAvroPlugin(),
+        getIndexMap(plugin),
+        new HashMap<>());
+  }
 
-    final IngestPluginBase<T, ?> ingestPlugin = plugin.getIngestWithAvroPlugin();
-    final IndexProvider indexProvider = plugin;
-
-    final Map<String, Writer> writerMap = new HashMap<>();
+  private Map<String, Index> getIndexMap(final IndexProvider indexProvider) throws IOException {
     final Map<String, Index> indexMap = new HashMap<>();
 
     for (final IndexPluginOptions indexOption : indexOptions) {
@@ -283,7 +524,15 @@ public class IngestFromKafkaDriver {
         indexMap.put(requiredIndex.getName(), requiredIndex);
       }
     }
+    return indexMap;
+  }
 
+  private <T> void writeMessage(
+      final T dataRecord,
+      final KafkaIngestRunData ingestRunData,
+      final IngestPluginBase<T, ?> ingestPlugin,
+      final Map<String, Index> indexMap,
+      final Map<String, Writer> writerMap) throws IOException {
     try (CloseableIterator<?> geowaveDataIt =
         ingestPlugin.toGeoWaveData(
             dataRecord,
@@ -321,6 +570,13 @@ public class IngestFromKafkaDriver {
     return futures;
   }
 
+  /** @return the metrics of each topic consumed by batch consumers */
+  public Map<String, KafkaIngestMetrics> getMetrics() {
+    synchronized (metrics) {
+      return new HashMap<>(metrics);
+    }
+  }
+
   /**
    * Only true if all futures are complete.
    *
@@ -8,6 +8,8 @@
  */
 package org.locationtech.geowave.core.ingest.kafka;
 
+import java.util.Properties;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
 import com.beust.jcommander.Parameter;
 
 public class KafkaConsumerCommandLineOptions extends KafkaCommandLineOptions {
@@ -23,6 +25,12 @@ public class KafkaConsumerCommandLineOptions extends KafkaCommandLineOptions {
       description = "Specifies the ZooKeeper connection string in the form hostname:port where host and port are the host and port of a ZooKeeper server. To allow connecting through other ZooKeeper nodes when that ZooKeeper machine is down you can also specify multiple hosts in the form hostname1:port1,hostname2:port2,hostname3:port3.")
   private String zookeeperConnect;
 
+  @PropertyReference("bootstrap.servers")
+  @Parameter(
+      names = "--bootstrapServers",
+      description = "A list of host/port pairs of Kafka brokers used to establish the initial connection to the Kafka cluster, in the form host1:port1,host2:port2,... This is required by the batch consumer (see --batchConsumer).")
+  private String bootstrapServers;
+
   @PropertyReference("auto.offset.reset")
   @Parameter(
       names = "--autoOffsetReset",
@@ -54,6 +62,16 @@ public class KafkaConsumerCommandLineOptions extends KafkaCommandLineOptions {
       description = "The data will automatically flush after this number of entries")
   private int batchSize = 10000;
 
+  @Parameter(
+      names = "--batchConsumer",
+      description = "Consume with the polling Kafka consumer, which writes records in batches and commits their offsets only once they have been flushed to GeoWave, so records are never lost but may be ingested more than once after a failure. Partitions of a topic are shared by all consumers with the same group id.")
+  private boolean batchConsumer = false;
+
+  @Parameter(
+      names = "--consumerThreads",
+      description = "The number of batch consumers per topic, each is assigned a share of the topic's partitions")
+  private int consumerThreads = 1;
+
   public boolean isFlushAndReconnect() {
     return reconnectOnTimeout;
   }
@@ -70,6 +88,14 @@ public class KafkaConsumerCommandLineOptions extends KafkaCommandLineOptions {
     this.groupId = groupId;
   }
 
+  public String getBootstrapServers() {
+    return bootstrapServers;
+  }
+
+  public void setBootstrapServers(final String bootstrapServers) {
+    this.bootstrapServers = bootstrapServers;
+  }
+
   public String getZookeeperConnect() {
     return zookeeperConnect;
   }
@@ -113,4 +139,55 @@ public class KafkaConsumerCommandLineOptions extends KafkaCommandLineOptions {
   public void setBatchSize(final int batchSize) {
     this.batchSize = batchSize;
   }
+
+  public boolean isBatchConsumer() {
+    return batchConsumer;
+  }
+
+  public void setBatchConsumer(final boolean batchConsumer) {
+    this.batchConsumer = batchConsumer;
+  }
+
+  public int getConsumerThreads() {
+    return consumerThreads;
+  }
+
+  public void setConsumerThreads(final int consumerThreads) {
+    this.consumerThreads = consumerThreads;
+  }
+
+  /**
+   * @return the idle time in milliseconds after which the batch consumer times out, or a negative
+   *         value if it never times out
+   */
+  public long getBatchConsumerTimeoutMs() {
+    final String timeout = getProperties().getProperty("consumer.timeout.ms");
+    return timeout == null ? -1 : Long.parseLong(timeout.trim());
+  }
+
+  /**
+   * The batch consumer uses the properties of the polling Kafka consumer, so the properties of the
+   * ZooKeeper based consumer are translated to their equivalent, and offsets are always committed
+   * explicitly.
+   *
+   * @return the properties of the batch consumer
+   */
+  public Properties getBatchConsumerProperties() {
+    final Properties properties = new Properties();
+    properties.putAll(getProperties());
+    properties.remove("zookeeper.connect");
+    properties.remove("consumer.timeout.ms");
+    final Object fetchMessageMaxBytes = properties.remove("fetch.message.max.bytes");
+    if (fetchMessageMaxBytes != null) {
+      properties.putIfAbsent(ConsumerConfig.MAX_PARTITION_FETCH_BYTES_CONFIG, fetchMessageMaxBytes);
+    }
+    final String autoOffsetReset = properties.getProperty(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG);
+    if ("smallest".equals(autoOffsetReset)) {
+      properties.setProperty(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+    } else if ("largest".equals(autoOffsetReset)) {
+      properties.setProperty(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "latest");
+    }
+    properties.setProperty(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, "false");
+    return properties;
+  }
 }
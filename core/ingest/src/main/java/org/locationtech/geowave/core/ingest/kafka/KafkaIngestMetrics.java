@@ -0,0 +1,84 @@
+/**
+ * Copyright (c) 2013-2019 Contributors to the Eclipse Foundation
+ *
+ * <p> See the NOTICE file distributed with this work for additional information regarding copyright
+ * ownership. All rights reserved. This program and the accompanying materials are made available
+ * under the terms of the Apache License, Version 2.0 which accompanies this distribution and is
+ * available at http://www.apache.org/licenses/LICENSE-2.0.txt
+ */
+package org.locationtech.geowave.core.ingest.kafka;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import org.apache.kafka.common.TopicPartition;
+import org.locationtech.geowave.core.store.ingest.IngestMetrics;
+
+/**
+ * Throughput and lag metrics of the consumers of a Kafka topic. The lag is the number of records in
+ * the assigned partitions that have not been consumed yet, so a lag that keeps growing indicates
+ * that more consumers are needed to keep up with the topic.
+ */
+public class KafkaIngestMetrics extends IngestMetrics {
+  private final String topic;
+  private final LongAdder consumedRecords = new LongAdder();
+  private final LongAdder committedRecords = new LongAdder();
+  private final LongAdder commits = new LongAdder();
+  private final LongAdder flushNanos = new LongAdder();
+  private final Map<TopicPartition, Long> partitionLag = new ConcurrentHashMap<>();
+
+  public KafkaIngestMetrics(final String topic) {
+    this.topic = topic;
+  }
+
+  public void recordsConsumed(final int count) {
+    consumedRecords.add(count);
+  }
+
+  /**
+   * @param count the number of records whose offsets were committed
+   * @param nanos time spent flushing the writers and committing the offsets
+   */
+  public void recordsCommitted(final int count, final long nanos) {
+    committedRecords.add(count);
+    commits.increment();
+    flushNanos.add(nanos);
+  }
+
+  public void lagUpdated(final TopicPartition partition, final long lag) {
+    partitionLag.put(partition, lag);
+  }
+
+  /** @param partitions partitions that are no longer assigned to the consumer reporting them */
+  public void partitionsRevoked(final Collection<TopicPartition> partitions) {
+    partitions.forEach(partitionLag::remove);
+  }
+
+  public long getConsumedRecords() {
+    return consumedRecords.sum();
+  }
+
+  public long getCommittedRecords() {
+    return committedRecords.sum();
+  }
+
+  /** @return the total lag of the partitions, as of their last update */
+  public long getLag() {
+    return partitionLag.values().stream().mapToLong(Long::longValue).sum();
+  }
+
+  @Override
+  protected String getSummary(final double elapsedSeconds) {
+    return String.format(
+        "[%s] consumed %s, committed %d records in %d commits in %.1f s; spent %.1f s flushing and committing, lag is %d records over %d partitions",
+        topic,
+        throughput(getConsumedRecords(), "records", elapsedSeconds),
+        getCommittedRecords(),
+        commits.sum(),
+        elapsedSeconds,
+        seconds(flushNanos.sum()),
+        getLag(),
+        partitionLag.size());
+  }
+}
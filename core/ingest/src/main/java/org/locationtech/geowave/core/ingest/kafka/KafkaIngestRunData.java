@@ -44,8 +44,11 @@ public class KafkaIngestRunData implements Closeable {
       final Index... requiredIndices) throws MismatchedIndexToAdapterMapping {
     Writer indexWriter = adapterIdToWriterCache.get(adapter.getTypeName());
     if (indexWriter == null) {
-      dataStore.addType(adapter, requiredIndices);
-      indexWriter = dataStore.createWriter(adapter.getTypeName());
+      // the data store may be shared by the run data of several consumers
+      synchronized (dataStore) {
+        dataStore.addType(adapter, requiredIndices);
+        indexWriter = dataStore.createWriter(adapter.getTypeName());
+      }
       adapterIdToWriterCache.put(adapter.getTypeName(), indexWriter);
     }
     return indexWriter;
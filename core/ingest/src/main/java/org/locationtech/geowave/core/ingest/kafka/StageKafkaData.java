@@ -15,36 +15,41 @@ import org.apache.avro.specific.SpecificRecordBase;
 import org.locationtech.geowave.core.ingest.avro.GeoWaveAvroFormatPlugin;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import kafka.javaapi.producer.Producer;
-import kafka.producer.ProducerConfig;
 
 /**
  * A class to hold intermediate stage data that must be used throughout the life of the Kafka stage
  * process.
+ *
+ * <p> The staging still uses the legacy Scala producer, which is deprecated since Kafka 0.10, so it
+ * is referenced by its qualified name to keep the deprecation scoped to this class.
  */
+@SuppressWarnings("deprecation")
 public class StageKafkaData<T extends SpecificRecordBase> {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(StageKafkaData.class);
-  private final Map<String, Producer<String, T>> cachedProducers = new HashMap<>();
+  private final Map<String, kafka.javaapi.producer.Producer<String, T>> cachedProducers =
+      new HashMap<>();
   private final Properties properties;
 
   public StageKafkaData(final Properties properties) {
     this.properties = properties;
   }
 
-  public Producer<String, T> getProducer(
+  public kafka.javaapi.producer.Producer<String, T> getProducer(
       final String typeName,
       final GeoWaveAvroFormatPlugin<?, ?> plugin) {
     return getProducerCreateIfNull(typeName, plugin);
   }
 
-  private synchronized Producer<String, T> getProducerCreateIfNull(
+  private synchronized kafka.javaapi.producer.Producer<String, T> getProducerCreateIfNull(
       final String typeName,
       final GeoWaveAvroFormatPlugin<?, ?> plugin) {
     if (!cachedProducers.containsKey(typeName)) {
-      final ProducerConfig producerConfig = new ProducerConfig(properties);
+      final kafka.producer.ProducerConfig producerConfig =
+          new kafka.producer.ProducerConfig(properties);
 
-      final Producer<String, T> producer = new Producer<>(producerConfig);
+      final kafka.javaapi.producer.Producer<String, T> producer =
+          new kafka.javaapi.producer.Producer<>(producerConfig);
 
       cachedProducers.put(typeName, producer);
     }
@@ -52,7 +57,7 @@ public class StageKafkaData<T extends SpecificRecordBase> {
   }
 
   public synchronized void close() {
-    for (final Producer<String, T> producer : cachedProducers.values()) {
+    for (final kafka.javaapi.producer.Producer<String, T> producer : cachedProducers.values()) {
       try {
         producer.close();
       } catch (final Exception e) {
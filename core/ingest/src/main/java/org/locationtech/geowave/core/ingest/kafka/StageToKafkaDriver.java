@@ -19,8 +19,6 @@ import org.locationtech.geowave.core.store.ingest.AbstractLocalFileDriver;
 import org.locationtech.geowave.core.store.ingest.LocalInputCommandLineOptions;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import kafka.javaapi.producer.Producer;
-import kafka.producer.KeyedMessage;
 
 /**
  * This class actually executes the staging of data to a Kafka topic based on the available type
@@ -43,6 +41,7 @@ public class StageToKafkaDriver<T extends SpecificRecordBase> extends
   }
 
   @Override
+  @SuppressWarnings({"deprecation", "unchecked"})
   protected void processFile(
       final URL file,
       final String typeName,
@@ -50,12 +49,13 @@ public class StageToKafkaDriver<T extends SpecificRecordBase> extends
       final StageKafkaData<?> runData) {
 
     try {
-      final Producer<String, Object> producer =
-          (Producer<String, Object>) runData.getProducer(typeName, plugin);
+      final kafka.javaapi.producer.Producer<String, Object> producer =
+          (kafka.javaapi.producer.Producer<String, Object>) runData.getProducer(typeName, plugin);
       try (final CloseableIterator<?> avroRecords = plugin.toAvroObjects(file)) {
         while (avroRecords.hasNext()) {
           final Object avroRecord = avroRecords.next();
-          final KeyedMessage<String, Object> data = new KeyedMessage<>(typeName, avroRecord);
+          final kafka.producer.KeyedMessage<String, Object> data =
+              new kafka.producer.KeyedMessage<>(typeName, avroRecord);
           producer.send(data);
         }
       }
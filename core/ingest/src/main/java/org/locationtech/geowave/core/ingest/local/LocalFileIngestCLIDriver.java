@@ -35,6 +35,7 @@ public class LocalFileIngestCLIDriver extends AbstractLocalFileIngestDriver {
   protected VisibilityOptions ingestOptions;
   protected Map<String, LocalFileIngestPlugin<?>> ingestPlugins;
   protected int threads;
+  protected int parseThreads;
 
   public LocalFileIngestCLIDriver(
       final DataStorePluginOptions storeOptions,
@@ -43,12 +44,24 @@ public class LocalFileIngestCLIDriver extends AbstractLocalFileIngestDriver {
       final VisibilityOptions ingestOptions,
       final LocalInputCommandLineOptions inputOptions,
       final int threads) {
+    this(storeOptions, indexOptions, ingestPlugins, ingestOptions, inputOptions, threads, 1);
+  }
+
+  public LocalFileIngestCLIDriver(
+      final DataStorePluginOptions storeOptions,
+      final List<IndexPluginOptions> indexOptions,
+      final Map<String, LocalFileIngestPlugin<?>> ingestPlugins,
+      final VisibilityOptions ingestOptions,
+      final LocalInputCommandLineOptions inputOptions,
+      final int threads,
+      final int parseThreads) {
     super(inputOptions);
     this.storeOptions = storeOptions;
     this.indexOptions = indexOptions;
     this.ingestOptions = ingestOptions;
     this.ingestPlugins = ingestPlugins;
     this.threads = threads;
+    this.parseThreads = parseThreads;
   }
 
   @Override
@@ -77,6 +90,11 @@ public class LocalFileIngestCLIDriver extends AbstractLocalFileIngestDriver {
     return threads;
   }
 
+  @Override
+  protected int getNumParseThreads() {
+    return parseThreads;
+  }
+
   @Override
   protected String getGlobalVisibility() {
     return ingestOptions.getVisibility();
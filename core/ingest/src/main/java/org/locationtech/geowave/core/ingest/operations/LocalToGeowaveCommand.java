@@ -53,6 +53,11 @@ public class LocalToGeowaveCommand extends ServiceEnabledCommand<Void> {
       description = "number of threads to use for ingest, default to 1 (optional)")
   private int threads = 1;
 
+  @Parameter(
+      names = {"--parseThreads"},
+      description = "number of threads to use for parsing a single file, default to 1 (optional). Only files whose format splits them into parts are parsed in parallel, such as gdelt with --gdelt.chunkSize greater than 0; other files are parsed by one thread")
+  private int parseThreads = 1;
+
   private DataStorePluginOptions inputStoreOptions = null;
 
   private List<IndexPluginOptions> inputIndexOptions = null;
@@ -123,6 +128,14 @@ public class LocalToGeowaveCommand extends ServiceEnabledCommand<Void> {
     this.threads = threads;
   }
 
+  public int getParseThreads() {
+    return parseThreads;
+  }
+
+  public void setParseThreads(final int parseThreads) {
+    this.parseThreads = parseThreads;
+  }
+
   public DataStorePluginOptions getInputStoreOptions() {
     return inputStoreOptions;
   }
@@ -170,7 +183,8 @@ public class LocalToGeowaveCommand extends ServiceEnabledCommand<Void> {
             ingestPlugins,
             ingestOptions,
             localInputOptions,
-            threads);
+            threads,
+            parseThreads);
 
     // Execute
     if (!driver.runOperation(inputPath, configFile)) {
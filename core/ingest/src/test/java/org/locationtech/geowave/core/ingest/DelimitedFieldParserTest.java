@@ -0,0 +1,77 @@
+/**
+ * Copyright (c) 2013-2019 Contributors to the Eclipse Foundation
+ *
+ * <p> See the NOTICE file distributed with this work for additional information regarding copyright
+ * ownership. All rights reserved. This program and the accompanying materials are made available
+ * under the terms of the Apache License, Version 2.0 which accompanies this distribution and is
+ * available at http://www.apache.org/licenses/LICENSE-2.0.txt
+ */
+package org.locationtech.geowave.core.ingest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import java.util.Random;
+import org.junit.Test;
+
+public class DelimitedFieldParserTest {
+
+  @Test
+  public void testFields() {
+    final DelimitedFieldParser parser = new DelimitedFieldParser('\t');
+    parser.parse("a\t\t 42 \t-7\t\t");
+    assertEquals(6, parser.getFieldCount());
+    assertEquals("a", parser.getString(0));
+    assertTrue(parser.isEmpty(1));
+    assertFalse(parser.isEmpty(2));
+    assertEquals(42, parser.getInt(2));
+    assertEquals(-7L, parser.getLong(3));
+    assertTrue(parser.isEmpty(5));
+    // the parser is reused across lines
+    parser.parse("b");
+    assertEquals(1, parser.getFieldCount());
+    assertEquals("b", parser.getString(0));
+  }
+
+  @Test
+  public void testNumbers() {
+    final DelimitedFieldParser parser = new DelimitedFieldParser(',');
+    parser.parse(
+        Long.MIN_VALUE + "," + Long.MAX_VALUE + ",9223372036854775808,1x,,-0.0,1e3,NaN,.5");
+    assertEquals(Long.MIN_VALUE, parser.getLong(0));
+    assertEquals(Long.MAX_VALUE, parser.getLong(1));
+    assertNumberFormatException(parser, 2);
+    assertNumberFormatException(parser, 3);
+    assertNumberFormatException(parser, 4);
+    assertEquals(Double.doubleToLongBits(-0.0), Double.doubleToLongBits(parser.getDouble(5)));
+    assertEquals(1000.0, parser.getDouble(6), 0);
+    assertTrue(Double.isNaN(parser.getDouble(7)));
+    assertEquals(0.5, parser.getDouble(8), 0);
+  }
+
+  @Test
+  public void testDoublesMatchParseDouble() {
+    final DelimitedFieldParser parser = new DelimitedFieldParser(',');
+    final Random random = new Random(42);
+    for (int i = 0; i < 100000; i++) {
+      final String value =
+          Long.toString(random.nextLong() % 1000000000L)
+              + "."
+              + Integer.toString(random.nextInt(100000000));
+      parser.parse(value);
+      assertEquals(value, Double.parseDouble(value), parser.getDouble(0), 0);
+    }
+  }
+
+  private static void assertNumberFormatException(
+      final DelimitedFieldParser parser,
+      final int field) {
+    try {
+      parser.getLong(field);
+      fail("field " + field + " should not be parsed as a long");
+    } catch (final NumberFormatException e) {
+      // expected
+    }
+  }
+}
@@ -0,0 +1,124 @@
+/**
+ * Copyright (c) 2013-2019 Contributors to the Eclipse Foundation
+ *
+ * <p> See the NOTICE file distributed with this work for additional information regarding copyright
+ * ownership. All rights reserved. This program and the accompanying materials are made available
+ * under the terms of the Apache License, Version 2.0 which accompanies this distribution and is
+ * available at http://www.apache.org/licenses/LICENSE-2.0.txt
+ */
+package org.locationtech.geowave.core.ingest.avro;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.commons.lang3.StringUtils;
+import org.junit.Test;
+
+public class WholeFileChunkIteratorTest {
+
+  @Test
+  public void testChunksEndOnLineBoundaries() {
+    final StringBuilder text = new StringBuilder();
+    for (int i = 0; i < 1000; i++) {
+      text.append("line ").append(i).append('\n');
+    }
+    for (final int chunkSize : new int[] {16, 100, 4096, 1 << 20}) {
+      final List<String> chunks = chunk(text.toString(), chunkSize);
+      assertEquals(text.toString(), String.join("", chunks));
+      for (final String chunk : chunks) {
+        assertTrue(chunk.endsWith("\n"));
+        assertTrue(chunk.length() <= chunkSize);
+      }
+    }
+  }
+
+  @Test
+  public void testLineLongerThanChunk() {
+    final String longLine = StringUtils.repeat("x", 1000) + "\n";
+    final String text = "a\nb\n" + longLine + "c\n" + longLine + longLine + "d\ne\nf";
+    final int chunkSize = 16;
+    final List<String> chunks = chunk(text, chunkSize);
+    assertEquals(text, String.join("", chunks));
+    int longChunks = 0;
+    for (final String chunk : chunks) {
+      if (chunk.length() > chunkSize) {
+        // a chunk only exceeds the chunk size to end with a whole line that is longer than it
+        assertTrue(chunk.endsWith(longLine));
+        assertTrue(chunk.length() < (chunkSize + longLine.length()));
+        longChunks++;
+      }
+    }
+    assertEquals(3, longChunks);
+    // the last line has no line ending
+    assertEquals("d\ne\nf", chunks.get(chunks.size() - 1));
+  }
+
+  @Test
+  public void testCrLfLineEndings() {
+    final StringBuilder text = new StringBuilder();
+    for (int i = 0; i < 200; i++) {
+      text.append("record\t").append(i).append("\r\n");
+    }
+    for (int chunkSize = 1; chunkSize < 40; chunkSize++) {
+      final List<String> chunks = chunk(text.toString(), chunkSize);
+      assertEquals(text.toString(), String.join("", chunks));
+      for (final String chunk : chunks) {
+        // the carriage return stays with its line feed
+        assertTrue(chunk.endsWith("\r\n"));
+        assertFalse(chunk.startsWith("\n"));
+      }
+    }
+  }
+
+  @Test
+  public void testEmptyFile() {
+    assertTrue(chunk("", 16).isEmpty());
+  }
+
+  /** Chunks the text, reading it a few bytes at a time to exercise partial reads */
+  private static List<String> chunk(final String text, final int chunkSize) {
+    final List<String> chunks = new ArrayList<>();
+    try (WholeFileChunkIterator it =
+        new WholeFileChunkIterator(
+            new TrickleInputStream(text.getBytes(StandardCharsets.UTF_8)),
+            "test.csv",
+            chunkSize)) {
+      while (it.hasNext()) {
+        final AvroWholeFile chunk = it.next();
+        assertEquals("test.csv", chunk.getOriginalFilePath());
+        final ByteBuffer bytes = chunk.getOriginalFile();
+        chunks.add(
+            new String(
+                bytes.array(),
+                bytes.arrayOffset() + bytes.position(),
+                bytes.remaining(),
+                StandardCharsets.UTF_8));
+      }
+    }
+    return chunks;
+  }
+
+  private static class TrickleInputStream extends InputStream {
+    private final ByteArrayInputStream in;
+
+    public TrickleInputStream(final byte[] bytes) {
+      in = new ByteArrayInputStream(bytes);
+    }
+
+    @Override
+    public int read() {
+      return in.read();
+    }
+
+    @Override
+    public int read(final byte[] b, final int off, final int len) {
+      return in.read(b, off, Math.min(len, 7));
+    }
+  }
+}
@@ -17,6 +17,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Objects;
 import java.util.Set;
 import java.util.TreeSet;
 import org.apache.commons.lang3.ArrayUtils;
@@ -38,6 +39,10 @@ import org.slf4j.LoggerFactory;
 public class IntermediateSplitInfo implements Comparable<IntermediateSplitInfo> {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(IntermediateSplitInfo.class);
+  private static final Comparator<RangeLocationPair> RANGE_ORDER =
+      Comparator.comparing(
+          (final RangeLocationPair p) -> toByteArray(p.getRange().getPartitionKey())).thenComparing(
+              p -> toByteArray(p.getRange().getStartSortKey()));
 
   protected class IndexRangeLocation {
     private RangeLocationPair rangeLocationPair;
@@ -277,6 +282,60 @@ public class IntermediateSplitInfo implements Comparable<IntermediateSplitInfo>
         : new IntermediateSplitInfo(otherSplitInfo, splitsProvider);
   }
 
+  /**
+   * Join ranges of this split that are contiguous within the same partition and location, so that
+   * splitting and merging by cardinality doesn't leave the record reader with many small scans over
+   * what is a single range.
+   */
+  synchronized void coalesceRanges() {
+    for (final SplitInfo si : splitInfo.values()) {
+      final List<RangeLocationPair> pairs = si.getRangeLocationPairs();
+      if (pairs.size() < 2) {
+        continue;
+      }
+      pairs.sort(RANGE_ORDER);
+      final List<RangeLocationPair> coalesced = new ArrayList<>(pairs.size());
+      RangeLocationPair current = pairs.get(0);
+      for (int i = 1; i < pairs.size(); i++) {
+        final RangeLocationPair next = pairs.get(i);
+        if (isContiguous(current, next)) {
+          current =
+              new RangeLocationPair(
+                  new GeoWaveRowRange(
+                      current.getRange().getPartitionKey(),
+                      current.getRange().getStartSortKey(),
+                      next.getRange().getEndSortKey(),
+                      current.getRange().isStartSortKeyInclusive(),
+                      next.getRange().isEndSortKeyInclusive()),
+                  current.getLocation(),
+                  current.getCardinality() + next.getCardinality());
+        } else {
+          coalesced.add(current);
+          current = next;
+        }
+      }
+      coalesced.add(current);
+      pairs.clear();
+      pairs.addAll(coalesced);
+    }
+  }
+
+  private static boolean isContiguous(
+      final RangeLocationPair first,
+      final RangeLocationPair second) {
+    final GeoWaveRowRange firstRange = first.getRange();
+    final GeoWaveRowRange secondRange = second.getRange();
+    return Arrays.equals(firstRange.getPartitionKey(), secondRange.getPartitionKey())
+        && Objects.equals(first.getLocation(), second.getLocation())
+        && (firstRange.getEndSortKey() != null)
+        && Arrays.equals(firstRange.getEndSortKey(), secondRange.getStartSortKey())
+        && (firstRange.isEndSortKeyInclusive() || secondRange.isStartSortKeyInclusive());
+  }
+
+  private static ByteArray toByteArray(final byte[] bytes) {
+    return new ByteArray(bytes == null ? new byte[0] : bytes);
+  }
+
   private void addPairForIndex(
       final Map<String, SplitInfo> otherSplitInfo,
       final RangeLocationPair pair,
@@ -407,7 +466,7 @@ public class IntermediateSplitInfo implements Comparable<IntermediateSplitInfo>
     return true;
   }
 
-  private synchronized double getTotalCardinality() {
+  synchronized double getTotalCardinality() {
     double sum = 0.0;
     for (final SplitInfo si : splitInfo.values()) {
       for (final RangeLocationPair pair : si.getRangeLocationPairs()) {
@@ -58,6 +58,9 @@ public class SplitsProvider {
   private static final Logger LOGGER = LoggerFactory.getLogger(SplitsProvider.class);
 
   private static final BigInteger TWO = BigInteger.valueOf(2);
+  // splits are rebalanced while the largest is more than this multiple of the average
+  private static final double MAX_SPLIT_SKEW = 2.0;
+  private static final int MAX_BALANCING_PASSES_PER_SPLIT = 4;
 
   public SplitsProvider() {}
 
@@ -210,7 +213,15 @@ public class SplitsProvider {
       } while (splits.size() > maxSplits);
     }
 
+    if (!statsCache.isEmpty()) {
+      balanceSplits(splits, statsCache, maxSplits);
+    }
+
     for (final IntermediateSplitInfo split : splits) {
+      split.coalesceRanges();
+      if (LOGGER.isDebugEnabled()) {
+        LOGGER.debug("Split with an estimated " + (long) split.getTotalCardinality() + " rows");
+      }
       retVal.add(
           split.toFinalSplit(
               statsStore,
@@ -222,6 +233,66 @@ public class SplitsProvider {
     return retVal;
   }
 
+  /**
+   * Reaching the split count by bisecting the largest split still leaves splits of very different
+   * sizes when the data is skewed, and the largest split dominates the job time. This takes the
+   * average size of the splits as the row budget for each split and, while the largest split is
+   * more than twice the budget, splits it in half using the row range histogram quantiles. To keep
+   * the split count near the requested count, the two smallest splits are merged whenever they fit
+   * within the budget together, and otherwise the count can grow up to the maximum split count (or
+   * double the initial count if there is no maximum).
+   */
+  protected void balanceSplits(
+      final TreeSet<IntermediateSplitInfo> splits,
+      final Map<Pair<Index, ByteArray>, RowRangeHistogramStatistics<?>> statsCache,
+      final Integer maxSplits) {
+    final int initialCount = splits.size();
+    if (initialCount < 2) {
+      return;
+    }
+    double totalCardinality = 0;
+    for (final IntermediateSplitInfo split : splits) {
+      totalCardinality += split.getTotalCardinality();
+    }
+    final double budget = totalCardinality / initialCount;
+    if (budget <= 0) {
+      return;
+    }
+    final int splitLimit =
+        ((maxSplits != null) && (maxSplits > 0)) ? Math.max(maxSplits, initialCount)
+            : initialCount * 2;
+    final List<IntermediateSplitInfo> unsplittable = new ArrayList<>();
+    for (int i = 0; (i < (initialCount * MAX_BALANCING_PASSES_PER_SPLIT))
+        && !splits.isEmpty(); i++) {
+      if (splits.last().getTotalCardinality() <= (MAX_SPLIT_SKEW * budget)) {
+        break;
+      }
+      if (splits.size() >= 2) {
+        final IntermediateSplitInfo smallest = splits.pollFirst();
+        final IntermediateSplitInfo nextSmallest = splits.pollFirst();
+        if ((smallest.getTotalCardinality() + nextSmallest.getTotalCardinality()) <= budget) {
+          smallest.merge(nextSmallest);
+          splits.add(smallest);
+        } else {
+          splits.add(smallest);
+          splits.add(nextSmallest);
+          if ((splits.size() + unsplittable.size()) >= splitLimit) {
+            break;
+          }
+        }
+      }
+      final IntermediateSplitInfo largest = splits.pollLast();
+      final IntermediateSplitInfo otherSplit = largest.split(statsCache);
+      if (otherSplit == null) {
+        unsplittable.add(largest);
+      } else {
+        splits.add(largest);
+        splits.add(otherSplit);
+      }
+    }
+    splits.addAll(unsplittable);
+  }
+
   protected TreeSet<IntermediateSplitInfo> populateIntermediateSplits(
       final TreeSet<IntermediateSplitInfo> splits,
       final DataStoreOperations operations,
@@ -0,0 +1,253 @@
+/**
+ * Copyright (c) 2013-2019 Contributors to the Eclipse Foundation
+ *
+ * <p> See the NOTICE file distributed with this work for additional information regarding copyright
+ * ownership. All rights reserved. This program and the accompanying materials are made available
+ * under the terms of the Apache License, Version 2.0 which accompanies this distribution and is
+ * available at http://www.apache.org/licenses/LICENSE-2.0.txt
+ */
+package org.locationtech.geowave.mapreduce.splits;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import org.apache.commons.lang3.tuple.Pair;
+import org.junit.Test;
+import org.locationtech.geowave.core.index.ByteArray;
+import org.locationtech.geowave.core.store.adapter.statistics.RowRangeHistogramStatistics;
+import org.locationtech.geowave.core.store.api.Index;
+import org.locationtech.geowave.core.store.entities.GeoWaveKeyImpl;
+import org.locationtech.geowave.core.store.entities.GeoWaveRow;
+import org.locationtech.geowave.core.store.entities.GeoWaveRowImpl;
+import org.locationtech.geowave.core.store.entities.GeoWaveValue;
+import org.locationtech.geowave.core.store.index.NullIndex;
+
+public class SplitsProviderTest {
+  private static final byte[] PARTITION = new byte[] {1};
+  private static final byte[] OTHER_PARTITION = new byte[] {2};
+
+  private final Index index = new NullIndex("test");
+  private final SplitsProvider splitsProvider = new SplitsProvider();
+
+  @Test
+  public void testBalanceSplitsOversizedSplit() {
+    final RowRangeHistogramStatistics<?> histogram =
+        new RowRangeHistogramStatistics<>(index.getName(), PARTITION);
+    // 9000 rows in the first eighth of the first range, and 100 rows in each of three others
+    ingest(histogram, 0x0000, 0x0800, 9000);
+    ingest(histogram, 0x4000, 0x5000, 100);
+    ingest(histogram, 0x5000, 0x6000, 100);
+    ingest(histogram, 0x6000, 0x7000, 100);
+    final Map<Pair<Index, ByteArray>, RowRangeHistogramStatistics<?>> statsCache = new HashMap<>();
+    statsCache.put(Pair.of(index, new ByteArray(PARTITION)), histogram);
+
+    final TreeSet<IntermediateSplitInfo> splits = new TreeSet<>();
+    splits.add(createSplit(histogram, 0x0000, 0x4000));
+    splits.add(createSplit(histogram, 0x4000, 0x5000));
+    splits.add(createSplit(histogram, 0x5000, 0x6000));
+    splits.add(createSplit(histogram, 0x6000, 0x7000));
+    final double total = totalCardinality(splits);
+    final double budget = total / 4;
+
+    splitsProvider.balanceSplits(splits, statsCache, null);
+
+    // the two smallest splits are merged, and the oversized split is split at its median row
+    // rather than at the midpoint of its keys, which would leave almost every row in one half
+    assertEquals(4, splits.size());
+    for (final IntermediateSplitInfo split : splits) {
+      assertTrue(
+          "split of " + split.getTotalCardinality() + " rows",
+          split.getTotalCardinality() <= (2 * budget));
+    }
+    final IntermediateSplitInfo largest = splits.pollLast();
+    final IntermediateSplitInfo nextLargest = splits.pollLast();
+    assertEquals(
+        largest.getTotalCardinality(),
+        nextLargest.getTotalCardinality(),
+        largest.getTotalCardinality() * 0.1);
+    splits.add(largest);
+    splits.add(nextLargest);
+    assertEquals(total, totalCardinality(splits), total * 0.05);
+  }
+
+  @Test
+  public void testBalanceSplitsMergesSmallestSplits() {
+    // without a histogram the oversized split can't be split, but the smallest splits are merged
+    final Map<Pair<Index, ByteArray>, RowRangeHistogramStatistics<?>> statsCache = new HashMap<>();
+    final SplitInfo small1 = createSplitInfo(pair(PARTITION, 0x0000, 0x1000, 100));
+    final SplitInfo small2 = createSplitInfo(pair(PARTITION, 0x2000, 0x3000, 100));
+    final TreeSet<IntermediateSplitInfo> splits = new TreeSet<>();
+    splits.add(createSplit(small1));
+    splits.add(createSplit(small2));
+    splits.add(createSplit(createSplitInfo(pair(PARTITION, 0x3000, 0x4000, 1000))));
+    splits.add(createSplit(createSplitInfo(pair(PARTITION, 0x4000, 0x5000, 1000))));
+    splits.add(createSplit(createSplitInfo(pair(OTHER_PARTITION, null, null, 5000))));
+
+    splitsProvider.balanceSplits(splits, statsCache, null);
+
+    assertEquals(4, splits.size());
+    assertEquals(7200, totalCardinality(splits), 0);
+    final List<Double> cardinalities = new ArrayList<>();
+    for (final IntermediateSplitInfo split : splits) {
+      cardinalities.add(split.getTotalCardinality());
+    }
+    assertEquals(Arrays.asList(200.0, 1000.0, 1000.0, 5000.0), cardinalities);
+    // the smallest split absorbed the ranges of the next smallest
+    final SplitInfo merged = small1.getRangeLocationPairs().size() == 2 ? small1 : small2;
+    assertEquals(2, merged.getRangeLocationPairs().size());
+  }
+
+  @Test
+  public void testBalanceSplitsLeavesEvenSplits() {
+    // no split is more than twice the average, so even the smallest splits are not merged
+    final Map<Pair<Index, ByteArray>, RowRangeHistogramStatistics<?>> statsCache = new HashMap<>();
+    final TreeSet<IntermediateSplitInfo> splits = new TreeSet<>();
+    splits.add(createSplit(createSplitInfo(pair(PARTITION, 0x0000, 0x1000, 1000))));
+    splits.add(createSplit(createSplitInfo(pair(PARTITION, 0x1000, 0x2000, 1200))));
+    splits.add(createSplit(createSplitInfo(pair(PARTITION, 0x2000, 0x3000, 500))));
+    splits.add(createSplit(createSplitInfo(pair(PARTITION, 0x3000, 0x4000, 300))));
+    splitsProvider.balanceSplits(splits, statsCache, null);
+    assertEquals(4, splits.size());
+
+    final TreeSet<IntermediateSplitInfo> single = new TreeSet<>();
+    single.add(createSplit(createSplitInfo(pair(PARTITION, 0x0000, 0x1000, 1000))));
+    splitsProvider.balanceSplits(single, statsCache, null);
+    assertEquals(1, single.size());
+  }
+
+  @Test
+  public void testCoalesceRanges() {
+    final SplitInfo splitInfo =
+        createSplitInfo(
+            // out of order, and contiguous with the range ending at 0x2000
+            pair(PARTITION, 0x2000, 0x3000, true, true, 3),
+            pair(PARTITION, 0x1000, 0x2000, true, false, 2),
+            // contiguous ranges with a different location or partition are kept apart
+            new RangeLocationPair(range(PARTITION, 0x3000, 0x4000, false, false), "other", 4),
+            pair(OTHER_PARTITION, 0x0000, 0x1000, true, false, 5),
+            pair(OTHER_PARTITION, 0x2000, 0x3000, true, false, 6),
+            // neither range includes the shared key, so they are not contiguous
+            pair(OTHER_PARTITION, 0x3000, 0x4000, true, false, 7),
+            pair(OTHER_PARTITION, 0x4000, 0x5000, false, false, 8),
+            // an unbounded range
+            pair(PARTITION, 0x5000, null, true, false, 9),
+            pair(PARTITION, 0x0000, 0x1000, true, true, 1));
+    createSplit(splitInfo).coalesceRanges();
+
+    final List<RangeLocationPair> pairs = splitInfo.getRangeLocationPairs();
+    assertEquals(6, pairs.size());
+    assertRange(pairs.get(0), PARTITION, 0x0000, 0x3000, true, true, 6);
+    assertEquals("", pairs.get(0).getLocation());
+    assertRange(pairs.get(1), PARTITION, 0x3000, 0x4000, false, false, 4);
+    assertEquals("other", pairs.get(1).getLocation());
+    assertRange(pairs.get(2), PARTITION, 0x5000, null, true, false, 9);
+    assertRange(pairs.get(3), OTHER_PARTITION, 0x0000, 0x1000, true, false, 5);
+    assertRange(pairs.get(4), OTHER_PARTITION, 0x2000, 0x4000, true, false, 13);
+    assertRange(pairs.get(5), OTHER_PARTITION, 0x4000, 0x5000, false, false, 8);
+  }
+
+  private static void assertRange(
+      final RangeLocationPair pair,
+      final byte[] partition,
+      final Integer start,
+      final Integer end,
+      final boolean startInclusive,
+      final boolean endInclusive,
+      final double cardinality) {
+    final GeoWaveRowRange range = pair.getRange();
+    assertArrayEquals(partition, range.getPartitionKey());
+    assertArrayEquals(key(start), range.getStartSortKey());
+    assertArrayEquals(key(end), range.getEndSortKey());
+    assertEquals(startInclusive, range.isStartSortKeyInclusive());
+    assertEquals(endInclusive, range.isEndSortKeyInclusive());
+    assertEquals(cardinality, pair.getCardinality(), 0);
+  }
+
+  private static void ingest(
+      final RowRangeHistogramStatistics<?> histogram,
+      final int start,
+      final int end,
+      final int count) {
+    final GeoWaveRow[] rows = new GeoWaveRow[count];
+    for (int i = 0; i < count; i++) {
+      rows[i] =
+          new GeoWaveRowImpl(
+              new GeoWaveKeyImpl(
+                  new byte[] {(byte) i},
+                  (short) 1,
+                  PARTITION,
+                  key(start + (int) (((long) i * (end - start)) / count)),
+                  0),
+              new GeoWaveValue[0]);
+    }
+    histogram.entryIngested(null, rows);
+  }
+
+  private static byte[] key(final Integer value) {
+    if (value == null) {
+      return null;
+    }
+    return new byte[] {(byte) (value >> 8), (byte) (int) value};
+  }
+
+  private static GeoWaveRowRange range(
+      final byte[] partition,
+      final Integer start,
+      final Integer end,
+      final boolean startInclusive,
+      final boolean endInclusive) {
+    return new GeoWaveRowRange(partition, key(start), key(end), startInclusive, endInclusive);
+  }
+
+  private static RangeLocationPair pair(
+      final byte[] partition,
+      final Integer start,
+      final Integer end,
+      final double cardinality) {
+    return pair(partition, start, end, true, false, cardinality);
+  }
+
+  private static RangeLocationPair pair(
+      final byte[] partition,
+      final Integer start,
+      final Integer end,
+      final boolean startInclusive,
+      final boolean endInclusive,
+      final double cardinality) {
+    return new RangeLocationPair(
+        range(partition, start, end, startInclusive, endInclusive),
+        cardinality);
+  }
+
+  private SplitInfo createSplitInfo(final RangeLocationPair... pairs) {
+    return new SplitInfo(index, new ArrayList<>(Arrays.asList(pairs)));
+  }
+
+  private IntermediateSplitInfo createSplit(
+      final RowRangeHistogramStatistics<?> histogram,
+      final int start,
+      final int end) {
+    return createSplit(
+        createSplitInfo(pair(PARTITION, start, end, histogram.cardinality(key(start), key(end)))));
+  }
+
+  private IntermediateSplitInfo createSplit(final SplitInfo splitInfo) {
+    final Map<String, SplitInfo> splitInfoMap = new HashMap<>();
+    splitInfoMap.put(index.getName(), splitInfo);
+    return new IntermediateSplitInfo(splitInfoMap, splitsProvider);
+  }
+
+  private static double totalCardinality(final Iterable<IntermediateSplitInfo> splits) {
+    double total = 0;
+    for (final IntermediateSplitInfo split : splits) {
+      total += split.getTotalCardinality();
+    }
+    return total;
+  }
+}
@@ -38,6 +38,8 @@ import org.locationtech.geowave.core.store.index.text.TextIndexStrategy;
 import org.locationtech.geowave.core.store.query.aggregate.CountAggregation;
 import org.locationtech.geowave.core.store.query.aggregate.DataStatisticsAggregation;
 import org.locationtech.geowave.core.store.query.aggregate.MergingAggregation;
+import org.locationtech.geowave.core.store.query.aggregate.NumericSummary;
+import org.locationtech.geowave.core.store.query.aggregate.NumericSummaryGroups;
 import org.locationtech.geowave.core.store.query.constraints.BasicOrderedConstraintQuery;
 import org.locationtech.geowave.core.store.query.constraints.BasicOrderedConstraintQuery.OrderedConstraints;
 import org.locationtech.geowave.core.store.query.constraints.BasicQuery;
@@ -128,6 +130,8 @@ public class StorePersistableRegistry implements PersistableRegistrySpi {
         new PersistableIdAndConstructor((short) 257, ConstraintsByClass::new),
         new PersistableIdAndConstructor((short) 258, OrderedConstraints::new),
         new PersistableIdAndConstructor((short) 259, BasicOrderedConstraintQuery::new),
-        new PersistableIdAndConstructor((short) 260, BasicQuery::new)};
+        new PersistableIdAndConstructor((short) 260, BasicQuery::new),
+        new PersistableIdAndConstructor((short) 261, NumericSummary::new),
+        new PersistableIdAndConstructor((short) 262, NumericSummaryGroups::new)};
   }
 }
@@ -32,6 +32,7 @@ import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
  */
 public class LazyReadPersistenceEncoding extends IndexedAdapterPersistenceEncoding {
   private FieldValueReader deferredFieldReader;
+  private InstanceFieldValueReader instanceFieldReader;
 
   public LazyReadPersistenceEncoding(
       final short adapterId,
@@ -53,13 +54,14 @@ public class LazyReadPersistenceEncoding extends IndexedAdapterPersistenceEncodi
         new MultiFieldPersistentDataset<CommonIndexValue>(),
         new MultiFieldPersistentDataset<byte[]>(),
         new MultiFieldPersistentDataset<>());
-    deferredFieldReader =
+    instanceFieldReader =
         new InstanceFieldValueReader(
             fieldSubsetBitmask,
             dataAdapter,
             indexModel,
             fieldValues,
             isSecondaryIndex);
+    deferredFieldReader = instanceFieldReader;
   }
 
   public LazyReadPersistenceEncoding(
@@ -111,6 +113,57 @@ public class LazyReadPersistenceEncoding extends IndexedAdapterPersistenceEncodi
     return super.getCommonData();
   }
 
+  /**
+   * Get a single adapter extended field value. If the row has not been read yet, only the requested
+   * field is read and the rest of the row remains deferred, which is much cheaper for rows with
+   * many fields when only a few are needed. Fields that are part of the common index model should
+   * be retrieved using {@link #getCommonIndexValue(String)} instead.
+   *
+   * @param fieldName the field name
+   * @return the value, or null if the row does not contain the field
+   */
+  public Object getAdapterExtendedValue(final String fieldName) {
+    final FieldValueReader reader = deferredFieldReader;
+    if ((reader != null) && reader.canReadField(fieldName, false)) {
+      return reader.readField(fieldName, false);
+    }
+    return getAdapterExtendedData().getValue(fieldName);
+  }
+
+  /**
+   * Get a single common index field value. If the row has not been read yet, only the requested
+   * field is read and the rest of the row remains deferred.
+   *
+   * @param fieldName the field name within the common index model
+   * @return the value, or null if the row does not contain the field
+   */
+  public CommonIndexValue getCommonIndexValue(final String fieldName) {
+    final FieldValueReader reader = deferredFieldReader;
+    if ((reader != null) && reader.canReadField(fieldName, true)) {
+      return (CommonIndexValue) reader.readField(fieldName, true);
+    }
+    return getCommonData().getValue(fieldName);
+  }
+
+  /**
+   * Clear the values that have been read and defer reading the given field values instead. This is
+   * only valid for an encoding constructed with field values rather than a supplier, and only when
+   * nothing retains a reference to this encoding or its datasets.
+   *
+   * @param fieldValues the field values of the next row
+   */
+  @SuppressWarnings("unchecked")
+  protected void resetFieldValues(final GeoWaveValue[] fieldValues) {
+    if (instanceFieldReader == null) {
+      throw new IllegalStateException("Only encodings of field values can be reset");
+    }
+    ((MultiFieldPersistentDataset<CommonIndexValue>) commonData).clear();
+    ((MultiFieldPersistentDataset<byte[]>) unknownData).clear();
+    ((MultiFieldPersistentDataset<Object>) adapterExtendedData).clear();
+    instanceFieldReader.fieldValues = fieldValues;
+    deferredFieldReader = instanceFieldReader;
+  }
+
   @SuppressFBWarnings(justification = "This is intentional to avoid unnecessary sync")
   private void deferredReadFields() {
     if (deferredFieldReader != null) {
@@ -160,6 +213,54 @@ public class LazyReadPersistenceEncoding extends IndexedAdapterPersistenceEncodi
 
     abstract protected GeoWaveValue[] getFieldValues();
 
+    protected boolean canReadField(final String fieldName, final boolean commonIndexField) {
+      if (isSecondaryIndex) {
+        return false;
+      }
+      if (commonIndexField) {
+        return indexModel.getReader(fieldName) != null;
+      }
+      return (indexModel.getReader(fieldName) == null)
+          && (dataAdapter.getReader(fieldName) != null);
+    }
+
+    protected Object readField(final String fieldName, final boolean commonIndexField) {
+      final int position = dataAdapter.getPositionOfOrderedField(indexModel, fieldName);
+      if (position < 0) {
+        return null;
+      }
+      final byte[] positionBitmask = BitmaskUtils.generateCompositeBitmask(position);
+      if ((fieldSubsetBitmask != null)
+          && !BitmaskUtils.isAnyBitSet(
+              BitmaskUtils.generateANDBitmask(positionBitmask, fieldSubsetBitmask))) {
+        return null;
+      }
+      for (final GeoWaveValue value : getFieldValues()) {
+        if (!BitmaskUtils.isAnyBitSet(
+            BitmaskUtils.generateANDBitmask(value.getFieldMask(), positionBitmask))) {
+          continue;
+        }
+        final List<FlattenedFieldInfo> fieldInfos =
+            DataStoreUtils.decomposeFlattenedFields(
+                value.getFieldMask(),
+                value.getValue(),
+                value.getVisibility(),
+                position).getFieldsRead();
+        for (final FlattenedFieldInfo fieldInfo : fieldInfos) {
+          if (fieldInfo.getFieldPosition() == position) {
+            if (commonIndexField) {
+              final CommonIndexValue indexValue =
+                  indexModel.getReader(fieldName).readField(fieldInfo.getValue());
+              indexValue.setVisibility(value.getVisibility());
+              return indexValue;
+            }
+            return dataAdapter.getReader(fieldName).readField(fieldInfo.getValue());
+          }
+        }
+      }
+      return null;
+    }
+
     private void readValue(final GeoWaveValue value) {
       final List<FlattenedFieldInfo> fieldInfos =
           DataStoreUtils.decomposeFlattenedFields(
@@ -203,7 +304,7 @@ public class LazyReadPersistenceEncoding extends IndexedAdapterPersistenceEncodi
     }
   }
   private class InstanceFieldValueReader extends FieldValueReader {
-    private final GeoWaveValue[] fieldValues;
+    private GeoWaveValue[] fieldValues;
 
     public InstanceFieldValueReader(
         final byte[] fieldSubsetBitmask,
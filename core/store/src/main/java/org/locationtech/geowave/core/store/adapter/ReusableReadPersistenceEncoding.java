@@ -0,0 +1,99 @@
+/**
+ * Copyright (c) 2013-2019 Contributors to the Eclipse Foundation
+ *
+ * <p> See the NOTICE file distributed with this work for additional information regarding copyright
+ * ownership. All rights reserved. This program and the accompanying materials are made available
+ * under the terms of the Apache License, Version 2.0 which accompanies this distribution and is
+ * available at http://www.apache.org/licenses/LICENSE-2.0.txt
+ */
+package org.locationtech.geowave.core.store.adapter;
+
+import org.locationtech.geowave.core.store.entities.GeoWaveRow;
+import org.locationtech.geowave.core.store.index.CommonIndexModel;
+
+/**
+ * A flyweight {@link LazyReadPersistenceEncoding} that is reset for each row that is read, so that
+ * rows rejected by client filters do not allocate a new encoding. The encoding must not be reset
+ * while anything retains a reference to it, so once a row has been accepted and decoded a new
+ * instance should be used for the next row.
+ */
+public class ReusableReadPersistenceEncoding extends LazyReadPersistenceEncoding {
+  private short adapterId;
+  private byte[] dataId;
+  private byte[] partitionKey;
+  private byte[] sortKey;
+  private int duplicateCount;
+
+  public ReusableReadPersistenceEncoding(
+      final InternalDataAdapter<?> dataAdapter,
+      final CommonIndexModel indexModel,
+      final byte[] fieldSubsetBitmask) {
+    super(
+        dataAdapter.getAdapterId(),
+        null,
+        null,
+        null,
+        0,
+        dataAdapter,
+        indexModel,
+        fieldSubsetBitmask,
+        null,
+        false);
+    adapterId = dataAdapter.getAdapterId();
+  }
+
+  /**
+   * Reset this encoding to represent the given row.
+   *
+   * @param row the row to read
+   * @return this encoding
+   */
+  public ReusableReadPersistenceEncoding reset(final GeoWaveRow row) {
+    dataId = row.getDataId();
+    partitionKey = row.getPartitionKey();
+    sortKey = row.getSortKey();
+    duplicateCount = row.getNumberOfDuplicates();
+    resetFieldValues(row.getFieldValues());
+    return this;
+  }
+
+  @Override
+  public short getInternalAdapterId() {
+    return adapterId;
+  }
+
+  @Override
+  public void setInternalAdapterId(final short internalAdapterId) {
+    adapterId = internalAdapterId;
+  }
+
+  @Override
+  public byte[] getDataId() {
+    return dataId;
+  }
+
+  @Override
+  public byte[] getInsertionPartitionKey() {
+    return partitionKey;
+  }
+
+  @Override
+  public byte[] getInsertionSortKey() {
+    return sortKey;
+  }
+
+  @Override
+  public int getDuplicateCount() {
+    return duplicateCount;
+  }
+
+  @Override
+  public boolean isDuplicated() {
+    return duplicateCount > 0;
+  }
+
+  @Override
+  public boolean isDeduplicationEnabled() {
+    return duplicateCount >= 0;
+  }
+}
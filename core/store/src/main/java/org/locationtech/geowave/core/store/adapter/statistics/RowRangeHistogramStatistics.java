@@ -63,6 +63,15 @@ public class RowRangeHistogramStatistics<T> extends
         pair.getRight());
   }
 
+  public String getIndexName() {
+    return PartitionStatisticsQueryBuilder.decomposeIndexAndPartitionFromId(extendedId).getLeft();
+  }
+
+  /** @return the partition key of the histogram, which is null if the index is not partitioned */
+  public byte[] getPartitionKey() {
+    return PartitionStatisticsQueryBuilder.decomposeIndexAndPartitionFromId(extendedId).getRight();
+  }
+
   public double cardinality(final byte[] start, final byte[] end) {
     return (end == null ? histogram.getTotalCount()
         : (histogram.sum(ByteUtils.toDouble(end), true)) // should be inclusive
@@ -11,8 +11,12 @@ package org.locationtech.geowave.core.store.adapter.statistics;
 import java.io.Closeable;
 import java.io.Flushable;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 import org.locationtech.geowave.core.store.DataStoreStatisticsProvider;
 import org.locationtech.geowave.core.store.adapter.InternalDataAdapter;
 import org.locationtech.geowave.core.store.api.DataTypeAdapter;
@@ -28,6 +32,15 @@ import org.slf4j.LoggerFactory;
  * This tool does not react to callbacks if the provided statistics store is null or the provided
  * data adapter does not implement {@link DataStatisticsStore}.
  *
+ * <p> Statistics are accumulated in stripes, each with its own set of statistics builders, so that
+ * threads ingesting, scanning or deleting concurrently rarely contend with each other. The stripes
+ * are merged when the statistics are flushed. Statistics are flushed automatically when the number
+ * of updates reaches a threshold, and optionally when a time interval has elapsed since the last
+ * flush or when the used heap exceeds a fraction of the maximum heap. These policies can be
+ * configured with the {@value #FLUSH_THRESHOLD_PROPERTY}, {@value #FLUSH_INTERVAL_PROPERTY} and
+ * {@value #FLUSH_HEAP_FRACTION_PROPERTY} system properties, or disabled entirely with
+ * {@value #SKIP_FLUSH_PROPERTY}.
+ *
  * @param <T> Entry type
  */
 public class StatsCompositionTool<T> implements
@@ -39,14 +52,31 @@ public class StatsCompositionTool<T> implements
     Flushable {
   private static final Logger LOGGER = LoggerFactory.getLogger(StatsCompositionTool.class);
   public static final int FLUSH_STATS_THRESHOLD = 1000000;
+  public static final String SKIP_FLUSH_PROPERTY = "StatsCompositionTool.skipFlush";
+  public static final String FLUSH_THRESHOLD_PROPERTY = "StatsCompositionTool.flushThreshold";
+  public static final String FLUSH_INTERVAL_PROPERTY = "StatsCompositionTool.flushIntervalMillis";
+  public static final String FLUSH_HEAP_FRACTION_PROPERTY =
+      "StatsCompositionTool.flushHeapFraction";
+  // the number of updates a stripe accumulates before it publishes them and checks the flush
+  // policies
+  private static final int POLICY_CHECK_INTERVAL = 4096;
+  private static final int MAX_STRIPES = 32;
 
-  int updateCount = 0;
   DataStatisticsStore statisticsStore;
-  List<DataStatisticsBuilder<T, ?, ?>> statisticsBuilders = null;
+  StatisticsId[] statisticsIds = null;
   final Object MUTEX = new Object();
   protected boolean skipFlush = false;
+  private long flushThreshold = FLUSH_STATS_THRESHOLD;
+  private long flushIntervalMillis = 0;
+  private double flushHeapFraction = 0;
   private boolean overwrite;
-  private short adapterId;
+  private final short adapterId;
+  private Index index;
+  private DataTypeAdapter<T> adapter;
+  private DataStoreStatisticsProvider<T> statisticsProvider;
+  private List<Stripe> stripes;
+  private final AtomicLong pendingUpdates = new AtomicLong();
+  private volatile long lastFlushTime = System.currentTimeMillis();
 
   public StatsCompositionTool(
       final DataStoreStatisticsProvider<T> statisticsProvider,
@@ -72,117 +102,134 @@ public class StatsCompositionTool<T> implements
       final Index index,
       final DataTypeAdapter<T> adapter,
       final DataStoreStatisticsProvider<T> statisticsProvider) {
-    final StatisticsId[] statisticsIds = statisticsProvider.getSupportedStatistics();
-    statisticsBuilders = new ArrayList<>(statisticsIds.length);
-    for (final StatisticsId id : statisticsIds) {
-      statisticsBuilders.add(new DataStatisticsBuilder<>(index, adapter, statisticsProvider, id));
+    this.index = index;
+    this.adapter = adapter;
+    this.statisticsProvider = statisticsProvider;
+    statisticsIds = statisticsProvider.getSupportedStatistics();
+    // use a power of 2 so the stripe can be chosen with a mask
+    final int stripeCount =
+        Math.min(
+            MAX_STRIPES,
+            Integer.highestOneBit(
+                Math.max(1, Runtime.getRuntime().availableProcessors() - 1)) << 1);
+    stripes = new ArrayList<>(stripeCount);
+    for (int i = 0; i < stripeCount; i++) {
+      stripes.add(new Stripe());
     }
     try {
-      final Object v = System.getProperty("StatsCompositionTool.skipFlush");
+      final Object v = System.getProperty(SKIP_FLUSH_PROPERTY);
       skipFlush = ((v != null) && v.toString().equalsIgnoreCase("true"));
+      flushThreshold = Long.getLong(FLUSH_THRESHOLD_PROPERTY, FLUSH_STATS_THRESHOLD);
+      flushIntervalMillis = Long.getLong(FLUSH_INTERVAL_PROPERTY, 0L);
+      final String heapFraction = System.getProperty(FLUSH_HEAP_FRACTION_PROPERTY);
+      if (heapFraction != null) {
+        flushHeapFraction = Double.parseDouble(heapFraction);
+      }
     } catch (final Exception ex) {
-      LOGGER.error("Unable to determine property StatsCompositionTool.skipFlush", ex);
+      LOGGER.error("Unable to determine StatsCompositionTool flush properties", ex);
     }
   }
 
   @Override
   public void entryDeleted(final T entry, final GeoWaveRow... kvs) {
-    if (statisticsBuilders == null) {
+    if (statisticsIds == null) {
       return;
     }
-    synchronized (MUTEX) {
-      for (final DataStatisticsBuilder<T, ?, ?> builder : statisticsBuilders) {
+    final Stripe stripe = getStripe();
+    final boolean flush;
+    synchronized (stripe) {
+      for (final DataStatisticsBuilder<T, ?, ?> builder : stripe.getBuilders()) {
         builder.entryDeleted(entry, kvs);
       }
-      updateCount++;
-      checkStats();
+      flush = stripe.updated();
+    }
+    if (flush) {
+      flush();
     }
   }
 
   @Override
   public void entryScanned(final T entry, final GeoWaveRow kv) {
-    if (statisticsBuilders == null) {
+    if (statisticsIds == null) {
       return;
     }
-
-    synchronized (MUTEX) {
-      for (final DataStatisticsBuilder<T, ?, ?> builder : statisticsBuilders) {
+    final Stripe stripe = getStripe();
+    final boolean flush;
+    synchronized (stripe) {
+      for (final DataStatisticsBuilder<T, ?, ?> builder : stripe.getBuilders()) {
         builder.entryScanned(entry, kv);
       }
-      updateCount++;
-      checkStats();
+      flush = stripe.updated();
+    }
+    if (flush) {
+      flush();
     }
   }
 
   /** Update statistics store */
   @Override
   public void flush() {
-    if (statisticsBuilders == null) {
+    if (statisticsIds == null) {
       return;
     }
 
     synchronized (MUTEX) {
-      for (final DataStatisticsBuilder<T, ?, ?> builder : statisticsBuilders) {
-        final Collection<InternalDataStatistics<T, ?, ?>> statistics =
-            (Collection) builder.getStatistics();
-        if (overwrite) {
-          final StatisticsId id = builder.getStatisticsId();
+      pendingUpdates.set(0);
+      lastFlushTime = System.currentTimeMillis();
+      // merge the statistics of every stripe so each statistic is only incorporated once
+      final Map<StatisticsKey, InternalDataStatistics<T, ?, ?>> mergedStatistics =
+          new LinkedHashMap<>();
+      for (final Stripe stripe : stripes) {
+        synchronized (stripe) {
+          stripe.drainTo(mergedStatistics);
+        }
+      }
+      if (overwrite) {
+        for (final StatisticsId id : statisticsIds) {
           // TODO how should we deal with authorizations/visibilities
           // here
           statisticsStore.removeStatistics(adapterId, id.getExtendedId(), id.getType());
         }
-        for (final InternalDataStatistics<T, ?, ?> s : statistics) {
-          // using a set and simply checking instanceof this is the
-          // simplest approach to enable per partition statistics
-          // within the current design
-
-          // at some point stats should be re-designed to be simpler,
-          // reducing the complexity of a stats builder wrapping a
-          // statistic, which is wrapped by the composition tool,
-          // which is used by the stats manager within a feature data
-          // adapter etc.
-          if (s instanceof DataStatisticsSet) {
-            for (final InternalDataStatistics<T, ?, ?> statInSet : ((DataStatisticsSet) s).getStatisticsSet()) {
-              statisticsStore.incorporateStatistics(statInSet);
-            }
-          } else {
-            statisticsStore.incorporateStatistics(s);
-          }
-        }
-        statistics.clear();
+        // just overwrite the initial set of values
+        overwrite = false;
+      }
+      for (final InternalDataStatistics<T, ?, ?> s : mergedStatistics.values()) {
+        statisticsStore.incorporateStatistics(s);
       }
-      // just overwrite the initial set of values
-      overwrite = false;
     }
   }
 
   /** Reset statistics, losing and updates since last flush */
   public void reset() {
-    if (statisticsBuilders == null) {
+    if (statisticsIds == null) {
       return;
     }
 
     synchronized (MUTEX) {
-      for (final DataStatisticsBuilder<T, ?, ?> builder : statisticsBuilders) {
-        final Collection<InternalDataStatistics<T, ?, ?>> statistics =
-            (Collection) builder.getStatistics();
-        statistics.clear();
+      pendingUpdates.set(0);
+      for (final Stripe stripe : stripes) {
+        synchronized (stripe) {
+          stripe.clear();
+        }
       }
     }
   }
 
   @Override
   public void entryIngested(final T entry, final GeoWaveRow... kvs) {
-    if (statisticsBuilders == null) {
+    if (statisticsIds == null) {
       return;
     }
-
-    synchronized (MUTEX) {
-      for (final DataStatisticsBuilder<T, ?, ?> builder : statisticsBuilders) {
+    final Stripe stripe = getStripe();
+    final boolean flush;
+    synchronized (stripe) {
+      for (final DataStatisticsBuilder<T, ?, ?> builder : stripe.getBuilders()) {
         builder.entryIngested(entry, kvs);
       }
-      updateCount++;
-      checkStats();
+      flush = stripe.updated();
+    }
+    if (flush) {
+      flush();
     }
   }
 
@@ -195,10 +242,175 @@ public class StatsCompositionTool<T> implements
     this.statisticsStore = statisticsStore;
   }
 
-  private void checkStats() {
-    if (!skipFlush && (updateCount >= FLUSH_STATS_THRESHOLD)) {
+  /** @param flushThreshold the number of updates after which statistics are flushed */
+  public void setFlushThreshold(final long flushThreshold) {
+    this.flushThreshold = flushThreshold;
+  }
+
+  /**
+   * @param flushIntervalMillis the time after the last flush that statistics are flushed, anything
+   *        <= 0 disables time based flushing
+   */
+  public void setFlushIntervalMillis(final long flushIntervalMillis) {
+    this.flushIntervalMillis = flushIntervalMillis;
+  }
+
+  /**
+   * @param flushHeapFraction the fraction of the maximum heap that once used causes statistics to
+   *        be flushed, anything <= 0 disables memory based flushing
+   */
+  public void setFlushHeapFraction(final double flushHeapFraction) {
+    this.flushHeapFraction = flushHeapFraction;
+  }
+
+  private Stripe getStripe() {
+    return stripes.get((int) (Thread.currentThread().getId() & (stripes.size() - 1)));
+  }
+
+  private boolean isFlushRequired(final long updates) {
+    if (updates >= flushThreshold) {
+      return true;
+    }
+    if ((flushIntervalMillis > 0)
+        && ((System.currentTimeMillis() - lastFlushTime) >= flushIntervalMillis)) {
+      return true;
+    }
+    if (flushHeapFraction > 0) {
+      final Runtime runtime = Runtime.getRuntime();
+      final long usedMemory = runtime.totalMemory() - runtime.freeMemory();
+      return usedMemory >= (flushHeapFraction * runtime.maxMemory());
+    }
+    return false;
+  }
+
+  private static <T> void merge(
+      final Map<StatisticsKey, InternalDataStatistics<T, ?, ?>> mergedStatistics,
+      final InternalDataStatistics<T, ?, ?> statistics) {
+    final InternalDataStatistics<T, ?, ?> existing =
+        mergedStatistics.putIfAbsent(new StatisticsKey(statistics), statistics);
+    if (existing != null) {
+      existing.merge(statistics);
+    }
+  }
+
+  /**
+   * A set of statistics builders that is only accessed while holding its monitor. Builders are
+   * created the first time a thread mapped to the stripe updates statistics.
+   */
+  private class Stripe {
+    private List<DataStatisticsBuilder<T, ?, ?>> builders = null;
+    private long updateCount = 0;
+
+    private List<DataStatisticsBuilder<T, ?, ?>> getBuilders() {
+      if (builders == null) {
+        builders = new ArrayList<>(statisticsIds.length);
+        for (final StatisticsId id : statisticsIds) {
+          builders.add(new DataStatisticsBuilder<>(index, adapter, statisticsProvider, id));
+        }
+      }
+      return builders;
+    }
+
+    /** @return whether the statistics should be flushed */
+    private boolean updated() {
+      if ((++updateCount % Math.max(1, Math.min(POLICY_CHECK_INTERVAL, flushThreshold))) != 0) {
+        return false;
+      }
+      // publish this stripe's updates so the threshold applies to the total across stripes
+      final long updates = pendingUpdates.addAndGet(updateCount);
       updateCount = 0;
-      flush();
+      return !skipFlush && isFlushRequired(updates);
+    }
+
+    private void drainTo(
+        final Map<StatisticsKey, InternalDataStatistics<T, ?, ?>> mergedStatistics) {
+      updateCount = 0;
+      if (builders == null) {
+        return;
+      }
+      for (final DataStatisticsBuilder<T, ?, ?> builder : builders) {
+        final Collection<InternalDataStatistics<T, ?, ?>> statistics =
+            (Collection) builder.getStatistics();
+        for (final InternalDataStatistics<T, ?, ?> s : statistics) {
+          // using a set and simply checking instanceof this is the
+          // simplest approach to enable per partition statistics
+          // within the current design
+
+          // at some point stats should be re-designed to be simpler,
+          // reducing the complexity of a stats builder wrapping a
+          // statistic, which is wrapped by the composition tool,
+          // which is used by the stats manager within a feature data
+          // adapter etc.
+          if (s instanceof DataStatisticsSet) {
+            for (final InternalDataStatistics<T, ?, ?> statInSet : ((DataStatisticsSet) s).getStatisticsSet()) {
+              merge(mergedStatistics, statInSet);
+            }
+          } else {
+            merge(mergedStatistics, s);
+          }
+        }
+        statistics.clear();
+      }
+    }
+
+    private void clear() {
+      updateCount = 0;
+      if (builders == null) {
+        return;
+      }
+      for (final DataStatisticsBuilder<T, ?, ?> builder : builders) {
+        builder.getStatistics().clear();
+      }
+    }
+  }
+
+  private static class StatisticsKey {
+    private final StatisticsType<?, ?> type;
+    private final String extendedId;
+    private final byte[] visibility;
+    private final int hashCode;
+
+    public StatisticsKey(final InternalDataStatistics<?, ?, ?> statistics) {
+      type = statistics.getType();
+      extendedId = statistics.getExtendedId();
+      visibility = statistics.getVisibility();
+      final int prime = 31;
+      int result = 1;
+      result = (prime * result) + ((type == null) ? 0 : type.hashCode());
+      result = (prime * result) + ((extendedId == null) ? 0 : extendedId.hashCode());
+      result = (prime * result) + Arrays.hashCode(visibility);
+      hashCode = result;
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+      if (this == obj) {
+        return true;
+      }
+      if ((obj == null) || (getClass() != obj.getClass())) {
+        return false;
+      }
+      final StatisticsKey other = (StatisticsKey) obj;
+      if (type == null) {
+        if (other.type != null) {
+          return false;
+        }
+      } else if (!type.equals(other.type)) {
+        return false;
+      }
+      if (extendedId == null) {
+        if (other.extendedId != null) {
+          return false;
+        }
+      } else if (!extendedId.equals(other.extendedId)) {
+        return false;
+      }
+      return Arrays.equals(visibility, other.visibility);
     }
   }
 }
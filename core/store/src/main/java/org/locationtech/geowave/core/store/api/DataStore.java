@@ -92,6 +92,26 @@ public interface DataStore {
    */
   <P extends Persistable, R, T> R aggregate(final AggregationQuery<P, R, T> query);
 
+  /**
+   * Describe how a query would be executed without reading any data. The explanation includes the
+   * index that would be chosen for each type, the number of partitions and sort key ranges that
+   * would be scanned, whether filtering and aggregation would be performed server side, and if
+   * statistics are available an estimate of the rows that would be read.
+   *
+   * @param query data constraints for the query and additional options for processing the query
+   * @return the explanation of the query plan
+   */
+  QueryExplanation explain(final Query<?> query);
+
+  /**
+   * Describe how an aggregation would be executed without reading any data.
+   *
+   * @param query the Aggregation Query, use AggregationQueryBuilder or its extensions to create
+   * @return the explanation of the query plan
+   * @see #explain(Query)
+   */
+  QueryExplanation explain(final AggregationQuery<?, ?, ?> query);
+
   /**
    * Get all the data type adapters that have been used within this data store
    *
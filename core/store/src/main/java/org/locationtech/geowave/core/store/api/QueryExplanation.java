@@ -0,0 +1,176 @@
+/**
+ * Copyright (c) 2013-2019 Contributors to the Eclipse Foundation
+ *
+ * <p> See the NOTICE file distributed with this work for additional information regarding copyright
+ * ownership. All rights reserved. This program and the accompanying materials are made available
+ * under the terms of the Apache License, Version 2.0 which accompanies this distribution and is
+ * available at http://www.apache.org/licenses/LICENSE-2.0.txt
+ */
+package org.locationtech.geowave.core.store.api;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A description of how a query would be executed without actually executing it. This includes the
+ * index chosen for each type, the number of partitions and sort key ranges that would be scanned,
+ * whether filtering and aggregation would be performed server side, and if statistics are available
+ * an estimate of the number of rows that would be read.
+ */
+public class QueryExplanation {
+  private final boolean aggregation;
+  private final List<IndexPlan> indexPlans;
+
+  public QueryExplanation(final boolean aggregation, final List<IndexPlan> indexPlans) {
+    this.aggregation = aggregation;
+    this.indexPlans = indexPlans;
+  }
+
+  /** @return whether the query is an aggregation query */
+  public boolean isAggregation() {
+    return aggregation;
+  }
+
+  /** @return the plan for each type and index that would be queried */
+  public List<IndexPlan> getIndexPlans() {
+    return Collections.unmodifiableList(indexPlans);
+  }
+
+  /** @return the sum of the estimated rows of each plan */
+  public double getEstimatedRows() {
+    return indexPlans.stream().mapToDouble(IndexPlan::getEstimatedRows).sum();
+  }
+
+  @Override
+  public String toString() {
+    final StringBuilder str = new StringBuilder();
+    str.append(aggregation ? "Aggregation" : "Query").append(" plan:");
+    if (indexPlans.isEmpty()) {
+      str.append("\n  no types or indices match the query");
+    }
+    for (final IndexPlan plan : indexPlans) {
+      str.append("\n  ").append(plan.toString());
+    }
+    return str.toString();
+  }
+
+  /** The plan for querying a single type using a single index. */
+  public static class IndexPlan {
+    private final String typeName;
+    private final String indexName;
+    private final boolean fullTableScan;
+    private final int partitionCount;
+    private final int rangeCount;
+    private final boolean serverSideFiltering;
+    private final boolean serverSideAggregation;
+    private final boolean statisticsAvailable;
+    private final double estimatedRows;
+    private final double estimatedDuplicates;
+    private final double cost;
+
+    public IndexPlan(
+        final String typeName,
+        final String indexName,
+        final boolean fullTableScan,
+        final int partitionCount,
+        final int rangeCount,
+        final boolean serverSideFiltering,
+        final boolean serverSideAggregation,
+        final boolean statisticsAvailable,
+        final double estimatedRows,
+        final double estimatedDuplicates,
+        final double cost) {
+      this.typeName = typeName;
+      this.indexName = indexName;
+      this.fullTableScan = fullTableScan;
+      this.partitionCount = partitionCount;
+      this.rangeCount = rangeCount;
+      this.serverSideFiltering = serverSideFiltering;
+      this.serverSideAggregation = serverSideAggregation;
+      this.statisticsAvailable = statisticsAvailable;
+      this.estimatedRows = estimatedRows;
+      this.estimatedDuplicates = estimatedDuplicates;
+      this.cost = cost;
+    }
+
+    public String getTypeName() {
+      return typeName;
+    }
+
+    /** @return the name of the index chosen, or null if the type has no applicable index */
+    public String getIndexName() {
+      return indexName;
+    }
+
+    /** @return whether the query has no constraints that apply to the chosen index */
+    public boolean isFullTableScan() {
+      return fullTableScan;
+    }
+
+    /** @return the number of partitions that would be queried, or 0 for a full table scan */
+    public int getPartitionCount() {
+      return partitionCount;
+    }
+
+    /** @return the number of sort key ranges that would be queried, or 0 for a full table scan */
+    public int getRangeCount() {
+      return rangeCount;
+    }
+
+    /** @return whether rows would be filtered within the data store rather than the client */
+    public boolean isServerSideFiltering() {
+      return serverSideFiltering;
+    }
+
+    /** @return whether the aggregation would be performed within the data store */
+    public boolean isServerSideAggregation() {
+      return serverSideAggregation;
+    }
+
+    /** @return whether statistics exist to estimate the rows that would be read */
+    public boolean isStatisticsAvailable() {
+      return statisticsAvailable;
+    }
+
+    /** @return the estimated number of rows read, including duplicates */
+    public double getEstimatedRows() {
+      return estimatedRows;
+    }
+
+    /** @return the estimated number of rows read that are duplicates of other rows */
+    public double getEstimatedDuplicates() {
+      return estimatedDuplicates;
+    }
+
+    /** @return a relative cost, measured in rows read, used to choose between indices */
+    public double getCost() {
+      return cost;
+    }
+
+    @Override
+    public String toString() {
+      final StringBuilder str = new StringBuilder();
+      str.append("type '").append(typeName).append("'");
+      if (indexName == null) {
+        return str.append(": no applicable index").toString();
+      }
+      str.append(" using index '").append(indexName).append("': ");
+      if (fullTableScan) {
+        str.append("full table scan");
+      } else {
+        str.append(partitionCount).append(" partition(s), ").append(rangeCount).append(" range(s)");
+      }
+      str.append(", ").append(serverSideFiltering ? "server" : "client").append(" side filtering");
+      if (serverSideAggregation) {
+        str.append(", server side aggregation");
+      }
+      if (statisticsAvailable) {
+        str.append(", estimated rows ").append(Math.round(estimatedRows)).append(" (").append(
+            Math.round(estimatedDuplicates)).append(" duplicates), cost ").append(Math.round(cost));
+      } else {
+        str.append(", no statistics available to estimate rows");
+      }
+      return str.toString();
+    }
+  }
+}
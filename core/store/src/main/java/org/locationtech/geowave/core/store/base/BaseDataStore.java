@@ -48,6 +48,7 @@ import org.locationtech.geowave.core.store.api.Index;
 import org.locationtech.geowave.core.store.api.IngestOptions;
 import org.locationtech.geowave.core.store.api.Query;
 import org.locationtech.geowave.core.store.api.QueryBuilder;
+import org.locationtech.geowave.core.store.api.QueryExplanation;
 import org.locationtech.geowave.core.store.api.Statistics;
 import org.locationtech.geowave.core.store.api.StatisticsQuery;
 import org.locationtech.geowave.core.store.api.Writer;
@@ -80,6 +81,7 @@ import org.locationtech.geowave.core.store.operations.ReaderParamsBuilder;
 import org.locationtech.geowave.core.store.operations.RowReader;
 import org.locationtech.geowave.core.store.operations.RowWriter;
 import org.locationtech.geowave.core.store.query.aggregate.AdapterAndIndexBasedAggregation;
+import org.locationtech.geowave.core.store.query.aggregate.StatisticsBackedAggregation;
 import org.locationtech.geowave.core.store.query.constraints.AdapterAndIndexBasedQueryConstraints;
 import org.locationtech.geowave.core.store.query.constraints.DataIdQuery;
 import org.locationtech.geowave.core.store.query.constraints.DataIdRangeQuery;
@@ -90,6 +92,7 @@ import org.locationtech.geowave.core.store.query.constraints.QueryConstraints;
 import org.locationtech.geowave.core.store.query.constraints.TypeConstraintQuery;
 import org.locationtech.geowave.core.store.query.filter.DedupeFilter;
 import org.locationtech.geowave.core.store.util.NativeEntryIteratorWrapper;
+import org.locationtech.geowave.core.store.util.ParallelMergeIterator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import com.google.common.collect.Iterators;
@@ -405,7 +408,13 @@ public class BaseDataStore implements DataStore {
                   tempAdapterStore,
                   indexMappingStore,
                   indexStore,
+                  statisticsStore,
+                  baseOptions.getMaxRangeDecomposition(),
                   sanitizedConstraints);
+      if (indexAdapterPairList.size() > 1) {
+        // an entry's rows in one index don't account for its rows in the others
+        filter.setForgetCompletedEntries(false);
+      }
       Map<Short, List<Index>> additionalIndicesToDelete = null;
       if (DeletionMode.DELETE_WITH_DUPLICATES.equals(deleteMode)
           && !deleteAllIndicesByConstraints) {
@@ -633,12 +642,23 @@ public class BaseDataStore implements DataStore {
       }
 
     }
+    // the sub-queries of different indices and types can be iterated concurrently, unless they are
+    // deleting or reporting to a scan callback which may not be thread-safe
+    final CloseableIterator<Object> merged =
+        (!delete
+            && (queryOptions.getScanCallback() == null)
+            && (results.size() > 1)
+            && ParallelMergeIterator.isEnabled()) ? new ParallelMergeIterator<>(results) : null;
     return new CloseableIteratorWrapper<>(new Closeable() {
 
       @Override
       public void close() throws IOException {
-        for (final CloseableIterator<Object> result : results) {
-          result.close();
+        if (merged != null) {
+          merged.close();
+        } else {
+          for (final CloseableIterator<Object> result : results) {
+            result.close();
+          }
         }
         for (final DataStoreCallbackManager c : deleteCallbacks) {
           c.close();
@@ -651,7 +671,10 @@ public class BaseDataStore implements DataStore {
         }
       }
 
-    }, Iterators.concat(new CastIterator<T>(results.iterator())));
+    },
+        Iterators.concat(
+            new CastIterator<T>(
+                merged != null ? Iterators.singletonIterator(merged) : results.iterator())));
   }
 
   protected void deleteFromDataIndex(
@@ -1189,6 +1212,12 @@ public class BaseDataStore implements DataStore {
     R results = null;
 
     final Aggregation<P, R, T> aggregation = query.getDataTypeQueryOptions().getAggregation();
+    if (aggregation instanceof StatisticsBackedAggregation) {
+      results = aggregateFromStatistics(query, (StatisticsBackedAggregation<?, R>) aggregation);
+      if (results != null) {
+        return results;
+      }
+    }
     try (CloseableIterator<R> resultsIt =
         internalQuery(
             query.getQueryConstraints(),
@@ -1211,6 +1240,216 @@ public class BaseDataStore implements DataStore {
     }
   }
 
+  /**
+   * Answer an aggregation from the statistics of each queried type rather than scanning, which is
+   * only possible if the query is unconstrained and every type has the statistic.
+   *
+   * @return the result or null if the aggregation must scan
+   */
+  private <S, R> R aggregateFromStatistics(
+      final AggregationQuery<?, R, ?> query,
+      final StatisticsBackedAggregation<S, R> statisticsAggregation) {
+    if (((query.getQueryConstraints() != null)
+        && !(query.getQueryConstraints() instanceof EverythingQuery))
+        || ((query.getCommonQueryOptions().getLimit() != null)
+            && (query.getCommonQueryOptions().getLimit() > 0))) {
+      return null;
+    }
+    final List<InternalDataAdapter<?>> adapters = new ArrayList<>();
+    final String[] typeNames = query.getDataTypeQueryOptions().getTypeNames();
+    if ((typeNames == null) || (typeNames.length == 0)) {
+      try (CloseableIterator<InternalDataAdapter<?>> it = adapterStore.getAdapters()) {
+        it.forEachRemaining(adapters::add);
+      }
+    } else {
+      for (final String typeName : typeNames) {
+        final Short adapterId = internalAdapterStore.getAdapterId(typeName);
+        final InternalDataAdapter<?> adapter =
+            adapterId == null ? null : adapterStore.getAdapter(adapterId);
+        if (adapter == null) {
+          return null;
+        }
+        adapters.add(adapter);
+      }
+    }
+    final Aggregation<?, R, ?> aggregation = query.getDataTypeQueryOptions().getAggregation();
+    R results = null;
+    for (final InternalDataAdapter<?> adapter : adapters) {
+      final StatisticsQuery<S> statisticsQuery =
+          statisticsAggregation.getStatisticsQuery(
+              adapter,
+              query.getCommonQueryOptions().getAuthorizations());
+      if (statisticsQuery == null) {
+        return null;
+      }
+      final S statistic = reduceStatistics(statisticsQuery);
+      if (statistic == null) {
+        // not every type keeps the statistic, that is expected and the aggregation scans instead
+        LOGGER.debug(
+            "No statistics found for type '"
+                + adapter.getTypeName()
+                + "', the aggregation will scan the data");
+        return null;
+      }
+      final R result = statisticsAggregation.resultFromStatistics(statistic);
+      if (result == null) {
+        return null;
+      }
+      results = results == null ? result : aggregation.merge(results, result);
+    }
+    return results;
+  }
+
+  @Override
+  public QueryExplanation explain(Query<?> query) {
+    if (query == null) {
+      query = QueryBuilder.newBuilder().build();
+    }
+    return explain(
+        query.getQueryConstraints(),
+        new BaseQueryOptions(query, adapterStore, internalAdapterStore));
+  }
+
+  @Override
+  public QueryExplanation explain(final AggregationQuery<?, ?, ?> query) {
+    if (query == null) {
+      LOGGER.warn("Aggregation must be defined");
+      return null;
+    }
+    return explain(
+        query.getQueryConstraints(),
+        new BaseQueryOptions(query, adapterStore, internalAdapterStore));
+  }
+
+  /**
+   * Chooses indices the same way as
+   * {@link #internalQuery(QueryConstraints, BaseQueryOptions, DeletionMode)} but rather than
+   * reading any rows it describes the ranges that would be scanned and estimates their cost from
+   * the persisted statistics.
+   */
+  protected QueryExplanation explain(
+      final QueryConstraints constraints,
+      final BaseQueryOptions queryOptions) {
+    if ((constraints instanceof TypeConstraintQuery)
+        && ((queryOptions.getAdapterIds() == null) || (queryOptions.getAdapterIds().length == 0))) {
+      queryOptions.setAdapterId(
+          internalAdapterStore.getAdapterId(((TypeConstraintQuery) constraints).getTypeName()));
+    }
+    final QueryConstraints sanitizedConstraints =
+        (constraints == null) ? new EverythingQuery() : constraints;
+    final boolean aggregation = BaseDataStoreUtils.isAggregation(queryOptions.getAggregation());
+    final boolean serverSide = baseOptions.isServerSideLibraryEnabled();
+    final int maxRangeDecomposition;
+    if (queryOptions.getMaxRangeDecomposition() != null) {
+      maxRangeDecomposition = queryOptions.getMaxRangeDecomposition();
+    } else {
+      maxRangeDecomposition =
+          aggregation ? baseOptions.getAggregationMaxRangeDecomposition()
+              : baseOptions.getMaxRangeDecomposition();
+    }
+    final List<QueryExplanation.IndexPlan> plans = new ArrayList<>();
+    final boolean dataIdIndexIsBest =
+        baseOptions.isSecondaryIndexing()
+            && ((sanitizedConstraints instanceof DataIdQuery)
+                || (sanitizedConstraints instanceof DataIdRangeQuery)
+                || (sanitizedConstraints instanceof EverythingQuery));
+    if (dataIdIndexIsBest) {
+      final boolean everything = sanitizedConstraints instanceof EverythingQuery;
+      final int rangeCount =
+          sanitizedConstraints instanceof DataIdQuery
+              ? ((DataIdQuery) sanitizedConstraints).getDataIds().length
+              : everything ? 0 : 1;
+      for (final InternalDataAdapter<?> adapter : queryOptions.getAdaptersArray(adapterStore)) {
+        plans.add(
+            new QueryExplanation.IndexPlan(
+                adapter.getTypeName(),
+                DataIndexUtils.DATA_ID_INDEX.getName(),
+                everything,
+                everything ? 0 : 1,
+                rangeCount,
+                serverSide,
+                serverSide && aggregation,
+                false,
+                0,
+                0,
+                0));
+      }
+    } else {
+      final MemoryPersistentAdapterStore tempAdapterStore =
+          new MemoryPersistentAdapterStore(queryOptions.getAdaptersArray(adapterStore));
+      final List<Pair<Index, List<InternalDataAdapter<?>>>> indexAdapterPairList =
+          queryOptions.getBestQueryIndicies(
+              tempAdapterStore,
+              indexMappingStore,
+              indexStore,
+              statisticsStore,
+              baseOptions.getMaxRangeDecomposition(),
+              sanitizedConstraints);
+      for (final Pair<Index, List<InternalDataAdapter<?>>> indexAdapterPair : indexAdapterPairList) {
+        final Index index = indexAdapterPair.getKey();
+        for (final InternalDataAdapter<?> adapter : indexAdapterPair.getRight()) {
+          if (index == null) {
+            plans.add(
+                new QueryExplanation.IndexPlan(
+                    adapter.getTypeName(),
+                    null,
+                    false,
+                    0,
+                    0,
+                    false,
+                    false,
+                    false,
+                    0,
+                    0,
+                    0));
+            continue;
+          }
+          final IndexCostEstimate estimate =
+              BaseDataStoreUtils.estimateIndexCost(
+                  index,
+                  sanitizedConstraints,
+                  adapter.getAdapter(),
+                  adapter.getAdapterId(),
+                  statisticsStore,
+                  maxRangeDecomposition,
+                  queryOptions.getAuthorizations());
+          if (estimate == null) {
+            // the index has no dimensions or the constraints don't apply to it so every row of
+            // the type is scanned
+            plans.add(
+                new QueryExplanation.IndexPlan(
+                    adapter.getTypeName(),
+                    index.getName(),
+                    true,
+                    0,
+                    0,
+                    serverSide,
+                    serverSide && aggregation,
+                    false,
+                    0,
+                    0,
+                    0));
+          } else {
+            plans.add(
+                new QueryExplanation.IndexPlan(
+                    adapter.getTypeName(),
+                    index.getName(),
+                    estimate.isFullTableScan(),
+                    estimate.getPartitionCount(),
+                    estimate.getRangeCount(),
+                    serverSide,
+                    serverSide && aggregation,
+                    estimate.isStatisticsAvailable(),
+                    estimate.getEstimatedRows(),
+                    estimate.getEstimatedDuplicates(),
+                    estimate.getCost()));
+          }
+        }
+      }
+    }
+    return new QueryExplanation(aggregation, plans);
+  }
+
   protected <R> CloseableIterator<InternalDataStatistics<?, R, ?>> internalQueryStatistics(
       final StatisticsQuery<R> query) {
     // sanity check, although using the builders should disallow this type
@@ -1299,13 +1538,21 @@ public class BaseDataStore implements DataStore {
       LOGGER.error("Statistic Type must be provided for a statistical aggregation");
       return null;
     }
+    final R result = reduceStatistics(query);
+    if (result == null) {
+      LOGGER.warn("No statistics found matching query criteria for statistical aggregation");
+    }
+    return result;
+  }
+
+  /** @return the reduced result of the statistics matching the query, or null if there are none */
+  private <R> R reduceStatistics(final StatisticsQuery<R> query) {
     try (CloseableIterator<InternalDataStatistics<?, R, ?>> it = internalQueryStatistics(query)) {
       final Optional<InternalDataStatistics<?, R, ?>> result =
           Streams.stream(it).reduce(InternalDataStatistics::reduce);
       if (result.isPresent()) {
         return result.get().getResult();
       }
-      LOGGER.warn("No statistics found matching query criteria for statistical aggregation");
       return null;
     }
   }
@@ -33,8 +33,11 @@ import org.apache.commons.lang3.ArrayUtils;
 import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.apache.commons.lang3.tuple.Pair;
 import org.locationtech.geowave.core.index.ByteArray;
+import org.locationtech.geowave.core.index.ByteArrayRange;
 import org.locationtech.geowave.core.index.IndexUtils;
 import org.locationtech.geowave.core.index.InsertionIds;
+import org.locationtech.geowave.core.index.QueryRanges;
+import org.locationtech.geowave.core.index.SinglePartitionQueryRanges;
 import org.locationtech.geowave.core.index.StringUtils;
 import org.locationtech.geowave.core.index.VarintUtils;
 import org.locationtech.geowave.core.index.sfc.data.MultiDimensionalNumericData;
@@ -43,22 +46,21 @@ import org.locationtech.geowave.core.store.CloseableIterator;
 import org.locationtech.geowave.core.store.CloseableIterator.Wrapper;
 import org.locationtech.geowave.core.store.adapter.AdapterIndexMappingStore;
 import org.locationtech.geowave.core.store.adapter.AdapterPersistenceEncoding;
-import org.locationtech.geowave.core.store.adapter.AsyncPersistenceEncoding;
-import org.locationtech.geowave.core.store.adapter.FullAsyncPersistenceEncoding;
-import org.locationtech.geowave.core.store.adapter.IndexedAdapterPersistenceEncoding;
 import org.locationtech.geowave.core.store.adapter.InternalAdapterStore;
 import org.locationtech.geowave.core.store.adapter.InternalDataAdapter;
-import org.locationtech.geowave.core.store.adapter.LazyReadPersistenceEncoding;
-import org.locationtech.geowave.core.store.adapter.PartialAsyncPersistenceEncoding;
 import org.locationtech.geowave.core.store.adapter.PersistentAdapterStore;
 import org.locationtech.geowave.core.store.adapter.RowMergingDataAdapter;
 import org.locationtech.geowave.core.store.adapter.TransientAdapterStore;
 import org.locationtech.geowave.core.store.adapter.exceptions.AdapterException;
+import org.locationtech.geowave.core.store.adapter.statistics.CountDataStatistics;
+import org.locationtech.geowave.core.store.adapter.statistics.DataStatisticsStore;
+import org.locationtech.geowave.core.store.adapter.statistics.DuplicateEntryCount;
+import org.locationtech.geowave.core.store.adapter.statistics.InternalDataStatistics;
+import org.locationtech.geowave.core.store.adapter.statistics.RowRangeHistogramStatistics;
 import org.locationtech.geowave.core.store.api.Aggregation;
 import org.locationtech.geowave.core.store.api.DataTypeAdapter;
 import org.locationtech.geowave.core.store.api.Index;
 import org.locationtech.geowave.core.store.base.IntermediaryWriteEntryInfo.FieldInfo;
-import org.locationtech.geowave.core.store.base.dataidx.BatchDataIndexRetrieval;
 import org.locationtech.geowave.core.store.base.dataidx.DataIndexRetrieval;
 import org.locationtech.geowave.core.store.base.dataidx.DataIndexUtils;
 import org.locationtech.geowave.core.store.callback.ScanCallback;
@@ -81,13 +83,18 @@ import org.locationtech.geowave.core.store.query.filter.QueryFilter;
 import org.locationtech.geowave.core.store.util.DataStoreUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import com.google.common.base.Suppliers;
 import com.google.common.collect.Collections2;
 import com.google.common.collect.Iterators;
 import com.google.common.collect.Lists;
+import com.google.common.primitives.Longs;
 
 public class BaseDataStoreUtils {
   private static final Logger LOGGER = LoggerFactory.getLogger(BaseDataStoreUtils.class);
+  // the bounds of the keys tracked by row range histograms, which only use the first 8 bytes
+  private static final byte[] MIN_KEY = Longs.toByteArray(0L);
+  private static final byte[] MAX_KEY = Longs.toByteArray(-1L);
+  private static final byte[] MAX_SIGNED_KEY = Longs.toByteArray(Long.MAX_VALUE);
+  private static final byte[] MIN_SIGNED_KEY = Longs.toByteArray(Long.MIN_VALUE);
 
   public static <T> GeoWaveRow[] getGeoWaveRows(
       final T entry,
@@ -144,183 +151,16 @@ public class BaseDataStoreUtils {
       final byte[] fieldSubsetBitmask,
       final boolean decodeRow,
       final DataIndexRetrieval dataIndexRetrieval) throws AdapterException {
-    final short internalAdapterId = geowaveRow.getAdapterId();
-
-    if ((adapter == null) && (adapterStore == null)) {
-      final String msg =
-          "Could not decode row from iterator. Either adapter or adapter store must be non-null.";
-      LOGGER.error(msg);
-      throw new AdapterException(msg);
-    }
-    final IntermediaryReadEntryInfo decodePackage = new IntermediaryReadEntryInfo(index, decodeRow);
-
-    if (!decodePackage.setOrRetrieveAdapter(adapter, internalAdapterId, adapterStore)) {
-      final String msg = "Could not retrieve adapter " + internalAdapterId + " from adapter store.";
-      LOGGER.error(msg);
-      throw new AdapterException(msg);
-    }
-
-    // Verify the adapter matches the data
-    if (!decodePackage.isAdapterVerified()) {
-      if (!decodePackage.verifyAdapter(internalAdapterId)) {
-        final String msg = "Adapter verify failed: adapter does not match data.";
-        LOGGER.error(msg);
-        throw new AdapterException(msg);
-      }
-    }
-
-    return getDecodedRow(
-        geowaveRow,
-        decodePackage,
-        fieldSubsetBitmask,
+    return new RowDecoder<>(
+        adapter,
+        adapterStore,
+        index,
         clientFilters,
         scanCallback,
-        decodePackage.adapterSupportsDataIndex() ? dataIndexRetrieval : null);
-  }
-
-  /**
-   * build a persistence encoding object first, pass it through the client filters and if its
-   * accepted, use the data adapter to decode the persistence model into the native data type
-   */
-  private static <T> Object getDecodedRow(
-      final GeoWaveRow row,
-      final IntermediaryReadEntryInfo<T> decodePackage,
-      final byte[] fieldSubsetBitmask,
-      final QueryFilter[] clientFilters,
-      final ScanCallback<T, GeoWaveRow> scanCallback,
-      final DataIndexRetrieval dataIndexRetrieval) {
-    final boolean isSecondaryIndex = dataIndexRetrieval != null;
-    final IndexedAdapterPersistenceEncoding encodedRow;
-    if (isSecondaryIndex) {
-      // this implies its a Secondary Index and the actual values must be looked up
-      if (dataIndexRetrieval instanceof BatchDataIndexRetrieval) {
-        if (decodePackage.getIndex().getIndexModel().useInSecondaryIndex()) {
-          encodedRow =
-              new PartialAsyncPersistenceEncoding(
-                  decodePackage.getDataAdapter().getAdapterId(),
-                  row.getDataId(),
-                  row.getPartitionKey(),
-                  row.getSortKey(),
-                  row.getNumberOfDuplicates(),
-                  (BatchDataIndexRetrieval) dataIndexRetrieval,
-                  decodePackage.getDataAdapter(),
-                  decodePackage.getIndex().getIndexModel(),
-                  fieldSubsetBitmask,
-                  Suppliers.memoize(
-                      () -> dataIndexRetrieval.getData(
-                          decodePackage.getDataAdapter().getAdapterId(),
-                          row.getDataId())));
-        } else {
-          encodedRow =
-              new FullAsyncPersistenceEncoding(
-                  decodePackage.getDataAdapter().getAdapterId(),
-                  row.getDataId(),
-                  row.getPartitionKey(),
-                  row.getSortKey(),
-                  row.getNumberOfDuplicates(),
-                  (BatchDataIndexRetrieval) dataIndexRetrieval);
-        }
-      } else {
-        encodedRow =
-            new LazyReadPersistenceEncoding(
-                decodePackage.getDataAdapter().getAdapterId(),
-                row.getDataId(),
-                row.getPartitionKey(),
-                row.getSortKey(),
-                row.getNumberOfDuplicates(),
-                decodePackage.getDataAdapter(),
-                decodePackage.getIndex().getIndexModel(),
-                fieldSubsetBitmask,
-                Suppliers.memoize(
-                    () -> dataIndexRetrieval.getData(
-                        decodePackage.getDataAdapter().getAdapterId(),
-                        row.getDataId())));
-      }
-    } else {
-      encodedRow =
-          new LazyReadPersistenceEncoding(
-              decodePackage.getDataAdapter().getAdapterId(),
-              row.getDataId(),
-              row.getPartitionKey(),
-              row.getSortKey(),
-              row.getNumberOfDuplicates(),
-              decodePackage.getDataAdapter(),
-              decodePackage.getIndex().getIndexModel(),
-              fieldSubsetBitmask,
-              row.getFieldValues(),
-              false);
-    }
-    final BiFunction<IndexedAdapterPersistenceEncoding, Integer, Object> function =
-        ((r, initialFilter) -> {
-          final int i =
-              clientFilterProgress(
-                  clientFilters,
-                  decodePackage.getIndex().getIndexModel(),
-                  r,
-                  initialFilter);
-          if (i < 0) {
-            if (!decodePackage.isDecodeRow()) {
-              return r;
-            }
-            final T decodedRow =
-                decodePackage.getDataAdapter().decode(
-                    r,
-                    isSecondaryIndex ? DataIndexUtils.DATA_ID_INDEX : decodePackage.getIndex());
-            if (r.isAsync()) {
-              return i;
-            }
-            if ((scanCallback != null)) {
-              scanCallback.entryScanned(decodedRow, row);
-            }
-
-            return decodedRow;
-          }
-          if (r.isAsync()) {
-            return i;
-          }
-          return null;
-        });
-    final Object obj = function.apply(encodedRow, 0);
-    if ((obj instanceof Integer) && encodedRow.isAsync()) {
-      // by re-applying the function, client filters should not be called multiple times for the
-      // same instance (beware of stateful filters such as dedupe filter). this method attempts to
-      // maintain progress of the filter chain so that any successful filters prior to retrieving
-      // the data will not need to be repeated
-      return (((AsyncPersistenceEncoding) encodedRow).getFieldValuesFuture().thenApply(
-          fv -> new LazyReadPersistenceEncoding(
-              decodePackage.getDataAdapter().getAdapterId(),
-              row.getDataId(),
-              row.getPartitionKey(),
-              row.getSortKey(),
-              row.getNumberOfDuplicates(),
-              decodePackage.getDataAdapter(),
-              decodePackage.getIndex().getIndexModel(),
-              fieldSubsetBitmask,
-              fv,
-              true))).thenApply((r) -> function.apply(r, (Integer) obj));
-    }
-    return obj;
-  }
-
-  /**
-   *
-   * @return returns -1 if all client filters have accepted the row, otherwise returns how many
-   *         client filters have accepted
-   */
-  private static int clientFilterProgress(
-      final QueryFilter[] clientFilters,
-      final CommonIndexModel indexModel,
-      final IndexedAdapterPersistenceEncoding encodedRow,
-      final int initialFilter) {
-    if ((clientFilters == null) || (initialFilter < 0)) {
-      return -1;
-    }
-    for (int i = initialFilter; i < clientFilters.length; i++) {
-      if (!clientFilters[i].accept(indexModel, encodedRow)) {
-        return i;
-      }
-    }
-    return -1;
+        fieldSubsetBitmask,
+        decodeRow,
+        dataIndexRetrieval,
+        false).decode(geowaveRow);
   }
 
   protected static byte[] getFieldBitmask(
@@ -656,6 +496,42 @@ public class BaseDataStoreUtils {
       final QueryConstraints query,
       final Function<T, ? extends DataTypeAdapter<?>> adapterLookup)
       throws IllegalArgumentException {
+    return chooseBestIndex(
+        indexAdapterPairList,
+        query,
+        (adapter, indices) -> chooseBestIndex(indices, query, adapterLookup.apply(adapter)));
+  }
+
+  /**
+   * Choose the best index for each adapter using the persisted statistics to estimate the cost of
+   * each candidate index, see
+   * {@link #chooseBestIndex(Index[], QueryConstraints, DataTypeAdapter, short, DataStatisticsStore, int, String...)}
+   */
+  public static <T> List<Pair<Index, List<T>>> chooseBestIndex(
+      final List<Pair<Index, List<T>>> indexAdapterPairList,
+      final QueryConstraints query,
+      final Function<T, ? extends DataTypeAdapter<?>> adapterLookup,
+      final Function<T, Short> adapterIdLookup,
+      final DataStatisticsStore statisticsStore,
+      final int maxRangeDecomposition,
+      final String... authorizations) throws IllegalArgumentException {
+    return chooseBestIndex(
+        indexAdapterPairList,
+        query,
+        (adapter, indices) -> chooseBestIndex(
+            indices,
+            query,
+            adapterLookup.apply(adapter),
+            adapterIdLookup.apply(adapter),
+            statisticsStore,
+            maxRangeDecomposition,
+            authorizations));
+  }
+
+  private static <T> List<Pair<Index, List<T>>> chooseBestIndex(
+      final List<Pair<Index, List<T>>> indexAdapterPairList,
+      final QueryConstraints query,
+      final BiFunction<T, Index[], Index> indexChooser) throws IllegalArgumentException {
     if (indexAdapterPairList.size() <= 1) {
       return indexAdapterPairList;
     }
@@ -677,10 +553,7 @@ public class BaseDataStoreUtils {
     for (final Entry<T, List<Index>> e : indicesPerAdapter.entrySet()) {
       final Index index =
           query == null ? e.getValue().get(0)
-              : chooseBestIndex(
-                  e.getValue().toArray(new Index[0]),
-                  query,
-                  adapterLookup.apply(e.getKey()));
+              : indexChooser.apply(e.getKey(), e.getValue().toArray(new Index[0]));
       List<T> adapters = retVal.get(index);
       if (adapters == null) {
         adapters = new ArrayList<>();
@@ -759,6 +632,233 @@ public class BaseDataStoreUtils {
     return bestIdx;
   }
 
+  /**
+   * Choose the index with the lowest estimated cost for the query. The cost is estimated from the
+   * row range histograms of the query ranges each index would generate, see
+   * {@link #estimateIndexCosts(Index[], QueryConstraints, DataTypeAdapter, short, DataStatisticsStore, int, String...)}.
+   * If any candidate index is missing statistics, the estimates are not comparable and the index is
+   * chosen by the dimensionality heuristic instead.
+   */
+  public static Index chooseBestIndex(
+      final Index[] indices,
+      final QueryConstraints query,
+      final DataTypeAdapter<?> adapter,
+      final short adapterId,
+      final DataStatisticsStore statisticsStore,
+      final int maxRangeDecomposition,
+      final String... authorizations) {
+    if ((statisticsStore != null) && (indices.length > 1)) {
+      final List<IndexCostEstimate> estimates =
+          estimateIndexCosts(
+              indices,
+              query,
+              adapter,
+              adapterId,
+              statisticsStore,
+              maxRangeDecomposition,
+              authorizations);
+      if (!estimates.isEmpty()
+          && estimates.stream().allMatch(IndexCostEstimate::isStatisticsAvailable)) {
+        return estimates.get(0).getIndex();
+      }
+    }
+    return chooseBestIndex(indices, query, adapter);
+  }
+
+  /**
+   * Estimate the cost of querying each of the indices that can be used for the query.
+   *
+   * @return the estimates ordered from the lowest to the highest cost
+   */
+  public static List<IndexCostEstimate> estimateIndexCosts(
+      final Index[] indices,
+      final QueryConstraints query,
+      final DataTypeAdapter<?> adapter,
+      final short adapterId,
+      final DataStatisticsStore statisticsStore,
+      final int maxRangeDecomposition,
+      final String... authorizations) {
+    final List<IndexCostEstimate> estimates = new ArrayList<>();
+    for (final Index index : indices) {
+      final IndexCostEstimate estimate =
+          estimateIndexCost(
+              index,
+              query,
+              adapter,
+              adapterId,
+              statisticsStore,
+              maxRangeDecomposition,
+              authorizations);
+      if (estimate != null) {
+        estimates.add(estimate);
+      }
+    }
+    Collections.sort(estimates);
+    return estimates;
+  }
+
+  /**
+   * Estimate the rows and duplicates scanned when querying an index for a single adapter. The rows
+   * are estimated from the row range histogram of each partition over the sort key ranges of the
+   * query and the duplicates are the fraction of entries that have duplicates in the index.
+   *
+   * @return the estimate, or null if the index can't be used for the query
+   */
+  public static IndexCostEstimate estimateIndexCost(
+      final Index index,
+      final QueryConstraints query,
+      final DataTypeAdapter<?> adapter,
+      final short adapterId,
+      final DataStatisticsStore statisticsStore,
+      final int maxRangeDecomposition,
+      final String... authorizations) {
+    final int dimensionCount = index.getIndexStrategy().getOrderedDimensionDefinitions().length;
+    if (dimensionCount == 0) {
+      return null;
+    }
+    QueryConstraints indexConstraints = query;
+    if (query instanceof AdapterAndIndexBasedQueryConstraints) {
+      indexConstraints =
+          ((AdapterAndIndexBasedQueryConstraints) query).createQueryConstraints(adapter, index);
+      if (indexConstraints == null) {
+        return null;
+      }
+    }
+    final Map<ByteArray, RowRangeHistogramStatistics<?>> histograms =
+        getRowRangeHistograms(index, adapterId, statisticsStore, authorizations);
+    final boolean statisticsAvailable = !histograms.isEmpty();
+    final List<MultiDimensionalNumericData> constraints =
+        indexConstraints == null ? null : indexConstraints.getIndexConstraints(index);
+    final boolean fullTableScan =
+        (constraints == null)
+            || IndexUtils.isFullTableScan(constraints)
+            || !queryRangeDimensionsMatch(dimensionCount, constraints);
+    double rows = 0;
+    int partitionCount = 0;
+    int rangeCount = 0;
+    if (fullTableScan) {
+      for (final RowRangeHistogramStatistics<?> histogram : histograms.values()) {
+        rows += histogram.getTotalCount();
+      }
+    } else {
+      final QueryRanges queryRanges =
+          DataStoreUtils.constraintsToQueryRanges(
+              constraints,
+              index.getIndexStrategy(),
+              null,
+              maxRangeDecomposition);
+      for (final SinglePartitionQueryRanges partitionRanges : queryRanges.getPartitionQueryRanges()) {
+        partitionCount++;
+        final RowRangeHistogramStatistics<?> histogram =
+            histograms.get(getPartitionKey(partitionRanges.getPartitionKey()));
+        for (final ByteArrayRange range : partitionRanges.getSortKeyRanges()) {
+          rangeCount++;
+          // a partition without a histogram has no rows for this adapter
+          if (histogram != null) {
+            rows += cardinality(histogram, range.getStart(), range.getEnd());
+          }
+        }
+      }
+    }
+    return new IndexCostEstimate(
+        index,
+        fullTableScan,
+        partitionCount,
+        rangeCount,
+        statisticsAvailable,
+        rows,
+        rows * getDuplicateFraction(index, adapterId, statisticsStore, authorizations));
+  }
+
+  /**
+   * The histogram orders keys by their value as a signed number, so keys with a first byte of 0x80
+   * or more come before all other keys. A range that crosses that boundary is estimated as the two
+   * ranges on either side of it.
+   */
+  private static double cardinality(
+      final RowRangeHistogramStatistics<?> histogram,
+      final byte[] start,
+      final byte[] end) {
+    final byte[] lower = ((start == null) || (start.length == 0)) ? MIN_KEY : start;
+    final byte[] upper = ((end == null) || (end.length == 0)) ? MAX_KEY : end;
+    if ((lower[0] >= 0) && (upper[0] < 0)) {
+      return Math.max(0, histogram.cardinality(lower, MAX_SIGNED_KEY))
+          + Math.max(0, histogram.cardinality(MIN_SIGNED_KEY, upper));
+    }
+    return Math.max(0, histogram.cardinality(lower, upper));
+  }
+
+  private static ByteArray getPartitionKey(final byte[] partitionKey) {
+    return ((partitionKey == null) || (partitionKey.length == 0)) ? null
+        : new ByteArray(partitionKey);
+  }
+
+  private static Map<ByteArray, RowRangeHistogramStatistics<?>> getRowRangeHistograms(
+      final Index index,
+      final short adapterId,
+      final DataStatisticsStore statisticsStore,
+      final String... authorizations) {
+    final Map<ByteArray, RowRangeHistogramStatistics<?>> histograms = new HashMap<>();
+    try (CloseableIterator<InternalDataStatistics<?, ?, ?>> it =
+        statisticsStore.getDataStatistics(
+            adapterId,
+            index.getName(),
+            RowRangeHistogramStatistics.STATS_TYPE,
+            authorizations)) {
+      while (it.hasNext()) {
+        final InternalDataStatistics<?, ?, ?> stats = it.next();
+        if (stats instanceof RowRangeHistogramStatistics) {
+          final RowRangeHistogramStatistics<?> histogram = (RowRangeHistogramStatistics<?>) stats;
+          // the extended ID is only a prefix so make sure it is exactly this index
+          if (index.getName().equals(histogram.getIndexName())) {
+            final ByteArray partitionKey = getPartitionKey(histogram.getPartitionKey());
+            final RowRangeHistogramStatistics<?> existing = histograms.get(partitionKey);
+            if (existing == null) {
+              histograms.put(partitionKey, histogram);
+            } else {
+              existing.merge(histogram);
+            }
+          }
+        }
+      }
+    }
+    return histograms;
+  }
+
+  private static double getDuplicateFraction(
+      final Index index,
+      final short adapterId,
+      final DataStatisticsStore statisticsStore,
+      final String... authorizations) {
+    final DuplicateEntryCount<?> duplicates =
+        DuplicateEntryCount.getDuplicateCounts(
+            index,
+            Collections.singletonList(adapterId),
+            statisticsStore,
+            authorizations);
+    if ((duplicates == null) || !duplicates.isAnyEntryHaveDuplicates()) {
+      return 0;
+    }
+    try (CloseableIterator<InternalDataStatistics<?, ?, ?>> it =
+        statisticsStore.getDataStatistics(
+            adapterId,
+            CountDataStatistics.STATS_TYPE,
+            authorizations)) {
+      if (it.hasNext()) {
+        final InternalDataStatistics<?, ?, ?> count = it.next();
+        if ((count instanceof CountDataStatistics)
+            && ((CountDataStatistics<?>) count).isSet()
+            && (((CountDataStatistics<?>) count).getCount() > 0)) {
+          return Math.min(
+              1.0,
+              (double) duplicates.getEntriesWithDuplicatesCount()
+                  / ((CountDataStatistics<?>) count).getCount());
+        }
+      }
+    }
+    return 0;
+  }
+
   private static boolean queryRangeDimensionsMatch(
       final int indexDimensions,
       final List<MultiDimensionalNumericData> queryRanges) {
@@ -14,6 +14,7 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.function.Function;
 import org.apache.commons.lang3.ArrayUtils;
 import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.apache.commons.lang3.tuple.Pair;
@@ -23,6 +24,7 @@ import org.locationtech.geowave.core.store.adapter.AdapterIndexMappingStore;
 import org.locationtech.geowave.core.store.adapter.InternalAdapterStore;
 import org.locationtech.geowave.core.store.adapter.InternalDataAdapter;
 import org.locationtech.geowave.core.store.adapter.PersistentAdapterStore;
+import org.locationtech.geowave.core.store.adapter.statistics.DataStatisticsStore;
 import org.locationtech.geowave.core.store.api.Aggregation;
 import org.locationtech.geowave.core.store.api.AggregationQuery;
 import org.locationtech.geowave.core.store.api.Index;
@@ -39,7 +41,6 @@ import org.locationtech.geowave.core.store.query.options.IndexQueryOptions;
 import org.locationtech.geowave.core.store.util.DataStoreUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import com.google.common.base.Function;
 import com.google.common.base.Predicate;
 import com.google.common.collect.Collections2;
 import com.google.common.collect.Lists;
@@ -193,12 +194,7 @@ public class BaseQueryOptions {
               Collections2.filter(
                   Lists.transform(
                       Arrays.asList(typeOptions.getTypeNames()),
-                      new Function<String, Short>() {
-                        @Override
-                        public Short apply(final String input) {
-                          return internalAdapterStore.getAdapterId(input);
-                        }
-                      }),
+                      internalAdapterStore::getAdapterId),
                   new Predicate<Short>() {
                     @Override
                     public boolean apply(final Short input) {
@@ -437,6 +433,30 @@ public class BaseQueryOptions {
         query);
   }
 
+  /**
+   * This will get all relevant adapter index pairs and then select the best index for each adapter
+   * given the constraint. The best index is the one with the lowest cost estimated from the
+   * statistics of each index, falling back to the index which can satisfy the most dimensions of
+   * the given constraint if statistics are not available.
+   *
+   */
+  public List<Pair<Index, List<InternalDataAdapter<?>>>> getBestQueryIndicies(
+      final PersistentAdapterStore adapterStore,
+      final AdapterIndexMappingStore adapterIndexMappingStore,
+      final IndexStore indexStore,
+      final DataStatisticsStore statisticsStore,
+      final int maxRangeDecomposition,
+      final QueryConstraints query) {
+    return BaseDataStoreUtils.chooseBestIndex(
+        getAdaptersWithMinimalSetOfIndices(adapterStore, adapterIndexMappingStore, indexStore),
+        query,
+        Function.identity(),
+        InternalDataAdapter::getAdapterId,
+        statisticsStore,
+        maxRangeDecomposition,
+        getAuthorizations());
+  }
+
   /**
    * Return a set list adapter/index associations. If the adapters are not provided, then look up
    * all of them. If the index is not provided, then look up all of them. The full set of
@@ -0,0 +1,180 @@
+/**
+ * Copyright (c) 2013-2019 Contributors to the Eclipse Foundation
+ *
+ * <p> See the NOTICE file distributed with this work for additional information regarding copyright
+ * ownership. All rights reserved. This program and the accompanying materials are made available
+ * under the terms of the Apache License, Version 2.0 which accompanies this distribution and is
+ * available at http://www.apache.org/licenses/LICENSE-2.0.txt
+ */
+package org.locationtech.geowave.core.store.base;
+
+import java.util.Comparator;
+import java.util.Objects;
+import org.locationtech.geowave.core.store.api.Index;
+
+/**
+ * The estimated cost of querying a single index for a single type, derived from the query ranges
+ * the index strategy generates and the row range histogram, count and duplicate statistics that are
+ * persisted for the index. Row counts are only meaningful if statistics are available.
+ */
+public class IndexCostEstimate implements Comparable<IndexCostEstimate> {
+  // the cost of each range to seek to, relative to reading a single row
+  private static final double RANGE_COST = 10;
+  // the additional cost of a duplicate row that has to be filtered client side, relative to reading
+  // a single row
+  private static final double DUPLICATE_COST = 0.5;
+
+  private final Index index;
+  private final boolean fullTableScan;
+  private final int partitionCount;
+  private final int rangeCount;
+  private final boolean statisticsAvailable;
+  private final double estimatedRows;
+  private final double estimatedDuplicates;
+
+  public IndexCostEstimate(
+      final Index index,
+      final boolean fullTableScan,
+      final int partitionCount,
+      final int rangeCount,
+      final boolean statisticsAvailable,
+      final double estimatedRows,
+      final double estimatedDuplicates) {
+    this.index = index;
+    this.fullTableScan = fullTableScan;
+    this.partitionCount = partitionCount;
+    this.rangeCount = rangeCount;
+    this.statisticsAvailable = statisticsAvailable;
+    this.estimatedRows = estimatedRows;
+    this.estimatedDuplicates = estimatedDuplicates;
+  }
+
+  public Index getIndex() {
+    return index;
+  }
+
+  /** @return whether the query has no constraints that apply to this index */
+  public boolean isFullTableScan() {
+    return fullTableScan;
+  }
+
+  /** @return the number of partitions that would be queried, or 0 for a full table scan */
+  public int getPartitionCount() {
+    return partitionCount;
+  }
+
+  /** @return the number of sort key ranges that would be queried, or 0 for a full table scan */
+  public int getRangeCount() {
+    return rangeCount;
+  }
+
+  /** @return whether row range statistics exist for this index to estimate the rows scanned */
+  public boolean isStatisticsAvailable() {
+    return statisticsAvailable;
+  }
+
+  /** @return the estimated number of rows scanned, including duplicates */
+  public double getEstimatedRows() {
+    return estimatedRows;
+  }
+
+  /** @return the estimated number of scanned rows that are duplicates of other rows */
+  public double getEstimatedDuplicates() {
+    return estimatedDuplicates;
+  }
+
+  /** @return a relative cost, measured in rows read, to compare with estimates of other indices */
+  public double getCost() {
+    return estimatedRows + (DUPLICATE_COST * estimatedDuplicates) + (RANGE_COST * rangeCount);
+  }
+
+  /**
+   * Orders estimates by cost. Estimates of the same cost are ordered by the details of the estimate
+   * and finally by index name so that the order is consistent with {@link #equals(Object)}.
+   */
+  @Override
+  public int compareTo(final IndexCostEstimate other) {
+    int compare = Double.compare(getCost(), other.getCost());
+    if (compare != 0) {
+      return compare;
+    }
+    compare = Boolean.compare(fullTableScan, other.fullTableScan);
+    if (compare != 0) {
+      return compare;
+    }
+    compare = Integer.compare(rangeCount, other.rangeCount);
+    if (compare != 0) {
+      return compare;
+    }
+    compare = Integer.compare(partitionCount, other.partitionCount);
+    if (compare != 0) {
+      return compare;
+    }
+    compare = Double.compare(estimatedRows, other.estimatedRows);
+    if (compare != 0) {
+      return compare;
+    }
+    compare = Double.compare(estimatedDuplicates, other.estimatedDuplicates);
+    if (compare != 0) {
+      return compare;
+    }
+    // estimates backed by statistics come first
+    compare = Boolean.compare(other.statisticsAvailable, statisticsAvailable);
+    if (compare != 0) {
+      return compare;
+    }
+    return Comparator.nullsFirst(Comparator.<String>naturalOrder()).compare(
+        getIndexName(),
+        other.getIndexName());
+  }
+
+  private String getIndexName() {
+    return index == null ? null : index.getName();
+  }
+
+  @Override
+  public int hashCode() {
+    final int prime = 31;
+    int result = 1;
+    result = (prime * result) + (fullTableScan ? 1231 : 1237);
+    result = (prime * result) + partitionCount;
+    result = (prime * result) + rangeCount;
+    result = (prime * result) + (statisticsAvailable ? 1231 : 1237);
+    result = (prime * result) + Double.hashCode(estimatedRows);
+    result = (prime * result) + Double.hashCode(estimatedDuplicates);
+    result = (prime * result) + Objects.hashCode(getIndexName());
+    return result;
+  }
+
+  @Override
+  public boolean equals(final Object obj) {
+    if (this == obj) {
+      return true;
+    }
+    if ((obj == null) || (getClass() != obj.getClass())) {
+      return false;
+    }
+    return compareTo((IndexCostEstimate) obj) == 0;
+  }
+
+  @Override
+  public String toString() {
+    return "IndexCostEstimate [index="
+        + getIndexName()
+        + ", fullTableScan="
+        + fullTableScan
+        + ", partitionCount="
+        + partitionCount
+        + ", rangeCount="
+        + rangeCount
+        + ", statisticsAvailable="
+        + statisticsAvailable
+        + ", estimatedRows="
+        + estimatedRows
+        + ", estimatedDuplicates="
+        + estimatedDuplicates
+        + ", cost="
+        + getCost()
+        + "]";
+  }
+}
@@ -0,0 +1,323 @@
+/**
+ * Copyright (c) 2013-2019 Contributors to the Eclipse Foundation
+ *
+ * <p> See the NOTICE file distributed with this work for additional information regarding copyright
+ * ownership. All rights reserved. This program and the accompanying materials are made available
+ * under the terms of the Apache License, Version 2.0 which accompanies this distribution and is
+ * available at http://www.apache.org/licenses/LICENSE-2.0.txt
+ */
+package org.locationtech.geowave.core.store.base;
+
+import java.util.HashMap;
+import java.util.Map;
+import org.locationtech.geowave.core.store.adapter.AsyncPersistenceEncoding;
+import org.locationtech.geowave.core.store.adapter.FullAsyncPersistenceEncoding;
+import org.locationtech.geowave.core.store.adapter.IndexedAdapterPersistenceEncoding;
+import org.locationtech.geowave.core.store.adapter.InternalDataAdapter;
+import org.locationtech.geowave.core.store.adapter.LazyReadPersistenceEncoding;
+import org.locationtech.geowave.core.store.adapter.PartialAsyncPersistenceEncoding;
+import org.locationtech.geowave.core.store.adapter.PersistentAdapterStore;
+import org.locationtech.geowave.core.store.adapter.ReusableReadPersistenceEncoding;
+import org.locationtech.geowave.core.store.adapter.exceptions.AdapterException;
+import org.locationtech.geowave.core.store.api.Index;
+import org.locationtech.geowave.core.store.base.dataidx.BatchDataIndexRetrieval;
+import org.locationtech.geowave.core.store.base.dataidx.DataIndexRetrieval;
+import org.locationtech.geowave.core.store.base.dataidx.DataIndexUtils;
+import org.locationtech.geowave.core.store.callback.ScanCallback;
+import org.locationtech.geowave.core.store.entities.GeoWaveRow;
+import org.locationtech.geowave.core.store.index.CommonIndexModel;
+import org.locationtech.geowave.core.store.query.filter.QueryFilter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import com.google.common.base.Suppliers;
+
+/**
+ * Decodes rows read from an index by building a persistence encoding, passing it through the client
+ * filters and if it is accepted using the data adapter to decode it into the native data type.
+ *
+ * <p> A decoder is meant to be reused for every row of a single iterator. Adapters are resolved
+ * once per adapter ID, and if encodings are reused rows are read into a flyweight encoding that is
+ * only replaced once a row has been accepted and decoded, so rows rejected by the client filters
+ * allocate very little. A decoder is not thread-safe.
+ *
+ * @param <T> the type of the decoded rows
+ */
+public class RowDecoder<T> {
+  private static final Logger LOGGER = LoggerFactory.getLogger(RowDecoder.class);
+
+  private final InternalDataAdapter<T> adapter;
+  private final PersistentAdapterStore adapterStore;
+  private final Index index;
+  private final CommonIndexModel indexModel;
+  private final QueryFilter[] clientFilters;
+  private final ScanCallback<T, GeoWaveRow> scanCallback;
+  private final byte[] fieldSubsetBitmask;
+  private final boolean decodeRow;
+  private final DataIndexRetrieval dataIndexRetrieval;
+  private final boolean reuseEncoding;
+  private final Map<Short, AdapterContext<T>> adapterContexts = new HashMap<>();
+  private AdapterContext<T> lastAdapterContext = null;
+
+  /**
+   * @param adapter the adapter of the rows, or null to look up the adapter of each row in the
+   *        adapter store
+   * @param adapterStore the adapter store, only used if the adapter is null
+   * @param index the index the rows are read from
+   * @param clientFilters the filters to apply to each row
+   * @param scanCallback a callback for each decoded row, may be null
+   * @param fieldSubsetBitmask the fields to read, null for all fields
+   * @param decodeRow whether to decode accepted rows into the native type, if false the persistence
+   *        encoding is returned instead
+   * @param dataIndexRetrieval the retrieval of values from the data index if the index is a
+   *        secondary index, otherwise null
+   * @param reuseEncoding whether rejected rows may reuse the same persistence encoding, this is
+   *        only applied if rows are decoded and not read through a secondary index
+   */
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  public RowDecoder(
+      final InternalDataAdapter<T> adapter,
+      final PersistentAdapterStore adapterStore,
+      final Index index,
+      final QueryFilter[] clientFilters,
+      final ScanCallback scanCallback,
+      final byte[] fieldSubsetBitmask,
+      final boolean decodeRow,
+      final DataIndexRetrieval dataIndexRetrieval,
+      final boolean reuseEncoding) {
+    this.adapter = adapter;
+    this.adapterStore = adapterStore;
+    this.index = index;
+    indexModel = index.getIndexModel();
+    this.clientFilters = clientFilters;
+    this.scanCallback = scanCallback;
+    this.fieldSubsetBitmask = fieldSubsetBitmask;
+    this.decodeRow = decodeRow;
+    this.dataIndexRetrieval = dataIndexRetrieval;
+    this.reuseEncoding = reuseEncoding && decodeRow;
+  }
+
+  /**
+   * Decode a single row.
+   *
+   * @param row the row to decode
+   * @return the decoded row, the persistence encoding if rows are not decoded, a future of the
+   *         decoded row for asynchronous data index retrieval, or null if the row is rejected
+   * @throws AdapterException if the adapter of the row cannot be resolved
+   */
+  public Object decode(final GeoWaveRow row) throws AdapterException {
+    final AdapterContext<T> context = getAdapterContext(row.getAdapterId());
+    if (context.dataIndexRetrieval != null) {
+      return decodeSecondaryIndexRow(row, context);
+    }
+    final IndexedAdapterPersistenceEncoding encodedRow;
+    if (reuseEncoding) {
+      if (context.reusableEncoding == null) {
+        context.reusableEncoding =
+            new ReusableReadPersistenceEncoding(context.adapter, indexModel, fieldSubsetBitmask);
+      }
+      encodedRow = context.reusableEncoding.reset(row);
+    } else {
+      encodedRow =
+          new LazyReadPersistenceEncoding(
+              context.adapter.getAdapterId(),
+              row.getDataId(),
+              row.getPartitionKey(),
+              row.getSortKey(),
+              row.getNumberOfDuplicates(),
+              context.adapter,
+              indexModel,
+              fieldSubsetBitmask,
+              row.getFieldValues(),
+              false);
+    }
+    if (clientFilterProgress(encodedRow, 0) >= 0) {
+      return null;
+    }
+    if (!decodeRow) {
+      return encodedRow;
+    }
+    final T decodedRow = context.adapter.decode(encodedRow, index);
+    // the decoded row may reference the values of the encoding so it can no longer be reused
+    context.reusableEncoding = null;
+    if (scanCallback != null) {
+      scanCallback.entryScanned(decodedRow, row);
+    }
+    return decodedRow;
+  }
+
+  private AdapterContext<T> getAdapterContext(final short internalAdapterId)
+      throws AdapterException {
+    if ((lastAdapterContext != null) && (lastAdapterContext.adapterId == internalAdapterId)) {
+      return lastAdapterContext;
+    }
+    AdapterContext<T> context = adapterContexts.get(internalAdapterId);
+    if (context == null) {
+      final InternalDataAdapter<T> rowAdapter = resolveAdapter(internalAdapterId);
+      context =
+          new AdapterContext<>(
+              internalAdapterId,
+              rowAdapter,
+              DataIndexUtils.adapterSupportsDataIndex(rowAdapter) ? dataIndexRetrieval : null);
+      adapterContexts.put(internalAdapterId, context);
+    }
+    lastAdapterContext = context;
+    return context;
+  }
+
+  @SuppressWarnings("unchecked")
+  private InternalDataAdapter<T> resolveAdapter(final short internalAdapterId)
+      throws AdapterException {
+    if ((adapter == null) && (adapterStore == null)) {
+      final String msg =
+          "Could not decode row from iterator. Either adapter or adapter store must be non-null.";
+      LOGGER.error(msg);
+      throw new AdapterException(msg);
+    }
+    if (adapter != null) {
+      // Verify the adapter matches the data
+      if ((internalAdapterId == 0) || (internalAdapterId != adapter.getAdapterId())) {
+        final String msg = "Adapter verify failed: adapter does not match data.";
+        LOGGER.error(msg);
+        throw new AdapterException(msg);
+      }
+      return adapter;
+    }
+    final InternalDataAdapter<T> storedAdapter =
+        (InternalDataAdapter<T>) adapterStore.getAdapter(internalAdapterId);
+    if (storedAdapter == null) {
+      final String msg = "Could not retrieve adapter " + internalAdapterId + " from adapter store.";
+      LOGGER.error(msg);
+      throw new AdapterException(msg);
+    }
+    return storedAdapter;
+  }
+
+  /**
+   * The values of rows of a secondary index are looked up in the data index, possibly
+   * asynchronously, so these encodings cannot be reused.
+   */
+  private Object decodeSecondaryIndexRow(final GeoWaveRow row, final AdapterContext<T> context) {
+    final InternalDataAdapter<T> dataAdapter = context.adapter;
+    final DataIndexRetrieval retrieval = context.dataIndexRetrieval;
+    final IndexedAdapterPersistenceEncoding encodedRow;
+    if (retrieval instanceof BatchDataIndexRetrieval) {
+      if (indexModel.useInSecondaryIndex()) {
+        encodedRow =
+            new PartialAsyncPersistenceEncoding(
+                dataAdapter.getAdapterId(),
+                row.getDataId(),
+                row.getPartitionKey(),
+                row.getSortKey(),
+                row.getNumberOfDuplicates(),
+                (BatchDataIndexRetrieval) retrieval,
+                dataAdapter,
+                indexModel,
+                fieldSubsetBitmask,
+                Suppliers.memoize(
+                    () -> retrieval.getData(dataAdapter.getAdapterId(), row.getDataId())));
+      } else {
+        encodedRow =
+            new FullAsyncPersistenceEncoding(
+                dataAdapter.getAdapterId(),
+                row.getDataId(),
+                row.getPartitionKey(),
+                row.getSortKey(),
+                row.getNumberOfDuplicates(),
+                (BatchDataIndexRetrieval) retrieval);
+      }
+    } else {
+      encodedRow =
+          new LazyReadPersistenceEncoding(
+              dataAdapter.getAdapterId(),
+              row.getDataId(),
+              row.getPartitionKey(),
+              row.getSortKey(),
+              row.getNumberOfDuplicates(),
+              dataAdapter,
+              indexModel,
+              fieldSubsetBitmask,
+              Suppliers.memoize(
+                  () -> retrieval.getData(dataAdapter.getAdapterId(), row.getDataId())));
+    }
+    final Object obj = filterAndDecodeSecondaryIndexRow(row, dataAdapter, encodedRow, 0);
+    if ((obj instanceof Integer) && encodedRow.isAsync()) {
+      // by re-applying the filters, client filters should not be called multiple times for the
+      // same instance (beware of stateful filters such as dedupe filter). this method attempts to
+      // maintain progress of the filter chain so that any successful filters prior to retrieving
+      // the data will not need to be repeated
+      return (((AsyncPersistenceEncoding) encodedRow).getFieldValuesFuture().thenApply(
+          fv -> new LazyReadPersistenceEncoding(
+              dataAdapter.getAdapterId(),
+              row.getDataId(),
+              row.getPartitionKey(),
+              row.getSortKey(),
+              row.getNumberOfDuplicates(),
+              dataAdapter,
+              indexModel,
+              fieldSubsetBitmask,
+              fv,
+              true))).thenApply(
+                  (r) -> filterAndDecodeSecondaryIndexRow(row, dataAdapter, r, (Integer) obj));
+    }
+    return obj;
+  }
+
+  private Object filterAndDecodeSecondaryIndexRow(
+      final GeoWaveRow row,
+      final InternalDataAdapter<T> dataAdapter,
+      final IndexedAdapterPersistenceEncoding encodedRow,
+      final int initialFilter) {
+    final int i = clientFilterProgress(encodedRow, initialFilter);
+    if (i < 0) {
+      if (!decodeRow) {
+        return encodedRow;
+      }
+      final T decodedRow = dataAdapter.decode(encodedRow, DataIndexUtils.DATA_ID_INDEX);
+      if (encodedRow.isAsync()) {
+        return i;
+      }
+      if (scanCallback != null) {
+        scanCallback.entryScanned(decodedRow, row);
+      }
+      return decodedRow;
+    }
+    if (encodedRow.isAsync()) {
+      return i;
+    }
+    return null;
+  }
+
+  /**
+   * @return returns -1 if all client filters have accepted the row, otherwise returns how many
+   *         client filters have accepted
+   */
+  private int clientFilterProgress(
+      final IndexedAdapterPersistenceEncoding encodedRow,
+      final int initialFilter) {
+    if ((clientFilters == null) || (initialFilter < 0)) {
+      return -1;
+    }
+    for (int i = initialFilter; i < clientFilters.length; i++) {
+      if (!clientFilters[i].accept(indexModel, encodedRow)) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  private static class AdapterContext<T> {
+    private final short adapterId;
+    private final InternalDataAdapter<T> adapter;
+    private final DataIndexRetrieval dataIndexRetrieval;
+    private ReusableReadPersistenceEncoding reusableEncoding;
+
+    private AdapterContext(
+        final short adapterId,
+        final InternalDataAdapter<T> adapter,
+        final DataIndexRetrieval dataIndexRetrieval) {
+      this.adapterId = adapterId;
+      this.adapter = adapter;
+      this.dataIndexRetrieval = dataIndexRetrieval;
+    }
+  }
+}
@@ -73,4 +73,9 @@ public class MultiFieldPersistentDataset<T> implements PersistentDataset<T> {
   public Map<String, T> getValues() {
     return fieldNameToValueMap;
   }
+
+  /** Remove all values so that this dataset can be reused */
+  public void clear() {
+    fieldNameToValueMap.clear();
+  }
 }
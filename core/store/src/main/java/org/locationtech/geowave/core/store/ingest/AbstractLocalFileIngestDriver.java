@@ -14,14 +14,19 @@ import java.net.URL;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 import org.apache.commons.io.FilenameUtils;
 import org.locationtech.geowave.core.store.CloseableIterator;
 import org.locationtech.geowave.core.store.api.DataStore;
@@ -38,8 +43,12 @@ import org.slf4j.LoggerFactory;
 abstract public class AbstractLocalFileIngestDriver extends
     AbstractLocalFileDriver<LocalFileIngestPlugin<?>, LocalIngestRunData> {
   private static final int INGEST_BATCH_SIZE = 50000;
+  // the number of entries handed from the parse stage to the write stage at a time
+  private static final int WRITE_BATCH_SIZE = 500;
   private static final Logger LOGGER = LoggerFactory.getLogger(AbstractLocalFileIngestDriver.class);
   protected ExecutorService ingestExecutor;
+  protected ExecutorService parseExecutor;
+  protected LocalIngestMetrics ingestMetrics;
 
   public AbstractLocalFileIngestDriver() {
     super();
@@ -79,6 +88,9 @@ abstract public class AbstractLocalFileIngestDriver extends
       // index writers will be
       // closed before they are finished processing the file entries.
       shutdownExecutor();
+      if (ingestMetrics != null) {
+        LOGGER.info("Finished ingest: " + ingestMetrics.getSummary());
+      }
     } catch (final IOException e) {
       LOGGER.error("Unexpected I/O exception when reading input files", e);
       return false;
@@ -90,16 +102,29 @@ abstract public class AbstractLocalFileIngestDriver extends
 
   /**
    * Create a basic thread pool to ingest file data. We limit it to the amount of threads specified
-   * on the command line.
+   * on the command line. Files that can be split are additionally parsed by a pool of parse
+   * threads.
    */
   public void startExecutor() {
-    if (getNumThreads() > 1) {
+    if (isPipelined()) {
       ingestExecutor = Executors.newFixedThreadPool(getNumThreads());
+      if (getNumParseThreads() > 1) {
+        parseExecutor = Executors.newFixedThreadPool(getNumParseThreads());
+      }
+      ingestMetrics = new LocalIngestMetrics();
     }
   }
 
+  private boolean isPipelined() {
+    return (getNumThreads() > 1) || (getNumParseThreads() > 1);
+  }
+
   /** This function will wait for executing tasks to complete for up to 10 seconds. */
   public void shutdownExecutor() {
+    if (parseExecutor != null) {
+      parseExecutor.shutdownNow();
+      parseExecutor = null;
+    }
     if (ingestExecutor != null) {
       try {
         ingestExecutor.shutdown();
@@ -149,7 +174,7 @@ abstract public class AbstractLocalFileIngestDriver extends
       }
     }
 
-    if (getNumThreads() == 1) {
+    if (!isPipelined()) {
       processFileSingleThreaded(
           file,
           typeName,
@@ -293,6 +318,12 @@ abstract public class AbstractLocalFileIngestDriver extends
     writer.write(geowaveData.getValue());
   }
 
+  /**
+   * Ingest a file with a pipeline of a parse stage and a write stage, which are connected by a
+   * bounded queue of batches of entries. The write stage writes with the ingest threads. The parse
+   * stage parses on the calling thread, unless the plugin can split the file, in which case the
+   * parts of the file are parsed by the parse threads.
+   */
   public void processFileMultiThreaded(
       final URL file,
       final String typeName,
@@ -301,11 +332,12 @@ abstract public class AbstractLocalFileIngestDriver extends
       final Map<String, Index> specifiedPrimaryIndexes,
       final Map<String, Index> requiredIndexMap) throws IOException {
 
-    // Create our queue. We will post GeoWaveData items to these queue until
+    // Create our queue. We will post batches of GeoWaveData items to this queue until
     // there are no more items, at which point we will tell the workers to
     // complete. Ingest batch size is the total max number of items to read
     // from the file at a time for the worker threads to execute.
-    final BlockingQueue<GeoWaveData<?>> queue = createBlockingQueue(INGEST_BATCH_SIZE);
+    final BlockingQueue<List<GeoWaveData<?>>> queue =
+        createBlockingQueue(INGEST_BATCH_SIZE / WRITE_BATCH_SIZE);
 
     // Create our Jobs. We submit as many jobs as we have executors for.
     // These folks will read our blocking queue
@@ -325,52 +357,25 @@ abstract public class AbstractLocalFileIngestDriver extends
                 specifiedPrimaryIndexes,
                 requiredIndexMap,
                 queue,
-                this);
+                this,
+                ingestMetrics);
         ingestTasks.add(task);
         ingestExecutor.submit(task);
       }
 
-      // Read files until EOF from the command line.
-      try (CloseableIterator<?> geowaveDataIt =
-          plugin.toGeoWaveData(
-              file,
-              specifiedPrimaryIndexes.keySet().toArray(new String[0]),
-              getGlobalVisibility())) {
-
-        while (geowaveDataIt.hasNext()) {
-          final GeoWaveData<?> geowaveData = (GeoWaveData<?>) geowaveDataIt.next();
-          try {
-            while (!queue.offer(geowaveData, 100, TimeUnit.MILLISECONDS)) {
-              // Determine if we have any workers left. The point
-              // of this code is so we
-              // aren't hanging after our workers exit (before the
-              // file is done) due to
-              // some un-handled exception.
-              boolean workerAlive = false;
-              for (final IngestTask task : ingestTasks) {
-                if (!task.isFinished()) {
-                  workerAlive = true;
-                  break;
-                }
-              }
-
-              // If the workers are still there, then just try to
-              // offer again.
-              // This will loop forever until there are no workers
-              // left.
-              if (workerAlive) {
-                LOGGER.debug("Worker threads are overwhelmed, waiting 1 second");
-              } else {
-                final String message = "Datastore error, all workers have terminated! Aborting...";
-                LOGGER.error(message);
-                throw new RuntimeException(message);
-              }
-            }
-          } catch (final InterruptedException e) {
-            // I can't see how this will ever happen, except maybe
-            // someone kills the process?
-            throw new RuntimeException("Interrupted placing GeoWaveData on queue");
-          }
+      final String[] indexNames = specifiedPrimaryIndexes.keySet().toArray(new String[0]);
+      if ((parseExecutor != null) && (plugin instanceof SplittableLocalFileIngestPlugin)) {
+        parseParts(
+            (SplittableLocalFileIngestPlugin<?>) plugin,
+            file,
+            indexNames,
+            queue,
+            ingestTasks);
+      } else {
+        // Read files until EOF from the command line.
+        try (CloseableIterator<?> geowaveDataIt =
+            plugin.toGeoWaveData(file, indexNames, getGlobalVisibility())) {
+          parse(geowaveDataIt, queue, ingestTasks);
         }
       }
     } finally {
@@ -381,6 +386,138 @@ abstract public class AbstractLocalFileIngestDriver extends
     }
   }
 
+  private void parseParts(
+      final SplittableLocalFileIngestPlugin<?> plugin,
+      final URL file,
+      final String[] indexNames,
+      final BlockingQueue<List<GeoWaveData<?>>> queue,
+      final List<IngestTask> ingestTasks) throws IOException {
+    // limit the parts that are read ahead of the parse threads
+    final Semaphore pendingParts = new Semaphore(getNumParseThreads() * 2);
+    final List<Future<?>> parseTasks = new ArrayList<>();
+    int partCount = 0;
+    try (CloseableIterator<? extends Supplier<? extends CloseableIterator<?>>> parts =
+        plugin.toGeoWaveDataParts(file, indexNames, getGlobalVisibility())) {
+      while (parts.hasNext()) {
+        final Supplier<? extends CloseableIterator<?>> part = parts.next();
+        partCount++;
+        pendingParts.acquire();
+        // stop reading ahead as soon as a part fails rather than after the whole file is split
+        checkParseTasks(parseTasks);
+        parseTasks.add(parseExecutor.submit(() -> {
+          try (CloseableIterator<?> geowaveDataIt = part.get()) {
+            parse(geowaveDataIt, queue, ingestTasks);
+          } finally {
+            pendingParts.release();
+          }
+        }));
+      }
+      if (partCount == 1) {
+        LOGGER.warn(
+            String.format(
+                "File [%s] was not split into parts, so only one of the %d parse threads parsed it; check the options of its format for splitting files",
+                FilenameUtils.getName(file.getPath()),
+                getNumParseThreads()));
+      }
+      for (final Future<?> parseTask : parseTasks) {
+        parseTask.get();
+      }
+    } catch (final InterruptedException e) {
+      throw new RuntimeException("Interrupted parsing file: " + file.getPath(), e);
+    } catch (final ExecutionException e) {
+      throw new RuntimeException("Unable to parse file: " + file.getPath(), e.getCause());
+    } finally {
+      for (final Future<?> parseTask : parseTasks) {
+        parseTask.cancel(true);
+      }
+    }
+  }
+
+  /** Throws the failure of any part that has been parsed and forgets the parts that succeeded */
+  private static void checkParseTasks(final List<Future<?>> parseTasks)
+      throws InterruptedException, ExecutionException {
+    final Iterator<Future<?>> it = parseTasks.iterator();
+    while (it.hasNext()) {
+      final Future<?> parseTask = it.next();
+      if (parseTask.isDone()) {
+        parseTask.get();
+        it.remove();
+      }
+    }
+  }
+
+  private void parse(
+      final CloseableIterator<?> geowaveDataIt,
+      final BlockingQueue<List<GeoWaveData<?>>> queue,
+      final List<IngestTask> ingestTasks) {
+    List<GeoWaveData<?>> batch = new ArrayList<>(WRITE_BATCH_SIZE);
+    while (geowaveDataIt.hasNext()) {
+      batch.add((GeoWaveData<?>) geowaveDataIt.next());
+      if (batch.size() >= WRITE_BATCH_SIZE) {
+        enqueue(batch, queue, ingestTasks);
+        batch = new ArrayList<>(WRITE_BATCH_SIZE);
+      }
+    }
+    if (!batch.isEmpty()) {
+      enqueue(batch, queue, ingestTasks);
+    }
+  }
+
+  private void enqueue(
+      final List<GeoWaveData<?>> batch,
+      final BlockingQueue<List<GeoWaveData<?>>> queue,
+      final List<IngestTask> ingestTasks) {
+    ingestMetrics.entriesParsed(batch.size());
+    final long waitStart = System.nanoTime();
+    try {
+      while (!queue.offer(batch, 100, TimeUnit.MILLISECONDS)) {
+        // Determine if we have any workers left. The point
+        // of this code is so we
+        // aren't hanging after our workers exit (before the
+        // file is done) due to
+        // some un-handled exception.
+        boolean workerAlive = false;
+        for (final IngestTask task : ingestTasks) {
+          if (!task.isFinished()) {
+            workerAlive = true;
+            break;
+          }
+        }
+
+        // If the workers are still there, then just try to
+        // offer again.
+        // This will loop forever until there are no workers
+        // left.
+        if (workerAlive) {
+          LOGGER.debug("Worker threads are overwhelmed, waiting 1 second");
+        } else {
+          final String message = "Datastore error, all workers have terminated! Aborting...";
+          LOGGER.error(message);
+          throw new RuntimeException(message);
+        }
+      }
+    } catch (final InterruptedException e) {
+      // I can't see how this will ever happen, except maybe
+      // someone kills the process?
+      throw new RuntimeException("Interrupted placing GeoWaveData on queue");
+    } finally {
+      ingestMetrics.parseWaited(System.nanoTime() - waitStart);
+    }
+    if (ingestMetrics.isProgressDue()) {
+      LOGGER.info("Ingest progress: " + ingestMetrics.getSummary());
+    }
+  }
+
+  /**
+   * The number of threads used to parse the parts of files that can be split, see
+   * {@link SplittableLocalFileIngestPlugin}. Other files are parsed by a single thread.
+   *
+   * @return the number of parse threads
+   */
+  protected int getNumParseThreads() {
+    return 1;
+  }
+
   abstract protected int getNumThreads();
 
   abstract protected String getGlobalVisibility();
@@ -395,7 +532,7 @@ abstract public class AbstractLocalFileIngestDriver extends
       final String providerName,
       final DataAdapterProvider<?> adapterProvider);
 
-  private static BlockingQueue<GeoWaveData<?>> createBlockingQueue(final int batchSize) {
-    return new LinkedBlockingQueue<>(batchSize);
+  private static BlockingQueue<List<GeoWaveData<?>>> createBlockingQueue(final int batches) {
+    return new LinkedBlockingQueue<>(batches);
   }
 }
@@ -0,0 +1,56 @@
+/**
+ * Copyright (c) 2013-2019 Contributors to the Eclipse Foundation
+ *
+ * <p> See the NOTICE file distributed with this work for additional information regarding copyright
+ * ownership. All rights reserved. This program and the accompanying materials are made available
+ * under the terms of the Apache License, Version 2.0 which accompanies this distribution and is
+ * available at http://www.apache.org/licenses/LICENSE-2.0.txt
+ */
+package org.locationtech.geowave.core.store.ingest;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Progress reporting shared by the metrics of an ingest, which are summarized periodically while
+ * the ingest runs and once it is done.
+ */
+public abstract class IngestMetrics {
+  private static final long PROGRESS_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(30);
+
+  private final long startNanos = System.nanoTime();
+  private final AtomicLong lastProgressNanos = new AtomicLong(startNanos);
+
+  /**
+   * @return true if progress has not been reported for a while, in which case it is assumed that
+   *         the caller reports it now
+   */
+  public boolean isProgressDue() {
+    final long now = System.nanoTime();
+    final long last = lastProgressNanos.get();
+    return ((now - last) > PROGRESS_INTERVAL_NANOS) && lastProgressNanos.compareAndSet(last, now);
+  }
+
+  /** @return a summary of the metrics since the ingest started */
+  public String getSummary() {
+    return getSummary(Math.max(1e-3, seconds(System.nanoTime() - startNanos)));
+  }
+
+  /**
+   * @param elapsedSeconds the time since the ingest started
+   * @return a summary of the metrics
+   */
+  protected abstract String getSummary(double elapsedSeconds);
+
+  /** @return the count with its rate over the elapsed time, such as "10 entries (5/s)" */
+  protected static String throughput(
+      final long count,
+      final String unit,
+      final double elapsedSeconds) {
+    return String.format("%d %s (%.0f/s)", count, unit, count / elapsedSeconds);
+  }
+
+  protected static double seconds(final long nanos) {
+    return nanos / 1e9;
+  }
+}
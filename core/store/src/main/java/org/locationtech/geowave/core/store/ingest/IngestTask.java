@@ -23,14 +23,14 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * An IngestTask is a thread which listens to items from a blocking queue, and writes those items to
- * IndexWriter objects obtained from LocalIngestRunData (where they are constructed but also cached
- * from the DataStore object). Read items until isTerminated == true.
+ * An IngestTask is a thread which listens to batches of items from a blocking queue, and writes
+ * those items to IndexWriter objects obtained from LocalIngestRunData (where they are constructed
+ * but also cached from the DataStore object). Read items until isTerminated == true.
  */
 public class IngestTask implements Runnable {
   private static final Logger LOGGER = LoggerFactory.getLogger(IngestTask.class);
   private final String id;
-  private final BlockingQueue<GeoWaveData<?>> readQueue;
+  private final BlockingQueue<List<GeoWaveData<?>>> readQueue;
   private final LocalIngestRunData runData;
   private final Map<String, Index> specifiedPrimaryIndexes;
   private final Map<String, Index> requiredIndexMap;
@@ -40,19 +40,22 @@ public class IngestTask implements Runnable {
   private final Map<String, Writer> indexWriters;
   private final Map<String, AdapterToIndexMapping> adapterMappings;
   private final AbstractLocalFileIngestDriver localFileIngestDriver;
+  private final LocalIngestMetrics metrics;
 
   public IngestTask(
       final String id,
       final LocalIngestRunData runData,
       final Map<String, Index> specifiedPrimaryIndexes,
       final Map<String, Index> requiredIndexMap,
-      final BlockingQueue<GeoWaveData<?>> queue,
-      final AbstractLocalFileIngestDriver localFileIngestDriver) {
+      final BlockingQueue<List<GeoWaveData<?>>> queue,
+      final AbstractLocalFileIngestDriver localFileIngestDriver,
+      final LocalIngestMetrics metrics) {
     this.id = id;
     this.runData = runData;
     this.specifiedPrimaryIndexes = specifiedPrimaryIndexes;
     this.requiredIndexMap = requiredIndexMap;
     this.localFileIngestDriver = localFileIngestDriver;
+    this.metrics = metrics;
     readQueue = queue;
 
     indexWriters = new HashMap<>();
@@ -90,14 +93,16 @@ public class IngestTask implements Runnable {
   @Override
   public void run() {
     int count = 0;
-    long dbWriteMs = 0L;
+    long dbWriteNanos = 0L;
 
     try {
       LOGGER.debug(String.format("Worker executing for plugin [%s]", getId()));
 
       while (true) {
-        final GeoWaveData<?> geowaveData = readQueue.poll(100, TimeUnit.MILLISECONDS);
-        if (geowaveData == null) {
+        final long waitStart = System.nanoTime();
+        final List<GeoWaveData<?>> batch = readQueue.poll(100, TimeUnit.MILLISECONDS);
+        metrics.writeWaited(System.nanoTime() - waitStart);
+        if (batch == null) {
           if (isTerminated && (readQueue.size() == 0)) {
             // Done!
             break;
@@ -109,20 +114,22 @@ public class IngestTask implements Runnable {
           continue;
         }
 
-        final DataTypeAdapter adapter = runData.getDataAdapter(geowaveData);
-        if (adapter == null) {
-          LOGGER.warn(
-              String.format(
-                  "Adapter not found for [%s] worker [%s]",
-                  geowaveData.getValue(),
-                  getId()));
-          continue;
-        }
+        for (final GeoWaveData<?> geowaveData : batch) {
+          final DataTypeAdapter adapter = runData.getDataAdapter(geowaveData);
+          if (adapter == null) {
+            LOGGER.warn(
+                String.format(
+                    "Adapter not found for [%s] worker [%s]",
+                    geowaveData.getValue(),
+                    getId()));
+            continue;
+          }
 
-        // Ingest the data!
-        dbWriteMs += ingestData(geowaveData, adapter);
+          // Ingest the data!
+          dbWriteNanos += ingestData(geowaveData, adapter);
 
-        count++;
+          count++;
+        }
       }
     } catch (final Exception e) {
       // This should really never happen, because we don't limit the
@@ -146,7 +153,7 @@ public class IngestTask implements Runnable {
               "Worker exited for plugin [%s]; Ingested %d items in %d seconds",
               getId(),
               count,
-              (int) dbWriteMs / 1000));
+              TimeUnit.NANOSECONDS.toSeconds(dbWriteNanos)));
 
       isFinished = true;
     }
@@ -185,10 +192,11 @@ public class IngestTask implements Runnable {
     }
 
     // Time the DB write
-    final long hack = System.currentTimeMillis();
+    final long start = System.nanoTime();
     localFileIngestDriver.write(writer, geowaveData);
-    final long durMs = System.currentTimeMillis() - hack;
+    final long durNanos = System.nanoTime() - start;
+    metrics.entryWritten(durNanos);
 
-    return durMs;
+    return durNanos;
   }
 }
@@ -0,0 +1,63 @@
+/**
+ * Copyright (c) 2013-2019 Contributors to the Eclipse Foundation
+ *
+ * <p> See the NOTICE file distributed with this work for additional information regarding copyright
+ * ownership. All rights reserved. This program and the accompanying materials are made available
+ * under the terms of the Apache License, Version 2.0 which accompanies this distribution and is
+ * available at http://www.apache.org/licenses/LICENSE-2.0.txt
+ */
+package org.locationtech.geowave.core.store.ingest;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Throughput and backpressure metrics of a multi-threaded local ingest. Time that the parse stage
+ * spends waiting for the write stage indicates the ingest is bound by writing, while time that the
+ * write stage spends waiting for the parse stage indicates it is bound by parsing.
+ */
+public class LocalIngestMetrics extends IngestMetrics {
+  private final LongAdder parsedEntries = new LongAdder();
+  private final LongAdder writtenEntries = new LongAdder();
+  private final LongAdder parseWaitNanos = new LongAdder();
+  private final LongAdder writeWaitNanos = new LongAdder();
+  private final LongAdder writeNanos = new LongAdder();
+
+  public void entriesParsed(final int count) {
+    parsedEntries.add(count);
+  }
+
+  public void entryWritten(final long nanos) {
+    writtenEntries.increment();
+    writeNanos.add(nanos);
+  }
+
+  /** @param nanos time that the parse stage waited for room in the write queue */
+  public void parseWaited(final long nanos) {
+    parseWaitNanos.add(nanos);
+  }
+
+  /** @param nanos time that the write stage waited for entries to write */
+  public void writeWaited(final long nanos) {
+    writeWaitNanos.add(nanos);
+  }
+
+  public long getParsedEntries() {
+    return parsedEntries.sum();
+  }
+
+  public long getWrittenEntries() {
+    return writtenEntries.sum();
+  }
+
+  @Override
+  protected String getSummary(final double elapsedSeconds) {
+    return String.format(
+        "parsed %s, wrote %s in %.1f s; parse stage waited %.1f s for writers, write stage waited %.1f s for parsers and spent %.1f s writing",
+        throughput(getParsedEntries(), "entries", elapsedSeconds),
+        throughput(getWrittenEntries(), "entries", elapsedSeconds),
+        elapsedSeconds,
+        seconds(parseWaitNanos.sum()),
+        seconds(writeWaitNanos.sum()),
+        seconds(writeNanos.sum()));
+  }
+}
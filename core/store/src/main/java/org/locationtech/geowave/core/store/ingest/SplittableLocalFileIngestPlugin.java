@@ -0,0 +1,36 @@
+/**
+ * Copyright (c) 2013-2019 Contributors to the Eclipse Foundation
+ *
+ * <p> See the NOTICE file distributed with this work for additional information regarding copyright
+ * ownership. All rights reserved. This program and the accompanying materials are made available
+ * under the terms of the Apache License, Version 2.0 which accompanies this distribution and is
+ * available at http://www.apache.org/licenses/LICENSE-2.0.txt
+ */
+package org.locationtech.geowave.core.store.ingest;
+
+import java.net.URL;
+import java.util.function.Supplier;
+import org.locationtech.geowave.core.store.CloseableIterator;
+
+/**
+ * A local file ingest plugin that can split a file into parts which are converted to GeoWave data
+ * independently, so that a single large file can be converted by several threads. Implementations
+ * must support converting several parts concurrently.
+ *
+ * @param <O> The type of data to write to GeoWave
+ */
+public interface SplittableLocalFileIngestPlugin<O> extends LocalFileIngestPlugin<O> {
+  /**
+   * Split a file into parts. The parts are read in order by a single thread, and each part is then
+   * converted by any thread.
+   *
+   * @param input The file to split
+   * @param indexNames The set of index IDs specified via a commandline argument
+   * @param globalVisibility The global visibility specified via a commandline argument
+   * @return the parts of the file, which convert the part when supplied
+   */
+  public CloseableIterator<Supplier<CloseableIterator<GeoWaveData<O>>>> toGeoWaveDataParts(
+      URL input,
+      String[] indexNames,
+      String globalVisibility);
+}
@@ -18,10 +18,14 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.SortedSet;
 import java.util.TreeSet;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
 import org.apache.commons.lang3.ArrayUtils;
 import org.apache.log4j.Logger;
 import org.locationtech.geowave.core.index.ByteArray;
@@ -71,8 +75,11 @@ import com.google.common.primitives.UnsignedBytes;
 
 public class MemoryDataStoreOperations implements DataStoreOperations {
   private static final Logger LOGGER = Logger.getLogger(MemoryDataStoreOperations.class);
-  private final Map<String, SortedSet<MemoryStoreEntry>> storeData =
-      Collections.synchronizedMap(new HashMap<String, SortedSet<MemoryStoreEntry>>());
+  // each index is a concurrent skip list so that writes don't need to lock the index and reads can
+  // lazily iterate over live views of ranges, the value is the most recently written row for the
+  // key
+  private final Map<String, ConcurrentNavigableMap<MemoryStoreEntry, MemoryStoreEntry>> storeData =
+      new ConcurrentHashMap<>();
   private final Map<MetadataType, SortedSet<MemoryMetadataEntry>> metadataStore =
       Collections.synchronizedMap(new HashMap<MetadataType, SortedSet<MemoryMetadataEntry>>());
   private final DataStoreOptions options;
@@ -133,80 +140,40 @@ public class MemoryDataStoreOperations implements DataStoreOperations {
     return new MyIndexDeleter(indexName, authorizations);
   }
 
-  protected SortedSet<MemoryStoreEntry> getRowsForIndex(final String id) {
-    SortedSet<MemoryStoreEntry> set = storeData.get(id);
-    if (set == null) {
-      set = Collections.synchronizedSortedSet(new TreeSet<MemoryStoreEntry>());
-      storeData.put(id, set);
-    }
-    return set;
+  protected ConcurrentNavigableMap<MemoryStoreEntry, MemoryStoreEntry> getRowsForIndex(
+      final String id) {
+    return storeData.computeIfAbsent(id, k -> new ConcurrentSkipListMap<>());
   }
 
   @Override
   public <T> RowReader<T> createReader(final ReaderParams<T> readerParams) {
-    final SortedSet<MemoryStoreEntry> internalData =
+    final ConcurrentNavigableMap<MemoryStoreEntry, MemoryStoreEntry> internalData =
         storeData.get(readerParams.getIndex().getName());
-    int counter = 0;
-    List<MemoryStoreEntry> retVal = new ArrayList<>();
-    final Collection<SinglePartitionQueryRanges> partitionRanges =
-        readerParams.getQueryRanges().getPartitionQueryRanges();
-    if ((partitionRanges == null) || partitionRanges.isEmpty()) {
-      retVal.addAll(internalData);
-      // remove unauthorized
-      final Iterator<MemoryStoreEntry> it = retVal.iterator();
-      while (it.hasNext()) {
-        if (!isAuthorized(it.next(), readerParams.getAdditionalAuthorizations())) {
-          it.remove();
-        }
-      }
-      if ((readerParams.getLimit() != null)
-          && (readerParams.getLimit() > 0)
-          && (retVal.size() > readerParams.getLimit())) {
-        retVal = retVal.subList(0, readerParams.getLimit());
-      }
+    Iterator<MemoryStoreEntry> retVal;
+    if (internalData == null) {
+      retVal = Collections.emptyIterator();
     } else {
-      for (final SinglePartitionQueryRanges p : partitionRanges) {
-        for (final ByteArrayRange r : p.getSortKeyRanges()) {
-          final SortedSet<MemoryStoreEntry> set;
-          if (r.isSingleValue()) {
-            set =
-                internalData.subSet(
-                    new MemoryStoreEntry(p.getPartitionKey(), r.getStart()),
-                    new MemoryStoreEntry(
-                        p.getPartitionKey(),
-                        ByteArrayUtils.getNextPrefix(r.getStart())));
-          } else {
-            set =
-                internalData.tailSet(
-                    new MemoryStoreEntry(p.getPartitionKey(), r.getStart())).headSet(
-                        new MemoryStoreEntry(p.getPartitionKey(), r.getEndAsNextPrefix()));
-          }
-          // remove unauthorized
-          final Iterator<MemoryStoreEntry> it = set.iterator();
-          while (it.hasNext()) {
-            if (!isAuthorized(it.next(), readerParams.getAdditionalAuthorizations())) {
-              it.remove();
-            }
-          }
-          if ((readerParams.getLimit() != null)
-              && (readerParams.getLimit() > 0)
-              && ((counter + set.size()) > readerParams.getLimit())) {
-            final List<MemoryStoreEntry> subset = new ArrayList<>(set);
-            retVal.addAll(subset.subList(0, readerParams.getLimit() - counter));
-            break;
-          } else {
-            retVal.addAll(set);
-            counter += set.size();
-            if ((readerParams.getLimit() != null)
-                && (readerParams.getLimit() > 0)
-                && (counter >= readerParams.getLimit())) {
-              break;
-            }
-          }
-        }
-      }
-    }
-    return new MyIndexReader(Iterators.filter(retVal.iterator(), new Predicate<MemoryStoreEntry>() {
+      final Collection<SinglePartitionQueryRanges> partitionRanges =
+          readerParams.getQueryRanges().getPartitionQueryRanges();
+      if ((partitionRanges == null) || partitionRanges.isEmpty()) {
+        retVal = internalData.values().iterator();
+      } else {
+        // the ranges are iterated lazily as live views of the index, nothing is copied
+        retVal =
+            Iterators.concat(
+                Iterators.transform(
+                    partitionRanges.stream().flatMap(
+                        p -> p.getSortKeyRanges().stream().map(
+                            r -> getRange(internalData, p.getPartitionKey(), r))).iterator(),
+                    range -> range.values().iterator()));
+      }
+      // skip unauthorized
+      retVal = new AuthorizedIterator(retVal, readerParams.getAdditionalAuthorizations());
+      if ((readerParams.getLimit() != null) && (readerParams.getLimit() > 0)) {
+        retVal = Iterators.limit(retVal, readerParams.getLimit());
+      }
+    }
+    return new MyIndexReader(Iterators.filter(retVal, new Predicate<MemoryStoreEntry>() {
       @Override
       public boolean apply(final MemoryStoreEntry input) {
         if ((readerParams.getFilter() != null) && options.isServerSideLibraryEnabled()) {
@@ -240,6 +207,73 @@ public class MemoryDataStoreOperations implements DataStoreOperations {
     }), readerParams.getRowTransformer());
   }
 
+  private static ConcurrentNavigableMap<MemoryStoreEntry, MemoryStoreEntry> getRange(
+      final ConcurrentNavigableMap<MemoryStoreEntry, MemoryStoreEntry> internalData,
+      final byte[] partitionKey,
+      final ByteArrayRange range) {
+    if (range.isSingleValue()) {
+      return internalData.subMap(
+          new MemoryStoreEntry(partitionKey, range.getStart()),
+          new MemoryStoreEntry(partitionKey, ByteArrayUtils.getNextPrefix(range.getStart())));
+    }
+    return internalData.subMap(
+        new MemoryStoreEntry(partitionKey, range.getStart()),
+        new MemoryStoreEntry(partitionKey, range.getEndAsNextPrefix()));
+  }
+
+  /**
+   * Lazily skips entries that are not authorized without modifying the underlying index. The
+   * authorizations are fixed for a reader so the result for each distinct visibility is only
+   * evaluated once.
+   */
+  private static class AuthorizedIterator implements Iterator<MemoryStoreEntry> {
+    private final Iterator<MemoryStoreEntry> it;
+    private final String[] authorizations;
+    private final Map<ByteArray, Boolean> authorizedVisibilities = new HashMap<>();
+    private MemoryStoreEntry next = null;
+
+    public AuthorizedIterator(final Iterator<MemoryStoreEntry> it, final String... authorizations) {
+      this.it = it;
+      this.authorizations = authorizations;
+    }
+
+    @Override
+    public boolean hasNext() {
+      while ((next == null) && it.hasNext()) {
+        final MemoryStoreEntry entry = it.next();
+        if (isAuthorized(entry)) {
+          next = entry;
+        }
+      }
+      return next != null;
+    }
+
+    private boolean isAuthorized(final MemoryStoreEntry entry) {
+      for (final GeoWaveValue value : entry.getRow().getFieldValues()) {
+        final byte[] visibility = value.getVisibility();
+        if ((visibility == null) || (visibility.length == 0)) {
+          continue;
+        }
+        if (!authorizedVisibilities.computeIfAbsent(
+            new ByteArray(visibility),
+            v -> MemoryStoreUtils.isAuthorized(visibility, authorizations))) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    @Override
+    public MemoryStoreEntry next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      final MemoryStoreEntry retVal = next;
+      next = null;
+      return retVal;
+    }
+  }
+
   private boolean isAuthorized(final MemoryStoreEntry row, final String... authorizations) {
     for (final GeoWaveValue value : row.getRow().getFieldValues()) {
       if (!MemoryStoreUtils.isAuthorized(value.getVisibility(), authorizations)) {
@@ -302,17 +336,9 @@ public class MemoryDataStoreOperations implements DataStoreOperations {
 
     @Override
     public void write(final GeoWaveRow row) {
-      SortedSet<MemoryStoreEntry> rowTreeSet = storeData.get(indexName);
-      if (rowTreeSet == null) {
-        rowTreeSet = new TreeSet<>();
-        storeData.put(indexName, rowTreeSet);
-      }
-      if (rowTreeSet.contains(new MemoryStoreEntry(row))) {
-        rowTreeSet.remove(new MemoryStoreEntry(row));
-      }
-      if (!rowTreeSet.add(new MemoryStoreEntry(row))) {
-        LOGGER.warn("Unable to add new entry");
-      }
+      final MemoryStoreEntry entry = new MemoryStoreEntry(row);
+      // replaces any existing row with the same key in a single atomic operation
+      getRowsForIndex(indexName).put(entry, entry);
     }
   }
 
@@ -332,9 +358,10 @@ public class MemoryDataStoreOperations implements DataStoreOperations {
     public void delete(final GeoWaveRow row) {
       final MemoryStoreEntry entry = new MemoryStoreEntry(row);
       if (isAuthorized(entry, authorizations)) {
-        final SortedSet<MemoryStoreEntry> rowTreeSet = storeData.get(indexName);
-        if (rowTreeSet != null) {
-          if (!rowTreeSet.remove(entry)) {
+        final ConcurrentNavigableMap<MemoryStoreEntry, MemoryStoreEntry> rows =
+            storeData.get(indexName);
+        if (rows != null) {
+          if (rows.remove(entry) == null) {
             LOGGER.warn("Unable to remove entry");
           }
         }
@@ -349,9 +376,11 @@ public class MemoryDataStoreOperations implements DataStoreOperations {
 
   public static class MemoryStoreEntry implements Comparable<MemoryStoreEntry> {
     private final GeoWaveRow row;
+    // computed once because it is compared on every step of a skip list search
+    private final byte[] compositeInsertionId;
 
     public MemoryStoreEntry(final byte[] comparisonPartitionKey, final byte[] comparisonSortKey) {
-      row =
+      this(
           new GeoWaveRowImpl(
               new GeoWaveKeyImpl(
                   new byte[] {0},
@@ -359,11 +388,13 @@ public class MemoryDataStoreOperations implements DataStoreOperations {
                   comparisonPartitionKey,
                   comparisonSortKey,
                   0),
-              null);
+              null));
     }
 
     public MemoryStoreEntry(final GeoWaveRow row) {
       this.row = row;
+      compositeInsertionId =
+          ((GeoWaveKeyImpl) ((GeoWaveRowImpl) row).getKey()).getCompositeInsertionId();
     }
 
     public GeoWaveRow getRow() {
@@ -371,15 +402,15 @@ public class MemoryDataStoreOperations implements DataStoreOperations {
     }
 
     public byte[] getCompositeInsertionId() {
-      return ((GeoWaveKeyImpl) ((GeoWaveRowImpl) row).getKey()).getCompositeInsertionId();
+      return compositeInsertionId;
     }
 
     @Override
     public int compareTo(final MemoryStoreEntry other) {
       final int indexIdCompare =
           UnsignedBytes.lexicographicalComparator().compare(
-              getCompositeInsertionId(),
-              other.getCompositeInsertionId());
+              compositeInsertionId,
+              other.compositeInsertionId);
       if (indexIdCompare != 0) {
         return indexIdCompare;
       }
@@ -391,15 +422,25 @@ public class MemoryDataStoreOperations implements DataStoreOperations {
         return dataIdCompare;
       }
       final int adapterIdCompare =
-          UnsignedBytes.lexicographicalComparator().compare(
-              ByteArrayUtils.shortToByteArray(row.getAdapterId()),
-              ByteArrayUtils.shortToByteArray(other.getRow().getAdapterId()));
+          compareAdapterIds(row.getAdapterId(), other.getRow().getAdapterId());
       if (adapterIdCompare != 0) {
         return adapterIdCompare;
       }
       return 0;
     }
 
+    /**
+     * Equivalent to comparing the unsigned bytes of {@link ByteArrayUtils#shortToByteArray(short)}
+     * (which is little endian) without allocating the arrays.
+     */
+    private static int compareAdapterIds(final short adapterId1, final short adapterId2) {
+      final int lowCompare = Integer.compare(adapterId1 & 0xFF, adapterId2 & 0xFF);
+      if (lowCompare != 0) {
+        return lowCompare;
+      }
+      return Integer.compare((adapterId1 >> 8) & 0xFF, (adapterId2 >> 8) & 0xFF);
+    }
+
     @Override
     public int hashCode() {
       final int prime = 31;
@@ -481,6 +522,16 @@ public class MemoryDataStoreOperations implements DataStoreOperations {
                       (byte) 0xFF,
                       (byte) 0xFF}));
       Iterator<MemoryMetadataEntry> it = set.iterator();
+      if (query.hasSecondaryId()) {
+        // the range above is bounded by the next primary ID, so it also holds the entries of
+        // other secondary IDs with the same primary ID
+        it =
+            Iterators.filter(
+                it,
+                input -> Arrays.equals(
+                    input.getMetadata().getSecondaryId(),
+                    query.getSecondaryId()));
+      }
       if ((query.getAuthorizations() != null) && (query.getAuthorizations().length > 0)) {
         it =
             Iterators.filter(
@@ -14,24 +14,36 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import org.locationtech.geowave.core.index.ByteArray;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 
 public class MemoryStoreUtils {
   private static final Logger LOGGER = LoggerFactory.getLogger(MemoryStoreUtils.class);
+  private static final int MAX_CACHED_EXPRESSIONS = 10000;
+  // there are typically few distinct visibilities relative to the number of rows so parsed
+  // expressions are cached rather than parsed for every value that is read
+  private static final Cache<ByteArray, VisibilityExpression> PARSED_EXPRESSIONS =
+      Caffeine.newBuilder().maximumSize(MAX_CACHED_EXPRESSIONS).build();
 
   protected static boolean isAuthorized(final byte[] visibility, final String[] authorizations) {
     if ((visibility == null) || (visibility.length == 0)) {
       return true;
     }
-    VisibilityExpression expr;
+    return PARSED_EXPRESSIONS.get(new ByteArray(visibility), v -> parseVisibility(v.getBytes())).ok(
+        authorizations);
+  }
+
+  private static VisibilityExpression parseVisibility(final byte[] visibility) {
     try {
-      expr = new VisibilityExpressionParser().parse(visibility);
-    } catch (final IOException e) {
+      return new VisibilityExpressionParser().parse(visibility);
+    } catch (final IOException | IllegalArgumentException e) {
       LOGGER.error("invalid visibility", e);
-      return false;
+      // cache the failure so that it is only logged once
+      return new InvalidExpression();
     }
-    return expr.ok(authorizations);
   }
 
   private abstract static class VisibilityExpression {
@@ -215,6 +227,23 @@ public class MemoryStoreUtils {
     }
   }
 
+  private static class InvalidExpression extends VisibilityExpression {
+    @Override
+    public boolean ok(final String[] auths) {
+      return false;
+    }
+
+    @Override
+    public List<VisibilityExpression> children() {
+      return Collections.emptyList();
+    }
+
+    @Override
+    public VisibilityExpression add(final VisibilityExpression expression) {
+      return this;
+    }
+  }
+
   public static class AndExpression extends CompositeExpression {
 
     @Override
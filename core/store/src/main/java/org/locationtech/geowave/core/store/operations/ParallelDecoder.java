@@ -12,34 +12,55 @@ import java.io.Closeable;
 import java.io.IOException;
 import java.util.Iterator;
 import java.util.List;
-import java.util.concurrent.ArrayBlockingQueue;
+import java.util.Queue;
 import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import org.locationtech.geowave.core.store.CloseableIterator;
 import org.locationtech.geowave.core.store.entities.GeoWaveRow;
 import org.locationtech.geowave.core.store.entities.GeoWaveRowIteratorTransformer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * An abstract class that offers data stores a way to scan and decode rows in parallel. It is up to
  * the data store implementation to provide implementations of {@link ParallelDecoder.RowProvider}
  * to be used for providing rows from the underlying database.
  *
+ * <p> Decoding is performed by a bounded thread pool that is shared by every decoder in the
+ * process, its size can be configured with the {@value #DECODE_THREADS_PROPERTY} system property.
+ * Each decoder runs at most its number of threads tasks at a time so that one large query cannot
+ * monopolize the pool. When the result buffer of a decoder is full its tasks are suspended rather
+ * than blocking a pool thread, and they are resumed once the consumer has drained the buffer.
+ *
  * <p> Note: The row transformer passed in MUST be thread-safe, as decoding happens in parallel.
  *
  * @param <T> the type of the decoded rows
  */
 public abstract class ParallelDecoder<T> implements CloseableIterator<T> {
-  private BlockingQueue<Object> results;
-  private ExecutorService threadPool;
-  private final GeoWaveRowIteratorTransformer<T> rowTransformer;
+  private static final Logger LOGGER = LoggerFactory.getLogger(ParallelDecoder.class);
+  public static final String DECODE_THREADS_PROPERTY = "geowave.decode.threads";
   private static int RESULT_BUFFER_SIZE = 10000;
+  // suspended tasks are resumed once the buffer has drained to this size
+  private static int RESULT_BUFFER_RESUME_SIZE = RESULT_BUFFER_SIZE / 2;
+  private static Object TASK_END_MARKER = new Object();
+  private static ThreadPoolExecutor decodePool = null;
+
+  private final BlockingQueue<Object> results;
+  private final GeoWaveRowIteratorTransformer<T> rowTransformer;
   private int remainingTasks = 0;
   private final int numThreads;
-  private static Object TASK_END_MARKER = new Object();
+  private final Queue<DecodeTask<T>> pendingTasks = new ConcurrentLinkedQueue<>();
+  private final Queue<DecodeTask<T>> suspendedTasks = new ConcurrentLinkedQueue<>();
+  private volatile boolean closed = false;
+  private final AtomicInteger maxQueueDepth = new AtomicInteger();
+  private final AtomicLong suspendCount = new AtomicLong();
+  private long consumerStallNanos = 0;
 
   private Exception exception = null;
 
@@ -56,30 +77,82 @@ public abstract class ParallelDecoder<T> implements CloseableIterator<T> {
    * Create a parallel decoder with the given row transformer and number of threads.
    *
    * @param rowTransformer the thread-safe row transformer to use for decoding rows
-   * @param numThreads the number of threads to allow in the thread pool
+   * @param numThreads the maximum number of threads of the shared pool used by this decoder at a
+   *        time
    */
   public ParallelDecoder(
       final GeoWaveRowIteratorTransformer<T> rowTransformer,
       final int numThreads) {
     this.numThreads = numThreads;
     this.rowTransformer = rowTransformer;
-    this.threadPool =
-        new ThreadPoolExecutor(
-            numThreads,
-            numThreads,
-            60,
-            TimeUnit.SECONDS,
-            new LinkedBlockingQueue<Runnable>(),
-            Executors.defaultThreadFactory());
-    ((ThreadPoolExecutor) this.threadPool).allowCoreThreadTimeOut(true);
-    results = new ArrayBlockingQueue<>(RESULT_BUFFER_SIZE);
-  }
-
-  /** @return the number of threads allowed in the thread pool */
+    // the buffer is bounded by suspending tasks rather than by its capacity so that task end
+    // markers can always be added without blocking
+    results = new LinkedBlockingQueue<>();
+  }
+
+  /** @return the process-wide pool that decode tasks are run on */
+  protected static synchronized ThreadPoolExecutor getDecodePool() {
+    if (decodePool == null) {
+      final int poolSize =
+          Integer.getInteger(
+              DECODE_THREADS_PROPERTY,
+              Math.max(8, Runtime.getRuntime().availableProcessors() * 2));
+      final AtomicInteger threadCount = new AtomicInteger();
+      decodePool =
+          new ThreadPoolExecutor(
+              poolSize,
+              poolSize,
+              60,
+              TimeUnit.SECONDS,
+              new LinkedBlockingQueue<Runnable>(),
+              r -> {
+                final Thread thread =
+                    new Thread(r, "geowave-decode-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+              });
+      decodePool.allowCoreThreadTimeOut(true);
+    }
+    return decodePool;
+  }
+
+  /**
+   * Get the executor that the decode tasks of this decoder are run on. Tasks are suspended rather
+   * than blocked when the result buffer is full, so the shared decode pool is safe for row
+   * providers that do not wait on anything other than the underlying database. Row providers that
+   * may wait indefinitely for rows must override this to run on threads of their own.
+   *
+   * @return the executor to run decode tasks on, by default the shared decode pool
+   */
+  protected Executor getExecutor() {
+    return getDecodePool();
+  }
+
+  /** @return the number of threads allowed to be used by this decoder at a time */
   protected int getNumThreads() {
     return numThreads;
   }
 
+  /** @return the largest number of decoded results that have been waiting to be consumed */
+  public int getMaxQueueDepth() {
+    return maxQueueDepth.get();
+  }
+
+  /** @return the number of decoded results currently waiting to be consumed */
+  public int getQueueDepth() {
+    return results.size();
+  }
+
+  /** @return the number of times a decode task was suspended because the buffer was full */
+  public long getSuspendCount() {
+    return suspendCount.get();
+  }
+
+  /** @return the total time in nanoseconds the consumer waited for results to be decoded */
+  public long getConsumerStallNanos() {
+    return consumerStallNanos;
+  }
+
   /**
    * @return a list of {@link RowProvider}s that provide {@link GeoWaveRow}s to the decoder
    * @throws Exception
@@ -89,7 +162,9 @@ public abstract class ParallelDecoder<T> implements CloseableIterator<T> {
   protected synchronized void setDecodeException(final Exception e) {
     if (exception == null) {
       this.exception = e;
-      this.threadPool.shutdownNow();
+      closed = true;
+      // wake up the consumer if it is waiting for results
+      results.add(TASK_END_MARKER);
     }
   }
 
@@ -110,12 +185,43 @@ public abstract class ParallelDecoder<T> implements CloseableIterator<T> {
     final List<RowProvider> rowProviders = getRowProviders();
     remainingTasks = rowProviders.size();
     for (final RowProvider rowProvider : rowProviders) {
-      threadPool.submit(new DecodeTask<>(rowProvider, this));
+      pendingTasks.add(new DecodeTask<>(rowProvider, this));
+    }
+    for (int i = 0; i < numThreads; i++) {
+      startNextTask();
+    }
+  }
+
+  private void startNextTask() {
+    final DecodeTask<T> task = pendingTasks.poll();
+    if (task != null) {
+      getExecutor().execute(task);
+    }
+  }
+
+  private boolean isBufferFull() {
+    return results.size() >= RESULT_BUFFER_SIZE;
+  }
+
+  private void offerResult(final Object result) {
+    // the results are unbounded so this never fails
+    results.add(result);
+    final int depth = results.size();
+    if (depth > maxQueueDepth.get()) {
+      maxQueueDepth.accumulateAndGet(depth, Math::max);
+    }
+  }
+
+  private void resumeSuspendedTasks() {
+    DecodeTask<T> task;
+    while ((task = suspendedTasks.poll()) != null) {
+      getExecutor().execute(task);
     }
   }
 
   /**
-   * Task to decode the rows from a single row provider.
+   * Task to decode the rows from a single row provider. The task runs until its rows are exhausted
+   * or the result buffer is full, in which case it suspends itself until resumed by the consumer.
    *
    * @param <T> the type of the decoded rows
    */
@@ -123,43 +229,57 @@ public abstract class ParallelDecoder<T> implements CloseableIterator<T> {
 
     private final RowProvider rowProvider;
     private final ParallelDecoder<T> parent;
+    private Iterator<T> transformed = null;
 
     public DecodeTask(final RowProvider rowProvider, final ParallelDecoder<T> parent) {
       this.rowProvider = rowProvider;
       this.parent = parent;
     }
 
-    private boolean shouldTerminate() {
-      return Thread.currentThread().isInterrupted();
-    }
-
-    private void offerResult(final Object result) throws InterruptedException {
-      while (!shouldTerminate() && !parent.results.offer(result)) {
-        // Results buffer is full, wait until there is some space
-        Thread.sleep(1);
+    /** @return true if the task was suspended, false if it should keep running */
+    private boolean suspend() {
+      parent.suspendedTasks.add(this);
+      parent.suspendCount.incrementAndGet();
+      // the consumer may have drained the buffer before this task was added to the suspended
+      // tasks, in which case nothing would resume it so it keeps running
+      if (!parent.isBufferFull() && parent.suspendedTasks.remove(this)) {
+        return false;
       }
+      return true;
     }
 
     @Override
     public void run() {
+      boolean done = true;
       try {
-        rowProvider.init();
-        final Iterator<T> transformed = parent.rowTransformer.apply(rowProvider);
-        while (transformed.hasNext() && !shouldTerminate()) {
-          offerResult(transformed.next());
+        if (transformed == null) {
+          rowProvider.init();
+          transformed = parent.rowTransformer.apply(rowProvider);
+        }
+        while (!parent.closed && transformed.hasNext()) {
+          if (parent.isBufferFull() && suspend()) {
+            done = false;
+            return;
+          }
+          parent.offerResult(transformed.next());
         }
-        // No more rows, signal the end of this task.
-        offerResult(TASK_END_MARKER);
       } catch (final Exception e) {
         // Don't overwrite the original exception if there is one
         if (!parent.hasException()) {
           parent.setDecodeException(e);
         }
       } finally {
-        try {
-          rowProvider.close();
-        } catch (final IOException e) {
-          // Ignore
+        if (done) {
+          try {
+            rowProvider.close();
+          } catch (final IOException e) {
+            // Ignore
+          }
+          // No more rows, signal the end of this task.
+          parent.offerResult(TASK_END_MARKER);
+          if (!parent.closed) {
+            parent.startNextTask();
+          }
         }
       }
     }
@@ -167,7 +287,26 @@ public abstract class ParallelDecoder<T> implements CloseableIterator<T> {
 
   @Override
   public void close() {
-    threadPool.shutdownNow();
+    closed = true;
+    pendingTasks.clear();
+    DecodeTask<T> task;
+    while ((task = suspendedTasks.poll()) != null) {
+      try {
+        task.rowProvider.close();
+      } catch (final IOException e) {
+        // Ignore
+      }
+    }
+    if (LOGGER.isDebugEnabled()) {
+      LOGGER.debug(
+          "Parallel decode closed: max queue depth "
+              + maxQueueDepth.get()
+              + ", suspended tasks "
+              + suspendCount.get()
+              + ", consumer stall "
+              + TimeUnit.NANOSECONDS.toMillis(consumerStallNanos)
+              + " ms");
+    }
   }
 
   Object nextResult = null;
@@ -175,11 +314,16 @@ public abstract class ParallelDecoder<T> implements CloseableIterator<T> {
   private void computeNext() {
     try {
       nextResult = null;
-      while (remainingTasks > 0) {
-        while (!hasException() && ((nextResult = results.poll()) == null)) {
-          // No results available, but there are still tasks running,
-          // wait for more results.
-          Thread.sleep(1);
+      while ((remainingTasks > 0) && !hasException()) {
+        if (results.size() <= RESULT_BUFFER_RESUME_SIZE) {
+          resumeSuspendedTasks();
+        }
+        nextResult = results.poll();
+        if (nextResult == null) {
+          // No results available, but there are still tasks running, wait for more results.
+          final long start = System.nanoTime();
+          nextResult = results.take();
+          consumerStallNanos += System.nanoTime() - start;
         }
         // task end was signaled, reduce remaining task count.
         if (nextResult == TASK_END_MARKER) {
@@ -193,6 +337,7 @@ public abstract class ParallelDecoder<T> implements CloseableIterator<T> {
       setDecodeException(e);
     }
     if (hasException()) {
+      nextResult = null;
       throw new RuntimeException(getException());
     }
   }
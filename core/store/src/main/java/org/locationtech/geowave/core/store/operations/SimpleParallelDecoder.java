@@ -13,6 +13,12 @@ import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.locationtech.geowave.core.store.entities.GeoWaveRow;
 import org.locationtech.geowave.core.store.entities.GeoWaveRowIteratorTransformer;
 
@@ -20,13 +26,18 @@ import org.locationtech.geowave.core.store.entities.GeoWaveRowIteratorTransforme
  * An implementation of {@link ParallelDecoder} that consumes a single {@link GeoWaveRow} iterator
  * and decodes it in parallel.
  *
+ * <p> The row providers of this decoder block while they wait for the source iterator, so they run
+ * on threads of this decoder rather than on the shared decode pool where they could starve the
+ * decode tasks of other queries.
+ *
  * @param <T> the type of the decoded rows
  */
 public class SimpleParallelDecoder<T> extends ParallelDecoder<T> {
-  private ArrayBlockingQueue<GeoWaveRow> consumedRows;
-  private Thread consumerThread;
-  private volatile boolean isTerminating = false;
+  private static final Object END_OF_ROWS = new Object();
   private static final int CONSUMED_ROW_BUFFER_SIZE = 10000;
+  private final BlockingQueue<Object> consumedRows;
+  private final Thread consumerThread;
+  private final ThreadPoolExecutor decodeThreads;
 
   public SimpleParallelDecoder(
       final GeoWaveRowIteratorTransformer<T> rowTransformer,
@@ -38,24 +49,50 @@ public class SimpleParallelDecoder<T> extends ParallelDecoder<T> {
       public void run() {
         try {
           while (sourceIterator.hasNext()) {
-            final GeoWaveRow next = sourceIterator.next();
-            while (!consumedRows.offer(next)) {
-              // queue is full, wait for space
-              try {
-                Thread.sleep(1);
-              } catch (final InterruptedException e) {
-                isTerminating = true;
-                return;
-              }
-            }
+            // wait for space if the queue is full
+            consumedRows.put(sourceIterator.next());
           }
+          consumedRows.put(END_OF_ROWS);
+        } catch (final InterruptedException e) {
+          // the decoder was closed, it will signal the end of the rows
         } catch (final Exception e) {
           setDecodeException(e);
+          signalEndOfRows();
         }
-        isTerminating = true;
       }
     });
     consumerThread.setDaemon(true);
+    final AtomicInteger threadCount = new AtomicInteger();
+    decodeThreads =
+        new ThreadPoolExecutor(
+            getNumThreads(),
+            getNumThreads(),
+            60,
+            TimeUnit.SECONDS,
+            new LinkedBlockingQueue<Runnable>(),
+            r -> {
+              final Thread thread =
+                  new Thread(r, "geowave-simple-decode-" + threadCount.incrementAndGet());
+              thread.setDaemon(true);
+              return thread;
+            });
+    // the threads of a decoder that is never closed go away once it is idle
+    decodeThreads.allowCoreThreadTimeOut(true);
+  }
+
+  @Override
+  protected Executor getExecutor() {
+    return decodeThreads;
+  }
+
+  /**
+   * Make sure every row provider sees the end of the rows, even if the queue is full, so that none
+   * of them are left waiting on the queue.
+   */
+  private void signalEndOfRows() {
+    while (!consumedRows.offer(END_OF_ROWS)) {
+      consumedRows.poll();
+    }
   }
 
   @Override
@@ -70,6 +107,9 @@ public class SimpleParallelDecoder<T> extends ParallelDecoder<T> {
       consumerThread.interrupt();
     }
     super.close();
+    consumedRows.clear();
+    signalEndOfRows();
+    decodeThreads.shutdown();
   }
 
   @Override
@@ -99,18 +139,23 @@ public class SimpleParallelDecoder<T> extends ParallelDecoder<T> {
     }
 
     private GeoWaveRow next = null;
+    private boolean endOfRows = false;
 
     private void computeNext() {
-      while ((next = source.consumedRows.poll()) == null) {
-        if (source.isTerminating) {
-          next = source.consumedRows.poll();
-          break;
-        }
-        try {
-          Thread.sleep(1);
-        } catch (final InterruptedException e) {
-          return;
+      if (endOfRows) {
+        return;
+      }
+      try {
+        final Object row = source.consumedRows.take();
+        if (row == END_OF_ROWS) {
+          endOfRows = true;
+          // put the marker back for the other row providers
+          source.consumedRows.put(END_OF_ROWS);
+        } else {
+          next = (GeoWaveRow) row;
         }
+      } catch (final InterruptedException e) {
+        endOfRows = true;
       }
     }
 
@@ -11,9 +11,14 @@ package org.locationtech.geowave.core.store.query.aggregate;
 import java.nio.ByteBuffer;
 import org.locationtech.geowave.core.index.VarintUtils;
 import org.locationtech.geowave.core.index.persist.Persistable;
+import org.locationtech.geowave.core.store.api.DataTypeAdapter;
+import org.locationtech.geowave.core.store.api.StatisticsQuery;
+import org.locationtech.geowave.core.store.api.StatisticsQueryBuilder;
 import org.locationtech.geowave.core.store.data.CommonIndexedPersistenceEncoding;
 
-public class CountAggregation implements CommonIndexAggregation<Persistable, Long> {
+public class CountAggregation implements
+    CommonIndexAggregation<Persistable, Long>,
+    StatisticsBackedAggregation<Long, Long> {
   private long count = 0;
 
   public CountAggregation() {}
@@ -77,4 +82,18 @@ public class CountAggregation implements CommonIndexAggregation<Persistable, Lon
   public Long resultFromBinary(final byte[] binary) {
     return VarintUtils.readUnsignedLong(ByteBuffer.wrap(binary));
   }
+
+  @Override
+  public StatisticsQuery<Long> getStatisticsQuery(
+      final DataTypeAdapter<?> adapter,
+      final String[] authorizations) {
+    return StatisticsQueryBuilder.newBuilder().factory().count().dataType(
+        adapter.getTypeName()).setAuthorizations(authorizations).build();
+  }
+
+  @Override
+  public Long resultFromStatistics(final Long statistic) {
+    // the statistic is negative if it was never set
+    return statistic >= 0 ? statistic : null;
+  }
 }
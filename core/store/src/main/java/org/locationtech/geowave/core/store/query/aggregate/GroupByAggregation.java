@@ -0,0 +1,67 @@
+/**
+ * Copyright (c) 2013-2019 Contributors to the Eclipse Foundation
+ *
+ * <p> See the NOTICE file distributed with this work for additional information regarding copyright
+ * ownership. All rights reserved. This program and the accompanying materials are made available
+ * under the terms of the Apache License, Version 2.0 which accompanies this distribution and is
+ * available at http://www.apache.org/licenses/LICENSE-2.0.txt
+ */
+package org.locationtech.geowave.core.store.query.aggregate;
+
+import org.locationtech.geowave.core.index.persist.Persistable;
+import org.locationtech.geowave.core.store.api.Aggregation;
+
+/**
+ * Summarizes a numeric value of each entry within the group that the entry belongs to. Extensions
+ * determine the group and the value from the entry. Entries that do not belong to a group or that
+ * have no value are ignored.
+ *
+ * @param <P> the parameters of the aggregation
+ * @param <T> the type of the entries
+ */
+public abstract class GroupByAggregation<P extends Persistable, T> implements
+    Aggregation<P, NumericSummaryGroups, T> {
+  private NumericSummaryGroups groups = new NumericSummaryGroups();
+
+  @Override
+  public NumericSummaryGroups getResult() {
+    return groups;
+  }
+
+  @Override
+  public void clearResult() {
+    groups = new NumericSummaryGroups();
+  }
+
+  @Override
+  public void aggregate(final T entry) {
+    final String group = getGroup(entry);
+    if (group != null) {
+      final Double value = getValue(entry);
+      if (value != null) {
+        groups.getOrCreateGroup(group, isPercentiles()).add(value);
+      }
+    }
+  }
+
+  @Override
+  public byte[] resultToBinary(final NumericSummaryGroups result) {
+    return result.toBinary();
+  }
+
+  @Override
+  public NumericSummaryGroups resultFromBinary(final byte[] binary) {
+    final NumericSummaryGroups result = new NumericSummaryGroups();
+    result.fromBinary(binary);
+    return result;
+  }
+
+  /** @return the group of the entry, or null if it does not belong to a group */
+  protected abstract String getGroup(T entry);
+
+  /** @return the value to summarize, or null if there is none */
+  protected abstract Double getValue(T entry);
+
+  /** @return whether percentiles of the values should be estimated */
+  protected abstract boolean isPercentiles();
+}
@@ -0,0 +1,177 @@
+/**
+ * Copyright (c) 2013-2019 Contributors to the Eclipse Foundation
+ *
+ * <p> See the NOTICE file distributed with this work for additional information regarding copyright
+ * ownership. All rights reserved. This program and the accompanying materials are made available
+ * under the terms of the Apache License, Version 2.0 which accompanies this distribution and is
+ * available at http://www.apache.org/licenses/LICENSE-2.0.txt
+ */
+package org.locationtech.geowave.core.store.query.aggregate;
+
+import java.nio.ByteBuffer;
+import org.locationtech.geowave.core.index.Mergeable;
+import org.locationtech.geowave.core.index.VarintUtils;
+import org.locationtech.geowave.core.store.adapter.statistics.histogram.TDigestNumericHistogram;
+
+/**
+ * The count, sum, minimum, maximum, mean and variance of a set of numeric values, and optionally a
+ * t-digest of the values for estimating percentiles. Summaries of separate sets of values merge
+ * exactly (the variance is combined using the parallel form of Welford's algorithm), so they can be
+ * computed within the data store and merged on the client.
+ */
+public class NumericSummary implements Mergeable {
+  private long count = 0;
+  private double sum = 0;
+  private double min = Double.POSITIVE_INFINITY;
+  private double max = Double.NEGATIVE_INFINITY;
+  private double mean = 0;
+  // sum of squared differences from the mean
+  private double m2 = 0;
+  private TDigestNumericHistogram histogram;
+
+  public NumericSummary() {
+    this(false);
+  }
+
+  /** @param percentiles whether to keep a t-digest of the values to estimate percentiles */
+  public NumericSummary(final boolean percentiles) {
+    histogram = percentiles ? new TDigestNumericHistogram() : null;
+  }
+
+  public void add(final double value) {
+    if (Double.isNaN(value)) {
+      return;
+    }
+    count++;
+    sum += value;
+    min = Math.min(min, value);
+    max = Math.max(max, value);
+    final double delta = value - mean;
+    mean += delta / count;
+    m2 += delta * (value - mean);
+    if (histogram != null) {
+      histogram.add(value);
+    }
+  }
+
+  public long getCount() {
+    return count;
+  }
+
+  public double getSum() {
+    return sum;
+  }
+
+  public double getMin() {
+    return count > 0 ? min : Double.NaN;
+  }
+
+  public double getMax() {
+    return count > 0 ? max : Double.NaN;
+  }
+
+  public double getMean() {
+    return count > 0 ? mean : Double.NaN;
+  }
+
+  /** @return the population variance */
+  public double getVariance() {
+    return count > 0 ? m2 / count : Double.NaN;
+  }
+
+  public double getStandardDeviation() {
+    return Math.sqrt(getVariance());
+  }
+
+  /**
+   * @param percentile the percentile as a fraction between 0 and 1
+   * @return the estimated value at the percentile, or NaN if percentiles were not kept
+   */
+  public double getPercentile(final double percentile) {
+    if ((histogram == null) || (count == 0)) {
+      return Double.NaN;
+    }
+    return histogram.quantile(percentile);
+  }
+
+  @Override
+  public void merge(final Mergeable merge) {
+    if (merge instanceof NumericSummary) {
+      final NumericSummary other = (NumericSummary) merge;
+      if (other.count == 0) {
+        return;
+      }
+      final long total = count + other.count;
+      final double delta = other.mean - mean;
+      m2 += other.m2 + (((delta * delta) * count * other.count) / total);
+      mean += (delta * other.count) / total;
+      count = total;
+      sum += other.sum;
+      min = Math.min(min, other.min);
+      max = Math.max(max, other.max);
+      if ((histogram != null) && (other.histogram != null)) {
+        histogram.merge(other.histogram);
+      } else {
+        // percentiles can only be estimated if every merged summary kept them
+        histogram = null;
+      }
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "NumericSummary [count="
+        + count
+        + ", sum="
+        + sum
+        + ", min="
+        + getMin()
+        + ", max="
+        + getMax()
+        + ", mean="
+        + getMean()
+        + ", variance="
+        + getVariance()
+        + "]";
+  }
+
+  @Override
+  public byte[] toBinary() {
+    final ByteBuffer buf =
+        ByteBuffer.allocate(
+            VarintUtils.unsignedLongByteLength(count)
+                + 41
+                + (histogram == null ? 0 : histogram.bufferSize()));
+    VarintUtils.writeUnsignedLong(count, buf);
+    buf.putDouble(sum);
+    buf.putDouble(min);
+    buf.putDouble(max);
+    buf.putDouble(mean);
+    buf.putDouble(m2);
+    if (histogram == null) {
+      buf.put((byte) 0);
+    } else {
+      buf.put((byte) 1);
+      // the histogram reads the remainder of the buffer so it must be last
+      histogram.toBinary(buf);
+    }
+    return buf.array();
+  }
+
+  @Override
+  public void fromBinary(final byte[] bytes) {
+    final ByteBuffer buf = ByteBuffer.wrap(bytes);
+    count = VarintUtils.readUnsignedLong(buf);
+    sum = buf.getDouble();
+    min = buf.getDouble();
+    max = buf.getDouble();
+    mean = buf.getDouble();
+    m2 = buf.getDouble();
+    if (buf.get() == 0) {
+      histogram = null;
+    } else {
+      histogram = new TDigestNumericHistogram();
+      histogram.fromBinary(buf);
+    }
+  }
+}
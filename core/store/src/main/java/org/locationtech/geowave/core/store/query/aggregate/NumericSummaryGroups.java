@@ -0,0 +1,109 @@
+/**
+ * Copyright (c) 2013-2019 Contributors to the Eclipse Foundation
+ *
+ * <p> See the NOTICE file distributed with this work for additional information regarding copyright
+ * ownership. All rights reserved. This program and the accompanying materials are made available
+ * under the terms of the Apache License, Version 2.0 which accompanies this distribution and is
+ * available at http://www.apache.org/licenses/LICENSE-2.0.txt
+ */
+package org.locationtech.geowave.core.store.query.aggregate;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import org.locationtech.geowave.core.index.ByteArrayUtils;
+import org.locationtech.geowave.core.index.Mergeable;
+import org.locationtech.geowave.core.index.StringUtils;
+import org.locationtech.geowave.core.index.VarintUtils;
+
+/** A {@link NumericSummary} for each group of a group-by aggregation, keyed by the group name. */
+public class NumericSummaryGroups implements Mergeable {
+  private Map<String, NumericSummary> groups = new LinkedHashMap<>();
+
+  public NumericSummaryGroups() {}
+
+  public Map<String, NumericSummary> getGroups() {
+    return groups;
+  }
+
+  public NumericSummary getGroup(final String group) {
+    return groups.get(group);
+  }
+
+  /**
+   * Get the summary of a group, creating it if it does not exist.
+   *
+   * @param group the group name
+   * @param percentiles whether a new summary should keep percentiles
+   * @return the summary
+   */
+  public NumericSummary getOrCreateGroup(final String group, final boolean percentiles) {
+    NumericSummary summary = groups.get(group);
+    if (summary == null) {
+      summary = new NumericSummary(percentiles);
+      groups.put(group, summary);
+    }
+    return summary;
+  }
+
+  public void clear() {
+    groups.clear();
+  }
+
+  @Override
+  public void merge(final Mergeable merge) {
+    if (merge instanceof NumericSummaryGroups) {
+      final NumericSummaryGroups other = (NumericSummaryGroups) merge;
+      for (final Entry<String, NumericSummary> e : other.groups.entrySet()) {
+        final NumericSummary summary = groups.get(e.getKey());
+        if (summary == null) {
+          groups.put(e.getKey(), e.getValue());
+        } else {
+          summary.merge(e.getValue());
+        }
+      }
+    }
+  }
+
+  @Override
+  public byte[] toBinary() {
+    final List<byte[]> entries = new ArrayList<>(groups.size() * 2);
+    int byteLength = VarintUtils.unsignedIntByteLength(groups.size());
+    for (final Entry<String, NumericSummary> e : groups.entrySet()) {
+      final byte[] key = StringUtils.stringToBinary(e.getKey());
+      final byte[] value = e.getValue().toBinary();
+      byteLength +=
+          VarintUtils.unsignedIntByteLength(key.length)
+              + VarintUtils.unsignedIntByteLength(value.length)
+              + key.length
+              + value.length;
+      entries.add(key);
+      entries.add(value);
+    }
+    final ByteBuffer buf = ByteBuffer.allocate(byteLength);
+    VarintUtils.writeUnsignedInt(groups.size(), buf);
+    for (final byte[] entry : entries) {
+      VarintUtils.writeUnsignedInt(entry.length, buf);
+      buf.put(entry);
+    }
+    return buf.array();
+  }
+
+  @Override
+  public void fromBinary(final byte[] bytes) {
+    final ByteBuffer buf = ByteBuffer.wrap(bytes);
+    final int size = VarintUtils.readUnsignedInt(buf);
+    groups = new LinkedHashMap<>(size);
+    for (int i = 0; i < size; i++) {
+      final String key =
+          StringUtils.stringFromBinary(
+              ByteArrayUtils.safeRead(buf, VarintUtils.readUnsignedInt(buf)));
+      final NumericSummary summary = new NumericSummary();
+      summary.fromBinary(ByteArrayUtils.safeRead(buf, VarintUtils.readUnsignedInt(buf)));
+      groups.put(key, summary);
+    }
+  }
+}
@@ -0,0 +1,39 @@
+/**
+ * Copyright (c) 2013-2019 Contributors to the Eclipse Foundation
+ *
+ * <p> See the NOTICE file distributed with this work for additional information regarding copyright
+ * ownership. All rights reserved. This program and the accompanying materials are made available
+ * under the terms of the Apache License, Version 2.0 which accompanies this distribution and is
+ * available at http://www.apache.org/licenses/LICENSE-2.0.txt
+ */
+package org.locationtech.geowave.core.store.query.aggregate;
+
+import org.locationtech.geowave.core.store.api.DataTypeAdapter;
+import org.locationtech.geowave.core.store.api.StatisticsQuery;
+
+/**
+ * An aggregation whose result over every entry of a data type is also maintained as a statistic for
+ * that type. When an aggregation query is unconstrained, the data store answers it from the
+ * statistic rather than scanning the data.
+ *
+ * @param <S> the result type of the statistic
+ * @param <R> the result type of the aggregation
+ */
+public interface StatisticsBackedAggregation<S, R> {
+  /**
+   * Get the query for the statistic that answers this aggregation over every entry of the type.
+   *
+   * @param adapter the data type
+   * @param authorizations the authorizations of the aggregation query
+   * @return the statistics query, or null if no statistic answers this aggregation for the type
+   */
+  StatisticsQuery<S> getStatisticsQuery(DataTypeAdapter<?> adapter, String[] authorizations);
+
+  /**
+   * Convert the statistic into the result of this aggregation.
+   *
+   * @param statistic the result of the statistic
+   * @return the result of the aggregation, or null if it cannot be derived from the statistic
+   */
+  R resultFromStatistics(S statistic);
+}
@@ -0,0 +1,327 @@
+/**
+ * Copyright (c) 2013-2019 Contributors to the Eclipse Foundation
+ *
+ * <p> See the NOTICE file distributed with this work for additional information regarding copyright
+ * ownership. All rights reserved. This program and the accompanying materials are made available
+ * under the terms of the Apache License, Version 2.0 which accompanies this distribution and is
+ * available at http://www.apache.org/licenses/LICENSE-2.0.txt
+ */
+package org.locationtech.geowave.core.store.query.filter;
+
+import java.lang.ref.PhantomReference;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.nio.ByteBuffer;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+
+/**
+ * A compact set of the data IDs that have been visited by a scan, used for de-duplication. Rather
+ * than the IDs themselves it keeps a 128-bit fingerprint of each adapter ID and data ID pair in
+ * open addressing tables of primitive arrays, which are striped so that concurrent decode threads
+ * rarely contend.
+ *
+ * <p> When the number of rows of an entry is known, the entry is removed once all of its rows have
+ * been visited so that the set only holds entries whose duplicates are still expected.
+ *
+ * <p> The memory used by each set is capped, by default at a quarter of the maximum heap, which can
+ * be configured in megabytes with the {@value #MAX_MEMORY_MB_PROPERTY} system property. As a
+ * backstop the memory used by all sets in the JVM is also capped by a shared budget, by default
+ * half of the maximum heap, which can be configured with the {@value #MAX_TOTAL_MEMORY_MB_PROPERTY}
+ * system property. Once the shared budget is exhausted a set may still grow up to its share of the
+ * budget, so only the sets that hold more than their share stop growing and a large query does not
+ * affect the de-duplication of other concurrent queries. Once a set can no longer grow new entries
+ * are no longer recorded, so their duplicates will not be filtered, and the set logs a warning.
+ *
+ * <p> Sets are not closed, so the memory of a set is returned to the shared budget once the set has
+ * been garbage collected.
+ */
+public class DataIdFingerprintSet {
+  private static final Logger LOGGER = LoggerFactory.getLogger(DataIdFingerprintSet.class);
+  public static final String MAX_MEMORY_MB_PROPERTY = "geowave.dedupe.max.memory.mb";
+  public static final String MAX_TOTAL_MEMORY_MB_PROPERTY = "geowave.dedupe.max.total.memory.mb";
+  private static final HashFunction HASH_FUNCTION = Hashing.murmur3_128();
+  private static final int STRIPES = 16;
+  private static final int INITIAL_STRIPE_CAPACITY = 64;
+  /** Each slot is a two part fingerprint and the number of remaining rows */
+  private static final int BYTES_PER_SLOT = 8 + 8 + 4;
+  /** The number of remaining rows of an entry that is kept until the scan is done */
+  private static final int UNKNOWN_ROWS = -1;
+
+  private static final MemoryBudget SHARED_BUDGET =
+      new MemoryBudget(getMaxMemoryBytes(MAX_TOTAL_MEMORY_MB_PROPERTY, 2));
+
+  private final Stripe[] stripes = new Stripe[STRIPES];
+  private final MemoryBudget budget;
+  private final long maxMemoryBytes;
+  private final Reservation reservation;
+  private volatile boolean capReached = false;
+
+  /** Create a set that is capped on its own and draws on the budget shared by all sets */
+  public DataIdFingerprintSet() {
+    this(SHARED_BUDGET, getMaxMemoryBytes(MAX_MEMORY_MB_PROPERTY, 4));
+  }
+
+  /** @param maxMemoryBytes the maximum number of bytes to use, independent of any other set */
+  public DataIdFingerprintSet(final long maxMemoryBytes) {
+    this(new MemoryBudget(maxMemoryBytes), maxMemoryBytes);
+  }
+
+  /**
+   * @param budget the budget to draw on
+   * @param maxMemoryBytes the maximum number of bytes this set may use
+   */
+  DataIdFingerprintSet(final MemoryBudget budget, final long maxMemoryBytes) {
+    this.budget = budget;
+    this.maxMemoryBytes = maxMemoryBytes;
+    reservation = budget.register(this);
+    for (int i = 0; i < STRIPES; i++) {
+      stripes[i] = new Stripe();
+    }
+    // the initial tables are always allocated
+    budget.reserve(reservation, (long) STRIPES * INITIAL_STRIPE_CAPACITY * BYTES_PER_SLOT, true);
+  }
+
+  private static long getMaxMemoryBytes(final String property, final int heapDivisor) {
+    final Long maxMemoryMb = Long.getLong(property);
+    if (maxMemoryMb != null) {
+      return maxMemoryMb * 1024 * 1024;
+    }
+    return Runtime.getRuntime().maxMemory() / heapDivisor;
+  }
+
+  /**
+   * Visit a row of an entry.
+   *
+   * @param adapterId the internal adapter ID of the entry
+   * @param dataId the data ID of the entry
+   * @param totalRows the total number of rows of the entry that will be visited, or 0 if it is
+   *        unknown
+   * @return true if this is the first row of the entry that was visited
+   */
+  public boolean add(final short adapterId, final byte[] dataId, final int totalRows) {
+    final ByteBuffer hash =
+        ByteBuffer.wrap(
+            HASH_FUNCTION.newHasher().putShort(adapterId).putBytes(dataId).hash().asBytes());
+    final long high = hash.getLong();
+    long low = hash.getLong();
+    if ((high == 0) && (low == 0)) {
+      // zero marks an empty slot
+      low = 1;
+    }
+    final Stripe stripe = stripes[(int) (high >>> 60) & (STRIPES - 1)];
+    synchronized (stripe) {
+      return stripe.add(high, low, totalRows);
+    }
+  }
+
+  /**
+   * Return the memory reserved by this set to its budget as if the set had been garbage collected.
+   * The set must not be used afterwards.
+   */
+  void release() {
+    reservation.enqueue();
+  }
+
+  /** @return the number of entries currently held */
+  public long size() {
+    long size = 0;
+    for (final Stripe stripe : stripes) {
+      synchronized (stripe) {
+        size += stripe.size;
+      }
+    }
+    return size;
+  }
+
+  private class Stripe {
+    private long[] highs = new long[INITIAL_STRIPE_CAPACITY];
+    private long[] lows = new long[INITIAL_STRIPE_CAPACITY];
+    private int[] remainingRows = new int[INITIAL_STRIPE_CAPACITY];
+    private int size = 0;
+
+    private boolean add(final long high, final long low, final int totalRows) {
+      final int mask = highs.length - 1;
+      int slot = (int) low & mask;
+      while ((highs[slot] != 0) || (lows[slot] != 0)) {
+        if ((highs[slot] == high) && (lows[slot] == low)) {
+          if ((remainingRows[slot] != UNKNOWN_ROWS) && (--remainingRows[slot] <= 0)) {
+            // every row of this entry has now been visited
+            remove(slot);
+          }
+          return false;
+        }
+        slot = (slot + 1) & mask;
+      }
+      if (totalRows == 1) {
+        // there are no other rows of this entry to filter
+        return true;
+      }
+      if (((size + 1) * 2) > highs.length) {
+        if (!grow()) {
+          return true;
+        }
+        return add(high, low, totalRows);
+      }
+      highs[slot] = high;
+      lows[slot] = low;
+      remainingRows[slot] = totalRows > 1 ? totalRows - 1 : UNKNOWN_ROWS;
+      size++;
+      return true;
+    }
+
+    private boolean grow() {
+      final int capacity = highs.length * 2;
+      // the old tables are released once they are copied, so only the growth is reserved
+      final long growth = (long) highs.length * BYTES_PER_SLOT;
+      if ((capacity <= 0) || ((reservation.bytes.get() + growth) > maxMemoryBytes)) {
+        warnCapReached(
+            "De-duplication memory limit of "
+                + (maxMemoryBytes / 1024 / 1024)
+                + " MB per query reached",
+            MAX_MEMORY_MB_PROPERTY);
+        return false;
+      }
+      if (!budget.reserve(reservation, growth, false)) {
+        warnCapReached(
+            "De-duplication memory budget of "
+                + (budget.maxBytes / 1024 / 1024)
+                + " MB shared by all concurrent queries reached while this query holds more than "
+                + "its share",
+            MAX_TOTAL_MEMORY_MB_PROPERTY);
+        return false;
+      }
+      final long[] oldHighs = highs;
+      final long[] oldLows = lows;
+      final int[] oldRemainingRows = remainingRows;
+      highs = new long[capacity];
+      lows = new long[capacity];
+      remainingRows = new int[capacity];
+      final int mask = capacity - 1;
+      for (int i = 0; i < oldHighs.length; i++) {
+        if ((oldHighs[i] != 0) || (oldLows[i] != 0)) {
+          int slot = (int) oldLows[i] & mask;
+          while ((highs[slot] != 0) || (lows[slot] != 0)) {
+            slot = (slot + 1) & mask;
+          }
+          highs[slot] = oldHighs[i];
+          lows[slot] = oldLows[i];
+          remainingRows[slot] = oldRemainingRows[i];
+        }
+      }
+      return true;
+    }
+
+    private void warnCapReached(final String reason, final String property) {
+      if (!capReached) {
+        capReached = true;
+        LOGGER.warn(
+            reason
+                + ", duplicates of further entries of this query will not be filtered. The limit "
+                + "can be raised with the "
+                + property
+                + " system property.");
+      }
+    }
+
+    /** Remove a slot, shifting back any following slots that would no longer be reachable */
+    private void remove(final int removed) {
+      final int mask = highs.length - 1;
+      int empty = removed;
+      int slot = removed;
+      while (true) {
+        slot = (slot + 1) & mask;
+        if ((highs[slot] == 0) && (lows[slot] == 0)) {
+          break;
+        }
+        final int home = (int) lows[slot] & mask;
+        // the slot can stay if its home is cyclically within (empty, slot]
+        final boolean reachable =
+            empty <= slot ? ((empty < home) && (home <= slot)) : ((empty < home) || (home <= slot));
+        if (!reachable) {
+          highs[empty] = highs[slot];
+          lows[empty] = lows[slot];
+          remainingRows[empty] = remainingRows[slot];
+          empty = slot;
+        }
+      }
+      highs[empty] = 0;
+      lows[empty] = 0;
+      remainingRows[empty] = 0;
+      size--;
+    }
+  }
+
+  /**
+   * Memory reserved by the tables of a set, which is returned to the budget once the set has been
+   * garbage collected.
+   */
+  private static class Reservation extends PhantomReference<DataIdFingerprintSet> {
+    private final AtomicLong bytes = new AtomicLong();
+
+    private Reservation(
+        final DataIdFingerprintSet set,
+        final ReferenceQueue<DataIdFingerprintSet> collectedSets) {
+      super(set, collectedSets);
+    }
+  }
+
+  /** A number of bytes that may be reserved by the tables of the sets that share it */
+  static class MemoryBudget {
+    private final long maxBytes;
+    private final AtomicLong reservedBytes = new AtomicLong();
+    private final ReferenceQueue<DataIdFingerprintSet> collectedSets = new ReferenceQueue<>();
+    // the reservations must stay reachable until they are enqueued
+    private final Set<Reservation> reservations = ConcurrentHashMap.newKeySet();
+
+    MemoryBudget(final long maxBytes) {
+      this.maxBytes = maxBytes;
+    }
+
+    private Reservation register(final DataIdFingerprintSet set) {
+      final Reservation reservation = new Reservation(set, collectedSets);
+      reservations.add(reservation);
+      return reservation;
+    }
+
+    /**
+     * Reserve bytes for a set. Once the budget is exhausted the bytes are only reserved if the set
+     * still holds less than its share of the budget among all sets that have not been collected.
+     */
+    private boolean reserve(final Reservation reservation, final long bytes, final boolean force) {
+      releaseCollectedSets();
+      final long share = maxBytes / Math.max(1, reservations.size());
+      long reserved;
+      do {
+        reserved = reservedBytes.get();
+        if (!force
+            && ((reserved + bytes) > maxBytes)
+            && ((reservation.bytes.get() + bytes) > share)) {
+          return false;
+        }
+      } while (!reservedBytes.compareAndSet(reserved, reserved + bytes));
+      reservation.bytes.addAndGet(bytes);
+      return true;
+    }
+
+    private void releaseCollectedSets() {
+      Reference<? extends DataIdFingerprintSet> collected;
+      while ((collected = collectedSets.poll()) != null) {
+        final Reservation reservation = (Reservation) collected;
+        reservations.remove(reservation);
+        reservedBytes.addAndGet(-reservation.bytes.getAndSet(0));
+      }
+    }
+
+    /** @return the number of bytes reserved by sets that have not been garbage collected yet */
+    long getReservedBytes() {
+      releaseCollectedSets();
+      return reservedBytes.get();
+    }
+  }
+}
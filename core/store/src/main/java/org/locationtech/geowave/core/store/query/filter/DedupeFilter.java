@@ -8,10 +8,6 @@
  */
 package org.locationtech.geowave.core.store.query.filter;
 
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Map;
-import java.util.Set;
 import org.locationtech.geowave.core.index.ByteArray;
 import org.locationtech.geowave.core.store.data.IndexedPersistenceEncoding;
 import org.locationtech.geowave.core.store.index.CommonIndexModel;
@@ -19,14 +15,18 @@ import org.locationtech.geowave.core.store.index.CommonIndexModel;
 /**
  * This filter will perform de-duplication using the combination of data adapter ID and data ID to
  * determine uniqueness. It can be performed client-side and/or distributed.
+ *
+ * <p> Visited entries are tracked by a compact {@link DataIdFingerprintSet}, and unless
+ * de-duplicating across indices an entry is forgotten once all of its duplicates have been seen.
  */
 public class DedupeFilter implements QueryFilter {
-  private final Map<Short, Set<ByteArray>> adapterIdToVisitedDataIdMap;
+  private final DataIdFingerprintSet visitedDataIds;
 
   private boolean dedupAcrossIndices = false;
+  private boolean forgetCompletedEntries = true;
 
   public DedupeFilter() {
-    adapterIdToVisitedDataIdMap = new HashMap<>();
+    visitedDataIds = new DataIdFingerprintSet();
   }
 
   @Override
@@ -46,23 +46,25 @@ public class DedupeFilter implements QueryFilter {
       return true;
     }
 
-    return applyDedupeFilter(
+    return visitedDataIds.add(
         persistenceEncoding.getInternalAdapterId(),
-        new ByteArray(persistenceEncoding.getDataId()));
+        persistenceEncoding.getDataId(),
+        (isDedupAcrossIndices() || !forgetCompletedEntries) ? 0
+            : persistenceEncoding.getDuplicateCount() + 1);
   }
 
   public boolean applyDedupeFilter(final short adapterId, final ByteArray dataId) {
-    synchronized (adapterIdToVisitedDataIdMap) {
-      Set<ByteArray> visitedDataIds = adapterIdToVisitedDataIdMap.get(adapterId);
-      if (visitedDataIds == null) {
-        visitedDataIds = new HashSet<>();
-        adapterIdToVisitedDataIdMap.put(adapterId, visitedDataIds);
-      } else if (visitedDataIds.contains(dataId)) {
-        return false;
-      }
-      visitedDataIds.add(dataId);
-      return true;
-    }
+    return visitedDataIds.add(adapterId, dataId.getBytes(), 0);
+  }
+
+  /**
+   * Entries are forgotten once all of their rows within an index have been visited, which must be
+   * disabled if the filter is shared by scans of several indices that contain the same entries.
+   *
+   * @param forgetCompletedEntries whether to forget entries once all of their rows were visited
+   */
+  public void setForgetCompletedEntries(final boolean forgetCompletedEntries) {
+    this.forgetCompletedEntries = forgetCompletedEntries;
   }
 
   public void setDedupAcrossIndices(final boolean dedupAcrossIndices) {
@@ -15,7 +15,7 @@ import org.locationtech.geowave.core.index.IndexUtils;
 import org.locationtech.geowave.core.store.adapter.PersistentAdapterStore;
 import org.locationtech.geowave.core.store.adapter.exceptions.AdapterException;
 import org.locationtech.geowave.core.store.api.Index;
-import org.locationtech.geowave.core.store.base.BaseDataStoreUtils;
+import org.locationtech.geowave.core.store.base.RowDecoder;
 import org.locationtech.geowave.core.store.base.dataidx.DataIndexRetrieval;
 import org.locationtech.geowave.core.store.callback.ScanCallback;
 import org.locationtech.geowave.core.store.entities.GeoWaveRow;
@@ -34,6 +34,7 @@ public class NativeEntryIteratorWrapper<T> implements Iterator<T> {
   protected final Iterator<GeoWaveRow> scannerIt;
   protected final QueryFilter[] clientFilters;
   protected final ScanCallback<T, ? extends GeoWaveRow> scanCallback;
+  private final RowDecoder<T> rowDecoder;
 
   protected T nextValue;
 
@@ -55,6 +56,17 @@ public class NativeEntryIteratorWrapper<T> implements Iterator<T> {
     this.fieldSubsetBitmask = fieldSubsetBitmask;
     this.decodePersistenceEncoding = decodePersistenceEncoding;
     this.dataIndexRetrieval = dataIndexRetrieval;
+    rowDecoder =
+        new RowDecoder<>(
+            null,
+            adapterStore,
+            index,
+            clientFilters,
+            scanCallback,
+            fieldSubsetBitmask,
+            decodePersistenceEncoding,
+            dataIndexRetrieval,
+            true);
     initializeBitPosition(maxResolutionSubsamplingPerDimension);
   }
 
@@ -110,17 +122,7 @@ public class NativeEntryIteratorWrapper<T> implements Iterator<T> {
     Object decodedRow = null;
     if (adapterValid && ((bitPosition == null) || passesSkipFilter(row))) {
       try {
-        decodedRow =
-            BaseDataStoreUtils.decodeRow(
-                row,
-                clientFilters,
-                null,
-                adapterStore,
-                index,
-                scanCallback,
-                fieldSubsetBitmask,
-                decodePersistenceEncoding,
-                dataIndexRetrieval);
+        decodedRow = rowDecoder.decode(row);
 
         if (decodedRow != null) {
           incrementSkipRow(row);
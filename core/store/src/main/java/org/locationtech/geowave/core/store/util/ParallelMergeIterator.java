@@ -0,0 +1,309 @@
+/**
+ * Copyright (c) 2013-2019 Contributors to the Eclipse Foundation
+ *
+ * <p> See the NOTICE file distributed with this work for additional information regarding copyright
+ * ownership. All rights reserved. This program and the accompanying materials are made available
+ * under the terms of the Apache License, Version 2.0 which accompanies this distribution and is
+ * available at http://www.apache.org/licenses/LICENSE-2.0.txt
+ */
+package org.locationtech.geowave.core.store.util;
+
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import org.locationtech.geowave.core.store.CloseableIterator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Merges the results of several sub-queries, such as the queries of different indices or types, by
+ * iterating them concurrently into a bounded buffer. The latency of the merged query is then that
+ * of the slowest sub-query rather than the sum of them. The order of results across sub-queries is
+ * not preserved, results of each individual sub-query remain in order.
+ *
+ * <p> The number of sub-queries run at a time by each merge can be configured with the
+ * {@value #MERGE_THREADS_PROPERTY} system property, a value of 1 disables concurrent merging.
+ * Sub-queries are run on a shared pool that grows as needed, because a sub-query may itself be a
+ * merge whose sub-queries need threads of their own.
+ *
+ * <p> Closing the merge cancels the sub-queries that have not started and waits a bounded time for
+ * the running ones to close, so that the resources they read from can be closed once the merge has
+ * been closed.
+ *
+ * <p> Note: Anything shared by the sub-queries, such as a de-duplication filter, must be
+ * thread-safe.
+ *
+ * @param <T> the type of the results
+ */
+public class ParallelMergeIterator<T> implements CloseableIterator<T> {
+  private static final Logger LOGGER = LoggerFactory.getLogger(ParallelMergeIterator.class);
+  public static final String MERGE_THREADS_PROPERTY = "geowave.query.merge.threads";
+  private static final int RESULT_BUFFER_SIZE = 1000;
+  private static final long OFFER_TIMEOUT_MILLIS = 100;
+  private static final long CLOSE_TIMEOUT_MILLIS = 30000;
+  private static final Object TASK_END_MARKER = new Object();
+  private static ExecutorService mergePool = null;
+
+  private final BlockingQueue<Object> results = new ArrayBlockingQueue<>(RESULT_BUFFER_SIZE);
+  private final Queue<Source<T>> pendingSources;
+  private final Queue<Task<T>> tasks = new ConcurrentLinkedQueue<>();
+  // the number of tasks that have been submitted and have not finished, guarded by this
+  private int activeTasks = 0;
+  private int remainingSources;
+  private volatile boolean closed = false;
+  private volatile Exception exception = null;
+  private Object nextResult = null;
+
+  /**
+   * Merge sub-queries that have already been issued.
+   *
+   * @param iterators the results of the sub-queries, which will be closed when this is closed
+   */
+  public ParallelMergeIterator(final List<CloseableIterator<T>> iterators) {
+    this(iterators.stream().map(Source::new).collect(Collectors.toList()), getMaxConcurrency());
+  }
+
+  private ParallelMergeIterator(final List<Source<T>> sources, final int maxConcurrency) {
+    pendingSources = new ConcurrentLinkedQueue<>(sources);
+    remainingSources = sources.size();
+    for (int i = 0; i < maxConcurrency; i++) {
+      startNextTask();
+    }
+  }
+
+  /**
+   * Merge sub-queries that are issued lazily, each on the thread that iterates it.
+   *
+   * @param suppliers issue the sub-queries, they may return null if there are no results
+   * @return the merged results
+   */
+  public static <T> ParallelMergeIterator<T> issue(
+      final List<Supplier<CloseableIterator<T>>> suppliers) {
+    return new ParallelMergeIterator<>(
+        suppliers.stream().map(Source::new).collect(Collectors.toList()),
+        getMaxConcurrency());
+  }
+
+  /** @return the maximum number of sub-queries run at a time by a merge */
+  public static int getMaxConcurrency() {
+    return Math.max(1, Integer.getInteger(MERGE_THREADS_PROPERTY, 8));
+  }
+
+  /** @return true if sub-queries should be merged concurrently */
+  public static boolean isEnabled() {
+    return getMaxConcurrency() > 1;
+  }
+
+  private static synchronized ExecutorService getMergePool() {
+    if (mergePool == null) {
+      final AtomicInteger threadCount = new AtomicInteger();
+      mergePool = Executors.newCachedThreadPool(r -> {
+        final Thread thread = new Thread(r, "geowave-merge-" + threadCount.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+      });
+    }
+    return mergePool;
+  }
+
+  private void startNextTask() {
+    final Source<T> source = pendingSources.poll();
+    if (source != null) {
+      final Task<T> task = new Task<>(source);
+      synchronized (this) {
+        activeTasks++;
+      }
+      tasks.add(task);
+      task.future = getMergePool().submit(() -> run(task));
+    }
+  }
+
+  private void run(final Task<T> task) {
+    if (!task.started.compareAndSet(false, true)) {
+      // the task was cancelled by closing this before it started
+      return;
+    }
+    final Source<T> source = task.source;
+    CloseableIterator<T> it = null;
+    try {
+      if (closed) {
+        // don't issue a sub-query that is no longer needed
+        source.close();
+        return;
+      }
+      it = source.open();
+      while ((it != null) && !closed && it.hasNext()) {
+        final T result = it.next();
+        while (!closed && !results.offer(result, OFFER_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+          // the consumer is behind, keep waiting unless it has been closed
+        }
+      }
+    } catch (final Exception e) {
+      if (exception == null) {
+        exception = e;
+      }
+      closed = true;
+    } finally {
+      if (it != null) {
+        it.close();
+      }
+      if (!closed) {
+        startNextTask();
+      }
+      signalEnd();
+      synchronized (this) {
+        activeTasks--;
+        notifyAll();
+      }
+    }
+  }
+
+  private void signalEnd() {
+    try {
+      while (!results.offer(TASK_END_MARKER, OFFER_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+        if (closed) {
+          // make room, the consumer is no longer interested in results
+          results.poll();
+        }
+      }
+    } catch (final InterruptedException e) {
+      LOGGER.warn("Interrupted while signaling the end of a sub-query", e);
+    }
+  }
+
+  private void computeNext() {
+    nextResult = null;
+    try {
+      while ((remainingSources > 0) && (exception == null)) {
+        final Object result = results.take();
+        if (result == TASK_END_MARKER) {
+          remainingSources--;
+          continue;
+        }
+        nextResult = result;
+        break;
+      }
+    } catch (final InterruptedException e) {
+      exception = e;
+      closed = true;
+    }
+    if (exception != null) {
+      nextResult = null;
+      throw new RuntimeException(exception);
+    }
+  }
+
+  @Override
+  public boolean hasNext() {
+    if (nextResult == null) {
+      computeNext();
+    }
+    return nextResult != null;
+  }
+
+  @SuppressWarnings("unchecked")
+  @Override
+  public T next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+    final Object next = nextResult;
+    nextResult = null;
+    return (T) next;
+  }
+
+  @Override
+  public void close() {
+    closed = true;
+    Source<T> source;
+    while ((source = pendingSources.poll()) != null) {
+      source.close();
+    }
+    for (final Task<T> task : tasks) {
+      // tasks that have not started are cancelled, running tasks are not interrupted because that
+      // may break the connections their sub-queries read from
+      if (task.started.compareAndSet(false, true)) {
+        final Future<?> future = task.future;
+        if (future != null) {
+          future.cancel(false);
+        }
+        task.source.close();
+        synchronized (this) {
+          activeTasks--;
+        }
+      }
+    }
+    results.clear();
+    // running tasks close their own sub-queries once they see that this is closed
+    awaitTasks();
+    tasks.clear();
+    results.clear();
+  }
+
+  private synchronized void awaitTasks() {
+    final long deadline = System.currentTimeMillis() + CLOSE_TIMEOUT_MILLIS;
+    try {
+      while (activeTasks > 0) {
+        final long remaining = deadline - System.currentTimeMillis();
+        if (remaining <= 0) {
+          LOGGER.warn(
+              activeTasks
+                  + " sub-queries did not close within "
+                  + CLOSE_TIMEOUT_MILLIS
+                  + " ms of closing the merged query");
+          return;
+        }
+        wait(remaining);
+      }
+    } catch (final InterruptedException e) {
+      LOGGER.warn("Interrupted while waiting for sub-queries to close", e);
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private static class Task<T> {
+    private final Source<T> source;
+    private final AtomicBoolean started = new AtomicBoolean(false);
+    private volatile Future<?> future;
+
+    private Task(final Source<T> source) {
+      this.source = source;
+    }
+  }
+
+  private static class Source<T> {
+    private final Supplier<CloseableIterator<T>> supplier;
+    private final CloseableIterator<T> issued;
+
+    private Source(final CloseableIterator<T> issued) {
+      this.issued = issued;
+      supplier = null;
+    }
+
+    private Source(final Supplier<CloseableIterator<T>> supplier) {
+      this.supplier = supplier;
+      issued = null;
+    }
+
+    private CloseableIterator<T> open() {
+      return issued != null ? issued : supplier.get();
+    }
+
+    private void close() {
+      if (issued != null) {
+        issued.close();
+      }
+    }
+  }
+}
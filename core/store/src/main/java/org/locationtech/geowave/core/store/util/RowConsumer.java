@@ -24,9 +24,22 @@ public class RowConsumer<T> implements Iterator<T> {
     this.blockingQueue = blockingQueue;
   }
 
+  /**
+   * Wraps an exception of a producer so that it can be enqueued in place of a row and is rethrown
+   * to the consumer rather than being silently dropped.
+   *
+   * @param e the exception that stopped the producer
+   * @return the object to enqueue
+   */
+  public static Object failure(final Exception e) {
+    return new Failure(e);
+  }
+
   @Override
   public boolean hasNext() {
-    if (nextRow != null) {
+    if (nextRow instanceof Failure) {
+      throw new RuntimeException(((Failure) nextRow).exception);
+    } else if (nextRow != null) {
       return true;
     } else {
       try {
@@ -36,7 +49,10 @@ public class RowConsumer<T> implements Iterator<T> {
         return false;
       }
     }
-    if (!nextRow.equals(POISON)) {
+    if (nextRow instanceof Failure) {
+      // the failure is kept so that every subsequent call rethrows it
+      throw new RuntimeException(((Failure) nextRow).exception);
+    } else if (!nextRow.equals(POISON)) {
       return true;
     } else {
       try {
@@ -53,11 +69,21 @@ public class RowConsumer<T> implements Iterator<T> {
 
   @Override
   public T next() {
-    final T retVal = (T) nextRow;
-    if (retVal == null) {
+    if ((nextRow == null) && !hasNext()) {
       throw new NoSuchElementException("No more rows");
+    } else if (nextRow instanceof Failure) {
+      throw new RuntimeException(((Failure) nextRow).exception);
     }
+    final T retVal = (T) nextRow;
     nextRow = null;
     return retVal;
   }
+
+  private static class Failure {
+    private final Exception exception;
+
+    private Failure(final Exception exception) {
+      this.exception = exception;
+    }
+  }
 }
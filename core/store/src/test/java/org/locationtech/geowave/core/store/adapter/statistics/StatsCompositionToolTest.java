@@ -0,0 +1,232 @@
+/**
+ * Copyright (c) 2013-2019 Contributors to the Eclipse Foundation
+ *
+ * <p> See the NOTICE file distributed with this work for additional information regarding copyright
+ * ownership. All rights reserved. This program and the accompanying materials are made available
+ * under the terms of the Apache License, Version 2.0 which accompanies this distribution and is
+ * available at http://www.apache.org/licenses/LICENSE-2.0.txt
+ */
+package org.locationtech.geowave.core.store.adapter.statistics;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.Test;
+import org.locationtech.geowave.core.index.InsertionIds;
+import org.locationtech.geowave.core.index.NumericIndexStrategy;
+import org.locationtech.geowave.core.index.SinglePartitionInsertionIds;
+import org.locationtech.geowave.core.index.StringUtils;
+import org.locationtech.geowave.core.index.dimension.BasicDimensionDefinition;
+import org.locationtech.geowave.core.index.dimension.NumericDimensionDefinition;
+import org.locationtech.geowave.core.index.sfc.SFCFactory.SFCType;
+import org.locationtech.geowave.core.index.sfc.data.BasicNumericDataset;
+import org.locationtech.geowave.core.index.sfc.data.NumericData;
+import org.locationtech.geowave.core.index.sfc.data.NumericRange;
+import org.locationtech.geowave.core.index.sfc.tiered.TieredSFCIndexFactory;
+import org.locationtech.geowave.core.store.CloseableIterator;
+import org.locationtech.geowave.core.store.DataStoreStatisticsProvider;
+import org.locationtech.geowave.core.store.adapter.InternalDataAdapter;
+import org.locationtech.geowave.core.store.adapter.InternalDataAdapterWrapper;
+import org.locationtech.geowave.core.store.adapter.MockComponents.MockAbstractDataAdapter;
+import org.locationtech.geowave.core.store.adapter.MockComponents.TestIndexModel;
+import org.locationtech.geowave.core.store.api.Index;
+import org.locationtech.geowave.core.store.entities.GeoWaveKeyImpl;
+import org.locationtech.geowave.core.store.entities.GeoWaveRow;
+import org.locationtech.geowave.core.store.entities.GeoWaveRowImpl;
+import org.locationtech.geowave.core.store.entities.GeoWaveValue;
+import org.locationtech.geowave.core.store.entities.GeoWaveValueImpl;
+import org.locationtech.geowave.core.store.index.CustomNameIndex;
+import org.locationtech.geowave.core.store.memory.MemoryDataStoreOperations;
+import org.locationtech.geowave.core.store.memory.MemoryRequiredOptions;
+import org.locationtech.geowave.core.store.metadata.DataStatisticsStoreImpl;
+
+public class StatsCompositionToolTest {
+  private static final short ADAPTER_ID = 1;
+  private static final int ENTRIES = 20000;
+  private static final int THREADS = 8;
+  private static final String[] VISIBILITIES = new String[] {"a", "b", "a&b"};
+
+  private final InternalDataAdapter<Integer> adapter =
+      new InternalDataAdapterWrapper<>(new MockAbstractDataAdapter(), ADAPTER_ID);
+  private final Index index = createIndex();
+  private final GeoWaveRow[][] rows = createRows();
+
+  /**
+   * Updates from many threads are spread over the stripes and flushed while other threads are still
+   * accumulating, the merged statistics must still be the same as when all updates are made by a
+   * single thread.
+   */
+  @Test
+  public void testConcurrentUpdatesMatchSingleThreaded() throws Exception {
+    final DataStatisticsStore expectedStore = createStatisticsStore();
+    try (StatsCompositionTool<Integer> tool = createTool(expectedStore)) {
+      for (int t = 0; t < THREADS; t++) {
+        update(tool, t);
+      }
+    }
+
+    final DataStatisticsStore actualStore = createStatisticsStore();
+    try (StatsCompositionTool<Integer> tool = createTool(actualStore)) {
+      // flush often so that flushes race with the updates of other threads
+      tool.setFlushThreshold(1000);
+      final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+      try {
+        final CountDownLatch start = new CountDownLatch(1);
+        final List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+          final int thread = t;
+          futures.add(executor.submit(() -> {
+            start.await();
+            update(tool, thread);
+            return null;
+          }));
+        }
+        start.countDown();
+        for (final Future<?> future : futures) {
+          future.get();
+        }
+      } finally {
+        executor.shutdownNow();
+      }
+    }
+
+    final Map<String, InternalDataStatistics<?, ?, ?>> expected = getStatistics(expectedStore);
+    final Map<String, InternalDataStatistics<?, ?, ?>> actual = getStatistics(actualStore);
+    assertEquals(expected.keySet(), actual.keySet());
+    assertTrue(expected.containsKey(CountDataStatistics.STATS_TYPE.getString() + "_"));
+    assertTrue(
+        expected.containsKey(DuplicateEntryCount.STATS_TYPE.getString() + "_" + index.getName()));
+    for (final Map.Entry<String, InternalDataStatistics<?, ?, ?>> entry : expected.entrySet()) {
+      final InternalDataStatistics<?, ?, ?> expectedStatistics = entry.getValue();
+      final InternalDataStatistics<?, ?, ?> actualStatistics = actual.get(entry.getKey());
+      if (expectedStatistics instanceof RowRangeHistogramStatistics) {
+        // the digest is approximate and depends on the order values are merged, but it must see
+        // every row of its partition
+        assertEquals(
+            entry.getKey(),
+            ((RowRangeHistogramStatistics<?>) expectedStatistics).getTotalCount(),
+            ((RowRangeHistogramStatistics<?>) actualStatistics).getTotalCount());
+      } else {
+        assertArrayEquals(
+            entry.getKey(),
+            expectedStatistics.toBinary(),
+            actualStatistics.toBinary());
+      }
+    }
+    // the distribution of the sort keys within each partition must stay close
+    for (int i = 0; i < ENTRIES; i += 97) {
+      for (final GeoWaveRow row : rows[i]) {
+        final String key =
+            RowRangeHistogramStatistics.STATS_TYPE.getString()
+                + "_"
+                + PartitionStatisticsQueryBuilder.composeId(index.getName(), row.getPartitionKey());
+        assertEquals(
+            key,
+            ((RowRangeHistogramStatistics<?>) expected.get(key)).cdf(row.getSortKey()),
+            ((RowRangeHistogramStatistics<?>) actual.get(key)).cdf(row.getSortKey()),
+            0.05);
+      }
+    }
+    final CountDataStatistics<?> count =
+        (CountDataStatistics<?>) actual.get(CountDataStatistics.STATS_TYPE.getString() + "_");
+    // every fourth entry is deleted again, scanning counts the entries a second time as it does
+    // when statistics are recalculated
+    assertEquals(ENTRIES - (ENTRIES / 4) + ((ENTRIES / 5) - (ENTRIES / 20)), count.getCount());
+  }
+
+  /** Ingest every entry belonging to a thread, delete every fourth and scan every fifth */
+  private void update(final StatsCompositionTool<Integer> tool, final int thread) {
+    for (int i = thread; i < ENTRIES; i += THREADS) {
+      tool.entryIngested(i, rows[i]);
+    }
+    for (int i = thread; i < ENTRIES; i += THREADS) {
+      if ((i % 4) == 0) {
+        tool.entryDeleted(i, rows[i]);
+      } else if ((i % 5) == 0) {
+        tool.entryScanned(i, rows[i][0]);
+      }
+    }
+  }
+
+  private StatsCompositionTool<Integer> createTool(final DataStatisticsStore statisticsStore) {
+    return new StatsCompositionTool<>(
+        new DataStoreStatisticsProvider<>(adapter, index, true),
+        statisticsStore,
+        index,
+        adapter);
+  }
+
+  private static DataStatisticsStore createStatisticsStore() {
+    return new DataStatisticsStoreImpl(
+        new MemoryDataStoreOperations(),
+        new MemoryRequiredOptions().getStoreOptions());
+  }
+
+  private static Map<String, InternalDataStatistics<?, ?, ?>> getStatistics(
+      final DataStatisticsStore statisticsStore) {
+    final Map<String, InternalDataStatistics<?, ?, ?>> statistics = new TreeMap<>();
+    try (CloseableIterator<InternalDataStatistics<?, ?, ?>> it =
+        statisticsStore.getAllDataStatistics(VISIBILITIES)) {
+      while (it.hasNext()) {
+        final InternalDataStatistics<?, ?, ?> s = it.next();
+        final String key = s.getType().getString() + "_" + s.getExtendedId();
+        final InternalDataStatistics<?, ?, ?> existing = statistics.putIfAbsent(key, s);
+        if (existing != null) {
+          existing.merge(s);
+        }
+      }
+    }
+    return statistics;
+  }
+
+  private static Index createIndex() {
+    final NumericIndexStrategy strategy =
+        TieredSFCIndexFactory.createFullIncrementalTieredStrategy(
+            new NumericDimensionDefinition[] {new BasicDimensionDefinition(0, 1000)},
+            new int[] {12},
+            SFCType.HILBERT);
+    return new CustomNameIndex(strategy, new TestIndexModel(), "statsIndex");
+  }
+
+  /** Rows of varying visibility and duplication, some entries span several sort keys */
+  private GeoWaveRow[][] createRows() {
+    final GeoWaveRow[][] rows = new GeoWaveRow[ENTRIES][];
+    for (int i = 0; i < ENTRIES; i++) {
+      final double min = (i * 7) % 1000;
+      final double max = (i % 3) == 0 ? Math.min(1000, min + (i % 50)) : min;
+      final InsertionIds ids =
+          index.getIndexStrategy().getInsertionIds(
+              new BasicNumericDataset(new NumericData[] {new NumericRange(min, max)}));
+      final GeoWaveValue[] values =
+          new GeoWaveValue[] {
+              new GeoWaveValueImpl(
+                  new byte[] {1},
+                  StringUtils.stringToBinary(VISIBILITIES[i % VISIBILITIES.length]),
+                  new byte[0])};
+      final List<GeoWaveRow> entryRows = new ArrayList<>();
+      for (final SinglePartitionInsertionIds partitionIds : ids.getPartitionKeys()) {
+        for (final byte[] sortKey : partitionIds.getSortKeys()) {
+          entryRows.add(
+              new GeoWaveRowImpl(
+                  new GeoWaveKeyImpl(
+                      Integer.toString(i).getBytes(),
+                      ADAPTER_ID,
+                      partitionIds.getPartitionKey(),
+                      sortKey,
+                      ids.getSize() - 1),
+                  values));
+        }
+      }
+      rows[i] = entryRows.toArray(new GeoWaveRow[entryRows.size()]);
+    }
+    return rows;
+  }
+}
@@ -0,0 +1,174 @@
+/**
+ * Copyright (c) 2013-2019 Contributors to the Eclipse Foundation
+ *
+ * <p> See the NOTICE file distributed with this work for additional information regarding copyright
+ * ownership. All rights reserved. This program and the accompanying materials are made available
+ * under the terms of the Apache License, Version 2.0 which accompanies this distribution and is
+ * available at http://www.apache.org/licenses/LICENSE-2.0.txt
+ */
+package org.locationtech.geowave.core.store.api;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import java.util.Collections;
+import java.util.List;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.locationtech.geowave.core.index.NumericIndexStrategy;
+import org.locationtech.geowave.core.index.dimension.BasicDimensionDefinition;
+import org.locationtech.geowave.core.index.dimension.NumericDimensionDefinition;
+import org.locationtech.geowave.core.index.sfc.SFCFactory.SFCType;
+import org.locationtech.geowave.core.index.sfc.data.BasicNumericDataset;
+import org.locationtech.geowave.core.index.sfc.data.MultiDimensionalNumericData;
+import org.locationtech.geowave.core.index.sfc.data.NumericData;
+import org.locationtech.geowave.core.index.sfc.data.NumericRange;
+import org.locationtech.geowave.core.index.sfc.tiered.TieredSFCIndexFactory;
+import org.locationtech.geowave.core.store.CloseableIterator;
+import org.locationtech.geowave.core.store.adapter.MockComponents.MockAbstractDataAdapter;
+import org.locationtech.geowave.core.store.adapter.MockComponents.TestIndexModel;
+import org.locationtech.geowave.core.store.index.CustomNameIndex;
+import org.locationtech.geowave.core.store.memory.MemoryRequiredOptions;
+import org.locationtech.geowave.core.store.query.constraints.QueryConstraints;
+import org.locationtech.geowave.core.store.query.filter.QueryFilter;
+
+public class DataStoreExplainTest {
+  private static final String TYPE_NAME = "Some Data Type";
+  private static final String INDEX_NAME = "explainIndex";
+  private static final int ROWS = 1000;
+
+  private DataStore dataStore;
+
+  @Before
+  public void createStore() {
+    final MemoryRequiredOptions options = new MemoryRequiredOptions();
+    options.setGeoWaveNamespace("test_" + getClass().getName());
+    dataStore = DataStoreFactory.createDataStore(options);
+  }
+
+  @After
+  public void tearDown() {
+    dataStore.deleteAll();
+  }
+
+  @Test
+  public void testEmptyStore() {
+    final QueryExplanation explanation = dataStore.explain(QueryBuilder.newBuilder().build());
+    assertFalse(explanation.isAggregation());
+    assertTrue(explanation.getIndexPlans().isEmpty());
+    assertEquals(0, explanation.getEstimatedRows(), 0);
+    assertEquals("Query plan:\n  no types or indices match the query", explanation.toString());
+  }
+
+  @Test
+  public void testConstrainedQuery() {
+    ingest();
+    final QueryExplanation narrow = explain(100, 110);
+    assertEquals(1, narrow.getIndexPlans().size());
+    final QueryExplanation.IndexPlan plan = narrow.getIndexPlans().get(0);
+    assertEquals(TYPE_NAME, plan.getTypeName());
+    assertEquals(INDEX_NAME, plan.getIndexName());
+    assertFalse(plan.isFullTableScan());
+    assertTrue(plan.getPartitionCount() > 0);
+    assertTrue(plan.getRangeCount() > 0);
+    assertFalse(plan.isServerSideFiltering());
+    assertFalse(plan.isServerSideAggregation());
+    assertTrue(plan.isStatisticsAvailable());
+    assertTrue(plan.getEstimatedRows() > 0);
+    assertTrue(plan.getEstimatedRows() < (ROWS / 10));
+    assertEquals(plan.getEstimatedRows(), narrow.getEstimatedRows(), 0);
+    assertTrue(
+        narrow.toString().startsWith(
+            "Query plan:\n  type '" + TYPE_NAME + "' using index '" + INDEX_NAME + "': "));
+    assertTrue(narrow.toString().contains(", client side filtering, estimated rows "));
+
+    // a wider range is estimated to return more rows at a higher cost
+    final QueryExplanation wide = explain(0, 900);
+    final QueryExplanation.IndexPlan widePlan = wide.getIndexPlans().get(0);
+    assertTrue(widePlan.getEstimatedRows() > plan.getEstimatedRows());
+    assertTrue(widePlan.getCost() > plan.getCost());
+  }
+
+  @Test
+  public void testAggregation() {
+    ingest();
+    final QueryExplanation explanation =
+        dataStore.explain(
+            AggregationQueryBuilder.newBuilder().count(TYPE_NAME).indexName(INDEX_NAME).constraints(
+                new RangeQuery(100, 110)).build());
+    assertTrue(explanation.isAggregation());
+    assertEquals(1, explanation.getIndexPlans().size());
+    assertEquals(INDEX_NAME, explanation.getIndexPlans().get(0).getIndexName());
+    assertTrue(explanation.toString().startsWith("Aggregation plan:\n  type '" + TYPE_NAME));
+  }
+
+  @Test
+  public void testExplainDoesNotReadRows() {
+    ingest();
+    // explaining a query neither reads nor changes the rows or their statistics
+    final double before = explain(0, 1000).getEstimatedRows();
+    assertEquals(before, explain(0, 1000).getEstimatedRows(), 0);
+    try (CloseableIterator<?> it =
+        dataStore.query(
+            QueryBuilder.newBuilder().addTypeName(TYPE_NAME).indexName(INDEX_NAME).constraints(
+                new RangeQuery(0, 1000)).build())) {
+      int count = 0;
+      while (it.hasNext()) {
+        it.next();
+        count++;
+      }
+      assertEquals(ROWS, count);
+    }
+  }
+
+  private QueryExplanation explain(final double min, final double max) {
+    return dataStore.explain(
+        QueryBuilder.newBuilder().addTypeName(TYPE_NAME).indexName(INDEX_NAME).constraints(
+            new RangeQuery(min, max)).build());
+  }
+
+  private void ingest() {
+    final NumericIndexStrategy strategy =
+        TieredSFCIndexFactory.createSingleTierStrategy(
+            new NumericDimensionDefinition[] {new BasicDimensionDefinition(0, ROWS)},
+            new int[] {16},
+            SFCType.HILBERT);
+    final Index index = new CustomNameIndex(strategy, new TestIndexModel(), INDEX_NAME);
+    final MockAbstractDataAdapter adapter = new MockAbstractDataAdapter(TYPE_NAME);
+    dataStore.addType(adapter, index);
+    try (Writer<Integer> writer = dataStore.createWriter(TYPE_NAME)) {
+      for (int i = 0; i < ROWS; i++) {
+        writer.write(i);
+      }
+    }
+  }
+
+  private static class RangeQuery implements QueryConstraints {
+    private final double min, max;
+
+    public RangeQuery(final double min, final double max) {
+      this.min = min;
+      this.max = max;
+    }
+
+    @Override
+    public List<QueryFilter> createFilters(final Index index) {
+      return Collections.emptyList();
+    }
+
+    @Override
+    public List<MultiDimensionalNumericData> getIndexConstraints(final Index index) {
+      return Collections.<MultiDimensionalNumericData>singletonList(
+          new BasicNumericDataset(new NumericData[] {new NumericRange(min, max)}));
+    }
+
+    @Override
+    public byte[] toBinary() {
+      return new byte[0];
+    }
+
+    @Override
+    public void fromBinary(final byte[] bytes) {}
+  }
+}
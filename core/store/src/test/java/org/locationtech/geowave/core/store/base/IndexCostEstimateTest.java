@@ -0,0 +1,254 @@
+/**
+ * Copyright (c) 2013-2019 Contributors to the Eclipse Foundation
+ *
+ * <p> See the NOTICE file distributed with this work for additional information regarding copyright
+ * ownership. All rights reserved. This program and the accompanying materials are made available
+ * under the terms of the Apache License, Version 2.0 which accompanies this distribution and is
+ * available at http://www.apache.org/licenses/LICENSE-2.0.txt
+ */
+package org.locationtech.geowave.core.store.base;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.Before;
+import org.junit.Test;
+import org.locationtech.geowave.core.index.ByteArray;
+import org.locationtech.geowave.core.index.InsertionIds;
+import org.locationtech.geowave.core.index.NumericIndexStrategy;
+import org.locationtech.geowave.core.index.SinglePartitionInsertionIds;
+import org.locationtech.geowave.core.index.dimension.BasicDimensionDefinition;
+import org.locationtech.geowave.core.index.dimension.NumericDimensionDefinition;
+import org.locationtech.geowave.core.index.sfc.SFCFactory.SFCType;
+import org.locationtech.geowave.core.index.sfc.data.BasicNumericDataset;
+import org.locationtech.geowave.core.index.sfc.data.MultiDimensionalNumericData;
+import org.locationtech.geowave.core.index.sfc.data.NumericData;
+import org.locationtech.geowave.core.index.sfc.data.NumericRange;
+import org.locationtech.geowave.core.index.sfc.data.NumericValue;
+import org.locationtech.geowave.core.index.sfc.tiered.TieredSFCIndexFactory;
+import org.locationtech.geowave.core.store.adapter.statistics.DataStatisticsStore;
+import org.locationtech.geowave.core.store.adapter.statistics.RowRangeHistogramStatistics;
+import org.locationtech.geowave.core.store.api.Index;
+import org.locationtech.geowave.core.store.dimension.NumericDimensionField;
+import org.locationtech.geowave.core.store.entities.GeoWaveKeyImpl;
+import org.locationtech.geowave.core.store.entities.GeoWaveRow;
+import org.locationtech.geowave.core.store.entities.GeoWaveRowImpl;
+import org.locationtech.geowave.core.store.entities.GeoWaveValue;
+import org.locationtech.geowave.core.store.index.BasicIndexModel;
+import org.locationtech.geowave.core.store.index.CustomNameIndex;
+import org.locationtech.geowave.core.store.memory.MemoryDataStoreOperations;
+import org.locationtech.geowave.core.store.memory.MemoryRequiredOptions;
+import org.locationtech.geowave.core.store.metadata.DataStatisticsStoreImpl;
+import org.locationtech.geowave.core.store.query.constraints.QueryConstraints;
+import org.locationtech.geowave.core.store.query.filter.QueryFilter;
+
+public class IndexCostEstimateTest {
+  private static final short ADAPTER_ID = 1;
+  private static final int ROWS = 10000;
+  private static final int MAX_RANGE_DECOMPOSITION = 100;
+
+  private Index first;
+  private Index second;
+  private Index withoutStatistics;
+  private DataStatisticsStore statisticsStore;
+
+  @Before
+  public void setup() {
+    first = createIndex("first");
+    second = createIndex("second");
+    withoutStatistics = createIndex("withoutStatistics");
+    statisticsStore =
+        new DataStatisticsStoreImpl(
+            new MemoryDataStoreOperations(),
+            new MemoryRequiredOptions().getStoreOptions());
+    ingest(first);
+    ingest(second);
+  }
+
+  @Test
+  public void testSelectiveConstraints() {
+    final Map<String, NumericRange> constraints = new HashMap<>();
+    constraints.put(first.getName(), new NumericRange(100, 110));
+    constraints.put(second.getName(), new NumericRange(0, 1000));
+    final List<IndexCostEstimate> estimates = estimate(constraints, first, second);
+    assertEquals(2, estimates.size());
+    assertSame(first, estimates.get(0).getIndex());
+    assertFalse(estimates.get(0).isFullTableScan());
+    // roughly 11 of every 1000 values are within the range
+    assertEquals(110, estimates.get(0).getEstimatedRows(), 55);
+    assertEquals(ROWS, estimates.get(1).getEstimatedRows(), ROWS * 0.05);
+    assertSame(first, chooseBestIndex(constraints, first, second));
+
+    // the estimates don't depend on the order of the candidates
+    constraints.put(first.getName(), new NumericRange(0, 1000));
+    constraints.put(second.getName(), new NumericRange(500, 505));
+    assertSame(second, chooseBestIndex(constraints, first, second));
+  }
+
+  @Test
+  public void testNonSelectiveConstraints() {
+    final Map<String, NumericRange> constraints = new HashMap<>();
+    // unconstrained in the first index so every row is scanned
+    constraints.put(second.getName(), new NumericRange(0, 900));
+    final List<IndexCostEstimate> estimates = estimate(constraints, first, second);
+    assertEquals(2, estimates.size());
+    assertSame(second, estimates.get(0).getIndex());
+    assertFalse(estimates.get(0).isFullTableScan());
+    assertEquals(ROWS * 0.9, estimates.get(0).getEstimatedRows(), ROWS * 0.05);
+    assertTrue(estimates.get(1).isFullTableScan());
+    assertEquals(0, estimates.get(1).getRangeCount());
+    assertEquals(ROWS, estimates.get(1).getEstimatedRows(), 0);
+    assertSame(second, chooseBestIndex(constraints, first, second));
+
+    // a range over everything costs more than a full table scan because of the range seeks
+    constraints.put(second.getName(), new NumericRange(0, 1000));
+    assertSame(first, chooseBestIndex(constraints, first, second));
+    assertSame(first, chooseBestIndex(constraints, second, first));
+  }
+
+  @Test
+  public void testMissingStatistics() {
+    final Map<String, NumericRange> constraints = new HashMap<>();
+    constraints.put(first.getName(), new NumericRange(0, 1000));
+    constraints.put(withoutStatistics.getName(), new NumericRange(100, 110));
+    final List<IndexCostEstimate> estimates = estimate(constraints, first, withoutStatistics);
+    assertEquals(2, estimates.size());
+    // without statistics no rows are estimated so the estimates can't be compared
+    assertSame(withoutStatistics, estimates.get(0).getIndex());
+    assertFalse(estimates.get(0).isStatisticsAvailable());
+    assertEquals(0, estimates.get(0).getEstimatedRows(), 0);
+    assertTrue(estimates.get(1).isStatisticsAvailable());
+  }
+
+  @Test
+  public void testOrderingConsistentWithEquals() {
+    final IndexCostEstimate estimate = new IndexCostEstimate(first, false, 1, 2, true, 80, 0);
+    final IndexCostEstimate same = new IndexCostEstimate(first, false, 1, 2, true, 80, 0);
+    assertEquals(0, estimate.compareTo(same));
+    assertEquals(estimate, same);
+    assertEquals(estimate.hashCode(), same.hashCode());
+
+    // the same cost for a different index or from different details is not equal
+    final IndexCostEstimate otherIndex = new IndexCostEstimate(second, false, 1, 2, true, 80, 0);
+    final IndexCostEstimate otherDetails = new IndexCostEstimate(first, false, 1, 1, true, 90, 0);
+    assertEquals(estimate.getCost(), otherIndex.getCost(), 0);
+    assertEquals(estimate.getCost(), otherDetails.getCost(), 0);
+    assertNotEquals(0, estimate.compareTo(otherIndex));
+    assertNotEquals(estimate, otherIndex);
+    assertNotEquals(0, estimate.compareTo(otherDetails));
+    assertNotEquals(estimate, otherDetails);
+    assertEquals(
+        Integer.signum(estimate.compareTo(otherIndex)),
+        -Integer.signum(otherIndex.compareTo(estimate)));
+
+    // cost still takes precedence
+    final IndexCostEstimate cheaper = new IndexCostEstimate(second, true, 0, 0, true, 79, 0);
+    final List<IndexCostEstimate> estimates = new ArrayList<>();
+    estimates.add(estimate);
+    estimates.add(cheaper);
+    Collections.sort(estimates);
+    assertSame(cheaper, estimates.get(0));
+  }
+
+  private List<IndexCostEstimate> estimate(
+      final Map<String, NumericRange> constraints,
+      final Index... indices) {
+    return BaseDataStoreUtils.estimateIndexCosts(
+        indices,
+        new RangePerIndexConstraints(constraints),
+        null,
+        ADAPTER_ID,
+        statisticsStore,
+        MAX_RANGE_DECOMPOSITION);
+  }
+
+  private Index chooseBestIndex(
+      final Map<String, NumericRange> constraints,
+      final Index... indices) {
+    return BaseDataStoreUtils.chooseBestIndex(
+        indices,
+        new RangePerIndexConstraints(constraints),
+        null,
+        ADAPTER_ID,
+        statisticsStore,
+        MAX_RANGE_DECOMPOSITION);
+  }
+
+  private static Index createIndex(final String name) {
+    final NumericIndexStrategy strategy =
+        TieredSFCIndexFactory.createSingleTierStrategy(
+            new NumericDimensionDefinition[] {new BasicDimensionDefinition(0, 1000)},
+            new int[] {16},
+            SFCType.HILBERT);
+    return new CustomNameIndex(strategy, new BasicIndexModel(new NumericDimensionField[0]), name);
+  }
+
+  /** Ingest the same values, spread evenly over the dimension, into the histograms of an index */
+  private void ingest(final Index index) {
+    final Map<ByteArray, List<GeoWaveRow>> rowsPerPartition = new HashMap<>();
+    for (int i = 0; i < ROWS; i++) {
+      final InsertionIds ids =
+          index.getIndexStrategy().getInsertionIds(
+              new BasicNumericDataset(new NumericData[] {new NumericValue((i % 1000) + 0.5)}));
+      for (final SinglePartitionInsertionIds partitionIds : ids.getPartitionKeys()) {
+        for (final byte[] sortKey : partitionIds.getSortKeys()) {
+          rowsPerPartition.computeIfAbsent(
+              new ByteArray(partitionIds.getPartitionKey()),
+              k -> new ArrayList<>()).add(
+                  new GeoWaveRowImpl(
+                      new GeoWaveKeyImpl(
+                          Integer.toString(i).getBytes(),
+                          ADAPTER_ID,
+                          partitionIds.getPartitionKey(),
+                          sortKey,
+                          0),
+                      new GeoWaveValue[0]));
+        }
+      }
+    }
+    for (final Map.Entry<ByteArray, List<GeoWaveRow>> entry : rowsPerPartition.entrySet()) {
+      final RowRangeHistogramStatistics<?> histogram =
+          new RowRangeHistogramStatistics<>(ADAPTER_ID, index.getName(), entry.getKey().getBytes());
+      histogram.entryIngested(null, entry.getValue().toArray(new GeoWaveRow[0]));
+      statisticsStore.incorporateStatistics(histogram);
+    }
+  }
+
+  /** Constrains each index to its own range, an index without a range is unconstrained */
+  private static class RangePerIndexConstraints implements QueryConstraints {
+    private final Map<String, NumericRange> ranges;
+
+    public RangePerIndexConstraints(final Map<String, NumericRange> ranges) {
+      this.ranges = ranges;
+    }
+
+    @Override
+    public List<QueryFilter> createFilters(final Index index) {
+      return Collections.emptyList();
+    }
+
+    @Override
+    public List<MultiDimensionalNumericData> getIndexConstraints(final Index index) {
+      final NumericRange range = ranges.get(index.getName());
+      if (range == null) {
+        return Collections.emptyList();
+      }
+      return Collections.singletonList(new BasicNumericDataset(new NumericData[] {range}));
+    }
+
+    @Override
+    public byte[] toBinary() {
+      return new byte[0];
+    }
+
+    @Override
+    public void fromBinary(final byte[] bytes) {}
+  }
+}
@@ -0,0 +1,271 @@
+/**
+ * Copyright (c) 2013-2019 Contributors to the Eclipse Foundation
+ *
+ * <p> See the NOTICE file distributed with this work for additional information regarding copyright
+ * ownership. All rights reserved. This program and the accompanying materials are made available
+ * under the terms of the Apache License, Version 2.0 which accompanies this distribution and is
+ * available at http://www.apache.org/licenses/LICENSE-2.0.txt
+ */
+package org.locationtech.geowave.core.store.base;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+import org.junit.Test;
+import org.locationtech.geowave.core.index.StringUtils;
+import org.locationtech.geowave.core.store.adapter.InternalDataAdapter;
+import org.locationtech.geowave.core.store.adapter.InternalDataAdapterWrapper;
+import org.locationtech.geowave.core.store.adapter.LazyReadPersistenceEncoding;
+import org.locationtech.geowave.core.store.adapter.MockComponents.MockAbstractDataAdapter;
+import org.locationtech.geowave.core.store.adapter.MockComponents.MockIndexStrategy;
+import org.locationtech.geowave.core.store.adapter.MockComponents.TestIndexModel;
+import org.locationtech.geowave.core.store.adapter.ReusableReadPersistenceEncoding;
+import org.locationtech.geowave.core.store.adapter.exceptions.AdapterException;
+import org.locationtech.geowave.core.store.api.Index;
+import org.locationtech.geowave.core.store.data.IndexedPersistenceEncoding;
+import org.locationtech.geowave.core.store.data.field.FieldReader;
+import org.locationtech.geowave.core.store.data.field.FieldUtils;
+import org.locationtech.geowave.core.store.entities.GeoWaveKeyImpl;
+import org.locationtech.geowave.core.store.entities.GeoWaveRow;
+import org.locationtech.geowave.core.store.entities.GeoWaveRowImpl;
+import org.locationtech.geowave.core.store.entities.GeoWaveValue;
+import org.locationtech.geowave.core.store.entities.GeoWaveValueImpl;
+import org.locationtech.geowave.core.store.flatten.BitmaskUtils;
+import org.locationtech.geowave.core.store.index.CommonIndexModel;
+import org.locationtech.geowave.core.store.index.CommonIndexValue;
+import org.locationtech.geowave.core.store.index.IndexImpl;
+import org.locationtech.geowave.core.store.query.filter.QueryFilter;
+
+public class RowDecoderTest {
+  private static final short ADAPTER_ID = 1;
+  // the field names of MockAbstractDataAdapter, in the order of their field positions
+  private static final String DIMENSION_FIELD = "TestDimensionField1";
+  private static final String INTEGER_FIELD = "TestInteger";
+  private static final String ID_FIELD = "TestIntegerAdapter";
+
+  private final InternalDataAdapter<Integer> adapter =
+      new InternalDataAdapterWrapper<>(new MockAbstractDataAdapter(), ADAPTER_ID);
+  private final Index index = new IndexImpl(new MockIndexStrategy(), new DimensionOnlyModel());
+
+  @Test
+  public void testRejectedRowsDoNotLeakFields() throws AdapterException {
+    // odd values are rejected, and every row is fully read by the filter
+    final RecordingFilter filter = new RecordingFilter(v -> (v % 2) == 0, true);
+    final RowDecoder<Integer> decoder = decoder(filter, true, true);
+
+    assertNull(decoder.decode(row("a", 1, 2, "first")));
+    assertNull(decoder.decode(row("b", 3, 0, null)));
+    assertEquals(4, decoder.decode(row("c", 4, 1, "third")));
+    assertNull(decoder.decode(row("d", 5, 0, null)));
+    assertNull(decoder.decode(row("e", 7, 3, "fifth")));
+
+    assertEquals(5, filter.seen.size());
+    filter.seen.get(0).assertRow("a", 1, 2, "first");
+    filter.seen.get(1).assertRow("b", 3, 0, null);
+    filter.seen.get(2).assertRow("c", 4, 1, "third");
+    filter.seen.get(3).assertRow("d", 5, 0, null);
+    filter.seen.get(4).assertRow("e", 7, 3, "fifth");
+
+    // rejected rows reuse the same encoding until a row is accepted and decoded
+    assertTrue(filter.seen.get(0).encoding instanceof ReusableReadPersistenceEncoding);
+    assertSame(filter.seen.get(0).encoding, filter.seen.get(1).encoding);
+    assertSame(filter.seen.get(1).encoding, filter.seen.get(2).encoding);
+    assertNotSame(filter.seen.get(2).encoding, filter.seen.get(3).encoding);
+    assertSame(filter.seen.get(3).encoding, filter.seen.get(4).encoding);
+  }
+
+  @Test
+  public void testPartiallyReadRowsDoNotLeakFields() throws AdapterException {
+    // only the ID field is read from each row so the rest of the row remains deferred
+    final RecordingFilter filter = new RecordingFilter(v -> false, false);
+    final RowDecoder<Integer> decoder = decoder(filter, true, true);
+
+    assertNull(decoder.decode(row("a", 1, 0, "first")));
+    assertNull(decoder.decode(row("b", 2, 0, null)));
+    assertNull(decoder.decode(row("c", 3, 0, "third")));
+
+    assertEquals("first", filter.seen.get(0).id);
+    assertNull(filter.seen.get(1).id);
+    assertEquals("third", filter.seen.get(2).id);
+    assertSame(filter.seen.get(0).encoding, filter.seen.get(2).encoding);
+
+    // a full read after a partial read only sees the fields of the current row
+    final LazyReadPersistenceEncoding encoding = filter.seen.get(2).encoding;
+    assertNull(decoder.decode(row("d", 4, 0, null)));
+    assertFalse(encoding.getAdapterExtendedData().getValues().containsKey(ID_FIELD));
+    assertEquals(4, encoding.getAdapterExtendedData().getValue(INTEGER_FIELD));
+  }
+
+  @Test
+  public void testEncodingsAreNotReusedIfRowsAreNotDecoded() throws AdapterException {
+    // the encoding itself is returned if rows are not decoded, so it cannot be reused
+    final RecordingFilter filter = new RecordingFilter(v -> (v % 2) == 0, true);
+    final RowDecoder<Integer> decoder = decoder(filter, false, true);
+
+    final Object first = decoder.decode(row("a", 2, 0, "first"));
+    assertNull(decoder.decode(row("b", 3, 0, null)));
+    final Object second = decoder.decode(row("c", 4, 0, null));
+
+    assertTrue(first instanceof LazyReadPersistenceEncoding);
+    assertFalse(first instanceof ReusableReadPersistenceEncoding);
+    assertNotSame(first, second);
+    assertArrayEquals(
+        StringUtils.stringToBinary("a"),
+        ((IndexedPersistenceEncoding<?>) first).getDataId());
+    assertEquals(
+        "first",
+        ((LazyReadPersistenceEncoding) first).getAdapterExtendedData().getValue(ID_FIELD));
+    assertFalse(
+        ((LazyReadPersistenceEncoding) second).getAdapterExtendedData().getValues().containsKey(
+            ID_FIELD));
+    assertNotSame(filter.seen.get(0).encoding, filter.seen.get(1).encoding);
+    assertNotSame(filter.seen.get(1).encoding, filter.seen.get(2).encoding);
+  }
+
+  @Test
+  public void testEncodingsAreNotReusedIfDisabled() throws AdapterException {
+    final RecordingFilter filter = new RecordingFilter(v -> false, true);
+    final RowDecoder<Integer> decoder = decoder(filter, true, false);
+
+    assertNull(decoder.decode(row("a", 1, 0, "first")));
+    assertNull(decoder.decode(row("b", 3, 0, null)));
+
+    assertFalse(filter.seen.get(0).encoding instanceof ReusableReadPersistenceEncoding);
+    assertNotSame(filter.seen.get(0).encoding, filter.seen.get(1).encoding);
+    filter.seen.get(0).assertRow("a", 1, 0, "first");
+    filter.seen.get(1).assertRow("b", 3, 0, null);
+  }
+
+  private RowDecoder<Integer> decoder(
+      final QueryFilter filter,
+      final boolean decodeRow,
+      final boolean reuseEncoding) {
+    return new RowDecoder<>(
+        adapter,
+        null,
+        index,
+        new QueryFilter[] {filter},
+        null,
+        null,
+        decodeRow,
+        null,
+        reuseEncoding);
+  }
+
+  private static GeoWaveRow row(
+      final String dataId,
+      final int value,
+      final int duplicates,
+      final String id) {
+    final List<GeoWaveValue> values = new ArrayList<>();
+    values.add(value(0, Integer.toString(value).getBytes()));
+    values.add(value(1, FieldUtils.getDefaultWriterForClass(Integer.class).writeField(value)));
+    if (id != null) {
+      values.add(value(2, FieldUtils.getDefaultWriterForClass(String.class).writeField(id)));
+    }
+    return new GeoWaveRowImpl(
+        new GeoWaveKeyImpl(
+            StringUtils.stringToBinary(dataId),
+            ADAPTER_ID,
+            new byte[0],
+            StringUtils.stringToBinary("sort" + dataId),
+            duplicates),
+        values.toArray(new GeoWaveValue[values.size()]));
+  }
+
+  private static GeoWaveValue value(final int position, final byte[] bytes) {
+    return new GeoWaveValueImpl(
+        BitmaskUtils.generateCompositeBitmask(position),
+        new byte[0],
+        bytes);
+  }
+
+  /** TestIndexModel reads every field as its dimension, this only reads the dimension field */
+  private static class DimensionOnlyModel extends TestIndexModel {
+    @Override
+    public FieldReader<CommonIndexValue> getReader(final String fieldName) {
+      return DIMENSION_FIELD.equals(fieldName) ? super.getReader(fieldName) : null;
+    }
+  }
+
+  private static class SeenRow {
+    private final LazyReadPersistenceEncoding encoding;
+    private final byte[] dataId;
+    private final byte[] sortKey;
+    private final int duplicates;
+    private final Map<String, Object> commonValues = new HashMap<>();
+    private final Map<String, Object> extendedValues = new HashMap<>();
+    private final String id;
+
+    private SeenRow(final LazyReadPersistenceEncoding encoding, final boolean readAll) {
+      this.encoding = encoding;
+      dataId = encoding.getDataId();
+      sortKey = encoding.getInsertionSortKey();
+      duplicates = encoding.getDuplicateCount();
+      id = (String) encoding.getAdapterExtendedValue(ID_FIELD);
+      if (readAll) {
+        commonValues.putAll(encoding.getCommonData().getValues());
+        extendedValues.putAll(encoding.getAdapterExtendedData().getValues());
+        assertTrue(encoding.getUnknownData().getValues().isEmpty());
+      }
+    }
+
+    private void assertRow(
+        final String expectedDataId,
+        final int value,
+        final int expectedDuplicates,
+        final String expectedId) {
+      assertArrayEquals(StringUtils.stringToBinary(expectedDataId), dataId);
+      assertArrayEquals(StringUtils.stringToBinary("sort" + expectedDataId), sortKey);
+      assertEquals(expectedDuplicates, duplicates);
+      assertEquals(expectedId, id);
+      assertEquals(1, commonValues.size());
+      assertTrue(commonValues.containsKey(DIMENSION_FIELD));
+      assertEquals(value, extendedValues.get(INTEGER_FIELD));
+      if (expectedId == null) {
+        assertEquals(1, extendedValues.size());
+      } else {
+        assertEquals(2, extendedValues.size());
+        assertEquals(expectedId, extendedValues.get(ID_FIELD));
+      }
+    }
+  }
+
+  private static class RecordingFilter implements QueryFilter {
+    private final Predicate<Integer> accept;
+    private final boolean readAll;
+    private final List<SeenRow> seen = new ArrayList<>();
+
+    private RecordingFilter(final Predicate<Integer> accept, final boolean readAll) {
+      this.accept = accept;
+      this.readAll = readAll;
+    }
+
+    @Override
+    public boolean accept(
+        final CommonIndexModel indexModel,
+        final IndexedPersistenceEncoding<?> persistenceEncoding) {
+      final LazyReadPersistenceEncoding encoding =
+          (LazyReadPersistenceEncoding) persistenceEncoding;
+      seen.add(new SeenRow(encoding, readAll));
+      return accept.test((Integer) encoding.getAdapterExtendedValue(INTEGER_FIELD));
+    }
+
+    @Override
+    public byte[] toBinary() {
+      return new byte[0];
+    }
+
+    @Override
+    public void fromBinary(final byte[] bytes) {}
+  }
+}
@@ -0,0 +1,287 @@
+/**
+ * Copyright (c) 2013-2019 Contributors to the Eclipse Foundation
+ *
+ * <p> See the NOTICE file distributed with this work for additional information regarding copyright
+ * ownership. All rights reserved. This program and the accompanying materials are made available
+ * under the terms of the Apache License, Version 2.0 which accompanies this distribution and is
+ * available at http://www.apache.org/licenses/LICENSE-2.0.txt
+ */
+package org.locationtech.geowave.core.store.ingest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import java.io.IOException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.locationtech.geowave.core.store.CloseableIterator;
+import org.locationtech.geowave.core.store.adapter.MockComponents;
+import org.locationtech.geowave.core.store.adapter.MockComponents.MockAbstractDataAdapter;
+import org.locationtech.geowave.core.store.api.DataStore;
+import org.locationtech.geowave.core.store.api.DataStoreFactory;
+import org.locationtech.geowave.core.store.api.DataTypeAdapter;
+import org.locationtech.geowave.core.store.api.Index;
+import org.locationtech.geowave.core.store.api.QueryBuilder;
+import org.locationtech.geowave.core.store.api.Writer;
+import org.locationtech.geowave.core.store.index.CommonIndexValue;
+import org.locationtech.geowave.core.store.index.IndexImpl;
+import org.locationtech.geowave.core.store.memory.MemoryRequiredOptions;
+
+public class AbstractLocalFileIngestDriverTest {
+  private static final int ENTRIES_PER_PART = 1000;
+
+  private final MockAbstractDataAdapter adapter = new MockAbstractDataAdapter();
+  private final Index index =
+      new IndexImpl(new MockComponents.MockIndexStrategy(), new MockComponents.TestIndexModel());
+  private DataStore dataStore;
+  private URL file;
+
+  @Before
+  public void setup() throws IOException {
+    final MemoryRequiredOptions options = new MemoryRequiredOptions();
+    options.setGeoWaveNamespace("test_" + getClass().getName() + "_" + System.nanoTime());
+    dataStore = DataStoreFactory.createDataStore(options);
+    file = new URL("file:/parts.txt");
+  }
+
+  @After
+  public void tearDown() {
+    dataStore.deleteAll();
+  }
+
+  @Test(timeout = 60000)
+  public void testParsePartsConcurrently() throws IOException {
+    final int parts = 20;
+    final TestPlugin plugin = new TestPlugin(parts, -1);
+    final TestDriver driver = new TestDriver(2, 4);
+    ingest(driver, plugin);
+
+    assertEquals(parts, plugin.suppliedParts.get());
+    // every part is parsed by the parse threads rather than the thread splitting the file
+    assertFalse(plugin.parseThreads.contains(Thread.currentThread().getName()));
+    final int entries = parts * ENTRIES_PER_PART;
+    assertEquals(entries, driver.ingestMetrics.getParsedEntries());
+    assertEquals(entries, driver.ingestMetrics.getWrittenEntries());
+    assertTrue(driver.ingestMetrics.getSummary().startsWith("parsed " + entries + " entries"));
+    assertEquals(entries, count());
+  }
+
+  @Test(timeout = 60000)
+  public void testUnsplittableFileIsParsedByCallingThread() throws IOException {
+    final TestPlugin plugin = new TestPlugin(3, -1);
+    final TestDriver driver = new TestDriver(2, 1);
+    ingest(driver, plugin);
+
+    // without parse threads the parts are never requested
+    assertEquals(0, plugin.suppliedParts.get());
+    assertEquals(Collections.singleton(Thread.currentThread().getName()), plugin.parseThreads);
+    assertEquals(3 * ENTRIES_PER_PART, driver.ingestMetrics.getWrittenEntries());
+    assertEquals(3 * ENTRIES_PER_PART, count());
+  }
+
+  @Test(timeout = 60000)
+  public void testPartFailurePropagates() throws IOException {
+    final int parts = 1000;
+    final TestPlugin plugin = new TestPlugin(parts, 2);
+    final TestDriver driver = new TestDriver(2, 2);
+    try {
+      ingest(driver, plugin);
+      fail("the failure of a part must fail the file");
+    } catch (final RuntimeException e) {
+      assertEquals(TestPlugin.FAILURE, e.getCause().getMessage());
+    }
+    // the file is no longer split once a part failed
+    assertTrue(plugin.suppliedParts.get() < parts);
+  }
+
+  @Test(timeout = 60000)
+  public void testWorkersDieWhileParseThreadsBlocked() throws IOException {
+    // enough entries to fill the queue after the workers are gone, so the parse threads block
+    final int parts = 200;
+    final TestPlugin plugin = new TestPlugin(parts, -1);
+    final TestDriver driver = new TestDriver(2, 4) {
+      @Override
+      protected void write(final Writer writer, final GeoWaveData<?> geowaveData) {
+        throw new IllegalStateException("store unavailable");
+      }
+    };
+    try {
+      ingest(driver, plugin);
+      fail("parsing must fail once every worker has terminated");
+    } catch (final RuntimeException e) {
+      assertEquals(
+          "Datastore error, all workers have terminated! Aborting...",
+          e.getCause().getMessage());
+    }
+    assertEquals(0, driver.ingestMetrics.getWrittenEntries());
+    assertTrue(plugin.suppliedParts.get() < parts);
+  }
+
+  private void ingest(final TestDriver driver, final TestPlugin plugin) throws IOException {
+    try (LocalIngestRunData runData =
+        new LocalIngestRunData(Collections.<DataTypeAdapter<?>>singletonList(adapter), dataStore)) {
+      driver.startExecutor();
+      try {
+        driver.processFile(file, adapter.getTypeName(), plugin, runData);
+      } finally {
+        driver.shutdownExecutor();
+      }
+    }
+  }
+
+  private int count() {
+    int count = 0;
+    try (CloseableIterator<?> it =
+        dataStore.query(QueryBuilder.newBuilder().addTypeName(adapter.getTypeName()).build())) {
+      while (it.hasNext()) {
+        it.next();
+        count++;
+      }
+    }
+    return count;
+  }
+
+  private class TestDriver extends AbstractLocalFileIngestDriver {
+    private final int threads;
+    private final int parseThreads;
+
+    public TestDriver(final int threads, final int parseThreads) {
+      this.threads = threads;
+      this.parseThreads = parseThreads;
+    }
+
+    @Override
+    protected int getNumThreads() {
+      return threads;
+    }
+
+    @Override
+    protected int getNumParseThreads() {
+      return parseThreads;
+    }
+
+    @Override
+    protected String getGlobalVisibility() {
+      return null;
+    }
+
+    @Override
+    protected Map<String, LocalFileIngestPlugin<?>> getIngestPlugins() {
+      return Collections.emptyMap();
+    }
+
+    @Override
+    protected DataStore getDataStore() {
+      return dataStore;
+    }
+
+    @Override
+    protected Map<String, Index> getIndices() {
+      return Collections.singletonMap(index.getName(), index);
+    }
+
+    @Override
+    protected boolean isSupported(
+        final String providerName,
+        final DataAdapterProvider<?> adapterProvider) {
+      return true;
+    }
+  }
+
+  /**
+   * Splits a file into parts of consecutive integers, optionally failing to parse one of the parts
+   */
+  private class TestPlugin implements SplittableLocalFileIngestPlugin<Integer> {
+    private static final String FAILURE = "unable to parse part";
+    private final int parts;
+    private final int failingPart;
+    private final AtomicInteger suppliedParts = new AtomicInteger();
+    private final Set<String> parseThreads = ConcurrentHashMap.newKeySet();
+
+    public TestPlugin(final int parts, final int failingPart) {
+      this.parts = parts;
+      this.failingPart = failingPart;
+    }
+
+    @Override
+    public CloseableIterator<Supplier<CloseableIterator<GeoWaveData<Integer>>>> toGeoWaveDataParts(
+        final URL input,
+        final String[] indexNames,
+        final String globalVisibility) {
+      final List<Supplier<CloseableIterator<GeoWaveData<Integer>>>> suppliers = new ArrayList<>();
+      for (int p = 0; p < parts; p++) {
+        final int part = p;
+        suppliers.add(() -> {
+          suppliedParts.incrementAndGet();
+          if (part == failingPart) {
+            throw new IllegalArgumentException(FAILURE);
+          }
+          return parse(part, indexNames);
+        });
+      }
+      return new CloseableIterator.Wrapper<>(suppliers.iterator());
+    }
+
+    @Override
+    public CloseableIterator<GeoWaveData<Integer>> toGeoWaveData(
+        final URL input,
+        final String[] indexNames,
+        final String globalVisibility) {
+      final List<GeoWaveData<Integer>> data = new ArrayList<>();
+      for (int p = 0; p < parts; p++) {
+        parse(p, indexNames).forEachRemaining(data::add);
+      }
+      return new CloseableIterator.Wrapper<>(data.iterator());
+    }
+
+    private CloseableIterator<GeoWaveData<Integer>> parse(
+        final int part,
+        final String[] indexNames) {
+      parseThreads.add(Thread.currentThread().getName());
+      final List<GeoWaveData<Integer>> data = new ArrayList<>(ENTRIES_PER_PART);
+      for (int i = 0; i < ENTRIES_PER_PART; i++) {
+        data.add(new GeoWaveData<>(adapter, indexNames, (part * ENTRIES_PER_PART) + i));
+      }
+      return new CloseableIterator.Wrapper<>(data.iterator());
+    }
+
+    @Override
+    public String[] getFileExtensionFilters() {
+      return new String[0];
+    }
+
+    @Override
+    public void init(final URL url) {}
+
+    @Override
+    public boolean supportsFile(final URL file) {
+      return true;
+    }
+
+    @Override
+    public DataTypeAdapter<Integer>[] getDataAdapters(final String globalVisibility) {
+      return new DataTypeAdapter[] {adapter};
+    }
+
+    @Override
+    public Class<? extends CommonIndexValue>[] getSupportedIndexableTypes() {
+      return new Class[0];
+    }
+
+    @Override
+    public Index[] getRequiredIndices() {
+      return new Index[0];
+    }
+  }
+}
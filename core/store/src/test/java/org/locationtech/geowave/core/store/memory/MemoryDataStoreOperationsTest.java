@@ -0,0 +1,251 @@
+/**
+ * Copyright (c) 2013-2019 Contributors to the Eclipse Foundation
+ *
+ * <p> See the NOTICE file distributed with this work for additional information regarding copyright
+ * ownership. All rights reserved. This program and the accompanying materials are made available
+ * under the terms of the Apache License, Version 2.0 which accompanies this distribution and is
+ * available at http://www.apache.org/licenses/LICENSE-2.0.txt
+ */
+package org.locationtech.geowave.core.store.memory;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Test;
+import org.locationtech.geowave.core.index.ByteArrayRange;
+import org.locationtech.geowave.core.index.QueryRanges;
+import org.locationtech.geowave.core.index.SinglePartitionQueryRanges;
+import org.locationtech.geowave.core.store.adapter.MockComponents;
+import org.locationtech.geowave.core.store.api.Index;
+import org.locationtech.geowave.core.store.entities.GeoWaveKeyImpl;
+import org.locationtech.geowave.core.store.entities.GeoWaveRow;
+import org.locationtech.geowave.core.store.entities.GeoWaveRowImpl;
+import org.locationtech.geowave.core.store.entities.GeoWaveRowIteratorTransformer;
+import org.locationtech.geowave.core.store.entities.GeoWaveValue;
+import org.locationtech.geowave.core.store.entities.GeoWaveValueImpl;
+import org.locationtech.geowave.core.store.index.IndexImpl;
+import org.locationtech.geowave.core.store.operations.ReaderParamsBuilder;
+import org.locationtech.geowave.core.store.operations.RowDeleter;
+import org.locationtech.geowave.core.store.operations.RowReader;
+import org.locationtech.geowave.core.store.operations.RowWriter;
+
+public class MemoryDataStoreOperationsTest {
+  private static final int ROWS = 2000;
+  private static final byte[] PARTITION = new byte[0];
+
+  private final Index index =
+      new IndexImpl(new MockComponents.MockIndexStrategy(), new MockComponents.TestIndexModel());
+  private final MemoryDataStoreOperations operations = new MemoryDataStoreOperations();
+  private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+  @After
+  public void cleanup() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void testConcurrentWritesDuringIteration() throws Exception {
+    // the even keys exist before the scans start, the odd keys are written while they are iterated
+    writeRows(0, 2);
+    final List<GeoWaveRow> full = new ArrayList<>();
+    final List<GeoWaveRow> ranged = new ArrayList<>();
+    try (RowReader<GeoWaveRow> fullReader = createReader(null);
+        RowReader<GeoWaveRow> rangeReader =
+            createReader(new ByteArrayRange(sortKey(100), sortKey(1899)))) {
+      full.add(fullReader.next());
+      ranged.add(rangeReader.next());
+      final CountDownLatch started = new CountDownLatch(1);
+      final Future<?> writes = executor.submit(() -> {
+        started.countDown();
+        writeRows(1, 2);
+      });
+      started.await();
+      while (fullReader.hasNext() || rangeReader.hasNext()) {
+        if (fullReader.hasNext()) {
+          full.add(fullReader.next());
+        }
+        if (rangeReader.hasNext()) {
+          ranged.add(rangeReader.next());
+        }
+      }
+      writes.get(30, TimeUnit.SECONDS);
+    }
+    assertScanned(full, 0, ROWS - 1);
+    assertScanned(ranged, 100, 1899);
+
+    // once the writes complete every row is visible
+    try (RowReader<GeoWaveRow> reader = createReader(null)) {
+      final List<GeoWaveRow> rows = new ArrayList<>();
+      reader.forEachRemaining(rows::add);
+      assertEquals(ROWS, rows.size());
+      assertScanned(rows, 0, ROWS - 1);
+    }
+  }
+
+  @Test
+  public void testOverwriteDuringIteration() throws Exception {
+    writeRows(0, 1);
+    final List<GeoWaveRow> rows = new ArrayList<>();
+    try (RowReader<GeoWaveRow> reader = createReader(null)) {
+      for (int i = 0; reader.hasNext(); i++) {
+        rows.add(reader.next());
+        if (i == (ROWS / 2)) {
+          // rewriting a row replaces it in place rather than adding a duplicate
+          executor.submit(() -> writeRows(0, 1)).get(30, TimeUnit.SECONDS);
+        }
+      }
+    }
+    assertEquals(ROWS, rows.size());
+    assertScanned(rows, 0, ROWS - 1);
+  }
+
+  @Test
+  public void testDeletesDuringScan() throws Exception {
+    writeRows(0, 1);
+    final Set<Integer> deleted = Collections.synchronizedSet(new HashSet<>());
+    final List<GeoWaveRow> rows = new ArrayList<>();
+    try (RowReader<GeoWaveRow> reader = createReader(null);
+        RowDeleter deleter = operations.createRowDeleter(index.getName(), null, null)) {
+      for (int i = 0; i < 10; i++) {
+        rows.add(reader.next());
+      }
+      // rows ahead of the cursor that are deleted before they are reached are never returned
+      for (int i = 10; i < 20; i++) {
+        deleter.delete(row(i));
+        deleted.add(i);
+      }
+      // rows behind the cursor can be deleted without disturbing the scan
+      deleter.delete(row(0));
+      deleted.add(0);
+      final CountDownLatch started = new CountDownLatch(1);
+      final Future<?> deletes = executor.submit(() -> {
+        started.countDown();
+        for (int i = 20; i < ROWS; i += 3) {
+          deleter.delete(row(i));
+          deleted.add(i);
+        }
+      });
+      started.await();
+      reader.forEachRemaining(rows::add);
+      deletes.get(30, TimeUnit.SECONDS);
+    }
+    final Set<Integer> seen = new HashSet<>();
+    int previous = -1;
+    for (final GeoWaveRow row : rows) {
+      final int i = index(row);
+      assertTrue("rows are returned in order without duplicates", i > previous);
+      previous = i;
+      seen.add(i);
+    }
+    // the skip list iterator has already read ahead to the row after the cursor, so that one may
+    // still be returned
+    for (int i = 11; i < 20; i++) {
+      assertFalse(seen.contains(i));
+    }
+    for (int i = 0; i < ROWS; i++) {
+      if (!deleted.contains(i)) {
+        assertTrue("row " + i + " was never deleted", seen.contains(i));
+      }
+    }
+
+    try (RowReader<GeoWaveRow> reader = createReader(null)) {
+      int count = 0;
+      while (reader.hasNext()) {
+        assertFalse(deleted.contains(index(reader.next())));
+        count++;
+      }
+      assertEquals(ROWS - deleted.size(), count);
+    }
+  }
+
+  @Test
+  public void testDeleteMissingRow() throws Exception {
+    try (RowDeleter deleter = operations.createRowDeleter(index.getName(), null, null)) {
+      deleter.delete(row(0));
+    }
+    try (RowReader<GeoWaveRow> reader = createReader(null)) {
+      assertFalse(reader.hasNext());
+    }
+    writeRows(0, ROWS / 2);
+    try (RowReader<GeoWaveRow> reader = createReader(null)) {
+      final GeoWaveRow row = reader.next();
+      assertArrayEquals(sortKey(0), row.getSortKey());
+      assertArrayEquals(sortKey(ROWS / 2), reader.next().getSortKey());
+      assertFalse(reader.hasNext());
+    }
+    assertFalse(operations.indexExists("missing"));
+  }
+
+  private RowReader<GeoWaveRow> createReader(final ByteArrayRange range) {
+    final ReaderParamsBuilder<GeoWaveRow> builder =
+        new ReaderParamsBuilder<>(
+            index,
+            null,
+            null,
+            GeoWaveRowIteratorTransformer.NO_OP_TRANSFORMER);
+    if (range != null) {
+      builder.queryRanges(
+          new QueryRanges(
+              Collections.singleton(
+                  new SinglePartitionQueryRanges(PARTITION, Collections.singleton(range)))));
+    }
+    return operations.createReader(builder.build());
+  }
+
+  private void writeRows(final int start, final int step) {
+    final RowWriter writer = operations.createWriter(index, null);
+    for (int i = start; i < ROWS; i += step) {
+      writer.write(row(i));
+    }
+  }
+
+  /**
+   * Assert that the scanned rows are in order without duplicates and include every row that existed
+   * before the scan started (the even rows) within the range.
+   */
+  private static void assertScanned(final List<GeoWaveRow> rows, final int first, final int last) {
+    final Set<Integer> seen = new HashSet<>();
+    int previous = -1;
+    for (final GeoWaveRow row : rows) {
+      final int i = index(row);
+      assertTrue(i > previous);
+      assertTrue((i >= first) && (i <= last));
+      assertArrayEquals(value(i), row.getFieldValues()[0].getValue());
+      previous = i;
+      seen.add(i);
+    }
+    for (int i = first + (first % 2); i <= last; i += 2) {
+      assertTrue("row " + i + " existed before the scan", seen.contains(i));
+    }
+  }
+
+  private static GeoWaveRow row(final int i) {
+    return new GeoWaveRowImpl(
+        new GeoWaveKeyImpl(value(i), (short) 1, PARTITION, sortKey(i), 0),
+        new GeoWaveValue[] {new GeoWaveValueImpl(new byte[] {1}, new byte[0], value(i))});
+  }
+
+  private static int index(final GeoWaveRow row) {
+    return ((row.getSortKey()[0] & 0xFF) << 8) | (row.getSortKey()[1] & 0xFF);
+  }
+
+  private static byte[] sortKey(final int i) {
+    return new byte[] {(byte) (i >> 8), (byte) i};
+  }
+
+  private static byte[] value(final int i) {
+    return ("row-" + i).getBytes();
+  }
+}
@@ -45,5 +45,16 @@ public class MemoryStoreUtilsTest {
 
     assertFalse(
         MemoryStoreUtils.isAuthorized("xxx".getBytes(), new String[] {"aaa", "dddd", "ccc"}));
+
+    // parsed expressions are cached so evaluate the same visibility against other authorizations
+    assertTrue(MemoryStoreUtils.isAuthorized("aaa&ccc".getBytes(), new String[] {"ccc", "aaa"}));
+    assertFalse(MemoryStoreUtils.isAuthorized("aaa&ccc".getBytes(), new String[] {"ccc"}));
+  }
+
+  @Test
+  public void testInvalidVisibility() {
+    assertFalse(MemoryStoreUtils.isAuthorized("aaa&|ccc".getBytes(), new String[] {"aaa", "ccc"}));
+    // the invalid expression is cached and still not authorized
+    assertFalse(MemoryStoreUtils.isAuthorized("aaa&|ccc".getBytes(), new String[] {"aaa", "ccc"}));
   }
 }
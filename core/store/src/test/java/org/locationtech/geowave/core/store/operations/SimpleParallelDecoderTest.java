@@ -0,0 +1,116 @@
+/**
+ * Copyright (c) 2013-2019 Contributors to the Eclipse Foundation
+ *
+ * <p> See the NOTICE file distributed with this work for additional information regarding copyright
+ * ownership. All rights reserved. This program and the accompanying materials are made available
+ * under the terms of the Apache License, Version 2.0 which accompanies this distribution and is
+ * available at http://www.apache.org/licenses/LICENSE-2.0.txt
+ */
+package org.locationtech.geowave.core.store.operations;
+
+import static org.junit.Assert.assertEquals;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+import org.locationtech.geowave.core.store.entities.GeoWaveKeyImpl;
+import org.locationtech.geowave.core.store.entities.GeoWaveRow;
+import org.locationtech.geowave.core.store.entities.GeoWaveRowImpl;
+import org.locationtech.geowave.core.store.entities.GeoWaveRowIteratorTransformer;
+import org.locationtech.geowave.core.store.entities.GeoWaveValue;
+
+public class SimpleParallelDecoderTest {
+  private static final int ROWS = 1000;
+
+  @Test
+  public void testDecode() throws Exception {
+    try (SimpleParallelDecoder<GeoWaveRow> decoder =
+        new SimpleParallelDecoder<>(
+            GeoWaveRowIteratorTransformer.NO_OP_TRANSFORMER,
+            new RowIterator(ROWS, null))) {
+      decoder.startDecode();
+      assertEquals(ROWS, count(decoder));
+    }
+  }
+
+  @Test
+  public void testMoreDecodersThanPoolThreads() throws Exception {
+    final CountDownLatch release = new CountDownLatch(1);
+    // every thread of the shared pool would be taken by row providers waiting on sources that
+    // are not released until the last decoder has been consumed
+    final int poolSize = ParallelDecoder.getDecodePool().getMaximumPoolSize();
+    final List<SimpleParallelDecoder<GeoWaveRow>> waitingDecoders = new ArrayList<>();
+    for (int i = 0; i <= poolSize; i++) {
+      final SimpleParallelDecoder<GeoWaveRow> decoder =
+          new SimpleParallelDecoder<>(
+              GeoWaveRowIteratorTransformer.NO_OP_TRANSFORMER,
+              new RowIterator(ROWS, release));
+      decoder.startDecode();
+      waitingDecoders.add(decoder);
+    }
+    final ExecutorService executor = Executors.newSingleThreadExecutor();
+    try (SimpleParallelDecoder<GeoWaveRow> decoder =
+        new SimpleParallelDecoder<>(
+            GeoWaveRowIteratorTransformer.NO_OP_TRANSFORMER,
+            new RowIterator(ROWS, null))) {
+      decoder.startDecode();
+      final Future<Integer> count = executor.submit(() -> count(decoder));
+      assertEquals(ROWS, count.get(30, TimeUnit.SECONDS).intValue());
+    } finally {
+      release.countDown();
+      executor.shutdownNow();
+    }
+    for (final SimpleParallelDecoder<GeoWaveRow> decoder : waitingDecoders) {
+      try {
+        assertEquals(ROWS, count(decoder));
+      } finally {
+        decoder.close();
+      }
+    }
+  }
+
+  private static int count(final Iterator<GeoWaveRow> it) {
+    int count = 0;
+    while (it.hasNext()) {
+      it.next();
+      count++;
+    }
+    return count;
+  }
+
+  private static class RowIterator implements Iterator<GeoWaveRow> {
+    private final int rows;
+    private final CountDownLatch release;
+    private int next = 0;
+
+    private RowIterator(final int rows, final CountDownLatch release) {
+      this.rows = rows;
+      this.release = release;
+    }
+
+    @Override
+    public boolean hasNext() {
+      if (release != null) {
+        try {
+          release.await();
+        } catch (final InterruptedException e) {
+          return false;
+        }
+      }
+      return next < rows;
+    }
+
+    @Override
+    public GeoWaveRow next() {
+      final byte[] id = new byte[] {(byte) (next >>> 8), (byte) next++};
+      return new GeoWaveRowImpl(
+          new GeoWaveKeyImpl(id, (short) 0, new byte[0], id, 0),
+          new GeoWaveValue[0]);
+    }
+  }
+}
@@ -0,0 +1,134 @@
+/**
+ * Copyright (c) 2013-2019 Contributors to the Eclipse Foundation
+ *
+ * <p> See the NOTICE file distributed with this work for additional information regarding copyright
+ * ownership. All rights reserved. This program and the accompanying materials are made available
+ * under the terms of the Apache License, Version 2.0 which accompanies this distribution and is
+ * available at http://www.apache.org/licenses/LICENSE-2.0.txt
+ */
+package org.locationtech.geowave.core.store.query.aggregate;
+
+import static org.junit.Assert.assertEquals;
+import java.util.Arrays;
+import org.junit.Before;
+import org.junit.Test;
+import org.locationtech.geowave.core.store.StoreFactoryFamilySpi;
+import org.locationtech.geowave.core.store.adapter.InternalAdapterStore;
+import org.locationtech.geowave.core.store.adapter.MockComponents;
+import org.locationtech.geowave.core.store.adapter.statistics.CountDataStatistics;
+import org.locationtech.geowave.core.store.adapter.statistics.DataStatisticsStore;
+import org.locationtech.geowave.core.store.api.AggregationQuery;
+import org.locationtech.geowave.core.store.api.AggregationQueryBuilder;
+import org.locationtech.geowave.core.store.api.DataStore;
+import org.locationtech.geowave.core.store.api.DataTypeAdapter;
+import org.locationtech.geowave.core.store.api.Index;
+import org.locationtech.geowave.core.store.api.QueryConstraintsFactory;
+import org.locationtech.geowave.core.store.api.Writer;
+import org.locationtech.geowave.core.store.index.IndexImpl;
+import org.locationtech.geowave.core.store.memory.MemoryRequiredOptions;
+import org.locationtech.geowave.core.store.memory.MemoryStoreFactoryFamily;
+
+public class CountAggregationTest {
+  private static final String TYPE_1 = "type1";
+  private static final String TYPE_2 = "type2";
+  // the count statistic of the first type is inflated by this much so that results answered from
+  // the statistic can be told apart from results of a scan
+  private static final int STATISTIC_OFFSET = 100;
+
+  private DataStore dataStore;
+  private DataStatisticsStore statsStore;
+  private InternalAdapterStore internalAdapterStore;
+  private DataTypeAdapter<Integer> adapter1;
+
+  @Before
+  public void createStore() {
+    final StoreFactoryFamilySpi storeFamily = new MemoryStoreFactoryFamily();
+    final MemoryRequiredOptions options = new MemoryRequiredOptions();
+    options.setGeoWaveNamespace("test_" + getClass().getName() + "_" + System.nanoTime());
+    dataStore = storeFamily.getDataStoreFactory().createStore(options);
+    statsStore = storeFamily.getDataStatisticsStoreFactory().createStore(options);
+    internalAdapterStore = storeFamily.getInternalAdapterStoreFactory().createStore(options);
+    adapter1 = new MockComponents.MockAbstractDataAdapter(TYPE_1);
+    final DataTypeAdapter<Integer> adapter2 = new MockComponents.MockAbstractDataAdapter(TYPE_2);
+    dataStore.addType(adapter1, createIndex("tm1"));
+    dataStore.addType(adapter2, createIndex("tm2"));
+    write(TYPE_1, 10, 20, 30);
+    write(TYPE_2, 40, 50);
+
+    final CountDataStatistics<Integer> offset =
+        new CountDataStatistics<>(internalAdapterStore.getAdapterId(TYPE_1));
+    for (int i = 0; i < STATISTIC_OFFSET; i++) {
+      offset.entryIngested(null);
+    }
+    statsStore.incorporateStatistics(offset);
+  }
+
+  private static Index createIndex(final String modelId) {
+    return new IndexImpl(
+        new MockComponents.MockIndexStrategy(),
+        new MockComponents.TestIndexModel(modelId));
+  }
+
+  private void write(final String typeName, final Integer... values) {
+    try (Writer<Integer> writer = dataStore.createWriter(typeName)) {
+      Arrays.stream(values).forEach(writer::write);
+    }
+  }
+
+  private long count(final AggregationQuery<?, ?, ?> query) {
+    return (Long) dataStore.aggregate(query);
+  }
+
+  @Test
+  public void testCountFromStatistics() {
+    assertEquals(
+        3L + STATISTIC_OFFSET,
+        count(AggregationQueryBuilder.newBuilder().count(TYPE_1).build()));
+    assertEquals(2L, count(AggregationQueryBuilder.newBuilder().count(TYPE_2).build()));
+  }
+
+  @Test
+  public void testMultipleTypesMerged() {
+    assertEquals(
+        5L + STATISTIC_OFFSET,
+        count(AggregationQueryBuilder.newBuilder().count(TYPE_1, TYPE_2).build()));
+    // no type names count every type
+    assertEquals(
+        5L + STATISTIC_OFFSET,
+        count(AggregationQueryBuilder.newBuilder().count().build()));
+  }
+
+  @Test
+  public void testConstrainedQueryScans() {
+    final QueryConstraintsFactory constraints =
+        AggregationQueryBuilder.newBuilder().constraintsFactory();
+    assertEquals(
+        2L,
+        count(
+            AggregationQueryBuilder.newBuilder().count(TYPE_1).constraints(
+                constraints.dataIds(adapter1.getDataId(10), adapter1.getDataId(30))).build()));
+    // an explicit unconstrained query is still answered from the statistic
+    assertEquals(
+        3L + STATISTIC_OFFSET,
+        count(
+            AggregationQueryBuilder.newBuilder().count(TYPE_1).constraints(
+                constraints.noConstraints()).build()));
+  }
+
+  @Test
+  public void testLimitedQueryScans() {
+    assertEquals(3L, count(AggregationQueryBuilder.newBuilder().count(TYPE_1).limit(10).build()));
+  }
+
+  @Test
+  public void testMissingStatisticScans() {
+    statsStore.removeStatistics(
+        internalAdapterStore.getAdapterId(TYPE_2),
+        CountDataStatistics.STATS_TYPE);
+    // the type without the statistic is scanned, the other is still answered from its statistic
+    assertEquals(2L, count(AggregationQueryBuilder.newBuilder().count(TYPE_2).build()));
+    assertEquals(
+        3L + STATISTIC_OFFSET,
+        count(AggregationQueryBuilder.newBuilder().count(TYPE_1).build()));
+  }
+}
@@ -0,0 +1,62 @@
+/**
+ * Copyright (c) 2013-2019 Contributors to the Eclipse Foundation
+ *
+ * <p> See the NOTICE file distributed with this work for additional information regarding copyright
+ * ownership. All rights reserved. This program and the accompanying materials are made available
+ * under the terms of the Apache License, Version 2.0 which accompanies this distribution and is
+ * available at http://www.apache.org/licenses/LICENSE-2.0.txt
+ */
+package org.locationtech.geowave.core.store.query.aggregate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import java.util.Random;
+import org.junit.Test;
+
+public class NumericSummaryTest {
+
+  @Test
+  public void testMergeMatchesSingleSummary() {
+    final Random random = new Random(3);
+    final NumericSummary all = new NumericSummary(true);
+    final NumericSummary first = new NumericSummary(true);
+    final NumericSummary second = new NumericSummary(true);
+    for (int i = 0; i < 1000; i++) {
+      final double value = (random.nextGaussian() * 10) + 50;
+      all.add(value);
+      ((i % 3) == 0 ? first : second).add(value);
+    }
+    final NumericSummary merged = new NumericSummary(true);
+    merged.fromBinary(first.toBinary());
+    final NumericSummary secondCopy = new NumericSummary();
+    secondCopy.fromBinary(second.toBinary());
+    merged.merge(secondCopy);
+
+    assertEquals(all.getCount(), merged.getCount());
+    assertEquals(all.getSum(), merged.getSum(), 1E-6);
+    assertEquals(all.getMin(), merged.getMin(), 0);
+    assertEquals(all.getMax(), merged.getMax(), 0);
+    assertEquals(all.getMean(), merged.getMean(), 1E-9);
+    assertEquals(all.getVariance(), merged.getVariance(), 1E-6);
+    assertEquals(all.getPercentile(0.5), merged.getPercentile(0.5), 1);
+  }
+
+  @Test
+  public void testGroupsMerge() {
+    final NumericSummaryGroups groups1 = new NumericSummaryGroups();
+    groups1.getOrCreateGroup("a", false).add(1);
+    groups1.getOrCreateGroup("b", false).add(2);
+    final NumericSummaryGroups groups2 = new NumericSummaryGroups();
+    groups2.getOrCreateGroup("a", false).add(3);
+    final NumericSummaryGroups merged = new NumericSummaryGroups();
+    merged.fromBinary(groups1.toBinary());
+    merged.merge(groups2);
+
+    assertEquals(2, merged.getGroups().size());
+    assertEquals(2, merged.getGroup("a").getCount());
+    assertEquals(2, merged.getGroup("a").getMean(), 0);
+    assertEquals(1, merged.getGroup("a").getVariance(), 0);
+    assertEquals(1, merged.getGroup("b").getCount());
+    assertTrue(Double.isNaN(merged.getGroup("b").getPercentile(0.5)));
+  }
+}
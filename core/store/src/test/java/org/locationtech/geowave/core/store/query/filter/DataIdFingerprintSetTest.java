@@ -0,0 +1,127 @@
+/**
+ * Copyright (c) 2013-2019 Contributors to the Eclipse Foundation
+ *
+ * <p> See the NOTICE file distributed with this work for additional information regarding copyright
+ * ownership. All rights reserved. This program and the accompanying materials are made available
+ * under the terms of the Apache License, Version 2.0 which accompanies this distribution and is
+ * available at http://www.apache.org/licenses/LICENSE-2.0.txt
+ */
+package org.locationtech.geowave.core.store.query.filter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+import org.locationtech.geowave.core.index.StringUtils;
+
+public class DataIdFingerprintSetTest {
+
+  @Test
+  public void testUnknownRowCount() {
+    final DataIdFingerprintSet set = new DataIdFingerprintSet(16 * 1024 * 1024);
+    for (int i = 0; i < 10000; i++) {
+      assertTrue(set.add((short) 1, id(i), 0));
+    }
+    for (int i = 0; i < 10000; i++) {
+      assertFalse(set.add((short) 1, id(i), 0));
+      assertTrue(set.add((short) 2, id(i), 0));
+    }
+    assertEquals(20000, set.size());
+  }
+
+  @Test
+  public void testForgetsCompletedEntries() {
+    final DataIdFingerprintSet set = new DataIdFingerprintSet(16 * 1024 * 1024);
+    for (int i = 0; i < 10000; i++) {
+      // three rows per entry
+      assertTrue(set.add((short) 1, id(i), 3));
+    }
+    assertEquals(10000, set.size());
+    for (int i = 0; i < 10000; i++) {
+      assertFalse(set.add((short) 1, id(i), 3));
+    }
+    assertEquals(10000, set.size());
+    for (int i = 0; i < 10000; i += 2) {
+      assertFalse(set.add((short) 1, id(i), 3));
+    }
+    assertEquals(5000, set.size());
+    // removals must not lose the remaining entries
+    for (int i = 1; i < 10000; i += 2) {
+      assertFalse(set.add((short) 1, id(i), 3));
+    }
+    assertEquals(0, set.size());
+    // entries without duplicates are never held
+    assertTrue(set.add((short) 1, id(0), 1));
+    assertEquals(0, set.size());
+  }
+
+  @Test
+  public void testMemoryCap() {
+    final DataIdFingerprintSet set = new DataIdFingerprintSet(64 * 1024);
+    for (int i = 0; i < 100000; i++) {
+      assertTrue(set.add((short) 1, id(i), 0));
+    }
+    assertTrue(set.size() < 100000);
+  }
+
+  @Test
+  public void testSharedMemoryBudget() {
+    final DataIdFingerprintSet.MemoryBudget budget =
+        new DataIdFingerprintSet.MemoryBudget(1024 * 1024);
+    // the sets are allowed more than the whole budget on their own
+    final DataIdFingerprintSet large = new DataIdFingerprintSet(budget, 16 * 1024 * 1024);
+    final DataIdFingerprintSet small = new DataIdFingerprintSet(budget, 16 * 1024 * 1024);
+    for (int i = 0; i < 50000; i++) {
+      large.add((short) 1, id(i), 0);
+    }
+    // the large set stops growing once it holds more than its share of the exhausted budget
+    assertTrue(large.size() < 100000);
+    assertTrue(budget.getReservedBytes() <= (1024 * 1024));
+
+    // but a set below its share can still grow, so its duplicates are all filtered
+    for (int i = 0; i < 5000; i++) {
+      assertTrue(small.add((short) 1, id(i), 0));
+    }
+    for (int i = 0; i < 5000; i++) {
+      assertFalse(small.add((short) 1, id(i), 0));
+    }
+    assertEquals(5000, small.size());
+  }
+
+  @Test
+  public void testPerSetLimit() {
+    final DataIdFingerprintSet.MemoryBudget budget =
+        new DataIdFingerprintSet.MemoryBudget(16 * 1024 * 1024);
+    final DataIdFingerprintSet set = new DataIdFingerprintSet(budget, 64 * 1024);
+    for (int i = 0; i < 100000; i++) {
+      assertTrue(set.add((short) 1, id(i), 0));
+    }
+    assertTrue(set.size() < 100000);
+    assertTrue(budget.getReservedBytes() <= (64 * 1024));
+  }
+
+  @Test
+  public void testReleasedSetsReturnMemory() {
+    final DataIdFingerprintSet.MemoryBudget budget =
+        new DataIdFingerprintSet.MemoryBudget(1024 * 1024);
+    final DataIdFingerprintSet first = new DataIdFingerprintSet(budget, 1024 * 1024);
+    for (int i = 0; i < 100000; i++) {
+      first.add((short) 1, id(i), 0);
+    }
+    final DataIdFingerprintSet second = new DataIdFingerprintSet(budget, 1024 * 1024);
+    final long reserved = budget.getReservedBytes();
+    assertTrue(reserved > (512 * 1024));
+
+    // once the first set is collected its memory is returned to the budget
+    first.release();
+    assertTrue(budget.getReservedBytes() < (reserved / 4));
+    for (int i = 0; i < 15000; i++) {
+      assertTrue(second.add((short) 1, id(i), 0));
+    }
+    assertEquals(15000, second.size());
+  }
+
+  private static byte[] id(final int i) {
+    return StringUtils.stringToBinary("feature-" + i);
+  }
+}
@@ -0,0 +1,142 @@
+/**
+ * Copyright (c) 2013-2019 Contributors to the Eclipse Foundation
+ *
+ * <p> See the NOTICE file distributed with this work for additional information regarding copyright
+ * ownership. All rights reserved. This program and the accompanying materials are made available
+ * under the terms of the Apache License, Version 2.0 which accompanies this distribution and is
+ * available at http://www.apache.org/licenses/LICENSE-2.0.txt
+ */
+package org.locationtech.geowave.core.store.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.Test;
+import org.locationtech.geowave.core.store.CloseableIterator;
+
+public class ParallelMergeIteratorTest {
+
+  @Test
+  public void testMergesAllResults() {
+    final AtomicInteger closed = new AtomicInteger();
+    final List<CloseableIterator<Integer>> iterators = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      iterators.add(iterator(i * 5000, 5000, closed));
+    }
+    final Set<Integer> results = new HashSet<>();
+    try (CloseableIterator<Integer> it = new ParallelMergeIterator<>(iterators)) {
+      while (it.hasNext()) {
+        assertTrue(results.add(it.next()));
+      }
+    }
+    assertEquals(50000, results.size());
+    assertEquals(10, closed.get());
+  }
+
+  @Test
+  public void testLazySubQueries() {
+    final AtomicInteger closed = new AtomicInteger();
+    final List<Supplier<CloseableIterator<Integer>>> suppliers = new ArrayList<>();
+    suppliers.add(() -> iterator(0, 10, closed));
+    suppliers.add(() -> null);
+    suppliers.add(() -> iterator(10, 10, closed));
+    int count = 0;
+    try (CloseableIterator<Integer> it = ParallelMergeIterator.issue(suppliers)) {
+      while (it.hasNext()) {
+        it.next();
+        count++;
+      }
+    }
+    assertEquals(20, count);
+    assertEquals(2, closed.get());
+  }
+
+  @Test
+  public void testSubQueryFailure() {
+    final List<Supplier<CloseableIterator<Integer>>> suppliers = new ArrayList<>();
+    suppliers.add(() -> iterator(0, 10, new AtomicInteger()));
+    suppliers.add(() -> {
+      throw new IllegalStateException("failed");
+    });
+    try (CloseableIterator<Integer> it = ParallelMergeIterator.issue(suppliers)) {
+      while (it.hasNext()) {
+        it.next();
+      }
+      fail("the sub-query failure should be propagated");
+    } catch (final RuntimeException e) {
+      assertTrue(e.getCause() instanceof IllegalStateException);
+    }
+  }
+
+  @Test
+  public void testCloseWaitsForRunningSubQueries() {
+    final AtomicInteger opened = new AtomicInteger();
+    final AtomicInteger closed = new AtomicInteger();
+    final List<Supplier<CloseableIterator<Integer>>> suppliers = new ArrayList<>();
+    for (int i = 0; i < (ParallelMergeIterator.getMaxConcurrency() * 3); i++) {
+      final int start = i * 1000;
+      suppliers.add(() -> {
+        opened.incrementAndGet();
+        return slowIterator(start, 1000, closed);
+      });
+    }
+    try (CloseableIterator<Integer> it = ParallelMergeIterator.issue(suppliers)) {
+      assertTrue(it.hasNext());
+      it.next();
+    }
+    // every sub-query that was issued has been closed by the time the merge is closed, and the
+    // remaining sub-queries are never issued
+    assertEquals(opened.get(), closed.get());
+    assertTrue(opened.get() <= ParallelMergeIterator.getMaxConcurrency());
+  }
+
+  private static CloseableIterator<Integer> iterator(
+      final int start,
+      final int count,
+      final AtomicInteger closed) {
+    final List<Integer> values =
+        IntStream.range(start, start + count).boxed().collect(Collectors.toList());
+    return new CloseableIterator.Wrapper<Integer>(values.iterator()) {
+      @Override
+      public void close() {
+        closed.incrementAndGet();
+      }
+    };
+  }
+
+  private static CloseableIterator<Integer> slowIterator(
+      final int start,
+      final int count,
+      final AtomicInteger closed) {
+    final CloseableIterator<Integer> it = iterator(start, count, closed);
+    return new CloseableIterator<Integer>() {
+      @Override
+      public boolean hasNext() {
+        try {
+          Thread.sleep(20);
+        } catch (final InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        return it.hasNext();
+      }
+
+      @Override
+      public Integer next() {
+        return it.next();
+      }
+
+      @Override
+      public void close() {
+        it.close();
+      }
+    };
+  }
+}
@@ -0,0 +1,108 @@
+/**
+ * Copyright (c) 2013-2019 Contributors to the Eclipse Foundation
+ *
+ * <p> See the NOTICE file distributed with this work for additional information regarding copyright
+ * ownership. All rights reserved. This program and the accompanying materials are made available
+ * under the terms of the Apache License, Version 2.0 which accompanies this distribution and is
+ * available at http://www.apache.org/licenses/LICENSE-2.0.txt
+ */
+package org.locationtech.geowave.adapter.vector.cli;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import org.locationtech.geowave.core.cli.annotations.GeowaveOperation;
+import org.locationtech.geowave.core.cli.api.Command;
+import org.locationtech.geowave.core.cli.api.DefaultOperation;
+import org.locationtech.geowave.core.cli.api.OperationParams;
+import org.locationtech.geowave.core.geotime.store.query.api.VectorQueryBuilder;
+import org.locationtech.geowave.core.store.api.DataStore;
+import org.locationtech.geowave.core.store.api.QueryExplanation;
+import org.locationtech.geowave.core.store.cli.remote.options.StoreLoader;
+import com.beust.jcommander.JCommander;
+import com.beust.jcommander.Parameter;
+import com.beust.jcommander.ParameterException;
+import com.beust.jcommander.Parameters;
+
+@GeowaveOperation(name = "cqlexplain", parentOperation = VectorSection.class)
+@Parameters(
+    commandDescription = "Describe the index, ranges and estimated cost of a CQL query without running it")
+public class CQLExplain extends DefaultOperation implements Command {
+
+  @Parameter(description = "<storename>")
+  private List<String> parameters = new ArrayList<>();
+
+  @Parameter(names = "--cql", required = true, description = "CQL Filter to explain")
+  private String cqlStr;
+
+  @Parameter(
+      names = "--indexName",
+      required = false,
+      description = "The name of the index (optional)")
+  private String indexName;
+
+  @Parameter(
+      names = "--typeName",
+      required = false,
+      description = "Optional ability to provide a type name for the data adapter")
+  private String typeName;
+
+  @Override
+  public void execute(final OperationParams params) {
+    // Ensure we have all the required arguments
+    if (parameters.size() != 1) {
+      throw new ParameterException("Requires arguments: <storename>");
+    }
+
+    final String storeName = parameters.get(0);
+
+    // Config file
+    final File configFile = getGeoWaveConfigFile(params);
+
+    // Attempt to load store.
+    final StoreLoader storeOptions = new StoreLoader(storeName);
+    if (!storeOptions.loadFromConfig(configFile)) {
+      throw new ParameterException("Cannot find store name: " + storeOptions.getStoreName());
+    }
+
+    JCommander.getConsole().println(
+        explain(storeOptions.createDataStore(), typeName, indexName, cqlStr).toString());
+  }
+
+  public static QueryExplanation explain(
+      final DataStore dataStore,
+      final String typeName,
+      final String indexName,
+      final String cql) {
+    final VectorQueryBuilder bldr = VectorQueryBuilder.newBuilder();
+    if (typeName != null) {
+      bldr.addTypeName(typeName);
+    }
+    if (indexName != null) {
+      bldr.indexName(indexName);
+    }
+    return dataStore.explain(
+        bldr.constraints(bldr.constraintsFactory().cqlConstraints(cql)).build());
+  }
+
+  public List<String> getParameters() {
+    return parameters;
+  }
+
+  public void setParameters(final String storeName) {
+    parameters = new ArrayList<>();
+    parameters.add(storeName);
+  }
+
+  public void setCqlStr(final String cqlStr) {
+    this.cqlStr = cqlStr;
+  }
+
+  public void setIndexName(final String indexName) {
+    this.indexName = indexName;
+  }
+
+  public void setTypeName(final String typeName) {
+    this.typeName = typeName;
+  }
+}
@@ -19,7 +19,8 @@ public class VectorCLIProvider implements CLIOperationProviderSpi {
           VectorSection.class,
           VectorLocalExportCommand.class,
           VectorMRExportCommand.class,
-          CQLDelete.class};
+          CQLDelete.class,
+          CQLExplain.class};
 
   @Override
   public Class<?>[] getOperations() {
@@ -124,6 +124,7 @@ public class GeoWaveDataStoreComponents {
         bldr.setAuthorizations(transaction.composeAuthorizations()).addTypeName(
             adapter.getTypeName()).constraints(
                 bldr.constraintsFactory().dataIds(adapter.getDataId(feature))).build());
+    gtStore.invalidateQueryCache(adapter.getTypeName());
   }
 
   public void remove(final String fid, final GeoWaveTransaction transaction) throws IOException {
@@ -134,6 +135,7 @@ public class GeoWaveDataStoreComponents {
         bldr.setAuthorizations(transaction.composeAuthorizations()).addTypeName(
             adapter.getTypeName()).constraints(
                 bldr.constraintsFactory().dataIds(StringUtils.stringToBinary(fid))).build());
+    gtStore.invalidateQueryCache(adapter.getTypeName());
   }
 
   @SuppressWarnings("unchecked")
@@ -151,6 +153,8 @@ public class GeoWaveDataStoreComponents {
         fidList.add(feature.getID());
         indexWriter.write(feature, visibilityWriter);
       }
+    } finally {
+      gtStore.invalidateQueryCache(adapter.getTypeName());
     }
   }
 
@@ -163,6 +167,8 @@ public class GeoWaveDataStoreComponents {
     dataStore.addType(adapter, adapterIndices);
     try (Writer<SimpleFeature> indexWriter = dataStore.createWriter(adapter.getTypeName())) {
       indexWriter.write(feature, visibilityWriter);
+    } finally {
+      gtStore.invalidateQueryCache(adapter.getTypeName());
     }
   }
 
@@ -26,6 +26,7 @@ import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Set;
 import java.util.TimeZone;
+import java.util.function.Supplier;
 import org.geotools.data.FeatureReader;
 import org.geotools.data.Query;
 import org.geotools.feature.simple.SimpleFeatureBuilder;
@@ -62,6 +63,7 @@ import org.locationtech.geowave.core.store.api.Index;
 import org.locationtech.geowave.core.store.query.constraints.BasicQueryByClass;
 import org.locationtech.geowave.core.store.query.constraints.BasicQueryByClass.ConstraintsByClass;
 import org.locationtech.geowave.core.store.util.DataStoreUtils;
+import org.locationtech.geowave.core.store.util.ParallelMergeIterator;
 import org.locationtech.jts.geom.Envelope;
 import org.locationtech.jts.geom.Geometry;
 import org.opengis.feature.simple.SimpleFeature;
@@ -158,7 +160,12 @@ public class GeoWaveFeatureReader implements FeatureReader<SimpleFeatureType, Si
       final Filter filter,
       final Integer limit) {
     final CountQueryIssuer countIssuer = new CountQueryIssuer(filter, limit);
-    issueQuery(jtsBounds, timeBounds, countIssuer);
+    try (CloseableIterator<SimpleFeature> it = issueQuery(jtsBounds, timeBounds, countIssuer)) {
+      // the count is kept by the issuer, the iterator only needs to be drained
+      while (it.hasNext()) {
+        it.next();
+      }
+    }
     return countIssuer.count;
   }
 
@@ -187,8 +194,22 @@ public class GeoWaveFeatureReader implements FeatureReader<SimpleFeatureType, Si
       final Geometry jtsBounds,
       final TemporalConstraintsSet timeBounds,
       final QueryIssuer issuer) {
+    final CloseableIterator<SimpleFeature> it = queryIndices(jtsBounds, timeBounds, issuer);
+    if (it == null) {
+      return getNoData();
+    }
+    return interweaveTransaction(issuer.getLimit(), issuer.getFilter(), it);
+  }
 
-    final List<CloseableIterator<SimpleFeature>> results = new ArrayList<>();
+  /**
+   * Query the data store without interweaving the changes of the transaction.
+   *
+   * @return the results, or null if no index was queried
+   */
+  private CloseableIterator<SimpleFeature> queryIndices(
+      final Geometry jtsBounds,
+      final TemporalConstraintsSet timeBounds,
+      final QueryIssuer issuer) {
 
     final BasicQueryByClass query = getQuery(jtsBounds, timeBounds);
 
@@ -201,31 +222,37 @@ public class GeoWaveFeatureReader implements FeatureReader<SimpleFeatureType, Si
         getComponents().getGTstore().getIndexQueryStrategy().requiresStats()
             ? transaction.getDataStatistics()
             : null;
+    final List<Index> indices = new ArrayList<>();
     try (CloseableIterator<Index> indexIt =
         getComponents().getIndices(statsMap, query, spatialOnly)) {
-      while (indexIt.hasNext()) {
-        final Index index = indexIt.next();
-
-        final CloseableIterator<SimpleFeature> it = issuer.query(index, query);
-        if (it != null) {
-          results.add(it);
-        }
+      Iterators.addAll(indices, indexIt);
+    }
+    if ((indices.size() > 1) && issuer.isConcurrent() && ParallelMergeIterator.isEnabled()) {
+      // issue the query of each index concurrently
+      final List<Supplier<CloseableIterator<SimpleFeature>>> subQueries = new ArrayList<>();
+      for (final Index index : indices) {
+        subQueries.add(() -> issuer.query(index, query));
+      }
+      return ParallelMergeIterator.issue(subQueries);
+    }
+    final List<CloseableIterator<SimpleFeature>> results = new ArrayList<>();
+    for (final Index index : indices) {
+      final CloseableIterator<SimpleFeature> it = issuer.query(index, query);
+      if (it != null) {
+        results.add(it);
       }
     }
     if (results.isEmpty()) {
-      return getNoData();
+      return null;
     }
-    return interweaveTransaction(
-        issuer.getLimit(),
-        issuer.getFilter(),
-        new CloseableIteratorWrapper<>(new Closeable() {
-          @Override
-          public void close() throws IOException {
-            for (final CloseableIterator<SimpleFeature> result : results) {
-              result.close();
-            }
-          }
-        }, Iterators.concat(results.iterator())));
+    return new CloseableIteratorWrapper<>(new Closeable() {
+      @Override
+      public void close() throws IOException {
+        for (final CloseableIterator<SimpleFeature> result : results) {
+          result.close();
+        }
+      }
+    }, Iterators.concat(results.iterator()));
   }
 
   protected static boolean hasAtLeastSpatial(final Index index) {
@@ -313,6 +340,12 @@ public class GeoWaveFeatureReader implements FeatureReader<SimpleFeatureType, Si
       super(filter, limit);
     }
 
+    @Override
+    public boolean isConcurrent() {
+      // the count is kept rather than returned, so the indices are queried one after another
+      return false;
+    }
+
     @Override
     public CloseableIterator<SimpleFeature> query(
         final Index index,
@@ -502,6 +535,24 @@ public class GeoWaveFeatureReader implements FeatureReader<SimpleFeatureType, Si
       return components.getDataStore().query(
           bldr.constraints(bldr.constraintsFactory().dataIds(ids)).build());
     }
+    final GeoWaveQueryCache queryCache = components.getGTstore().getQueryCache();
+    if ((queryCache != null) && (limit == null) && !subsetRequested()) {
+      final CloseableIterator<SimpleFeature> it =
+          queryCache.query(
+              getFeatureType(),
+              transaction.composeAuthorizations(),
+              jtsBounds,
+              timeBounds,
+              filter,
+              (cellBounds, cellFilter) -> {
+                final CloseableIterator<SimpleFeature> cellIt =
+                    queryIndices(cellBounds, timeBounds, new BaseIssuer(cellFilter, null));
+                return cellIt == null ? getNoData() : cellIt;
+              });
+      if (it != null) {
+        return interweaveTransaction(limit, filter, it);
+      }
+    }
     return issueQuery(jtsBounds, timeBounds, new BaseIssuer(filter, limit));
   }
 
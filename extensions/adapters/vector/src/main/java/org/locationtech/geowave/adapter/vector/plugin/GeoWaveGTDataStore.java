@@ -81,6 +81,7 @@ public class GeoWaveGTDataStore extends ContentDataStore {
   private final URI featureNameSpaceURI;
   private int transactionBufferSize = 10000;
   private final TransactionsAllocator transactionsAllocator;
+  private final GeoWaveQueryCache queryCache;
 
   public GeoWaveGTDataStore(final GeoWavePluginConfig config) throws IOException {
     listenerManager = new FeatureListenerManager();
@@ -91,6 +92,10 @@ public class GeoWaveGTDataStore extends ContentDataStore {
     indexQueryStrategy = config.getIndexQueryStrategy();
     transactionBufferSize = config.getTransactionBufferSize();
     transactionsAllocator = new MemoryTransactionsAllocator();
+    queryCache =
+        config.getQueryCacheSize() > 0
+            ? new GeoWaveQueryCache(config.getQueryCacheSize(), config.getQueryCacheTTL())
+            : null;
   }
 
   private void init(final GeoWavePluginConfig config) {
@@ -119,6 +124,22 @@ public class GeoWaveGTDataStore extends ContentDataStore {
     return dataStore;
   }
 
+  /** @return the query result cache, or null if it is disabled */
+  public GeoWaveQueryCache getQueryCache() {
+    return queryCache;
+  }
+
+  /**
+   * Discard any cached query results for a type, called whenever its data is modified.
+   *
+   * @param typeName the modified type
+   */
+  public void invalidateQueryCache(final String typeName) {
+    if (queryCache != null) {
+      queryCache.invalidate(typeName);
+    }
+  }
+
   public DataStoreOptions getDataStoreOptions() {
     return dataStoreOptions;
   }
@@ -274,6 +295,7 @@ public class GeoWaveGTDataStore extends ContentDataStore {
   @Override
   public void removeSchema(final String typeName) throws IOException {
     dataStore.removeType(typeName);
+    invalidateQueryCache(typeName);
   }
 
   /**
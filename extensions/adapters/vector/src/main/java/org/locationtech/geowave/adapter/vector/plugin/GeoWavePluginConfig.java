@@ -62,6 +62,8 @@ public class GeoWavePluginConfig {
   protected static final String AUTH_MGT_KEY = "Authorization Management Provider";
   protected static final String AUTH_URL_KEY = "Authorization Data URL";
   protected static final String TRANSACTION_BUFFER_SIZE = "Transaction Buffer Size";
+  protected static final String QUERY_CACHE_SIZE = "Query Cache Size";
+  protected static final String QUERY_CACHE_TTL = "Query Cache TTL";
   public static final String QUERY_INDEX_STRATEGY_KEY = "Query Index Strategy";
   public static final String DEFAULT_QUERY_INDEX_STRATEGY =
       ChooseHeuristicMatchIndexQueryStrategy.NAME;
@@ -78,6 +80,18 @@ public class GeoWavePluginConfig {
           Integer.class,
           "Number of buffered feature insertions before flushing to the datastore.",
           false);
+  private static final Param QUERY_CACHE_SIZE_PARAM =
+      new Param(
+          QUERY_CACHE_SIZE,
+          Integer.class,
+          "Number of features cached to answer overlapping spatial queries, 0 to disable.",
+          false);
+  private static final Param QUERY_CACHE_TTL_PARAM =
+      new Param(
+          QUERY_CACHE_TTL,
+          Integer.class,
+          "Number of seconds cached query results remain valid.",
+          false);
 
   private static final Param FEATURE_NAMESPACE =
       new Param(
@@ -125,6 +139,8 @@ public class GeoWavePluginConfig {
               AUTH_MGT,
               AUTH_URL,
               TRANSACTION_BUFFER_SIZE_PARAM,
+              QUERY_CACHE_SIZE_PARAM,
+              QUERY_CACHE_TTL_PARAM,
               QUERY_INDEX_STRATEGY});
   public static final List<String> BASE_GEOWAVE_PLUGIN_PARAM_KEYS =
       Arrays.asList(
@@ -142,6 +158,8 @@ public class GeoWavePluginConfig {
   private final AuthorizationFactorySPI authorizationFactory;
   private final URL authorizationURL;
   private final Integer transactionBufferSize;
+  private final Integer queryCacheSize;
+  private final Integer queryCacheTTL;
   private final IndexQueryStrategySPI indexQueryStrategy;
   private final AdapterIndexMappingStore adapterIndexMappingStore;
 
@@ -205,6 +223,8 @@ public class GeoWavePluginConfig {
       }
     }
     transactionBufferSize = bufferSizeFromParam;
+    queryCacheSize = getIntegerParam(params, QUERY_CACHE_SIZE, 0);
+    queryCacheTTL = getIntegerParam(params, QUERY_CACHE_TTL, 300);
 
     param = params.get(LOCK_MGT_KEY);
 
@@ -239,6 +259,21 @@ public class GeoWavePluginConfig {
     indexQueryStrategy = getIndexQueryStrategy(params);
   }
 
+  private static Integer getIntegerParam(
+      final Map<String, Serializable> params,
+      final String key,
+      final Integer defaultValue) {
+    final Serializable param = params.get(key);
+    if (param != null) {
+      try {
+        return param instanceof Integer ? (Integer) param : Integer.parseInt(param.toString());
+      } catch (final Exception e) {
+        LOGGER.error("Malformed " + key + " : " + param, e);
+      }
+    }
+    return defaultValue;
+  }
+
   public String getName() {
     return name;
   }
@@ -342,6 +377,14 @@ public class GeoWavePluginConfig {
     return transactionBufferSize;
   }
 
+  public Integer getQueryCacheSize() {
+    return queryCacheSize;
+  }
+
+  public Integer getQueryCacheTTL() {
+    return queryCacheTTL;
+  }
+
   private static Map<String, List<String>> getLockMgtOptions() {
     final List<String> options = new ArrayList<>();
     final Iterator<LockingManagementFactory> it = getLockManagementFactoryList();
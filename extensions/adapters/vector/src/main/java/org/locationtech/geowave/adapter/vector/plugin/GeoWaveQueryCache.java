@@ -0,0 +1,485 @@
+/**
+ * Copyright (c) 2013-2019 Contributors to the Eclipse Foundation
+ *
+ * <p> See the NOTICE file distributed with this work for additional information regarding copyright
+ * ownership. All rights reserved. This program and the accompanying materials are made available
+ * under the terms of the Apache License, Version 2.0 which accompanies this distribution and is
+ * available at http://www.apache.org/licenses/LICENSE-2.0.txt
+ */
+package org.locationtech.geowave.adapter.vector.plugin;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+import org.geotools.factory.CommonFactoryFinder;
+import org.geotools.filter.text.ecql.ECQL;
+import org.geotools.referencing.CRS;
+import org.locationtech.geowave.core.geotime.store.query.TemporalConstraints;
+import org.locationtech.geowave.core.geotime.store.query.TemporalConstraintsSet;
+import org.locationtech.geowave.core.geotime.store.query.TemporalRange;
+import org.locationtech.geowave.core.store.CloseableIterator;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.feature.simple.SimpleFeatureType;
+import org.opengis.filter.And;
+import org.opengis.filter.Filter;
+import org.opengis.filter.FilterFactory2;
+import org.opengis.filter.spatial.BinarySpatialOperator;
+import org.opengis.referencing.crs.CoordinateReferenceSystem;
+import org.opengis.referencing.crs.GeographicCRS;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.google.common.collect.Iterators;
+
+/**
+ * A cache of query results for the GeoTools data store, intended for the heavily overlapping
+ * bounding box queries that tiled map rendering issues for neighbouring tiles and zoom levels.
+ *
+ * <p> Results are cached per cell of a quadtree grid over the extent of the feature type's CRS,
+ * which for a geographic CRS matches the cells of GeoWave's spatial space filling curves. A query
+ * is decomposed into the cells that cover it at a level chosen from the size of the query; cells
+ * that are cached, either directly or by a coarser cell containing them, are answered from memory
+ * and only the remaining cells are queried from the data store. Cells are keyed by the type, the
+ * authorizations, the temporal constraints and the non-spatial remainder of the filter, and the
+ * full filter is always evaluated against the combined results.
+ *
+ * <p> The cache holds committed data only and entries for a type are discarded whenever features of
+ * that type are written or removed through this data store.
+ */
+public class GeoWaveQueryCache {
+  private static final Logger LOGGER = LoggerFactory.getLogger(GeoWaveQueryCache.class);
+
+  private static final FilterFactory2 FILTER_FACTORY = CommonFactoryFinder.getFilterFactory2();
+  private static final GeometryFactory GEOMETRY_FACTORY = new GeometryFactory();
+  private static final Envelope GEOGRAPHIC_EXTENT = new Envelope(-180, 180, -90, 90);
+  private static final Envelope UNKNOWN_EXTENT = new Envelope();
+
+  /** The maximum number of cells a single query is decomposed into */
+  private static final int MAX_CELLS_PER_QUERY = 16;
+  private static final int MAX_LEVEL = 24;
+  /** How many coarser levels are checked for a cached cell that contains a requested cell */
+  private static final int MAX_ANCESTOR_LEVELS = 3;
+  /** A single cell may use at most this fraction of the cache */
+  private static final int MIN_CELLS_PER_CACHE = 16;
+
+  private final Cache<CellKey, List<SimpleFeature>> cells;
+  private final int maxFeaturesPerCell;
+  private final Map<String, AtomicLong> generations = new ConcurrentHashMap<>();
+  private final Map<String, Envelope> extents = new ConcurrentHashMap<>();
+
+  /**
+   * @param maxFeatures the maximum number of features held in memory
+   * @param ttlSeconds how long a cell remains cached after it was read from the data store
+   */
+  public GeoWaveQueryCache(final int maxFeatures, final int ttlSeconds) {
+    cells =
+        Caffeine.newBuilder().maximumWeight(maxFeatures).weigher(
+            GeoWaveQueryCache::weigh).expireAfterWrite(ttlSeconds, TimeUnit.SECONDS).build();
+    maxFeaturesPerCell = Math.max(1, maxFeatures / MIN_CELLS_PER_CACHE);
+  }
+
+  private static int weigh(final CellKey key, final List<SimpleFeature> features) {
+    return features.size() + 1;
+  }
+
+  /**
+   * Discard all cached results for a type, this must be called whenever its data changes.
+   *
+   * @param typeName the type that was modified
+   */
+  public void invalidate(final String typeName) {
+    getGeneration(typeName).incrementAndGet();
+    cells.asMap().keySet().removeIf(k -> k.typeName.equals(typeName));
+  }
+
+  /**
+   * Query through the cache.
+   *
+   * @param featureType the feature type being queried
+   * @param authorizations the authorizations of the query
+   * @param jtsBounds the spatial bounds of the query, in the feature type's CRS
+   * @param timeBounds the temporal bounds of the query
+   * @param filter the full query filter
+   * @param cellQuery queries the data store for the features within a cell geometry that match a
+   *        filter, or null for no filter
+   * @return the features matching the filter, or null if the query can't be answered through the
+   *         cache and should be issued directly
+   */
+  public CloseableIterator<SimpleFeature> query(
+      final SimpleFeatureType featureType,
+      final String[] authorizations,
+      final Geometry jtsBounds,
+      final TemporalConstraintsSet timeBounds,
+      final Filter filter,
+      final BiFunction<Geometry, Filter, CloseableIterator<SimpleFeature>> cellQuery) {
+    if ((jtsBounds == null) || jtsBounds.isEmpty()) {
+      return null;
+    }
+    final Envelope extent = getExtent(featureType);
+    final Envelope queryEnvelope = jtsBounds.getEnvelopeInternal();
+    if (extent.isNull() || !extent.covers(queryEnvelope)) {
+      return null;
+    }
+    final Filter residual = residualFilter(filter);
+    final String typeName = featureType.getTypeName();
+    final String queryKey = queryKey(authorizations, timeBounds, residual);
+    final long generation = getGeneration(typeName).get();
+
+    final int level = getLevel(extent, queryEnvelope);
+    final long minX = cell(extent.getMinX(), extent.getWidth(), queryEnvelope.getMinX(), level);
+    final long maxX = cell(extent.getMinX(), extent.getWidth(), queryEnvelope.getMaxX(), level);
+    final long minY = cell(extent.getMinY(), extent.getHeight(), queryEnvelope.getMinY(), level);
+    final long maxY = cell(extent.getMinY(), extent.getHeight(), queryEnvelope.getMaxY(), level);
+
+    final Map<CellKey, List<SimpleFeature>> cached = new LinkedHashMap<>();
+    final List<CellKey> missing = new ArrayList<>();
+    for (long y = minY; y <= maxY; y++) {
+      for (long x = minX; x <= maxX; x++) {
+        final CellKey key = new CellKey(typeName, queryKey, level, x, y);
+        if (!getCached(key, cached)) {
+          missing.add(key);
+        }
+      }
+    }
+    LOGGER.debug(
+        "Query of '{}' at level {}: {} cached cells, {} cells to query",
+        typeName,
+        level,
+        cached.size(),
+        missing.size());
+
+    final Set<String> emitted = new HashSet<>();
+    final List<CloseableIterator<SimpleFeature>> opened = new ArrayList<>();
+    final List<Iterator<SimpleFeature>> sources = new ArrayList<>();
+    for (final Entry<CellKey, List<SimpleFeature>> entry : cached.entrySet()) {
+      sources.add(deduplicate(entry.getValue().iterator(), entry.getKey(), extent, emitted));
+    }
+    final Iterator<Iterator<SimpleFeature>> fetched =
+        Iterators.transform(missing.iterator(), key -> {
+          final Envelope cellEnvelope = key.getEnvelope(extent);
+          final CloseableIterator<SimpleFeature> it =
+              new CellFillIterator(
+                  key,
+                  generation,
+                  cellQuery.apply(
+                      GEOMETRY_FACTORY.toGeometry(cellEnvelope),
+                      residual == Filter.INCLUDE ? null : residual));
+          opened.add(it);
+          return deduplicate(it, key, extent, emitted);
+        });
+    final Filter finalFilter = filter == null ? Filter.INCLUDE : filter;
+    final Iterator<SimpleFeature> results =
+        Iterators.filter(
+            Iterators.concat(Iterators.concat(sources.iterator()), Iterators.concat(fetched)),
+            f -> finalFilter.evaluate(f));
+    return new CloseableIterator<SimpleFeature>() {
+      @Override
+      public boolean hasNext() {
+        return results.hasNext();
+      }
+
+      @Override
+      public SimpleFeature next() {
+        return results.next();
+      }
+
+      @Override
+      public void close() {
+        for (final CloseableIterator<SimpleFeature> it : opened) {
+          it.close();
+        }
+      }
+    };
+  }
+
+  /**
+   * Find a cached cell that is or contains the given cell.
+   *
+   * @return true if one was found and added to the cached cells
+   */
+  private boolean getCached(final CellKey key, final Map<CellKey, List<SimpleFeature>> cached) {
+    CellKey current = key;
+    for (int i = 0; (i <= MAX_ANCESTOR_LEVELS) && (current != null); i++) {
+      if (cached.containsKey(current)) {
+        return true;
+      }
+      final List<SimpleFeature> features = cells.getIfPresent(current);
+      if (features != null) {
+        cached.put(current, features);
+        return true;
+      }
+      current = current.getParent();
+    }
+    return false;
+  }
+
+  /**
+   * Features that are strictly within a cell can't be returned by any other cell, only those that
+   * cross a cell boundary need to be tracked to avoid returning them twice.
+   */
+  private static Iterator<SimpleFeature> deduplicate(
+      final Iterator<SimpleFeature> features,
+      final CellKey key,
+      final Envelope extent,
+      final Set<String> emitted) {
+    final Envelope cellEnvelope = key.getEnvelope(extent);
+    return Iterators.filter(features, f -> {
+      final Envelope featureEnvelope = getEnvelope(f);
+      if ((featureEnvelope != null)
+          && (featureEnvelope.getMinX() > cellEnvelope.getMinX())
+          && (featureEnvelope.getMaxX() < cellEnvelope.getMaxX())
+          && (featureEnvelope.getMinY() > cellEnvelope.getMinY())
+          && (featureEnvelope.getMaxY() < cellEnvelope.getMaxY())) {
+        return true;
+      }
+      return emitted.add(f.getID());
+    });
+  }
+
+  private static Envelope getEnvelope(final SimpleFeature feature) {
+    final Object geometry = feature.getDefaultGeometry();
+    if (geometry instanceof Geometry) {
+      return ((Geometry) geometry).getEnvelopeInternal();
+    }
+    return null;
+  }
+
+  private AtomicLong getGeneration(final String typeName) {
+    return generations.computeIfAbsent(typeName, k -> new AtomicLong());
+  }
+
+  private Envelope getExtent(final SimpleFeatureType featureType) {
+    return extents.computeIfAbsent(featureType.getTypeName(), k -> {
+      final CoordinateReferenceSystem crs = featureType.getCoordinateReferenceSystem();
+      // GeoWave always orders geographic coordinates longitude first
+      if ((crs == null) || (crs instanceof GeographicCRS)) {
+        return GEOGRAPHIC_EXTENT;
+      }
+      final org.opengis.geometry.Envelope envelope = CRS.getEnvelope(crs);
+      if (envelope == null) {
+        LOGGER.info("Unable to determine the extent of '" + k + "', it will not be cached");
+        return UNKNOWN_EXTENT;
+      }
+      return new Envelope(
+          envelope.getMinimum(0),
+          envelope.getMaximum(0),
+          envelope.getMinimum(1),
+          envelope.getMaximum(1));
+    });
+  }
+
+  /** Choose the finest level at which the query is covered by a small number of cells */
+  private static int getLevel(final Envelope extent, final Envelope queryEnvelope) {
+    final double widthRatio =
+        extent.getWidth() / Math.max(queryEnvelope.getWidth(), Double.MIN_VALUE);
+    final double heightRatio =
+        extent.getHeight() / Math.max(queryEnvelope.getHeight(), Double.MIN_VALUE);
+    int level =
+        Math.max(
+            0,
+            Math.min(
+                MAX_LEVEL,
+                (int) Math.floor(Math.log(Math.min(widthRatio, heightRatio)) / Math.log(2)) + 1));
+    while (level > 0) {
+      final long columns =
+          (cell(extent.getMinX(), extent.getWidth(), queryEnvelope.getMaxX(), level)
+              - cell(extent.getMinX(), extent.getWidth(), queryEnvelope.getMinX(), level)) + 1;
+      final long rows =
+          (cell(extent.getMinY(), extent.getHeight(), queryEnvelope.getMaxY(), level)
+              - cell(extent.getMinY(), extent.getHeight(), queryEnvelope.getMinY(), level)) + 1;
+      if ((columns * rows) <= MAX_CELLS_PER_QUERY) {
+        break;
+      }
+      level--;
+    }
+    return level;
+  }
+
+  private static long cell(
+      final double min,
+      final double span,
+      final double value,
+      final int level) {
+    final long cellsPerDimension = 1L << level;
+    final long cell = (long) Math.floor(((value - min) / span) * cellsPerDimension);
+    return Math.max(0, Math.min(cellsPerDimension - 1, cell));
+  }
+
+  /**
+   * Spatial predicates that are required of every result are dropped from the filter, the cell
+   * bounds take their place when querying a cell. Everything else remains part of the cache key.
+   */
+  private static Filter residualFilter(final Filter filter) {
+    if ((filter == null) || (filter instanceof BinarySpatialOperator)) {
+      return Filter.INCLUDE;
+    }
+    if (filter instanceof And) {
+      final List<Filter> children = new ArrayList<>();
+      for (final Filter child : ((And) filter).getChildren()) {
+        if (!(child instanceof BinarySpatialOperator)) {
+          children.add(child);
+        }
+      }
+      if (children.isEmpty()) {
+        return Filter.INCLUDE;
+      }
+      return children.size() == 1 ? children.get(0) : FILTER_FACTORY.and(children);
+    }
+    return filter;
+  }
+
+  private static String queryKey(
+      final String[] authorizations,
+      final TemporalConstraintsSet timeBounds,
+      final Filter residual) {
+    final StringBuilder key = new StringBuilder();
+    if (authorizations != null) {
+      final String[] sorted = authorizations.clone();
+      Arrays.sort(sorted);
+      key.append(String.join(",", sorted));
+    }
+    key.append('|');
+    if (timeBounds != null) {
+      key.append(timeBounds.isExact());
+      for (final Entry<String, TemporalConstraints> entry : timeBounds.getSet()) {
+        key.append(';').append(entry.getKey());
+        for (final TemporalRange range : entry.getValue().getRanges()) {
+          key.append(',').append(range.getStartTime().getTime()).append('-').append(
+              range.getEndTime().getTime());
+        }
+      }
+    }
+    key.append('|').append(ECQL.toCQL(residual));
+    return key.toString();
+  }
+
+  /** Reads a cell from the data store, caching it if it is fully read and small enough */
+  private class CellFillIterator implements CloseableIterator<SimpleFeature> {
+    private final CellKey key;
+    private final long generation;
+    private final CloseableIterator<SimpleFeature> delegate;
+    private List<SimpleFeature> features = new ArrayList<>();
+
+    private CellFillIterator(
+        final CellKey key,
+        final long generation,
+        final CloseableIterator<SimpleFeature> delegate) {
+      this.key = key;
+      this.generation = generation;
+      this.delegate = delegate;
+    }
+
+    @Override
+    public boolean hasNext() {
+      if (delegate.hasNext()) {
+        return true;
+      }
+      // only cache the cell if nothing was written to the type while it was read
+      if ((features != null) && (getGeneration(key.typeName).get() == generation)) {
+        cells.put(key, features);
+      }
+      features = null;
+      return false;
+    }
+
+    @Override
+    public SimpleFeature next() {
+      final SimpleFeature feature = delegate.next();
+      if (features != null) {
+        if (features.size() < maxFeaturesPerCell) {
+          features.add(feature);
+        } else {
+          features = null;
+        }
+      }
+      return feature;
+    }
+
+    @Override
+    public void close() {
+      features = null;
+      delegate.close();
+    }
+  }
+
+  private static class CellKey {
+    private final String typeName;
+    private final String queryKey;
+    private final int level;
+    private final long x;
+    private final long y;
+
+    private CellKey(
+        final String typeName,
+        final String queryKey,
+        final int level,
+        final long x,
+        final long y) {
+      this.typeName = typeName;
+      this.queryKey = queryKey;
+      this.level = level;
+      this.x = x;
+      this.y = y;
+    }
+
+    private CellKey getParent() {
+      if (level == 0) {
+        return null;
+      }
+      return new CellKey(typeName, queryKey, level - 1, x >> 1, y >> 1);
+    }
+
+    private Envelope getEnvelope(final Envelope extent) {
+      final double cellsPerDimension = 1L << level;
+      final double width = extent.getWidth() / cellsPerDimension;
+      final double height = extent.getHeight() / cellsPerDimension;
+      return new Envelope(
+          extent.getMinX() + (x * width),
+          extent.getMinX() + ((x + 1) * width),
+          extent.getMinY() + (y * height),
+          extent.getMinY() + ((y + 1) * height));
+    }
+
+    @Override
+    public int hashCode() {
+      final int prime = 31;
+      int result = 1;
+      result = (prime * result) + typeName.hashCode();
+      result = (prime * result) + queryKey.hashCode();
+      result = (prime * result) + level;
+      result = (prime * result) + (int) (x ^ (x >>> 32));
+      result = (prime * result) + (int) (y ^ (y >>> 32));
+      return result;
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+      if (this == obj) {
+        return true;
+      }
+      if ((obj == null) || (getClass() != obj.getClass())) {
+        return false;
+      }
+      final CellKey other = (CellKey) obj;
+      return (level == other.level)
+          && (x == other.x)
+          && (y == other.y)
+          && typeName.equals(other.typeName)
+          && queryKey.equals(other.queryKey);
+    }
+  }
+}
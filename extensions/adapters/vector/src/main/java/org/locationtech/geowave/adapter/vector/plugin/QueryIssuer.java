@@ -20,4 +20,12 @@ public interface QueryIssuer {
   Filter getFilter();
 
   Integer getLimit();
+
+  /**
+   * @return true if the queries of several indices may be issued concurrently, which is not the
+   *         case for issuers that keep their result rather than returning it
+   */
+  default boolean isConcurrent() {
+    return true;
+  }
 }
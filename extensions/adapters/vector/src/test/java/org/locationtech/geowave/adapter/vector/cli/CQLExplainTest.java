@@ -0,0 +1,149 @@
+/**
+ * Copyright (c) 2013-2019 Contributors to the Eclipse Foundation
+ *
+ * <p> See the NOTICE file distributed with this work for additional information regarding copyright
+ * ownership. All rights reserved. This program and the accompanying materials are made available
+ * under the terms of the Apache License, Version 2.0 which accompanies this distribution and is
+ * available at http://www.apache.org/licenses/LICENSE-2.0.txt
+ */
+package org.locationtech.geowave.adapter.vector.cli;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Date;
+import java.util.Properties;
+import org.apache.commons.io.FileUtils;
+import org.geotools.data.DataUtilities;
+import org.geotools.feature.simple.SimpleFeatureBuilder;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.locationtech.geowave.adapter.vector.FeatureDataAdapter;
+import org.locationtech.geowave.core.cli.operations.config.options.ConfigOptions;
+import org.locationtech.geowave.core.cli.parser.ManualOperationParams;
+import org.locationtech.geowave.core.geotime.ingest.SpatialDimensionalityTypeProvider.SpatialIndexBuilder;
+import org.locationtech.geowave.core.geotime.ingest.SpatialTemporalDimensionalityTypeProvider.SpatialTemporalIndexBuilder;
+import org.locationtech.geowave.core.store.api.DataStore;
+import org.locationtech.geowave.core.store.api.Index;
+import org.locationtech.geowave.core.store.api.QueryExplanation;
+import org.locationtech.geowave.core.store.api.Writer;
+import org.locationtech.geowave.core.store.cli.remote.options.DataStorePluginOptions;
+import org.locationtech.geowave.core.store.memory.MemoryRequiredOptions;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.feature.simple.SimpleFeatureType;
+import com.beust.jcommander.ParameterException;
+
+public class CQLExplainTest {
+  private static final String STORE_NAME = "explain-store";
+  private static final String TYPE_NAME = "explainType";
+  private static final String CQL = "BBOX(geometry, 0, 0, 10, 10)";
+  private static final GeometryFactory GEOMETRY_FACTORY = new GeometryFactory();
+
+  private File workDir;
+  private File configFile;
+  private ManualOperationParams params;
+  private DataStore dataStore;
+  private Index spatialIndex;
+  private Index spatialTemporalIndex;
+
+  @Before
+  public void setup() throws Exception {
+    workDir = Files.createTempDirectory("CQLExplainTest").toFile();
+    configFile = new File(workDir, "config.properties");
+    params = new ManualOperationParams();
+    params.getContext().put(ConfigOptions.PROPERTIES_FILE_CONTEXT, configFile);
+
+    final MemoryRequiredOptions options = new MemoryRequiredOptions();
+    options.setGeoWaveNamespace("test_" + getClass().getName() + "_" + System.nanoTime());
+    final DataStorePluginOptions storeOptions = new DataStorePluginOptions(options);
+    final Properties props = new Properties();
+    storeOptions.save(props, DataStorePluginOptions.getStoreNamespace(STORE_NAME));
+    ConfigOptions.writeProperties(configFile, props);
+    dataStore = storeOptions.createDataStore();
+
+    final SimpleFeatureType type =
+        DataUtilities.createType(TYPE_NAME, "geometry:Point:srid=4326,start:Date");
+    spatialIndex = new SpatialIndexBuilder().createIndex();
+    spatialTemporalIndex = new SpatialTemporalIndexBuilder().createIndex();
+    dataStore.addType(new FeatureDataAdapter(type), spatialIndex, spatialTemporalIndex);
+    try (Writer<SimpleFeature> writer = dataStore.createWriter(TYPE_NAME)) {
+      for (int i = 0; i < 100; i++) {
+        final SimpleFeatureBuilder builder = new SimpleFeatureBuilder(type);
+        builder.set("geometry", GEOMETRY_FACTORY.createPoint(new Coordinate(i, i / 2.0)));
+        builder.set("start", new Date(i * 1000L));
+        writer.write(builder.buildFeature(Integer.toString(i)));
+      }
+    }
+  }
+
+  @After
+  public void cleanup() throws IOException {
+    dataStore.deleteAll();
+    FileUtils.deleteDirectory(workDir);
+  }
+
+  @Test
+  public void testExplainWithIndex() {
+    final QueryExplanation explanation =
+        CQLExplain.explain(dataStore, TYPE_NAME, spatialIndex.getName(), CQL);
+    assertFalse(explanation.isAggregation());
+    assertEquals(1, explanation.getIndexPlans().size());
+    final QueryExplanation.IndexPlan plan = explanation.getIndexPlans().get(0);
+    assertEquals(TYPE_NAME, plan.getTypeName());
+    assertEquals(spatialIndex.getName(), plan.getIndexName());
+    assertFalse(plan.isFullTableScan());
+    assertTrue(plan.getRangeCount() > 0);
+    assertTrue(plan.isStatisticsAvailable());
+    assertTrue(plan.getEstimatedRows() > 0);
+  }
+
+  @Test
+  public void testExplainChoosesIndex() {
+    // without a temporal constraint the spatial index is the better choice
+    final QueryExplanation explanation = CQLExplain.explain(dataStore, TYPE_NAME, null, CQL);
+    assertEquals(1, explanation.getIndexPlans().size());
+    assertEquals(spatialIndex.getName(), explanation.getIndexPlans().get(0).getIndexName());
+  }
+
+  @Test
+  public void testExecutePrintsPlan() {
+    final CQLExplain command = new CQLExplain();
+    command.setParameters(STORE_NAME);
+    command.setTypeName(TYPE_NAME);
+    command.setIndexName(spatialIndex.getName());
+    command.setCqlStr(CQL);
+    final String output = captureOutput(command);
+    assertTrue(output.startsWith("Query plan:"));
+    assertTrue(
+        output.contains("type '" + TYPE_NAME + "' using index '" + spatialIndex.getName() + "': "));
+  }
+
+  @Test(expected = ParameterException.class)
+  public void testExecuteUnknownStore() {
+    final CQLExplain command = new CQLExplain();
+    command.setParameters("unknown-store");
+    command.setCqlStr(CQL);
+    command.execute(params);
+  }
+
+  private String captureOutput(final CQLExplain command) {
+    final PrintStream out = System.out;
+    final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (PrintStream capture = new PrintStream(bytes, true)) {
+      System.setOut(capture);
+      command.execute(params);
+    } finally {
+      System.setOut(out);
+    }
+    return new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+  }
+}
@@ -0,0 +1,44 @@
+/**
+ * Copyright (c) 2013-2019 Contributors to the Eclipse Foundation
+ *
+ * <p> See the NOTICE file distributed with this work for additional information regarding copyright
+ * ownership. All rights reserved. This program and the accompanying materials are made available
+ * under the terms of the Apache License, Version 2.0 which accompanies this distribution and is
+ * available at http://www.apache.org/licenses/LICENSE-2.0.txt
+ */
+package org.locationtech.geowave.adapter.vector.index;
+
+import java.util.Arrays;
+import java.util.Map;
+import org.locationtech.geowave.core.store.CloseableIterator;
+import org.locationtech.geowave.core.store.adapter.statistics.InternalDataStatistics;
+import org.locationtech.geowave.core.store.adapter.statistics.StatisticsId;
+import org.locationtech.geowave.core.store.api.DataTypeAdapter;
+import org.locationtech.geowave.core.store.api.Index;
+import org.locationtech.geowave.core.store.query.constraints.QueryConstraints;
+import org.opengis.feature.simple.SimpleFeature;
+
+/** A query strategy for tests that queries every index of a type */
+public class ChooseAllIndicesQueryStrategy implements IndexQueryStrategySPI {
+  public static final String NAME = "All Indices";
+
+  @Override
+  public String toString() {
+    return NAME;
+  }
+
+  @Override
+  public CloseableIterator<Index> getIndices(
+      final Map<StatisticsId, InternalDataStatistics<SimpleFeature, ?, ?>> stats,
+      final QueryConstraints query,
+      final Index[] indices,
+      final DataTypeAdapter<?> adapter,
+      final Map<QueryHint, Object> hints) {
+    return new CloseableIterator.Wrapper<>(Arrays.asList(indices).iterator());
+  }
+
+  @Override
+  public boolean requiresStats() {
+    return false;
+  }
+}
@@ -0,0 +1,106 @@
+/**
+ * Copyright (c) 2013-2019 Contributors to the Eclipse Foundation
+ *
+ * <p> See the NOTICE file distributed with this work for additional information regarding copyright
+ * ownership. All rights reserved. This program and the accompanying materials are made available
+ * under the terms of the Apache License, Version 2.0 which accompanies this distribution and is
+ * available at http://www.apache.org/licenses/LICENSE-2.0.txt
+ */
+package org.locationtech.geowave.adapter.vector.plugin;
+
+import static org.junit.Assert.assertEquals;
+import java.io.Serializable;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import org.geotools.data.DataStore;
+import org.geotools.data.DataUtilities;
+import org.geotools.data.DefaultTransaction;
+import org.geotools.data.FeatureReader;
+import org.geotools.data.FeatureWriter;
+import org.geotools.data.Query;
+import org.geotools.data.Transaction;
+import org.geotools.filter.text.ecql.ECQL;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TestName;
+import org.locationtech.geowave.adapter.vector.index.ChooseAllIndicesQueryStrategy;
+import org.locationtech.geowave.core.geotime.ingest.SpatialDimensionalityTypeProvider.SpatialIndexBuilder;
+import org.locationtech.geowave.core.geotime.ingest.SpatialTemporalDimensionalityTypeProvider.SpatialTemporalIndexBuilder;
+import org.locationtech.geowave.core.store.StoreFactoryFamilySpi;
+import org.locationtech.geowave.core.store.api.QueryBuilder;
+import org.locationtech.geowave.core.store.memory.MemoryStoreFactoryFamily;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.feature.simple.SimpleFeatureType;
+
+public class GeoWaveFeatureReaderMultiIndexTest {
+  @Rule
+  public TestName name = new TestName();
+
+  private DataStore dataStore;
+  private SimpleFeatureType type;
+
+  @Before
+  public void setup() throws Exception {
+    final Map<String, Serializable> params = new HashMap<>();
+    params.put("gwNamespace", "test_" + getClass().getName() + "_" + name.getMethodName());
+    params.put(GeoWavePluginConfig.QUERY_INDEX_STRATEGY_KEY, ChooseAllIndicesQueryStrategy.NAME);
+    final StoreFactoryFamilySpi storeFactoryFamily = new MemoryStoreFactoryFamily();
+    new GeoWavePluginConfig(storeFactoryFamily, params).getDataStore().delete(
+        QueryBuilder.newBuilder().build());
+    dataStore = new GeoWaveGTDataStoreFactory(storeFactoryFamily).createNewDataStore(params);
+
+    type =
+        DataUtilities.createType(
+            "GeoWaveFeatureReaderMultiIndexTest",
+            "geometry:Geometry:srid=4326,start:Date,pop:java.lang.Long");
+    ((GeoWaveGTDataStore) dataStore).getIndexStore().addIndex(
+        new SpatialIndexBuilder().createIndex());
+    ((GeoWaveGTDataStore) dataStore).getIndexStore().addIndex(
+        new SpatialTemporalIndexBuilder().createIndex());
+    dataStore.createSchema(type);
+
+    final GeometryFactory factory = new GeometryFactory();
+    final Transaction transaction = new DefaultTransaction();
+    try (FeatureWriter<SimpleFeatureType, SimpleFeature> writer =
+        dataStore.getFeatureWriter(type.getTypeName(), transaction)) {
+      for (int i = 0; i < 10; i++) {
+        final SimpleFeature feature = writer.next();
+        feature.setAttribute("pop", Long.valueOf(i));
+        feature.setAttribute("start", new Date(i * 1000L));
+        feature.setAttribute("geometry", factory.createPoint(new Coordinate(i, i)));
+        writer.write();
+      }
+    }
+    transaction.commit();
+    transaction.close();
+  }
+
+  @Test
+  public void testCount() throws Exception {
+    final Query query = new Query(type.getTypeName(), ECQL.toFilter("pop >= 5"));
+    // the count of each index is aggregated on the querying thread, so it is never missed
+    for (int i = 0; i < 20; i++) {
+      assertEquals(5, dataStore.getFeatureSource(type.getTypeName()).getCount(query));
+    }
+  }
+
+  @Test
+  public void testQuery() throws Exception {
+    final Query query = new Query(type.getTypeName(), ECQL.toFilter("pop >= 5"));
+    final Set<Long> pops = new HashSet<>();
+    try (FeatureReader<SimpleFeatureType, SimpleFeature> reader =
+        dataStore.getFeatureReader(query, Transaction.AUTO_COMMIT)) {
+      while (reader.hasNext()) {
+        pops.add((Long) reader.next().getAttribute("pop"));
+      }
+    }
+    // both indices are queried concurrently, and each has every feature
+    assertEquals(5, pops.size());
+  }
+}
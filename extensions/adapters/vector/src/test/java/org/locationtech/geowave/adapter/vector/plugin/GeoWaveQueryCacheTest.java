@@ -0,0 +1,137 @@
+/**
+ * Copyright (c) 2013-2019 Contributors to the Eclipse Foundation
+ *
+ * <p> See the NOTICE file distributed with this work for additional information regarding copyright
+ * ownership. All rights reserved. This program and the accompanying materials are made available
+ * under the terms of the Apache License, Version 2.0 which accompanies this distribution and is
+ * available at http://www.apache.org/licenses/LICENSE-2.0.txt
+ */
+package org.locationtech.geowave.adapter.vector.plugin;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.stream.Collectors;
+import org.geotools.data.DataUtilities;
+import org.geotools.feature.SchemaException;
+import org.geotools.feature.simple.SimpleFeatureBuilder;
+import org.geotools.filter.text.cql2.CQLException;
+import org.geotools.filter.text.ecql.ECQL;
+import org.junit.Before;
+import org.junit.Test;
+import org.locationtech.geowave.core.geotime.store.query.TemporalConstraintsSet;
+import org.locationtech.geowave.core.store.CloseableIterator;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.feature.simple.SimpleFeatureType;
+import org.opengis.filter.Filter;
+
+public class GeoWaveQueryCacheTest {
+  private final GeometryFactory factory = new GeometryFactory();
+  private SimpleFeatureType type;
+  private final List<SimpleFeature> features = new ArrayList<>();
+  private int cellQueries = 0;
+
+  @Before
+  public void setup() throws SchemaException {
+    type = DataUtilities.createType("cached", "geom:Geometry:srid=4326,pop:java.lang.Long");
+    final SimpleFeatureBuilder builder = new SimpleFeatureBuilder(type);
+    for (int i = 0; i < 100; i++) {
+      builder.set("geom", factory.createPoint(new Coordinate((i % 10) - 5.5, (i / 10) - 5.5)));
+      builder.set("pop", Long.valueOf(i));
+      features.add(builder.buildFeature(Integer.toString(i)));
+    }
+    // a line crossing many cells
+    builder.set(
+        "geom",
+        factory.createLineString(new Coordinate[] {new Coordinate(-5, -5), new Coordinate(5, 5)}));
+    builder.set("pop", Long.valueOf(1000));
+    features.add(builder.buildFeature("line"));
+  }
+
+  @Test
+  public void testOverlappingQueries() throws CQLException {
+    final GeoWaveQueryCache cache = new GeoWaveQueryCache(10000, 60);
+    assertQuery(cache, new Envelope(-6, 0, -6, 0), "pop > 10");
+    final int initialQueries = cellQueries;
+    // the same area is fully cached
+    assertQuery(cache, new Envelope(-6, 0, -6, 0), "pop > 10");
+    assertEquals(initialQueries, cellQueries);
+    // a smaller area within it is answered by coarser cells
+    assertQuery(cache, new Envelope(-3, -1, -3, -1), "pop > 10");
+    assertEquals(initialQueries, cellQueries);
+    // a different attribute filter is cached separately
+    assertQuery(cache, new Envelope(-6, 0, -6, 0), "pop < 50");
+    assertEquals(initialQueries * 2, cellQueries);
+  }
+
+  @Test
+  public void testInvalidate() throws CQLException {
+    final GeoWaveQueryCache cache = new GeoWaveQueryCache(10000, 60);
+    assertQuery(cache, new Envelope(-6, 6, -6, 6), null);
+    final int initialQueries = cellQueries;
+    cache.invalidate(type.getTypeName());
+    features.remove(0);
+    assertQuery(cache, new Envelope(-6, 6, -6, 6), null);
+    assertEquals(initialQueries * 2, cellQueries);
+  }
+
+  @Test
+  public void testUnbounded() {
+    final GeoWaveQueryCache cache = new GeoWaveQueryCache(10000, 60);
+    assertNull(
+        cache.query(type, new String[0], null, new TemporalConstraintsSet(), null, cellQuery()));
+  }
+
+  private void assertQuery(final GeoWaveQueryCache cache, final Envelope envelope, final String cql)
+      throws CQLException {
+    final Geometry bounds = factory.toGeometry(envelope);
+    final String bbox =
+        "BBOX(geom, "
+            + envelope.getMinX()
+            + ","
+            + envelope.getMinY()
+            + ","
+            + envelope.getMaxX()
+            + ","
+            + envelope.getMaxY()
+            + ")";
+    final Filter filter = ECQL.toFilter(cql == null ? bbox : (bbox + " AND " + cql));
+    final Set<String> expected =
+        features.stream().filter(f -> filter.evaluate(f)).map(SimpleFeature::getID).collect(
+            Collectors.toSet());
+    final List<String> actual = new ArrayList<>();
+    try (CloseableIterator<SimpleFeature> it =
+        cache.query(
+            type,
+            new String[] {"a"},
+            bounds,
+            new TemporalConstraintsSet(),
+            filter,
+            cellQuery())) {
+      while (it.hasNext()) {
+        actual.add(it.next().getID());
+      }
+    }
+    assertEquals(expected.size(), actual.size());
+    assertEquals(expected, new HashSet<>(actual));
+  }
+
+  private BiFunction<Geometry, Filter, CloseableIterator<SimpleFeature>> cellQuery() {
+    return (cell, filter) -> {
+      cellQueries++;
+      return new CloseableIterator.Wrapper<>(
+          features.stream().filter(
+              f -> ((Geometry) f.getDefaultGeometry()).intersects(cell)
+                  && ((filter == null) || filter.evaluate(f))).collect(
+                      Collectors.toList()).iterator());
+    };
+  }
+}
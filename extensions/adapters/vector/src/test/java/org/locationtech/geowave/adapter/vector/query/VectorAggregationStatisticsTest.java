@@ -0,0 +1,216 @@
+/**
+ * Copyright (c) 2013-2019 Contributors to the Eclipse Foundation
+ *
+ * <p> See the NOTICE file distributed with this work for additional information regarding copyright
+ * ownership. All rights reserved. This program and the accompanying materials are made available
+ * under the terms of the Apache License, Version 2.0 which accompanies this distribution and is
+ * available at http://www.apache.org/licenses/LICENSE-2.0.txt
+ */
+package org.locationtech.geowave.adapter.vector.query;
+
+import static org.junit.Assert.assertEquals;
+import java.time.Instant;
+import java.util.Date;
+import org.geotools.data.DataUtilities;
+import org.geotools.feature.simple.SimpleFeatureBuilder;
+import org.junit.Before;
+import org.junit.Test;
+import org.locationtech.geowave.adapter.vector.FeatureDataAdapter;
+import org.locationtech.geowave.core.geotime.ingest.SpatialDimensionalityTypeProvider.SpatialIndexBuilder;
+import org.locationtech.geowave.core.geotime.ingest.SpatialTemporalDimensionalityTypeProvider.SpatialTemporalIndexBuilder;
+import org.locationtech.geowave.core.geotime.store.query.ExplicitSpatialQuery;
+import org.locationtech.geowave.core.geotime.store.query.aggregate.VectorTimeRangeAggregation;
+import org.locationtech.geowave.core.geotime.store.query.api.VectorAggregationQueryBuilder;
+import org.locationtech.geowave.core.geotime.store.statistics.FeatureBoundingBoxStatistics;
+import org.locationtech.geowave.core.geotime.store.statistics.FeatureTimeRangeStatistics;
+import org.locationtech.geowave.core.index.persist.Persistable;
+import org.locationtech.geowave.core.store.StoreFactoryFamilySpi;
+import org.locationtech.geowave.core.store.adapter.InternalAdapterStore;
+import org.locationtech.geowave.core.store.adapter.statistics.DataStatisticsStore;
+import org.locationtech.geowave.core.store.api.DataStore;
+import org.locationtech.geowave.core.store.api.Writer;
+import org.locationtech.geowave.core.store.memory.MemoryRequiredOptions;
+import org.locationtech.geowave.core.store.memory.MemoryStoreFactoryFamily;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.feature.simple.SimpleFeatureType;
+import org.threeten.extra.Interval;
+
+/**
+ * Tests the bounding box and time range aggregations that are answered from statistics when they
+ * are unconstrained and scan otherwise.
+ */
+public class VectorAggregationStatisticsTest {
+  private static final String TYPE_1 = "type1";
+  private static final String TYPE_2 = "type2";
+  private static final GeometryFactory GEOMETRY_FACTORY = new GeometryFactory();
+
+  private DataStore dataStore;
+
+  @Before
+  public void setup() throws Exception {
+    final StoreFactoryFamilySpi storeFamily = new MemoryStoreFactoryFamily();
+    final MemoryRequiredOptions options = new MemoryRequiredOptions();
+    options.setGeoWaveNamespace("test_" + getClass().getName() + "_" + System.nanoTime());
+    dataStore = storeFamily.getDataStoreFactory().createStore(options);
+    final DataStatisticsStore statsStore =
+        storeFamily.getDataStatisticsStoreFactory().createStore(options);
+    final InternalAdapterStore internalAdapterStore =
+        storeFamily.getInternalAdapterStoreFactory().createStore(options);
+
+    final SimpleFeatureType type1 =
+        DataUtilities.createType(TYPE_1, "geometry:Point:srid=4326,start:Date");
+    final SimpleFeatureType type2 =
+        DataUtilities.createType(TYPE_2, "geometry:Point:srid=4326,start:Date");
+    dataStore.addType(new FeatureDataAdapter(type1), new SpatialIndexBuilder().createIndex());
+    dataStore.addType(
+        new FeatureDataAdapter(type2),
+        new SpatialTemporalIndexBuilder().createIndex());
+    // the first type covers (0 0, 9 9) and the first 9 seconds
+    try (Writer<SimpleFeature> writer = dataStore.createWriter(TYPE_1)) {
+      for (int i = 0; i < 10; i++) {
+        writer.write(createFeature(type1, i, i, i, i * 1000L));
+      }
+    }
+    // the second type covers (20 -9, 29 0) and 20 to 29 seconds
+    try (Writer<SimpleFeature> writer = dataStore.createWriter(TYPE_2)) {
+      for (int i = 0; i < 10; i++) {
+        writer.write(createFeature(type2, i, 20 + i, -i, 20000L + (i * 1000L)));
+      }
+    }
+
+    // the statistics of the first type are extended by a feature that was never written, so that
+    // results answered from the statistics can be told apart from results of a scan
+    final short adapterId = internalAdapterStore.getAdapterId(TYPE_1);
+    final SimpleFeature statisticsOnly = createFeature(type1, 100, 50, 50, 100000L);
+    final FeatureBoundingBoxStatistics bbox =
+        new FeatureBoundingBoxStatistics(adapterId, "geometry");
+    bbox.entryIngested(statisticsOnly);
+    statsStore.incorporateStatistics(bbox);
+    final FeatureTimeRangeStatistics timeRange = new FeatureTimeRangeStatistics(adapterId, "start");
+    timeRange.entryIngested(statisticsOnly);
+    statsStore.incorporateStatistics(timeRange);
+  }
+
+  private static SimpleFeature createFeature(
+      final SimpleFeatureType type,
+      final int id,
+      final double x,
+      final double y,
+      final long time) {
+    final SimpleFeatureBuilder builder = new SimpleFeatureBuilder(type);
+    builder.set("geometry", GEOMETRY_FACTORY.createPoint(new Coordinate(x, y)));
+    builder.set("start", new Date(time));
+    return builder.buildFeature(Integer.toString(id));
+  }
+
+  private Envelope bbox(final VectorAggregationQueryBuilder<Persistable, Envelope> builder) {
+    return dataStore.aggregate(builder.build());
+  }
+
+  private Interval timeRange(final VectorAggregationQueryBuilder<Persistable, Interval> builder) {
+    return dataStore.aggregate(builder.build());
+  }
+
+  private static Interval interval(final long start, final long end) {
+    return Interval.of(Instant.ofEpochMilli(start), Instant.ofEpochMilli(end));
+  }
+
+  @Test
+  public void testBoundingBoxFromStatistics() {
+    assertEquals(
+        new Envelope(0, 50, 0, 50),
+        bbox(
+            VectorAggregationQueryBuilder.<Persistable, Envelope>newBuilder().bboxOfResults(
+                TYPE_1)));
+    assertEquals(
+        new Envelope(0, 50, 0, 50),
+        bbox(
+            VectorAggregationQueryBuilder.<Persistable, Envelope>newBuilder().bboxOfResultsForGeometryField(
+                TYPE_1,
+                "geometry")));
+  }
+
+  @Test
+  public void testTimeRangeFromStatistics() {
+    assertEquals(
+        interval(0, 100000L),
+        timeRange(
+            VectorAggregationQueryBuilder.<Persistable, Interval>newBuilder().timeRangeOfResults(
+                TYPE_1)));
+    assertEquals(
+        interval(0, 100000L),
+        timeRange(
+            VectorAggregationQueryBuilder.<Persistable, Interval>newBuilder().timeRangeOfResultsForTimeField(
+                TYPE_1,
+                "start")));
+  }
+
+  @Test
+  public void testConstrainedQueryScans() {
+    final ExplicitSpatialQuery everywhere =
+        new ExplicitSpatialQuery(GEOMETRY_FACTORY.toGeometry(new Envelope(-180, 180, -90, 90)));
+    assertEquals(
+        new Envelope(0, 9, 0, 9),
+        bbox(
+            VectorAggregationQueryBuilder.<Persistable, Envelope>newBuilder().bboxOfResults(
+                TYPE_1).constraints(everywhere)));
+    assertEquals(
+        interval(0, 9000L),
+        timeRange(
+            VectorAggregationQueryBuilder.<Persistable, Interval>newBuilder().timeRangeOfResults(
+                TYPE_1).constraints(everywhere)));
+  }
+
+  @Test
+  public void testLimitedQueryScans() {
+    assertEquals(
+        new Envelope(0, 9, 0, 9),
+        bbox(
+            VectorAggregationQueryBuilder.<Persistable, Envelope>newBuilder().bboxOfResults(
+                TYPE_1).limit(100)));
+    assertEquals(
+        interval(0, 9000L),
+        timeRange(
+            VectorAggregationQueryBuilder.<Persistable, Interval>newBuilder().timeRangeOfResults(
+                TYPE_1).limit(100)));
+  }
+
+  @Test
+  public void testMultipleTypesMerged() {
+    assertEquals(
+        new Envelope(0, 50, -9, 50),
+        bbox(
+            VectorAggregationQueryBuilder.<Persistable, Envelope>newBuilder().bboxOfResults(
+                TYPE_1,
+                TYPE_2)));
+    assertEquals(
+        interval(0, 100000L),
+        timeRange(
+            VectorAggregationQueryBuilder.<Persistable, Interval>newBuilder().timeRangeOfResults(
+                TYPE_1,
+                TYPE_2)));
+    assertEquals(
+        interval(0, 100000L),
+        timeRange(
+            VectorAggregationQueryBuilder.<Persistable, Interval>newBuilder().timeRangeOfResults(
+                TYPE_2,
+                TYPE_1)));
+  }
+
+  @Test
+  public void testTimeRangeMerge() {
+    final VectorTimeRangeAggregation aggregation = new VectorTimeRangeAggregation();
+    // the merged range spans the earliest start and the latest end of either range
+    assertEquals(interval(0, 30), aggregation.merge(interval(0, 10), interval(20, 30)));
+    assertEquals(interval(0, 30), aggregation.merge(interval(20, 30), interval(0, 10)));
+    assertEquals(interval(0, 30), aggregation.merge(interval(0, 30), interval(10, 20)));
+    assertEquals(interval(0, 30), aggregation.merge(interval(10, 20), interval(0, 30)));
+    assertEquals(interval(10, 20), aggregation.merge(null, interval(10, 20)));
+    assertEquals(
+        interval(10, 20),
+        aggregation.resultFromBinary(aggregation.resultToBinary(interval(10, 20))));
+  }
+}
@@ -0,0 +1,186 @@
+/**
+ * Copyright (c) 2013-2019 Contributors to the Eclipse Foundation
+ *
+ * <p> See the NOTICE file distributed with this work for additional information regarding copyright
+ * ownership. All rights reserved. This program and the accompanying materials are made available
+ * under the terms of the Apache License, Version 2.0 which accompanies this distribution and is
+ * available at http://www.apache.org/licenses/LICENSE-2.0.txt
+ */
+package org.locationtech.geowave.adapter.vector.query.cql;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import org.geotools.data.DataUtilities;
+import org.geotools.feature.SchemaException;
+import org.geotools.feature.simple.SimpleFeatureBuilder;
+import org.geotools.filter.text.cql2.CQLException;
+import org.geotools.filter.text.ecql.ECQL;
+import org.junit.Before;
+import org.junit.Test;
+import org.locationtech.geowave.core.geotime.store.query.filter.CQLPredicateCompiler;
+import org.locationtech.geowave.core.geotime.store.query.filter.CQLPredicateCompiler.CompiledPredicate;
+import org.locationtech.geowave.core.geotime.store.query.filter.CQLPredicateCompiler.EncodedFeature;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.feature.simple.SimpleFeatureType;
+import org.opengis.filter.Filter;
+
+public class CQLPredicateCompilerTest {
+  private final GeometryFactory factory = new GeometryFactory();
+  private SimpleFeatureType type;
+  private final List<SimpleFeature> features = new ArrayList<>();
+
+  @Before
+  public void setup() throws SchemaException {
+    type =
+        DataUtilities.createType(
+            "geostuff",
+            "geom:Point:srid=4326,pop:java.lang.Long,height:Double,pid:String,when:Date,code:String");
+    final SimpleFeatureBuilder builder = new SimpleFeatureBuilder(type);
+    for (int i = 0; i < 20; i++) {
+      builder.set("geom", factory.createPoint(new Coordinate(i - 10, (i * 2) - 20)));
+      builder.set("pop", (i % 5) == 0 ? null : Long.valueOf(i * 100));
+      builder.set("height", i * 1.5);
+      builder.set("pid", (i % 3) == 0 ? "abc-" + i : "xyz-" + i);
+      builder.set("when", new Date(i * 86400000L));
+      builder.set("code", Integer.toString(i));
+      features.add(builder.buildFeature(Integer.toString(i)));
+    }
+  }
+
+  @Test
+  public void testCompiledMatchesGeoTools() throws CQLException {
+    assertMatches("pop > 500", true);
+    assertMatches("pop <= 800 AND height > 3", true);
+    assertMatches("500 < pop", true);
+    assertMatches("pop = 600", true);
+    assertMatches("pop <> 600", true);
+    assertMatches("height BETWEEN 3 AND 15.5", true);
+    assertMatches("pop IN (100, 300, 1200)", null);
+    assertMatches("pid IN ('abc-3', 'xyz-4')", null);
+    assertMatches("pid LIKE 'abc%'", true);
+    assertMatches("pop IS NULL", true);
+    assertMatches("NOT (pop IS NULL) OR height < 2", true);
+    assertMatches("when AFTER 1970-01-05T00:00:00Z", false);
+    assertMatches("INTERSECTS(geom, POLYGON((-5 -10, 5 -10, 5 10, -5 10, -5 -10)))", true);
+    assertMatches("BBOX(geom, -5, -10, 5, 10)", null);
+    assertMatches("DISJOINT(geom, POLYGON((-5 -10, 5 -10, 5 10, -5 10, -5 -10)))", true);
+    assertMatches("pid LIKE '%-1%' AND pop > 200", false);
+    assertMatches("strToUpperCase(pid) = 'ABC-3'", false);
+  }
+
+  @Test
+  public void testMismatchedLiteralTypes() throws CQLException {
+    // GeoTools compares these numerically, while as strings "9" would be greater than "10"
+    assertMatches("code < 10 AND height >= 0", false);
+    assertMatches("code BETWEEN 2 AND 10 AND height >= 0", false);
+    assertMatches("code IN (1, 12)", null);
+    assertMatches("pop > '500' AND height >= 0", false);
+  }
+
+  @Test
+  public void testUndecodableFeatureDoesNotMatch() throws CQLException {
+    assertUndecodable("NOT (strToUpperCase(pid) = 'ABC-3') AND height >= 0");
+    // pop is null in every fifth feature, which is left to GeoTools
+    assertUndecodable("NOT (pop = 600) AND height >= 0");
+  }
+
+  @Test
+  public void testFallbackOnlyDecodesWhenNeeded() throws CQLException {
+    final CompiledPredicate predicate =
+        CQLPredicateCompiler.compile(ECQL.toFilter("pop > 1000 AND pid LIKE '%-1%'"), type);
+    assertNotNull(predicate);
+    assertFalse(predicate.isFullyCompiled());
+    final SimpleFeature feature = features.get(2);
+    final EncodedFeature wrapped = wrap(feature, predicate);
+    final boolean[] decoded = new boolean[] {false};
+    assertFalse(predicate.test(new EncodedFeature() {
+      @Override
+      public Object getAttribute(final int slot) {
+        return wrapped.getAttribute(slot);
+      }
+
+      @Override
+      public SimpleFeature getFeature() {
+        decoded[0] = true;
+        return feature;
+      }
+    }));
+    assertFalse(decoded[0]);
+  }
+
+  /**
+   * @param fullyCompiled whether the filter is expected to be fully compiled, or null if it depends
+   *        on how GeoTools parses it
+   */
+  private void assertMatches(final String cql, final Boolean fullyCompiled) throws CQLException {
+    final Filter filter = ECQL.toFilter(cql);
+    final CompiledPredicate predicate = CQLPredicateCompiler.compile(filter, type);
+    if (predicate == null) {
+      assertTrue(cql, (fullyCompiled == null) || !fullyCompiled);
+      return;
+    }
+    if (fullyCompiled != null) {
+      assertEquals(cql, fullyCompiled, predicate.isFullyCompiled());
+    }
+    for (final SimpleFeature feature : features) {
+      assertEquals(
+          cql + " [" + feature.getID() + "]",
+          filter.evaluate(feature),
+          predicate.test(wrap(feature, predicate)));
+    }
+  }
+
+  /** Checks that a feature that cannot be decoded only matches if it was never needed */
+  private void assertUndecodable(final String cql) throws CQLException {
+    final Filter filter = ECQL.toFilter(cql);
+    final CompiledPredicate predicate = CQLPredicateCompiler.compile(filter, type);
+    assertNotNull(cql, predicate);
+    int decodes = 0;
+    for (final SimpleFeature feature : features) {
+      final EncodedFeature wrapped = wrap(feature, predicate);
+      final boolean[] decoded = new boolean[] {false};
+      final boolean result = predicate.test(new EncodedFeature() {
+        @Override
+        public Object getAttribute(final int slot) {
+          return wrapped.getAttribute(slot);
+        }
+
+        @Override
+        public SimpleFeature getFeature() {
+          decoded[0] = true;
+          return null;
+        }
+      });
+      if (decoded[0]) {
+        assertFalse(cql + " [" + feature.getID() + "]", result);
+        decodes++;
+      } else {
+        assertEquals(cql + " [" + feature.getID() + "]", filter.evaluate(feature), result);
+      }
+    }
+    assertTrue(cql, decodes > 0);
+  }
+
+  private static EncodedFeature wrap(
+      final SimpleFeature feature,
+      final CompiledPredicate predicate) {
+    return new EncodedFeature() {
+      @Override
+      public Object getAttribute(final int slot) {
+        return feature.getAttribute(predicate.getAttributeNames()[slot]);
+      }
+
+      @Override
+      public SimpleFeature getFeature() {
+        return feature;
+      }
+    };
+  }
+}
@@ -8,8 +8,11 @@
  */
 package org.locationtech.geowave.adapter.vector.query.cql;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
 import java.util.UUID;
 import org.geotools.data.DataUtilities;
@@ -17,17 +20,30 @@ import org.geotools.feature.SchemaException;
 import org.geotools.feature.simple.SimpleFeatureBuilder;
 import org.geotools.filter.FilterFactoryImpl;
 import org.geotools.filter.text.cql2.CQLException;
+import org.geotools.filter.text.ecql.ECQL;
 import org.junit.Before;
 import org.junit.Test;
 import org.locationtech.geowave.adapter.vector.FeatureDataAdapter;
 import org.locationtech.geowave.core.geotime.ingest.SpatialDimensionalityTypeProvider;
 import org.locationtech.geowave.core.geotime.ingest.SpatialOptions;
+import org.locationtech.geowave.core.geotime.ingest.SpatialTemporalDimensionalityTypeProvider;
+import org.locationtech.geowave.core.geotime.ingest.SpatialTemporalOptions;
 import org.locationtech.geowave.core.geotime.store.query.ExplicitCQLQuery;
+import org.locationtech.geowave.core.geotime.store.query.filter.CQLQueryFilter;
 import org.locationtech.geowave.core.index.InsertionIds;
 import org.locationtech.geowave.core.index.SinglePartitionInsertionIds;
+import org.locationtech.geowave.core.index.persist.PersistenceUtils;
 import org.locationtech.geowave.core.store.adapter.AdapterPersistenceEncoding;
 import org.locationtech.geowave.core.store.adapter.IndexedAdapterPersistenceEncoding;
+import org.locationtech.geowave.core.store.adapter.InternalDataAdapter;
+import org.locationtech.geowave.core.store.adapter.InternalDataAdapterWrapper;
+import org.locationtech.geowave.core.store.adapter.LazyReadPersistenceEncoding;
+import org.locationtech.geowave.core.store.adapter.exceptions.AdapterException;
 import org.locationtech.geowave.core.store.api.Index;
+import org.locationtech.geowave.core.store.base.BaseDataStoreUtils;
+import org.locationtech.geowave.core.store.base.RowDecoder;
+import org.locationtech.geowave.core.store.entities.GeoWaveRow;
+import org.locationtech.geowave.core.store.util.DataStoreUtils;
 import org.locationtech.geowave.core.store.query.filter.FilterList;
 import org.locationtech.geowave.core.store.query.filter.QueryFilter;
 import org.locationtech.jts.geom.Coordinate;
@@ -89,6 +105,128 @@ public class CQLQueryFilterTest {
                 adapter.encode(createFeature(), spatialIndex.getIndexModel())).get(0)));
   }
 
+  @Test
+  public void testEncodedRows() throws SchemaException, CQLException, AdapterException {
+    final SimpleFeatureType rowType =
+        DataUtilities.createType(
+            "encoded",
+            "geom:Point:srid=4326,pop:java.lang.Long,height:Double,ratio:Float,pid:String,"
+                + "when:Date");
+    final Index index =
+        new SpatialTemporalDimensionalityTypeProvider().createIndex(new SpatialTemporalOptions());
+    final FeatureDataAdapter rowAdapter = new FeatureDataAdapter(rowType);
+    rowAdapter.init(index);
+    final InternalDataAdapter<SimpleFeature> internalAdapter =
+        new InternalDataAdapterWrapper<>(rowAdapter, (short) 1);
+
+    final SimpleFeatureBuilder builder = new SimpleFeatureBuilder(rowType);
+    final double[] heights = new double[] {0.0, -0.0, Double.NaN, 1.5, -3, 15.5};
+    final float[] ratios = new float[] {0.1f, 0.25f, Float.NaN, -0.0f, 0.3f};
+    final List<SimpleFeature> features = new ArrayList<>();
+    final List<GeoWaveRow> rows = new ArrayList<>();
+    for (int i = 0; i < 24; i++) {
+      builder.set("geom", factory.createPoint(new Coordinate(i - 12, (i * 3) - 36)));
+      builder.set("pop", (i % 5) == 0 ? null : Long.valueOf(i * 100));
+      builder.set("height", heights[i % heights.length]);
+      builder.set("ratio", ratios[i % ratios.length]);
+      builder.set("pid", (i % 3) == 0 ? "abc-" + i : "xyz-" + i);
+      builder.set("when", new Date(i * 86400000L));
+      final SimpleFeature feature = builder.buildFeature(Integer.toString(i));
+      features.add(feature);
+      rows.add(
+          BaseDataStoreUtils.getGeoWaveRows(
+              feature,
+              internalAdapter,
+              index,
+              DataStoreUtils.UNCONSTRAINED_VISIBILITY)[0]);
+    }
+
+    final String[] cqls =
+        new String[] {
+            "pop > 500",
+            "pop = 600 OR pop IS NULL",
+            "height = 0",
+            "height < 0",
+            "height >= -0.0",
+            "height > 3",
+            "height BETWEEN -3 AND 1.5",
+            "ratio = 0.1",
+            "ratio <> 0.25",
+            "ratio < 0.3",
+            "ratio BETWEEN 0.1 AND 0.3",
+            "pid LIKE 'abc%'",
+            "pid = 'xyz-4' OR pid = 'abc-9'",
+            "when AFTER 1970-01-05T00:00:00Z",
+            "when DURING 1970-01-03T00:00:00Z/1970-01-11T00:00:00Z",
+            "when BEFORE 1970-01-08T00:00:00Z AND pop > 200",
+            "INTERSECTS(geom, POLYGON((-5 -20, 5 -20, 5 20, -5 20, -5 -20)))",
+            "BBOX(geom, -5, -20, 5, 20) AND height > 1",
+            "DISJOINT(geom, POLYGON((-5 -20, 5 -20, 5 20, -5 20, -5 -20))) AND ratio = 0.1",
+            "pid LIKE '%-1%' AND pop > 200"};
+    for (final String cql : cqls) {
+      final Filter cqlFilter = ECQL.toFilter(cql);
+      final CQLQueryFilter queryFilter =
+          (CQLQueryFilter) PersistenceUtils.fromBinary(
+              PersistenceUtils.toBinary(new CQLQueryFilter(cqlFilter, rowAdapter)));
+      final RowDecoder<SimpleFeature> decoder =
+          new RowDecoder<>(
+              internalAdapter,
+              null,
+              index,
+              new QueryFilter[] {queryFilter},
+              null,
+              null,
+              true,
+              null,
+              true);
+      for (int i = 0; i < rows.size(); i++) {
+        final String message = cql + " [" + i + "]";
+        final GeoWaveRow row = rows.get(i);
+        final boolean expected = cqlFilter.evaluate(features.get(i));
+
+        // attributes are read lazily, one field at a time
+        assertEquals(
+            message,
+            expected,
+            queryFilter.accept(index.getIndexModel(), lazyEncoding(row, internalAdapter, index)));
+
+        // attributes are read from the fully decoded datasets
+        final LazyReadPersistenceEncoding readEncoding = lazyEncoding(row, internalAdapter, index);
+        assertNotNull(readEncoding.getCommonData());
+        assertNotNull(readEncoding.getAdapterExtendedData());
+        assertEquals(message, expected, queryFilter.accept(index.getIndexModel(), readEncoding));
+
+        // a reused encoding must not leak attributes between accepted and rejected rows
+        final Object decoded = decoder.decode(row);
+        assertEquals(message, expected, decoded != null);
+        if (decoded != null) {
+          assertEquals(message, features.get(i).getID(), ((SimpleFeature) decoded).getID());
+          assertEquals(
+              message,
+              features.get(i).getAttribute("pid"),
+              ((SimpleFeature) decoded).getAttribute("pid"));
+        }
+      }
+    }
+  }
+
+  private static LazyReadPersistenceEncoding lazyEncoding(
+      final GeoWaveRow row,
+      final InternalDataAdapter<?> adapter,
+      final Index index) {
+    return new LazyReadPersistenceEncoding(
+        adapter.getAdapterId(),
+        row.getDataId(),
+        row.getPartitionKey(),
+        row.getSortKey(),
+        row.getNumberOfDuplicates(),
+        adapter,
+        index.getIndexModel(),
+        null,
+        row.getFieldValues(),
+        false);
+  }
+
   private static List<IndexedAdapterPersistenceEncoding> getEncodings(
       final Index index,
       final AdapterPersistenceEncoding encoding) {
@@ -0,0 +1,147 @@
+/**
+ * Copyright (c) 2013-2019 Contributors to the Eclipse Foundation
+ *
+ * <p> See the NOTICE file distributed with this work for additional information regarding copyright
+ * ownership. All rights reserved. This program and the accompanying materials are made available
+ * under the terms of the Apache License, Version 2.0 which accompanies this distribution and is
+ * available at http://www.apache.org/licenses/LICENSE-2.0.txt
+ */
+package org.locationtech.geowave.datastore.rocksdb.cli;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import org.apache.commons.io.FileUtils;
+import org.locationtech.geowave.core.cli.annotations.GeowaveOperation;
+import org.locationtech.geowave.core.cli.api.Command;
+import org.locationtech.geowave.core.cli.api.DefaultOperation;
+import org.locationtech.geowave.core.cli.api.OperationParams;
+import org.locationtech.geowave.core.cli.operations.config.options.ConfigOptions;
+import org.locationtech.geowave.core.store.cli.remote.options.DataStorePluginOptions;
+import org.locationtech.geowave.core.store.cli.remote.options.StoreLoader;
+import org.locationtech.geowave.core.store.operations.MetadataType;
+import org.locationtech.geowave.datastore.rocksdb.config.RocksDBOptions;
+import org.locationtech.geowave.datastore.rocksdb.util.RocksDBClientCache;
+import org.locationtech.geowave.datastore.rocksdb.util.RocksDBColumnFamilyStore;
+import org.locationtech.geowave.datastore.rocksdb.util.RocksDBUtils;
+import org.rocksdb.RocksDBException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import com.beust.jcommander.Parameter;
+import com.beust.jcommander.ParameterException;
+import com.beust.jcommander.Parameters;
+
+/**
+ * Copies each index table of a RocksDB store from its own database directory into a column family
+ * of a single database and updates the store configuration to use column families. Metadata tables
+ * are left as they are.
+ */
+@GeowaveOperation(name = "migrate", parentOperation = RocksDBSection.class)
+@Parameters(
+    commandDescription = "Migrate a RocksDB store from a database directory per table to column families within a single database")
+public class MigrateToColumnFamiliesCommand extends DefaultOperation implements Command {
+  private static final Logger LOGGER =
+      LoggerFactory.getLogger(MigrateToColumnFamiliesCommand.class);
+  private static final long MEGABYTE = 1024L * 1024L;
+
+  @Parameter(description = "<storename>")
+  private List<String> parameters = new ArrayList<>();
+
+  @Parameter(
+      names = "--deleteOriginal",
+      description = "Delete the original table directories after they have been copied")
+  private boolean deleteOriginal = false;
+
+  @Override
+  public void execute(final OperationParams params) throws Exception {
+    if (parameters.size() != 1) {
+      throw new ParameterException("Requires arguments: <storename>");
+    }
+    final String storeName = parameters.get(0);
+    final File configFile = getGeoWaveConfigFile(params);
+    final StoreLoader storeLoader = new StoreLoader(storeName);
+    if (!storeLoader.loadFromConfig(configFile)) {
+      throw new ParameterException("Cannot find store name: " + storeLoader.getStoreName());
+    }
+    final DataStorePluginOptions storeOptions = storeLoader.getDataStorePlugin();
+    if (!(storeOptions.getFactoryOptions() instanceof RocksDBOptions)) {
+      throw new ParameterException("'" + storeName + "' is not a RocksDB store");
+    }
+    final RocksDBOptions options = (RocksDBOptions) storeOptions.getFactoryOptions();
+    if (options.isColumnFamilies()) {
+      LOGGER.warn("'" + storeName + "' already uses column families");
+      return;
+    }
+    final String directory = RocksDBUtils.getDirectory(options);
+    // make sure no cached client in this process holds the directories open
+    RocksDBClientCache.getInstance().close(
+        directory,
+        options.getStoreOptions().isVisibilityEnabled(),
+        options.isCompactOnWrite(),
+        options.getBatchWriteSize(),
+        false,
+        options.getBlockCacheSize() * MEGABYTE,
+        options.getWriteRateLimit() * MEGABYTE);
+    final String[] tables = new File(directory).list((dir, name) -> isIndexTable(dir, name));
+    if (tables != null) {
+      try (RocksDBColumnFamilyStore store =
+          new RocksDBColumnFamilyStore(
+              directory,
+              options.getBlockCacheSize() * MEGABYTE,
+              options.getWriteRateLimit() * MEGABYTE)) {
+        for (final String table : tables) {
+          final String tableDirectory = directory + "/" + table;
+          try {
+            final long count = store.importTable(table, tableDirectory);
+            LOGGER.info("Copied " + count + " rows from '" + table + "'");
+          } catch (final RocksDBException e) {
+            LOGGER.error("Unable to copy table '" + table + "'", e);
+            throw new IOException("Migration of '" + storeName + "' failed", e);
+          }
+        }
+        store.compact();
+      }
+      if (deleteOriginal) {
+        for (final String table : tables) {
+          try {
+            FileUtils.deleteDirectory(new File(directory, table));
+          } catch (final IOException e) {
+            LOGGER.warn("Unable to delete directory '" + table + "'", e);
+          }
+        }
+      }
+    }
+    options.setColumnFamilies(true);
+    final Properties existingProps = getGeoWaveConfigProperties(params);
+    storeOptions.save(existingProps, DataStorePluginOptions.getStoreNamespace(storeName));
+    ConfigOptions.writeProperties(configFile, existingProps);
+  }
+
+  private static boolean isIndexTable(final File dir, final String name) {
+    if (RocksDBColumnFamilyStore.COLUMN_FAMILY_DIRECTORY.equals(name)
+        || Arrays.stream(MetadataType.values()).anyMatch(t -> t.name().equals(name))) {
+      return false;
+    }
+    return new File(dir, name).isDirectory();
+  }
+
+  public List<String> getParameters() {
+    return parameters;
+  }
+
+  public void setParameters(final String storeName) {
+    parameters = new ArrayList<>();
+    parameters.add(storeName);
+  }
+
+  public boolean isDeleteOriginal() {
+    return deleteOriginal;
+  }
+
+  public void setDeleteOriginal(final boolean deleteOriginal) {
+    this.deleteOriginal = deleteOriginal;
+  }
+}
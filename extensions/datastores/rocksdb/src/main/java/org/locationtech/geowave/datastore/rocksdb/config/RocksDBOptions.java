@@ -31,6 +31,23 @@ public class RocksDBOptions extends StoreFactoryOptions {
       names = "--batchWriteSize",
       description = "The size (in records) for each batched write. Anything <= 1 will use synchronous single record writes without batching. Defaults to 1000.")
   private int batchWriteSize = 1000;
+  @Parameter(
+      names = "--readThreads",
+      description = "The maximum number of threads used to read the ranges of a single query in parallel. Anything <= 1 will read ranges serially on the calling thread. Defaults to 8.")
+  private int readThreads = 8;
+  @Parameter(
+      names = "--columnFamilies",
+      description = "Whether to store each index, type and partition as a column family within a single RocksDB database rather than as a separate database directory. Existing stores can be converted with the 'rocksdb migrate' command. Defaults to false.",
+      arity = 1)
+  private boolean columnFamilies = false;
+  @Parameter(
+      names = "--blockCacheSize",
+      description = "The size (in MB) of the block cache shared by all column families. Only applies when using column families. Defaults to 256.")
+  private long blockCacheSize = 256;
+  @Parameter(
+      names = "--writeRateLimit",
+      description = "The maximum rate (in MB per second) of flushes and compactions shared by all column families. Only applies when using column families. Anything <= 0 is unlimited. Defaults to 0.")
+  private long writeRateLimit = 0;
 
 
   @ParametersDelegate
@@ -97,4 +114,36 @@ public class RocksDBOptions extends StoreFactoryOptions {
   public void setBatchWriteSize(final int batchWriteSize) {
     this.batchWriteSize = batchWriteSize;
   }
+
+  public int getReadThreads() {
+    return readThreads;
+  }
+
+  public void setReadThreads(final int readThreads) {
+    this.readThreads = readThreads;
+  }
+
+  public boolean isColumnFamilies() {
+    return columnFamilies;
+  }
+
+  public void setColumnFamilies(final boolean columnFamilies) {
+    this.columnFamilies = columnFamilies;
+  }
+
+  public long getBlockCacheSize() {
+    return blockCacheSize;
+  }
+
+  public void setBlockCacheSize(final long blockCacheSize) {
+    this.blockCacheSize = blockCacheSize;
+  }
+
+  public long getWriteRateLimit() {
+    return writeRateLimit;
+  }
+
+  public void setWriteRateLimit(final long writeRateLimit) {
+    this.writeRateLimit = writeRateLimit;
+  }
 }
@@ -43,32 +43,37 @@ import org.slf4j.LoggerFactory;
 
 public class RocksDBOperations implements MapReduceDataStoreOperations, Closeable {
   private static final Logger LOGGER = LoggerFactory.getLogger(RocksDBOperations.class);
-  private static final boolean READER_ASYNC = true;
+  private static final long MEGABYTE = 1024L * 1024L;
   private final RocksDBClient client;
   private final String directory;
   private final boolean visibilityEnabled;
   private final boolean compactOnWrite;
   private final int batchWriteSize;
+  private final int readThreads;
+  private final boolean columnFamilies;
+  private final long blockCacheSize;
+  private final long writeRateLimit;
 
   public RocksDBOperations(final RocksDBOptions options) {
-    directory =
-        options.getDirectory()
-            + File.separator
-            + ((options.getGeoWaveNamespace() == null)
-                || options.getGeoWaveNamespace().trim().isEmpty()
-                || "null".equalsIgnoreCase(options.getGeoWaveNamespace()) ? "default"
-                    : options.getGeoWaveNamespace());
+    directory = RocksDBUtils.getDirectory(options);
 
     visibilityEnabled = options.getStoreOptions().isVisibilityEnabled();
     compactOnWrite = options.isCompactOnWrite();
     batchWriteSize = options.getBatchWriteSize();
+    readThreads = options.getReadThreads();
+    columnFamilies = options.isColumnFamilies();
+    blockCacheSize = options.getBlockCacheSize() * MEGABYTE;
+    writeRateLimit = options.getWriteRateLimit() * MEGABYTE;
     // a factory method that returns a RocksDB instance
     client =
         RocksDBClientCache.getInstance().getClient(
             directory,
             visibilityEnabled,
             compactOnWrite,
-            batchWriteSize);
+            batchWriteSize,
+            columnFamilies,
+            blockCacheSize,
+            writeRateLimit);
   }
 
   @Override
@@ -123,6 +128,10 @@ public class RocksDBOperations implements MapReduceDataStoreOperations, Closeabl
       final String... additionalAuthorizations) {
     final String prefix = RocksDBUtils.getTablePrefix(typeName, indexName);
     client.close(indexName, typeName);
+    if (client.isColumnFamilies()) {
+      client.deleteTables(prefix);
+      return true;
+    }
     Arrays.stream(new File(directory).list((dir, name) -> name.startsWith(prefix))).forEach(d -> {
       try {
         FileUtils.deleteDirectory(new File(d));
@@ -174,7 +183,7 @@ public class RocksDBOperations implements MapReduceDataStoreOperations, Closeabl
 
   @Override
   public <T> RowReader<T> createReader(final ReaderParams<T> readerParams) {
-    return new RocksDBReader<>(client, readerParams, READER_ASYNC);
+    return new RocksDBReader<>(client, readerParams, readThreads);
   }
 
   @Override
@@ -192,7 +201,7 @@ public class RocksDBOperations implements MapReduceDataStoreOperations, Closeabl
             readerParams.getAdditionalAuthorizations()),
         // intentionally don't run this reader as async because it does
         // not work well while simultaneously deleting rows
-        new RocksDBReader<>(client, readerParams, false));
+        new RocksDBReader<>(client, readerParams, 1));
   }
 
   @Override
@@ -231,6 +240,9 @@ public class RocksDBOperations implements MapReduceDataStoreOperations, Closeabl
         directory,
         visibilityEnabled,
         compactOnWrite,
-        batchWriteSize);
+        batchWriteSize,
+        columnFamilies,
+        blockCacheSize,
+        writeRateLimit);
   }
 }
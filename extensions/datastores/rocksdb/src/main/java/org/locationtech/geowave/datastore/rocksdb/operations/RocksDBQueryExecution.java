@@ -15,7 +15,21 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import org.apache.commons.lang3.tuple.Pair;
@@ -27,6 +41,7 @@ import org.locationtech.geowave.core.store.CloseableIteratorWrapper;
 import org.locationtech.geowave.core.store.entities.GeoWaveRow;
 import org.locationtech.geowave.core.store.entities.GeoWaveRowIteratorTransformer;
 import org.locationtech.geowave.core.store.entities.GeoWaveRowMergingIterator;
+import org.locationtech.geowave.core.store.util.RowConsumer;
 import org.locationtech.geowave.datastore.rocksdb.util.RocksDBClient;
 import org.locationtech.geowave.datastore.rocksdb.util.RocksDBIndexTable;
 import org.locationtech.geowave.datastore.rocksdb.util.RocksDBUtils;
@@ -37,6 +52,7 @@ import com.github.benmanes.caffeine.cache.LoadingCache;
 import com.google.common.collect.Iterators;
 import com.google.common.collect.Streams;
 import com.google.common.primitives.UnsignedBytes;
+import com.google.common.util.concurrent.MoreExecutors;
 
 public class RocksDBQueryExecution<T> {
   private static final Logger LOGGER = LoggerFactory.getLogger(RocksDBQueryExecution.class);
@@ -78,6 +94,13 @@ public class RocksDBQueryExecution<T> {
     }
   }
 
+  private static final int MAX_BOUNDED_READS_ENQUEUED = 10000;
+  private static final int MIN_BOUNDED_READS_ENQUEUED_PER_PARTITION = 100;
+  private static final long ENQUEUE_TIMEOUT_MILLIS = 100;
+  // threads are shared across queries, the number of concurrent reads for any one query is bounded
+  // by its read threads
+  private static final ExecutorService READ_THREADS =
+      MoreExecutors.getExitingExecutorService((ThreadPoolExecutor) Executors.newCachedThreadPool());
   private static ByteArray EMPTY_PARTITION_KEY = new ByteArray();
   private final LoadingCache<ByteArray, RocksDBIndexTable> setCache =
       Caffeine.newBuilder().build(partitionKey -> getTable(partitionKey.getBytes()));
@@ -88,6 +111,7 @@ public class RocksDBQueryExecution<T> {
   private final GeoWaveRowIteratorTransformer<T> rowTransformer;
   private final Predicate<GeoWaveRow> filter;
   private final boolean rowMerging;
+  private final int readThreads;
 
   private final Pair<Boolean, Boolean> groupByRowAndSortByTimePair;
   private final boolean isSortFinalResultsBySortKey;
@@ -100,7 +124,7 @@ public class RocksDBQueryExecution<T> {
       final Collection<SinglePartitionQueryRanges> ranges,
       final Predicate<GeoWaveRow> filter,
       final boolean rowMerging,
-      final boolean async,
+      final int readThreads,
       final Pair<Boolean, Boolean> groupByRowAndSortByTimePair,
       final boolean isSortFinalResultsBySortKey) {
     this.client = client;
@@ -110,6 +134,7 @@ public class RocksDBQueryExecution<T> {
     this.ranges = ranges;
     this.filter = filter;
     this.rowMerging = rowMerging;
+    this.readThreads = readThreads;
     this.groupByRowAndSortByTimePair = groupByRowAndSortByTimePair;
     this.isSortFinalResultsBySortKey = isSortFinalResultsBySortKey;
   }
@@ -130,6 +155,19 @@ public class RocksDBQueryExecution<T> {
         reads.add(new RangeReadInfo(r.getPartitionKey(), range));
       }
     }
+    if (readThreads > 1) {
+      final Map<ByteArray, List<RangeReadInfo>> readsPerPartition = groupByPartition(reads);
+      if (readsPerPartition.size() > 1) {
+        if (!isSortFinalResultsBySortKey) {
+          return executeQueryAsync(readsPerPartition);
+        } else if (readsPerPartition.size() <= readThreads) {
+          // every partition must be read concurrently for the results to be merged in sort
+          // order, otherwise a full read-ahead buffer could block the partition the merge is
+          // waiting on
+          return executeSortedQueryAsync(readsPerPartition);
+        }
+      }
+    }
     return executeQuery(reads);
   }
 
@@ -139,38 +177,187 @@ public class RocksDBQueryExecution<T> {
       reads.sort(ScoreOrderComparator.SINGLETON);
     }
     final List<CloseableIterator<GeoWaveRow>> iterators = reads.stream().map(r -> {
-      ByteArray partitionKey;
-      if ((r.partitionKey == null) || (r.partitionKey.length == 0)) {
-        partitionKey = EMPTY_PARTITION_KEY;
-      } else {
-        partitionKey = new ByteArray(r.partitionKey);
-      }
-      return setCache.get(partitionKey).iterator(r.sortKeyRange);
+      return setCache.get(getPartitionKey(r)).iterator(r.sortKeyRange);
     }).collect(Collectors.toList());
+    // each range iterator is already in sort key order so a k-way merge is sufficient to sort the
+    // final results without reading them all into memory
+    final Iterator<GeoWaveRow> rows =
+        isSortFinalResultsBySortKey ? RocksDBUtils.mergeSortedBySortKey(iterators)
+            : Iterators.concat(iterators.iterator());
     return transformAndFilter(new CloseableIteratorWrapper<>(new Closeable() {
       @Override
       public void close() throws IOException {
         iterators.forEach(i -> i.close());
       }
-    }, Iterators.concat(iterators.iterator())));
+    }, rows));
+  }
+
+  private CloseableIterator<T> executeQueryAsync(
+      final Map<ByteArray, List<RangeReadInfo>> readsPerPartition) {
+    final BlockingQueue<Object> results = new LinkedBlockingQueue<>(MAX_BOUNDED_READS_ENQUEUED);
+    final AtomicBoolean closed = new AtomicBoolean(false);
+    final AtomicInteger partitionCount = new AtomicInteger(readsPerPartition.size());
+    // only allow so many partitions to be read at once for this query, use this semaphore to
+    // control it
+    final Semaphore readSemaphore = new Semaphore(readThreads);
+    CompletableFuture.runAsync(() -> {
+      final Iterator<Entry<ByteArray, List<RangeReadInfo>>> it =
+          readsPerPartition.entrySet().iterator();
+      while (it.hasNext()) {
+        final Entry<ByteArray, List<RangeReadInfo>> partitionReads = it.next();
+        try {
+          readSemaphore.acquire();
+        } catch (final InterruptedException e) {
+          LOGGER.warn("Interrupted while waiting to read partition", e);
+          closed.set(true);
+          // account for this partition and every partition that won't be read
+          checkFinalize(results, partitionCount, closed);
+          it.forEachRemaining(p -> checkFinalize(results, partitionCount, closed));
+          return;
+        }
+        CompletableFuture.runAsync(() -> {
+          try {
+            readPartition(
+                partitionReads.getKey(),
+                partitionReads.getValue(),
+                false,
+                rows -> transformAndFilter(rows),
+                results,
+                closed);
+          } finally {
+            readSemaphore.release();
+            checkFinalize(results, partitionCount, closed);
+          }
+        }, READ_THREADS);
+      }
+    }, READ_THREADS);
+    return new CloseableIteratorWrapper<>(new Closeable() {
+      @Override
+      public void close() throws IOException {
+        closed.set(true);
+      }
+    }, new RowConsumer<>(results));
+  }
+
+  private CloseableIterator<T> executeSortedQueryAsync(
+      final Map<ByteArray, List<RangeReadInfo>> readsPerPartition) {
+    final AtomicBoolean closed = new AtomicBoolean(false);
+    final int readAheadPerPartition =
+        Math.max(
+            MIN_BOUNDED_READS_ENQUEUED_PER_PARTITION,
+            MAX_BOUNDED_READS_ENQUEUED / readsPerPartition.size());
+    final List<Iterator<GeoWaveRow>> partitionResults = new ArrayList<>();
+    for (final Entry<ByteArray, List<RangeReadInfo>> partitionReads : readsPerPartition.entrySet()) {
+      final BlockingQueue<Object> results = new LinkedBlockingQueue<>(readAheadPerPartition);
+      final AtomicInteger partitionCount = new AtomicInteger(1);
+      partitionResults.add(new RowConsumer<>(results));
+      CompletableFuture.runAsync(() -> {
+        try {
+          readPartition(
+              partitionReads.getKey(),
+              partitionReads.getValue(),
+              true,
+              rows -> Streams.stream(rows).filter(filter).iterator(),
+              results,
+              closed);
+        } finally {
+          checkFinalize(results, partitionCount, closed);
+        }
+      }, READ_THREADS);
+    }
+    // each partition is read in sort key order so the final results only need to be merged
+    final Iterator<GeoWaveRow> iterator = RocksDBUtils.mergeSortedBySortKey(partitionResults);
+    return new CloseableIteratorWrapper<>(new Closeable() {
+      @Override
+      public void close() throws IOException {
+        closed.set(true);
+      }
+    }, rowTransformer.apply(rowMerging ? new GeoWaveRowMergingIterator(iterator) : iterator));
+  }
+
+  private void readPartition(
+      final ByteArray partitionKey,
+      final List<RangeReadInfo> reads,
+      final boolean sortBySortKey,
+      final Function<CloseableIterator<GeoWaveRow>, Iterator<?>> transform,
+      final BlockingQueue<Object> results,
+      final AtomicBoolean closed) {
+    if (sortBySortKey) {
+      reads.sort(ScoreOrderComparator.SINGLETON);
+    }
+    final List<CloseableIterator<GeoWaveRow>> iterators = new ArrayList<>();
+    try {
+      final RocksDBIndexTable table = setCache.get(partitionKey);
+      reads.forEach(r -> iterators.add(table.iterator(r.sortKeyRange)));
+      final Iterator<?> it =
+          transform.apply(
+              new CloseableIteratorWrapper<>(
+                  () -> iterators.forEach(i -> i.close()),
+                  sortBySortKey ? RocksDBUtils.mergeSortedBySortKey(iterators)
+                      : Iterators.concat(iterators.iterator())));
+      while (!closed.get() && it.hasNext()) {
+        if (!enqueue(results, it.next(), closed)) {
+          break;
+        }
+      }
+    } catch (final Exception e) {
+      LOGGER.warn("Unable to read RocksDB partition", e);
+      // hand the failure to the consumer so the query fails rather than returning partial results
+      enqueue(results, RowConsumer.failure(e), closed);
+    } finally {
+      iterators.forEach(i -> i.close());
+    }
+  }
+
+  private static Map<ByteArray, List<RangeReadInfo>> groupByPartition(
+      final List<RangeReadInfo> reads) {
+    final Map<ByteArray, List<RangeReadInfo>> readsPerPartition = new LinkedHashMap<>();
+    for (final RangeReadInfo r : reads) {
+      readsPerPartition.computeIfAbsent(getPartitionKey(r), k -> new ArrayList<>()).add(r);
+    }
+    return readsPerPartition;
+  }
+
+  private static ByteArray getPartitionKey(final RangeReadInfo r) {
+    if ((r.partitionKey == null) || (r.partitionKey.length == 0)) {
+      return EMPTY_PARTITION_KEY;
+    }
+    return new ByteArray(r.partitionKey);
+  }
+
+  private static boolean enqueue(
+      final BlockingQueue<Object> queue,
+      final Object row,
+      final AtomicBoolean closed) {
+    // wait for the consumer to catch up, but give up if the results have been closed
+    while (!closed.get()) {
+      try {
+        if (queue.offer(row, ENQUEUE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+          return true;
+        }
+      } catch (final InterruptedException e) {
+        LOGGER.warn("Interrupted while waiting to enqueue a RocksDB result", e);
+        return false;
+      }
+    }
+    return false;
+  }
+
+  private static void checkFinalize(
+      final BlockingQueue<Object> results,
+      final AtomicInteger partitionCount,
+      final AtomicBoolean closed) {
+    if (partitionCount.decrementAndGet() <= 0) {
+      if (!enqueue(results, RowConsumer.POISON, closed) && !closed.get()) {
+        LOGGER.error("Interrupted while finishing blocking queue, this may result in deadlock!");
+      }
+    }
   }
 
   private CloseableIterator<T> transformAndFilter(final CloseableIterator<GeoWaveRow> result) {
     final Iterator<GeoWaveRow> iterator = Streams.stream(result).filter(filter).iterator();
     return new CloseableIteratorWrapper<>(
         result,
-        rowTransformer.apply(
-            sortByKeyIfRequired(
-                isSortFinalResultsBySortKey,
-                rowMerging ? new GeoWaveRowMergingIterator(iterator) : iterator)));
-  }
-
-  private static Iterator<GeoWaveRow> sortByKeyIfRequired(
-      final boolean isRequired,
-      final Iterator<GeoWaveRow> it) {
-    if (isRequired) {
-      return RocksDBUtils.sortBySortKey(it);
-    }
-    return it;
+        rowTransformer.apply(rowMerging ? new GeoWaveRowMergingIterator(iterator) : iterator));
   }
 }
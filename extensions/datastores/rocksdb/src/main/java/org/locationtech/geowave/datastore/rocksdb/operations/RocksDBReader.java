@@ -50,9 +50,13 @@ public class RocksDBReader<T> implements RowReader<T> {
   public RocksDBReader(
       final RocksDBClient client,
       final ReaderParams<T> readerParams,
-      final boolean async) {
+      final int readThreads) {
     this.iterator =
-        createIteratorForReader(client, readerParams, readerParams.getRowTransformer(), false);
+        createIteratorForReader(
+            client,
+            readerParams,
+            readerParams.getRowTransformer(),
+            readThreads);
   }
 
   public RocksDBReader(final RocksDBClient client, final RecordReaderParams recordReaderParams) {
@@ -69,7 +73,7 @@ public class RocksDBReader<T> implements RowReader<T> {
       final RocksDBClient client,
       final ReaderParams<T> readerParams,
       final GeoWaveRowIteratorTransformer<T> rowTransformer,
-      final boolean async) {
+      final int readThreads) {
     final Collection<SinglePartitionQueryRanges> ranges =
         readerParams.getQueryRanges().getPartitionQueryRanges();
 
@@ -81,7 +85,7 @@ public class RocksDBReader<T> implements RowReader<T> {
           readerParams.getRowTransformer(),
           ranges,
           authorizations,
-          async);
+          readThreads);
     } else {
       final List<CloseableIterator<GeoWaveRow>> iterators = new ArrayList<>();
       for (final short adapterId : readerParams.getAdapterIds()) {
@@ -92,7 +96,7 @@ public class RocksDBReader<T> implements RowReader<T> {
                 readerParams.getInternalAdapterStore().getTypeName(adapterId),
                 readerParams.getIndex().getName());
         final Stream<CloseableIterator<GeoWaveRow>> streamIt =
-            RocksDBUtils.getPartitions(client.getSubDirectory(), indexNamePrefix).stream().map(
+            client.getPartitions(indexNamePrefix).stream().map(
                 p -> RocksDBUtils.getIndexTableFromPrefix(
                     client,
                     indexNamePrefix,
@@ -111,7 +115,11 @@ public class RocksDBReader<T> implements RowReader<T> {
           }
         }
       },
-          Iterators.concat(iterators.iterator()),
+          // each partition is already in sort key order so merging them is sufficient if sorting is
+          // required
+          RocksDBUtils.isSortByKeyRequired(readerParams)
+              ? RocksDBUtils.mergeSortedBySortKey(iterators)
+              : Iterators.concat(iterators.iterator()),
           readerParams,
           rowTransformer,
           authorizations,
@@ -125,7 +133,7 @@ public class RocksDBReader<T> implements RowReader<T> {
       final GeoWaveRowIteratorTransformer<T> rowTransformer,
       final Collection<SinglePartitionQueryRanges> ranges,
       final Set<String> authorizations,
-      final boolean async) {
+      final int readThreads) {
     final Iterator<CloseableIterator> it =
         Arrays.stream(ArrayUtils.toObject(readerParams.getAdapterIds())).map(
             adapterId -> new RocksDBQueryExecution(
@@ -140,7 +148,7 @@ public class RocksDBReader<T> implements RowReader<T> {
                 DataStoreUtils.isMergingIteratorRequired(
                     readerParams,
                     client.isVisibilityEnabled()),
-                async,
+                readThreads,
                 RocksDBUtils.isGroupByRowAndIsSortByTime(readerParams, adapterId),
                 RocksDBUtils.isSortByKeyRequired(readerParams)).results()).iterator();
     final CloseableIterator<T>[] itArray = Iterators.toArray(it, CloseableIterator.class);
@@ -176,7 +184,7 @@ public class RocksDBReader<T> implements RowReader<T> {
         authorizations,
         // there should already be sufficient parallelism created by
         // input splits for record reader use cases
-        false);
+        1);
   }
 
   private Iterator<GeoWaveRow> createIteratorForDataIndexReader(
@@ -223,20 +231,9 @@ public class RocksDBReader<T> implements RowReader<T> {
     return new CloseableIteratorWrapper<>(
         closeable,
         rowTransformer.apply(
-            sortBySortKeyIfRequired(
-                params,
-                DataStoreUtils.isMergingIteratorRequired(params, visibilityEnabled)
-                    ? new GeoWaveRowMergingIterator(iterator)
-                    : iterator)));
-  }
-
-  private static Iterator<GeoWaveRow> sortBySortKeyIfRequired(
-      final RangeReaderParams<?> params,
-      final Iterator<GeoWaveRow> it) {
-    if (RocksDBUtils.isSortByKeyRequired(params)) {
-      return RocksDBUtils.sortBySortKey(it);
-    }
-    return it;
+            DataStoreUtils.isMergingIteratorRequired(params, visibilityEnabled)
+                ? new GeoWaveRowMergingIterator(iterator)
+                : iterator));
   }
 
   @Override
@@ -9,14 +9,21 @@
 package org.locationtech.geowave.datastore.rocksdb.util;
 
 import java.io.File;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.ThreadPoolExecutor;
+import org.rocksdb.ColumnFamilyHandle;
 import org.rocksdb.Options;
+import org.rocksdb.ReadOptions;
 import org.rocksdb.RocksDB;
 import org.rocksdb.RocksDBException;
+import org.rocksdb.RocksIterator;
+import org.rocksdb.Slice;
 import org.rocksdb.WriteBatch;
 import org.rocksdb.WriteOptions;
 import org.slf4j.Logger;
@@ -31,6 +38,8 @@ abstract public class AbstractRocksDBTable {
       MoreExecutors.getExitingExecutorService(
           (ThreadPoolExecutor) Executors.newFixedThreadPool(BATCH_WRITE_THREAD_SIZE));
   private static final int MAX_CONCURRENT_WRITE = 100;
+  // sequential scans of ranges read ahead this many bytes rather than one block at a time
+  private static final long SCAN_READAHEAD_SIZE = 2 * 1024 * 1024;
   // only allow so many outstanding async reads or writes, use this semaphore
   // to control it
   private final Object BATCH_WRITE_MUTEX = new Object();
@@ -44,12 +53,15 @@ abstract public class AbstractRocksDBTable {
   private final Options readOptions;
   private final WriteOptions batchWriteOptions;
   protected final String subDirectory;
-  protected boolean readerDirty = false;
   private boolean exists;
   protected final short adapterId;
   protected boolean visibilityEnabled;
   protected boolean compactOnWrite;
   private final boolean batchWrite;
+  // when this table is a column family within a shared database rather than its own database
+  private final RocksDBColumnFamilyStore columnFamilyStore;
+  private final String columnFamilyName;
+  private ColumnFamilyHandle columnFamily;
 
   public AbstractRocksDBTable(
       final Options writeOptions,
@@ -71,13 +83,41 @@ abstract public class AbstractRocksDBTable {
     this.compactOnWrite = compactOnWrite;
     this.batchSize = batchSize;
     batchWrite = batchSize > 1;
+    columnFamilyStore = null;
+    columnFamilyName = null;
+  }
+
+  public AbstractRocksDBTable(
+      final RocksDBColumnFamilyStore columnFamilyStore,
+      final String columnFamilyName,
+      final WriteOptions batchWriteOptions,
+      final short adapterId,
+      final boolean visibilityEnabled,
+      final boolean compactOnWrite,
+      final int batchSize) {
+    super();
+    writeOptions = null;
+    readOptions = null;
+    this.batchWriteOptions = batchWriteOptions;
+    subDirectory = columnFamilyStore.getDirectory();
+    this.adapterId = adapterId;
+    exists = columnFamilyStore.columnFamilyExists(columnFamilyName);
+    this.visibilityEnabled = visibilityEnabled;
+    this.compactOnWrite = compactOnWrite;
+    this.batchSize = batchSize;
+    batchWrite = batchSize > 1;
+    this.columnFamilyStore = columnFamilyStore;
+    this.columnFamilyName = columnFamilyName;
   }
 
   public void delete(final byte[] key) {
     final RocksDB db = getWriteDb();
     try {
-      readerDirty = true;
-      db.singleDelete(key);
+      if (columnFamily == null) {
+        db.singleDelete(key);
+      } else {
+        db.singleDelete(columnFamily, key);
+      }
     } catch (final RocksDBException e) {
       LOGGER.warn("Unable to delete key", e);
     }
@@ -97,7 +137,13 @@ abstract public class AbstractRocksDBTable {
         }
       }
       try {
-        thisBatch.put(key, value);
+        if (columnFamilyStore == null) {
+          thisBatch.put(key, value);
+        } else {
+          // make sure the column family exists before it is written to
+          getWriteDb();
+          thisBatch.put(columnFamily, key, value);
+        }
       } catch (final RocksDBException e) {
         LOGGER.warn("Unable to add data to batched write", e);
       }
@@ -113,8 +159,11 @@ abstract public class AbstractRocksDBTable {
     {
       final RocksDB db = getWriteDb();
       try {
-        readerDirty = true;
-        db.put(key, value);
+        if (columnFamily == null) {
+          db.put(key, value);
+        } else {
+          db.put(columnFamily, key, value);
+        }
       } catch (final RocksDBException e) {
         LOGGER.warn("Unable to write key-value", e);
       }
@@ -124,7 +173,6 @@ abstract public class AbstractRocksDBTable {
   private void flushWriteQueue() {
     try {
       writeSemaphore.acquire();
-      readerDirty = true;
       CompletableFuture.runAsync(
           new BatchWriter(currentBatch, getWriteDb(), batchWriteOptions, writeSemaphore),
           BATCH_WRITE_THREADS);
@@ -153,26 +201,17 @@ abstract public class AbstractRocksDBTable {
     if (compactOnWrite) {
       final RocksDB db = getWriteDb();
       try {
-        db.compactRange();
+        compactRange(db);
       } catch (final RocksDBException e) {
         LOGGER.warn("Unable to compact range", e);
       }
     }
-    // force re-opening a reader to catch the updates from this write
-    if (readerDirty && (readDb != null)) {
-      synchronized (this) {
-        if (readDb != null) {
-          readDb.close();
-          readDb = null;
-        }
-      }
-    }
   }
 
   public void compact() {
     final RocksDB db = getWriteDb();
     try {
-      db.compactRange();
+      compactRange(db);
     } catch (final RocksDBException e) {
       LOGGER.warn("Unable to force compacting range", e);
     }
@@ -193,6 +232,10 @@ abstract public class AbstractRocksDBTable {
 
   public void close() {
     waitForBatchWrite();
+    if (columnFamilyStore != null) {
+      // the shared database and its column families are closed by the column family store
+      return;
+    }
     synchronized (this) {
       if (writeDb != null) {
         writeDb.close();
@@ -200,6 +243,7 @@ abstract public class AbstractRocksDBTable {
       }
       if (readDb != null) {
         readDb.close();
+        readDb = null;
       }
     }
   }
@@ -207,6 +251,17 @@ abstract public class AbstractRocksDBTable {
   @SuppressFBWarnings(
       justification = "double check for null is intentional to avoid synchronized blocks when not needed.")
   protected RocksDB getWriteDb() {
+    if (columnFamilyStore != null) {
+      if (columnFamily == null) {
+        synchronized (this) {
+          if (columnFamily == null) {
+            columnFamily = columnFamilyStore.getColumnFamily(columnFamilyName, true);
+            exists = true;
+          }
+        }
+      }
+      return columnFamilyStore.getDb();
+    }
     // avoid synchronization if unnecessary by checking for null outside
     // synchronized block
     if (writeDb == null) {
@@ -232,6 +287,28 @@ abstract public class AbstractRocksDBTable {
   @SuppressFBWarnings(
       justification = "double check for null is intentional to avoid synchronized blocks when not needed.")
   protected RocksDB getReadDb() {
+    if (columnFamilyStore != null) {
+      if (columnFamily == null) {
+        synchronized (this) {
+          if (columnFamily == null) {
+            // it could have been created since this table was loaded
+            columnFamily = columnFamilyStore.getColumnFamily(columnFamilyName, false);
+            if (columnFamily == null) {
+              return null;
+            }
+            exists = true;
+          }
+        }
+      }
+      return columnFamilyStore.getDb();
+    }
+    // once this process has the table open for writing, read from the same handle so that reads
+    // see the latest writes without having to re-open a read-only handle, each iterator is
+    // implicitly a consistent snapshot of the table at the time it is created
+    final RocksDB db = writeDb;
+    if (db != null) {
+      return db;
+    }
     if (!exists) {
       return null;
     }
@@ -240,9 +317,11 @@ abstract public class AbstractRocksDBTable {
     if (readDb == null) {
       synchronized (this) {
         // check again within synchronized block
+        if (writeDb != null) {
+          return writeDb;
+        }
         if (readDb == null) {
           try {
-            readerDirty = false;
             readDb = RocksDB.openReadOnly(readOptions, subDirectory);
           } catch (final RocksDBException e) {
             LOGGER.warn("Unable to open for reading", e);
@@ -253,6 +332,57 @@ abstract public class AbstractRocksDBTable {
     return readDb;
   }
 
+  private void compactRange(final RocksDB db) throws RocksDBException {
+    if (columnFamily == null) {
+      db.compactRange();
+    } else {
+      db.compactRange(columnFamily);
+    }
+  }
+
+  /**
+   * Scans seek to their start key, so only the upper bound is set on the read options.
+   *
+   * @param upperBound the exclusive upper bound of keys to iterate over or null if unbounded
+   * @param fillCache whether the blocks read should be added to the block cache, full scans should
+   *        not fill the cache to avoid evicting the working set of other queries
+   * @return read options for a sequential scan
+   */
+  protected static ReadOptions newScanReadOptions(
+      final byte[] upperBound,
+      final boolean fillCache) {
+    final ReadOptions options =
+        new ReadOptions().setFillCache(fillCache).setReadaheadSize(SCAN_READAHEAD_SIZE);
+    if (upperBound != null) {
+      options.setIterateUpperBound(new Slice(upperBound));
+    }
+    return options;
+  }
+
+  protected RocksIterator newIterator(final RocksDB db, final ReadOptions options) {
+    if (columnFamily == null) {
+      return options == null ? db.newIterator() : db.newIterator(options);
+    }
+    return options == null ? db.newIterator(columnFamily) : db.newIterator(columnFamily, options);
+  }
+
+  protected void deleteRange(final RocksDB db, final byte[] beginKey, final byte[] endKey)
+      throws RocksDBException {
+    if (columnFamily == null) {
+      db.deleteRange(beginKey, endKey);
+    } else {
+      db.deleteRange(columnFamily, beginKey, endKey);
+    }
+  }
+
+  protected Map<byte[], byte[]> multiGet(final RocksDB db, final List<byte[]> keys)
+      throws RocksDBException {
+    if (columnFamily == null) {
+      return db.multiGet(keys);
+    }
+    return db.multiGet(Collections.nCopies(keys.size(), columnFamily), keys);
+  }
+
   private static class BatchWriter implements Runnable {
     private final WriteBatch dataToWrite;
     private final RocksDB db;
@@ -12,6 +12,10 @@ import java.io.Closeable;
 import java.io.File;
 import java.util.Arrays;
 import java.util.Map.Entry;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.locationtech.geowave.core.index.ByteArray;
+import org.locationtech.geowave.core.index.ByteArrayUtils;
 import org.locationtech.geowave.core.store.operations.MetadataType;
 import org.rocksdb.Options;
 import org.rocksdb.RocksDB;
@@ -163,6 +167,8 @@ public class RocksDBClient implements Closeable {
   private final boolean visibilityEnabled;
   private final boolean compactOnWrite;
   private final int batchWriteSize;
+  // null unless tables are stored as column families within a single database
+  private final RocksDBColumnFamilyStore columnFamilyStore;
 
   protected static Options indexWriteOptions = null;
   protected static WriteOptions batchWriteOptions = null;
@@ -174,10 +180,24 @@ public class RocksDBClient implements Closeable {
       final boolean visibilityEnabled,
       final boolean compactOnWrite,
       final int batchWriteSize) {
+    this(subDirectory, visibilityEnabled, compactOnWrite, batchWriteSize, false, 0, 0);
+  }
+
+  public RocksDBClient(
+      final String subDirectory,
+      final boolean visibilityEnabled,
+      final boolean compactOnWrite,
+      final int batchWriteSize,
+      final boolean columnFamilies,
+      final long blockCacheSize,
+      final long writeRateLimit) {
     this.subDirectory = subDirectory;
     this.visibilityEnabled = visibilityEnabled;
     this.compactOnWrite = compactOnWrite;
     this.batchWriteSize = batchWriteSize;
+    columnFamilyStore =
+        columnFamilies ? new RocksDBColumnFamilyStore(subDirectory, blockCacheSize, writeRateLimit)
+            : null;
   }
 
   private RocksDBMetadataTable loadMetadataTable(final CacheKey key) throws RocksDBException {
@@ -193,6 +213,18 @@ public class RocksDBClient implements Closeable {
   }
 
   private RocksDBIndexTable loadIndexTable(final IndexCacheKey key) {
+    if (columnFamilyStore != null) {
+      return new RocksDBIndexTable(
+          columnFamilyStore,
+          getTableName(key),
+          batchWriteOptions,
+          key.adapterId,
+          key.partition,
+          key.requiresTimestamp,
+          visibilityEnabled,
+          compactOnWrite,
+          batchWriteSize);
+    }
     return new RocksDBIndexTable(
         indexWriteOptions,
         indexReadOptions,
@@ -207,6 +239,16 @@ public class RocksDBClient implements Closeable {
   }
 
   private RocksDBDataIndexTable loadDataIndexTable(final DataIndexCacheKey key) {
+    if (columnFamilyStore != null) {
+      return new RocksDBDataIndexTable(
+          columnFamilyStore,
+          getTableName(key),
+          batchWriteOptions,
+          key.adapterId,
+          visibilityEnabled,
+          compactOnWrite,
+          batchWriteSize);
+    }
     return new RocksDBDataIndexTable(
         indexWriteOptions,
         indexReadOptions,
@@ -218,10 +260,36 @@ public class RocksDBClient implements Closeable {
         batchWriteSize);
   }
 
+  private String getTableName(final CacheKey key) {
+    // the table name is the directory relative to this client's directory
+    return key.directory.substring(subDirectory.length() + 1);
+  }
+
   public String getSubDirectory() {
     return subDirectory;
   }
 
+  public boolean isColumnFamilies() {
+    return columnFamilyStore != null;
+  }
+
+  public Set<ByteArray> getPartitions(final String tableNamePrefix) {
+    if (columnFamilyStore != null) {
+      return columnFamilyStore.getColumnFamilyNames(tableNamePrefix).stream().map(
+          str -> str.length() > (tableNamePrefix.length() + 1)
+              ? new ByteArray(
+                  ByteArrayUtils.byteArrayFromString(str.substring(tableNamePrefix.length() + 1)))
+              : new ByteArray()).collect(Collectors.toSet());
+    }
+    return RocksDBUtils.getPartitions(subDirectory, tableNamePrefix);
+  }
+
+  public void deleteTables(final String tableNamePrefix) {
+    if (columnFamilyStore != null) {
+      columnFamilyStore.dropColumnFamilies(tableNamePrefix);
+    }
+  }
+
   public synchronized RocksDBIndexTable getIndexTable(
       final String tableName,
       final short adapterId,
@@ -278,6 +346,10 @@ public class RocksDBClient implements Closeable {
         return true;
       }
     }
+    if (columnFamilyStore != null) {
+      return columnFamilyStore.getColumnFamilyNames("").stream().anyMatch(
+          n -> n.contains(indexName));
+    }
     // this could have been created by a different process so check the
     // directory listing
     final String[] listing = new File(subDirectory).list((dir, name) -> name.contains(indexName));
@@ -335,5 +407,8 @@ public class RocksDBClient implements Closeable {
     dataIndexTableCache.invalidateAll();
     metadataTableCache.asMap().values().forEach(db -> db.close());
     metadataTableCache.invalidateAll();
+    if (columnFamilyStore != null) {
+      columnFamilyStore.close();
+    }
   }
 }
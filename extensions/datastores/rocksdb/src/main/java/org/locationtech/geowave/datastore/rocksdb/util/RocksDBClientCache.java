@@ -27,7 +27,10 @@ public class RocksDBClientCache {
             subDirectoryVisiblityPair.directory,
             subDirectoryVisiblityPair.visibilityEnabled,
             subDirectoryVisiblityPair.compactOnWrite,
-            subDirectoryVisiblityPair.batchSize);
+            subDirectoryVisiblityPair.batchSize,
+            subDirectoryVisiblityPair.columnFamilies,
+            subDirectoryVisiblityPair.blockCacheSize,
+            subDirectoryVisiblityPair.writeRateLimit);
       });
 
   protected RocksDBClientCache() {}
@@ -37,8 +40,26 @@ public class RocksDBClientCache {
       final boolean visibilityEnabled,
       final boolean compactOnWrite,
       final int batchWriteSize) {
+    return getClient(directory, visibilityEnabled, compactOnWrite, batchWriteSize, false, 0, 0);
+  }
+
+  public RocksDBClient getClient(
+      final String directory,
+      final boolean visibilityEnabled,
+      final boolean compactOnWrite,
+      final int batchWriteSize,
+      final boolean columnFamilies,
+      final long blockCacheSize,
+      final long writeRateLimit) {
     return clientCache.get(
-        new ClientKey(directory, visibilityEnabled, compactOnWrite, batchWriteSize));
+        new ClientKey(
+            directory,
+            visibilityEnabled,
+            compactOnWrite,
+            batchWriteSize,
+            columnFamilies,
+            blockCacheSize,
+            writeRateLimit));
   }
 
   public synchronized void close(
@@ -46,8 +67,26 @@ public class RocksDBClientCache {
       final boolean visibilityEnabled,
       final boolean compactOnWrite,
       final int batchWriteSize) {
+    close(directory, visibilityEnabled, compactOnWrite, batchWriteSize, false, 0, 0);
+  }
+
+  public synchronized void close(
+      final String directory,
+      final boolean visibilityEnabled,
+      final boolean compactOnWrite,
+      final int batchWriteSize,
+      final boolean columnFamilies,
+      final long blockCacheSize,
+      final long writeRateLimit) {
     final ClientKey key =
-        new ClientKey(directory, visibilityEnabled, compactOnWrite, batchWriteSize);
+        new ClientKey(
+            directory,
+            visibilityEnabled,
+            compactOnWrite,
+            batchWriteSize,
+            columnFamilies,
+            blockCacheSize,
+            writeRateLimit);
     final RocksDBClient client = clientCache.getIfPresent(key);
     if (client != null) {
       clientCache.invalidate(key);
@@ -94,22 +133,37 @@ public class RocksDBClientCache {
     }
   }
 
+  /**
+   * Identifies a client. The block cache size and write rate limit only tune the database that is
+   * opened, so they are not part of the key's identity. A second client opened on the same
+   * directory would fail to acquire the database lock, so instead the first client opened is shared
+   * and keeps its tuning values.
+   */
   private static class ClientKey {
     private final String directory;
     private final boolean visibilityEnabled;
     private final boolean compactOnWrite;;
     private final int batchSize;
+    private final boolean columnFamilies;
+    private final long blockCacheSize;
+    private final long writeRateLimit;
 
     public ClientKey(
         final String directory,
         final boolean visibilityEnabled,
         final boolean compactOnWrite,
-        final int batchSize) {
+        final int batchSize,
+        final boolean columnFamilies,
+        final long blockCacheSize,
+        final long writeRateLimit) {
       super();
       this.directory = directory;
       this.visibilityEnabled = visibilityEnabled;
       this.compactOnWrite = compactOnWrite;
       this.batchSize = batchSize;
+      this.columnFamilies = columnFamilies;
+      this.blockCacheSize = blockCacheSize;
+      this.writeRateLimit = writeRateLimit;
     }
 
     @Override
@@ -117,6 +171,7 @@ public class RocksDBClientCache {
       final int prime = 31;
       int result = 1;
       result = (prime * result) + batchSize;
+      result = (prime * result) + (columnFamilies ? 1231 : 1237);
       result = (prime * result) + (compactOnWrite ? 1231 : 1237);
       result = (prime * result) + ((directory == null) ? 0 : directory.hashCode());
       result = (prime * result) + (visibilityEnabled ? 1231 : 1237);
@@ -138,6 +193,9 @@ public class RocksDBClientCache {
       if (batchSize != other.batchSize) {
         return false;
       }
+      if (columnFamilies != other.columnFamilies) {
+        return false;
+      }
       if (compactOnWrite != other.compactOnWrite) {
         return false;
       }
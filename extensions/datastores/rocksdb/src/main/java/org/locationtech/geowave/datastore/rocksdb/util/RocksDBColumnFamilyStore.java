@@ -0,0 +1,261 @@
+/**
+ * Copyright (c) 2013-2019 Contributors to the Eclipse Foundation
+ *
+ * <p> See the NOTICE file distributed with this work for additional information regarding copyright
+ * ownership. All rights reserved. This program and the accompanying materials are made available
+ * under the terms of the Apache License, Version 2.0 which accompanies this distribution and is
+ * available at http://www.apache.org/licenses/LICENSE-2.0.txt
+ */
+package org.locationtech.geowave.datastore.rocksdb.util;
+
+import java.io.Closeable;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import org.rocksdb.BlockBasedTableConfig;
+import org.rocksdb.ColumnFamilyDescriptor;
+import org.rocksdb.ColumnFamilyHandle;
+import org.rocksdb.ColumnFamilyOptions;
+import org.rocksdb.DBOptions;
+import org.rocksdb.Options;
+import org.rocksdb.RateLimiter;
+import org.rocksdb.RocksDB;
+import org.rocksdb.RocksDBException;
+import org.rocksdb.RocksIterator;
+import org.rocksdb.WriteBatch;
+import org.rocksdb.WriteOptions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A single RocksDB database in which each index table (index, type and partition) is stored as a
+ * column family. All column families share the database's block cache, rate limiter, write ahead
+ * log and background threads, rather than each table being its own database directory.
+ */
+public class RocksDBColumnFamilyStore implements Closeable {
+  private static final Logger LOGGER = LoggerFactory.getLogger(RocksDBColumnFamilyStore.class);
+  public static final String COLUMN_FAMILY_DIRECTORY = "columnfamilies";
+  private static final int MIGRATION_BATCH_SIZE = 10000;
+
+  private final String directory;
+  private final long blockCacheSize;
+  private final long writeRateLimit;
+  private final Map<String, ColumnFamilyHandle> columnFamilies = new ConcurrentHashMap<>();
+  private RocksDB db;
+  private DBOptions dbOptions;
+  private ColumnFamilyOptions columnFamilyOptions;
+  private RateLimiter rateLimiter;
+  private ColumnFamilyHandle defaultColumnFamily;
+
+  /**
+   * @param subDirectory the directory of the store, the database will be within a sub-directory of
+   *        it
+   * @param blockCacheSize the size in bytes of the block cache shared by all column families
+   * @param writeRateLimit the maximum rate in bytes per second for flushes and compactions,
+   *        anything <= 0 is unlimited
+   */
+  public RocksDBColumnFamilyStore(
+      final String subDirectory,
+      final long blockCacheSize,
+      final long writeRateLimit) {
+    directory = subDirectory + "/" + COLUMN_FAMILY_DIRECTORY;
+    this.blockCacheSize = blockCacheSize;
+    this.writeRateLimit = writeRateLimit;
+  }
+
+  public String getDirectory() {
+    return directory;
+  }
+
+  public synchronized RocksDB getDb() {
+    if (db == null) {
+      open();
+    }
+    return db;
+  }
+
+  private void open() {
+    RocksDB.loadLibrary();
+    final File dir = new File(directory);
+    if (!dir.exists() && !dir.mkdirs()) {
+      LOGGER.error("Unable to create directory for rocksdb store '" + directory + "'");
+      return;
+    }
+    // every column family uses this same options instance and therefore the same table factory
+    // and block cache
+    columnFamilyOptions =
+        new ColumnFamilyOptions().optimizeLevelStyleCompaction().setTableFormatConfig(
+            new BlockBasedTableConfig().setBlockCacheSize(blockCacheSize));
+    dbOptions =
+        new DBOptions().setCreateIfMissing(true).setCreateMissingColumnFamilies(
+            true).setIncreaseParallelism(Runtime.getRuntime().availableProcessors());
+    if (writeRateLimit > 0) {
+      rateLimiter = new RateLimiter(writeRateLimit);
+      dbOptions.setRateLimiter(rateLimiter);
+    }
+    final List<ColumnFamilyDescriptor> descriptors = new ArrayList<>();
+    if (new File(dir, "CURRENT").exists()) {
+      try (Options listOptions = new Options()) {
+        for (final byte[] name : RocksDB.listColumnFamilies(listOptions, directory)) {
+          descriptors.add(new ColumnFamilyDescriptor(name, columnFamilyOptions));
+        }
+      } catch (final RocksDBException e) {
+        LOGGER.error("Unable to list column families", e);
+      }
+    }
+    if (descriptors.isEmpty()) {
+      descriptors.add(
+          new ColumnFamilyDescriptor(RocksDB.DEFAULT_COLUMN_FAMILY, columnFamilyOptions));
+    }
+    final List<ColumnFamilyHandle> handles = new ArrayList<>();
+    try {
+      db = RocksDB.open(dbOptions, directory, descriptors, handles);
+      // handles are returned in the same order as the descriptors
+      for (int i = 0; i < handles.size(); i++) {
+        final byte[] name = descriptors.get(i).columnFamilyName();
+        if (Arrays.equals(name, RocksDB.DEFAULT_COLUMN_FAMILY)) {
+          defaultColumnFamily = handles.get(i);
+        } else {
+          columnFamilies.put(new String(name, StandardCharsets.UTF_8), handles.get(i));
+        }
+      }
+    } catch (final RocksDBException e) {
+      LOGGER.error("Unable to open rocksdb store '" + directory + "'", e);
+    }
+  }
+
+  /**
+   * @param name the name of the table
+   * @param createIfMissing whether to create the column family if it doesn't already exist
+   * @return the column family handle, or null if it doesn't exist and isn't created
+   */
+  public ColumnFamilyHandle getColumnFamily(final String name, final boolean createIfMissing) {
+    ColumnFamilyHandle handle = columnFamilies.get(name);
+    if ((handle == null) && createIfMissing) {
+      synchronized (this) {
+        handle = columnFamilies.get(name);
+        if (handle == null) {
+          final RocksDB rocksDb = getDb();
+          if (rocksDb == null) {
+            return null;
+          }
+          try {
+            handle =
+                rocksDb.createColumnFamily(
+                    new ColumnFamilyDescriptor(
+                        name.getBytes(StandardCharsets.UTF_8),
+                        columnFamilyOptions));
+            columnFamilies.put(name, handle);
+          } catch (final RocksDBException e) {
+            LOGGER.error("Unable to create column family '" + name + "'", e);
+          }
+        }
+      }
+    } else if (handle == null) {
+      // make sure existing column families are loaded
+      getDb();
+      handle = columnFamilies.get(name);
+    }
+    return handle;
+  }
+
+  public boolean columnFamilyExists(final String name) {
+    return getColumnFamily(name, false) != null;
+  }
+
+  public Set<String> getColumnFamilyNames(final String prefix) {
+    getDb();
+    return columnFamilies.keySet().stream().filter(n -> n.startsWith(prefix)).collect(
+        Collectors.toSet());
+  }
+
+  public synchronized void dropColumnFamilies(final String prefix) {
+    for (final String name : getColumnFamilyNames(prefix)) {
+      final ColumnFamilyHandle handle = columnFamilies.remove(name);
+      try {
+        db.dropColumnFamily(handle);
+      } catch (final RocksDBException e) {
+        LOGGER.warn("Unable to drop column family '" + name + "'", e);
+      }
+      handle.close();
+    }
+  }
+
+  /**
+   * Copy the contents of a database directory into a column family of this store.
+   *
+   * @param name the name of the column family to copy into
+   * @param tableDirectory the database directory to copy from
+   * @return the number of key-values copied
+   * @throws RocksDBException if the directory cannot be read or the column family written
+   */
+  public long importTable(final String name, final String tableDirectory) throws RocksDBException {
+    final ColumnFamilyHandle handle = getColumnFamily(name, true);
+    final RocksDB rocksDb = getDb();
+    long count = 0;
+    try (Options readOptions = new Options();
+        RocksDB tableDb = RocksDB.openReadOnly(readOptions, tableDirectory);
+        RocksIterator it = tableDb.newIterator();
+        WriteOptions writeOptions = new WriteOptions()) {
+      WriteBatch batch = new WriteBatch();
+      try {
+        for (it.seekToFirst(); it.isValid(); it.next()) {
+          batch.put(handle, it.key(), it.value());
+          if (batch.count() >= MIGRATION_BATCH_SIZE) {
+            rocksDb.write(writeOptions, batch);
+            batch.close();
+            batch = new WriteBatch();
+          }
+          count++;
+        }
+        rocksDb.write(writeOptions, batch);
+      } finally {
+        batch.close();
+      }
+    }
+    return count;
+  }
+
+  public void compact() {
+    final RocksDB rocksDb = getDb();
+    for (final ColumnFamilyHandle handle : columnFamilies.values()) {
+      try {
+        rocksDb.compactRange(handle);
+      } catch (final RocksDBException e) {
+        LOGGER.warn("Unable to compact column family", e);
+      }
+    }
+  }
+
+  @Override
+  public synchronized void close() {
+    columnFamilies.values().forEach(h -> h.close());
+    columnFamilies.clear();
+    if (defaultColumnFamily != null) {
+      defaultColumnFamily.close();
+      defaultColumnFamily = null;
+    }
+    if (db != null) {
+      db.close();
+      db = null;
+    }
+    if (dbOptions != null) {
+      dbOptions.close();
+      dbOptions = null;
+    }
+    if (columnFamilyOptions != null) {
+      columnFamilyOptions.close();
+      columnFamilyOptions = null;
+    }
+    if (rateLimiter != null) {
+      rateLimiter.close();
+      rateLimiter = null;
+    }
+  }
+}
@@ -21,7 +21,6 @@ import org.rocksdb.ReadOptions;
 import org.rocksdb.RocksDB;
 import org.rocksdb.RocksDBException;
 import org.rocksdb.RocksIterator;
-import org.rocksdb.Slice;
 import org.rocksdb.WriteOptions;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -49,6 +48,24 @@ public class RocksDBDataIndexTable extends AbstractRocksDBTable {
         batchSize);
   }
 
+  public RocksDBDataIndexTable(
+      final RocksDBColumnFamilyStore columnFamilyStore,
+      final String columnFamilyName,
+      final WriteOptions batchWriteOptions,
+      final short adapterId,
+      final boolean visibilityEnabled,
+      final boolean compactOnWrite,
+      final int batchSize) {
+    super(
+        columnFamilyStore,
+        columnFamilyName,
+        batchWriteOptions,
+        adapterId,
+        visibilityEnabled,
+        compactOnWrite,
+        batchSize);
+  }
+
   public synchronized void add(final byte[] dataId, final GeoWaveValue value) {
     put(dataId, DataIndexUtils.serializeDataIndexValue(value, visibilityEnabled));
   }
@@ -60,7 +77,7 @@ public class RocksDBDataIndexTable extends AbstractRocksDBTable {
     }
     try {
       final List<byte[]> dataIdsList = Arrays.asList(dataIds);
-      final Map<byte[], byte[]> dataIdxResults = readDb.multiGet(dataIdsList);
+      final Map<byte[], byte[]> dataIdxResults = multiGet(readDb, dataIdsList);
       return new CloseableIterator.Wrapper(
           dataIdsList.stream().filter(dataId -> dataIdxResults.containsKey(dataId)).map(
               dataId -> DataIndexUtils.deserializeDataIndexRow(
@@ -81,17 +98,11 @@ public class RocksDBDataIndexTable extends AbstractRocksDBTable {
     if (readDb == null) {
       return new CloseableIterator.Empty<>();
     }
-    final ReadOptions options;
-    final RocksIterator it;
-    if (endDataId == null) {
-      options = null;
-      it = readDb.newIterator();
-    } else {
-      options =
-          new ReadOptions().setIterateUpperBound(
-              new Slice(ByteArrayUtils.getNextPrefix(endDataId)));
-      it = readDb.newIterator(options);
-    }
+    final ReadOptions options =
+        newScanReadOptions(
+            endDataId == null ? null : ByteArrayUtils.getNextPrefix(endDataId),
+            true);
+    final RocksIterator it = newIterator(readDb, options);
     if (startDataId == null) {
       it.seekToFirst();
     } else {
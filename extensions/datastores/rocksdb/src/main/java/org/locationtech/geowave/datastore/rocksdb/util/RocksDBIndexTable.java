@@ -18,7 +18,6 @@ import org.rocksdb.ReadOptions;
 import org.rocksdb.RocksDB;
 import org.rocksdb.RocksDBException;
 import org.rocksdb.RocksIterator;
-import org.rocksdb.Slice;
 import org.rocksdb.WriteOptions;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -55,12 +54,33 @@ public class RocksDBIndexTable extends AbstractRocksDBTable {
     this.partition = partition;
   }
 
+  public RocksDBIndexTable(
+      final RocksDBColumnFamilyStore columnFamilyStore,
+      final String columnFamilyName,
+      final WriteOptions batchWriteOptions,
+      final short adapterId,
+      final byte[] partition,
+      final boolean requiresTimestamp,
+      final boolean visibilityEnabled,
+      final boolean compactOnWrite,
+      final int batchSize) {
+    super(
+        columnFamilyStore,
+        columnFamilyName,
+        batchWriteOptions,
+        adapterId,
+        visibilityEnabled,
+        compactOnWrite,
+        batchSize);
+    this.requiresTimestamp = requiresTimestamp;
+    this.partition = partition;
+  }
+
   public void delete(final byte[] sortKey, final byte[] dataId) {
     final RocksDB db = getWriteDb();
     try {
-      readerDirty = true;
       final byte[] prefix = Bytes.concat(sortKey, dataId);
-      db.deleteRange(prefix, ByteArrayUtils.getNextPrefix(prefix));
+      deleteRange(db, prefix, ByteArrayUtils.getNextPrefix(prefix));
     } catch (final RocksDBException e) {
       LOGGER.warn("Unable to delete by sort key and data ID", e);
     }
@@ -106,14 +126,13 @@ public class RocksDBIndexTable extends AbstractRocksDBTable {
     put(key, value.getValue());
   }
 
-
   public CloseableIterator<GeoWaveRow> iterator() {
     final RocksDB readDb = getReadDb();
     if (readDb == null) {
       return new CloseableIterator.Empty<>();
     }
-    final ReadOptions options = new ReadOptions().setFillCache(false);
-    final RocksIterator it = readDb.newIterator(options);
+    final ReadOptions options = newScanReadOptions(null, false);
+    final RocksIterator it = newIterator(readDb, options);
     it.seekToFirst();
     return new RocksDBRowIterator(
         options,
@@ -129,15 +148,9 @@ public class RocksDBIndexTable extends AbstractRocksDBTable {
     if (readDb == null) {
       return new CloseableIterator.Empty<>();
     }
-    final ReadOptions options;
-    final RocksIterator it;
-    if (range.getEnd() == null) {
-      options = null;
-      it = readDb.newIterator();
-    } else {
-      options = new ReadOptions().setIterateUpperBound(new Slice(range.getEndAsNextPrefix()));
-      it = readDb.newIterator(options);
-    }
+    final ReadOptions options =
+        newScanReadOptions(range.getEnd() == null ? null : range.getEndAsNextPrefix(), true);
+    final RocksIterator it = newIterator(readDb, options);
     if (range.getStart() == null) {
       it.seekToFirst();
     } else {
@@ -24,7 +24,8 @@ import org.locationtech.geowave.core.store.base.dataidx.DataIndexUtils;
 import org.locationtech.geowave.core.store.entities.GeoWaveRow;
 import org.locationtech.geowave.core.store.operations.MetadataType;
 import org.locationtech.geowave.core.store.operations.RangeReaderParams;
-import com.google.common.collect.Streams;
+import org.locationtech.geowave.datastore.rocksdb.config.RocksDBOptions;
+import com.google.common.collect.Iterators;
 import com.google.common.primitives.UnsignedBytes;
 
 public class RocksDBUtils {
@@ -42,6 +43,19 @@ public class RocksDBUtils {
     return client.getMetadataTable(metadataType);
   }
 
+  /**
+   * @param options the store options
+   * @return the directory of the store within the configured directory based on its namespace
+   */
+  public static String getDirectory(final RocksDBOptions options) {
+    return options.getDirectory()
+        + File.separator
+        + ((options.getGeoWaveNamespace() == null)
+            || options.getGeoWaveNamespace().trim().isEmpty()
+            || "null".equalsIgnoreCase(options.getGeoWaveNamespace()) ? "default"
+                : options.getGeoWaveNamespace());
+  }
+
   public static String getTablePrefix(final String typeName, final String indexName) {
     return typeName + "_" + indexName;
   }
@@ -129,8 +143,18 @@ public class RocksDBUtils {
         && (params.getMaxResolutionSubsamplingPerDimension().length > 0);
   }
 
-  public static Iterator<GeoWaveRow> sortBySortKey(final Iterator<GeoWaveRow> it) {
-    return Streams.stream(it).sorted(SortKeyOrder.SINGLETON).iterator();
+  /**
+   * Lazily merges iterators that are each already in sort key order (such as the iterators of
+   * individual ranges within a RocksDB table) into a single iterator in sort key order. Only the
+   * head of each iterator is held in memory so the first row is available immediately regardless of
+   * the size of the result.
+   *
+   * @param iterators the sorted iterators to merge
+   * @return an iterator over all rows ordered by sort key
+   */
+  public static Iterator<GeoWaveRow> mergeSortedBySortKey(
+      final Iterable<? extends Iterator<? extends GeoWaveRow>> iterators) {
+    return Iterators.mergeSorted(iterators, SortKeyOrder.SINGLETON);
   }
 
   public static Pair<Boolean, Boolean> isGroupByRowAndIsSortByTime(
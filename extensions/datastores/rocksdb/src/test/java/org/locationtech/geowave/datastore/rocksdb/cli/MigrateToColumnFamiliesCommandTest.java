@@ -0,0 +1,264 @@
+/**
+ * Copyright (c) 2013-2019 Contributors to the Eclipse Foundation
+ *
+ * <p> See the NOTICE file distributed with this work for additional information regarding copyright
+ * ownership. All rights reserved. This program and the accompanying materials are made available
+ * under the terms of the Apache License, Version 2.0 which accompanies this distribution and is
+ * available at http://www.apache.org/licenses/LICENSE-2.0.txt
+ */
+package org.locationtech.geowave.datastore.rocksdb.cli;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.locationtech.geowave.core.cli.operations.config.options.ConfigOptions;
+import org.locationtech.geowave.core.cli.parser.ManualOperationParams;
+import org.locationtech.geowave.core.index.ByteArray;
+import org.locationtech.geowave.core.index.ByteArrayRange;
+import org.locationtech.geowave.core.store.CloseableIterator;
+import org.locationtech.geowave.core.store.cli.remote.options.DataStorePluginOptions;
+import org.locationtech.geowave.core.store.cli.remote.options.StoreLoader;
+import org.locationtech.geowave.core.store.entities.GeoWaveMetadata;
+import org.locationtech.geowave.core.store.entities.GeoWaveRow;
+import org.locationtech.geowave.core.store.entities.GeoWaveValue;
+import org.locationtech.geowave.core.store.entities.GeoWaveValueImpl;
+import org.locationtech.geowave.core.store.operations.MetadataType;
+import org.locationtech.geowave.datastore.rocksdb.config.RocksDBOptions;
+import org.locationtech.geowave.datastore.rocksdb.operations.RocksDBOperations;
+import org.locationtech.geowave.datastore.rocksdb.util.RocksDBClient;
+import org.locationtech.geowave.datastore.rocksdb.util.RocksDBClientCache;
+import org.locationtech.geowave.datastore.rocksdb.util.RocksDBColumnFamilyStore;
+import org.locationtech.geowave.datastore.rocksdb.util.RocksDBIndexTable;
+import org.locationtech.geowave.datastore.rocksdb.util.RocksDBMetadataTable;
+import org.locationtech.geowave.datastore.rocksdb.util.RocksDBUtils;
+
+public class MigrateToColumnFamiliesCommandTest {
+  private static final String STORE_NAME = "migrate-test";
+  private static final String TABLE_PREFIX = RocksDBUtils.getTablePrefix("type", "index");
+  private static final short ADAPTER_ID = 1;
+  private static final byte[][] PARTITIONS = new byte[][] {new byte[0], {1}, {2}};
+  private static final int ROWS_PER_PARTITION = 500;
+
+  private File workDir;
+  private File configFile;
+  private ManualOperationParams params;
+
+  @Before
+  public void setup() throws IOException {
+    workDir = Files.createTempDirectory("MigrateToColumnFamiliesCommandTest").toFile();
+    configFile = new File(workDir, "config.properties");
+    params = new ManualOperationParams();
+    params.getContext().put(ConfigOptions.PROPERTIES_FILE_CONTEXT, configFile);
+  }
+
+  @After
+  public void cleanup() throws IOException {
+    RocksDBClientCache.getInstance().closeAll();
+    FileUtils.deleteDirectory(workDir);
+  }
+
+  @Test
+  public void testMigrateAndQuery() throws Exception {
+    final RocksDBOptions options = createStore();
+    final String directory = RocksDBUtils.getDirectory(options);
+    writeOriginalLayout(options);
+
+    final MigrateToColumnFamiliesCommand command = new MigrateToColumnFamiliesCommand();
+    command.setParameters(STORE_NAME);
+    command.execute(params);
+
+    // the original table directories are kept unless requested otherwise
+    assertTrue(new File(directory, TABLE_PREFIX).isDirectory());
+    assertTrue(new File(directory, RocksDBColumnFamilyStore.COLUMN_FAMILY_DIRECTORY).isDirectory());
+
+    final RocksDBOptions migrated = loadOptions();
+    assertTrue(migrated.isColumnFamilies());
+    assertEquals(options.getBlockCacheSize(), migrated.getBlockCacheSize());
+    assertEquals(options.getWriteRateLimit(), migrated.getWriteRateLimit());
+    assertMigratedContents(migrated);
+  }
+
+  @Test
+  public void testMigrateDeletingOriginal() throws Exception {
+    final RocksDBOptions options = createStore();
+    final String directory = RocksDBUtils.getDirectory(options);
+    writeOriginalLayout(options);
+
+    final MigrateToColumnFamiliesCommand command = new MigrateToColumnFamiliesCommand();
+    command.setParameters(STORE_NAME);
+    command.setDeleteOriginal(true);
+    command.execute(params);
+
+    for (final byte[] partition : PARTITIONS) {
+      assertFalse(new File(directory, RocksDBUtils.getTableName(TABLE_PREFIX, partition)).exists());
+    }
+    // metadata stays in its own database
+    assertTrue(new File(directory, MetadataType.ADAPTER.name()).isDirectory());
+    assertMigratedContents(loadOptions());
+
+    // migrating again leaves the migrated store untouched
+    command.execute(params);
+    assertMigratedContents(loadOptions());
+  }
+
+  @Test
+  public void testMigrateWhileStoreIsOpen() throws Exception {
+    final RocksDBOptions options = createStore();
+    // the store is opened as a data store would open it, and its client is left open and cached
+    new RocksDBOperations(options);
+    final RocksDBClient client =
+        RocksDBClientCache.getInstance().getClient(
+            RocksDBUtils.getDirectory(options),
+            options.getStoreOptions().isVisibilityEnabled(),
+            options.isCompactOnWrite(),
+            options.getBatchWriteSize(),
+            false,
+            options.getBlockCacheSize() * 1024L * 1024L,
+            options.getWriteRateLimit() * 1024L * 1024L);
+    writeOriginalLayout(client);
+
+    final MigrateToColumnFamiliesCommand command = new MigrateToColumnFamiliesCommand();
+    command.setParameters(STORE_NAME);
+    command.setDeleteOriginal(true);
+    command.execute(params);
+
+    // the cached client has been closed, otherwise it would still hold the metadata open
+    assertMigratedContents(loadOptions());
+  }
+
+  private RocksDBOptions createStore() throws IOException {
+    final RocksDBOptions options = new RocksDBOptions(STORE_NAME);
+    options.setDirectory(new File(workDir, "rocksdb").getAbsolutePath());
+    options.setBlockCacheSize(8);
+    options.setWriteRateLimit(16);
+    final Properties props = new Properties();
+    new DataStorePluginOptions(options).save(
+        props,
+        DataStorePluginOptions.getStoreNamespace(STORE_NAME));
+    ConfigOptions.writeProperties(configFile, props);
+    return options;
+  }
+
+  private RocksDBOptions loadOptions() {
+    final StoreLoader loader = new StoreLoader(STORE_NAME);
+    assertTrue(loader.loadFromConfig(configFile));
+    return (RocksDBOptions) loader.getDataStorePlugin().getFactoryOptions();
+  }
+
+  private static void writeOriginalLayout(final RocksDBOptions options) {
+    final String directory = RocksDBUtils.getDirectory(options);
+    writeOriginalLayout(
+        RocksDBClientCache.getInstance().getClient(
+            directory,
+            options.getStoreOptions().isVisibilityEnabled(),
+            options.isCompactOnWrite(),
+            options.getBatchWriteSize()));
+    // release the directories so they can be read by the migration
+    RocksDBClientCache.getInstance().close(
+        directory,
+        options.getStoreOptions().isVisibilityEnabled(),
+        options.isCompactOnWrite(),
+        options.getBatchWriteSize());
+  }
+
+  private static void writeOriginalLayout(final RocksDBClient client) {
+    assertFalse(client.isColumnFamilies());
+    for (final byte[] partition : PARTITIONS) {
+      final RocksDBIndexTable table =
+          RocksDBUtils.getIndexTableFromPrefix(client, TABLE_PREFIX, ADAPTER_ID, partition, false);
+      for (int i = 0; i < ROWS_PER_PARTITION; i++) {
+        table.add(sortKey(i), dataId(partition, i), (short) 0, value(partition, i));
+      }
+      table.flush();
+    }
+    final RocksDBMetadataTable metadata =
+        RocksDBUtils.getMetadataTable(client, MetadataType.ADAPTER);
+    metadata.add(new GeoWaveMetadata(new byte[] {ADAPTER_ID}, null, null, new byte[] {42}));
+    metadata.flush();
+    assertTrue(new File(client.getSubDirectory(), TABLE_PREFIX).isDirectory());
+  }
+
+  private static void assertMigratedContents(final RocksDBOptions options) {
+    final RocksDBClient client =
+        RocksDBClientCache.getInstance().getClient(
+            RocksDBUtils.getDirectory(options),
+            options.getStoreOptions().isVisibilityEnabled(),
+            options.isCompactOnWrite(),
+            options.getBatchWriteSize(),
+            options.isColumnFamilies(),
+            options.getBlockCacheSize() * 1024L * 1024L,
+            options.getWriteRateLimit() * 1024L * 1024L);
+    assertTrue(client.isColumnFamilies());
+
+    final Set<ByteArray> expectedPartitions = new HashSet<>();
+    for (final byte[] partition : PARTITIONS) {
+      expectedPartitions.add(new ByteArray(partition));
+    }
+    assertEquals(expectedPartitions, client.getPartitions(TABLE_PREFIX));
+
+    for (final byte[] partition : PARTITIONS) {
+      final RocksDBIndexTable table =
+          RocksDBUtils.getIndexTableFromPrefix(client, TABLE_PREFIX, ADAPTER_ID, partition, false);
+      final List<GeoWaveRow> rows = new ArrayList<>();
+      try (CloseableIterator<GeoWaveRow> it = table.iterator()) {
+        it.forEachRemaining(rows::add);
+      }
+      assertEquals(ROWS_PER_PARTITION, rows.size());
+      for (int i = 0; i < ROWS_PER_PARTITION; i++) {
+        assertRow(partition, i, rows.get(i));
+      }
+
+      // range queries are answered from the column family
+      final List<GeoWaveRow> rangeRows = new ArrayList<>();
+      try (CloseableIterator<GeoWaveRow> it =
+          table.iterator(new ByteArrayRange(sortKey(100), sortKey(199)))) {
+        it.forEachRemaining(rangeRows::add);
+      }
+      assertEquals(100, rangeRows.size());
+      for (int i = 0; i < rangeRows.size(); i++) {
+        assertRow(partition, 100 + i, rangeRows.get(i));
+      }
+    }
+
+    final RocksDBMetadataTable metadata =
+        RocksDBUtils.getMetadataTable(client, MetadataType.ADAPTER);
+    try (CloseableIterator<GeoWaveMetadata> it = metadata.iterator(new byte[] {ADAPTER_ID})) {
+      assertTrue(it.hasNext());
+      assertArrayEquals(new byte[] {42}, it.next().getValue());
+    }
+  }
+
+  private static void assertRow(final byte[] partition, final int i, final GeoWaveRow row) {
+    assertEquals(ADAPTER_ID, row.getAdapterId());
+    assertArrayEquals(partition, row.getPartitionKey());
+    assertArrayEquals(sortKey(i), row.getSortKey());
+    assertArrayEquals(dataId(partition, i), row.getDataId());
+    assertEquals(1, row.getFieldValues().length);
+    assertArrayEquals(value(partition, i).getValue(), row.getFieldValues()[0].getValue());
+  }
+
+  private static byte[] sortKey(final int i) {
+    return new byte[] {(byte) (i >> 8), (byte) i};
+  }
+
+  private static byte[] dataId(final byte[] partition, final int i) {
+    return ("id-" + (partition.length == 0 ? 0 : partition[0]) + "-" + i).getBytes();
+  }
+
+  private static GeoWaveValue value(final byte[] partition, final int i) {
+    return new GeoWaveValueImpl(new byte[] {1}, new byte[0], dataId(partition, i));
+  }
+}
@@ -0,0 +1,213 @@
+/**
+ * Copyright (c) 2013-2019 Contributors to the Eclipse Foundation
+ *
+ * <p> See the NOTICE file distributed with this work for additional information regarding copyright
+ * ownership. All rights reserved. This program and the accompanying materials are made available
+ * under the terms of the Apache License, Version 2.0 which accompanies this distribution and is
+ * available at http://www.apache.org/licenses/LICENSE-2.0.txt
+ */
+package org.locationtech.geowave.datastore.rocksdb.operations;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.commons.lang3.tuple.Pair;
+import org.junit.Test;
+import org.locationtech.geowave.core.index.ByteArrayRange;
+import org.locationtech.geowave.core.index.SinglePartitionQueryRanges;
+import org.locationtech.geowave.core.store.CloseableIterator;
+import org.locationtech.geowave.core.store.entities.GeoWaveKeyImpl;
+import org.locationtech.geowave.core.store.entities.GeoWaveRow;
+import org.locationtech.geowave.core.store.entities.GeoWaveRowImpl;
+import org.locationtech.geowave.core.store.entities.GeoWaveRowIteratorTransformer;
+import org.locationtech.geowave.core.store.entities.GeoWaveValue;
+import org.locationtech.geowave.datastore.rocksdb.util.RocksDBClient;
+import org.locationtech.geowave.datastore.rocksdb.util.RocksDBIndexTable;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+
+public class RocksDBQueryExecutionTest {
+  private static final int PARTITIONS = 4;
+  private static final int ROWS_PER_PARTITION = 1000;
+  private static final byte FAILING_PARTITION = 2;
+
+  @Test
+  public void testConcurrentPartitions() {
+    final AtomicInteger closedIterators = new AtomicInteger(0);
+    final RocksDBQueryExecution<GeoWaveRow> execution =
+        createExecution(createClient(-1, closedIterators), false);
+    int count = 0;
+    try (CloseableIterator<GeoWaveRow> results = execution.results()) {
+      while (results.hasNext()) {
+        results.next();
+        count++;
+      }
+    }
+    assertEquals(PARTITIONS * ROWS_PER_PARTITION, count);
+    awaitClosed(closedIterators);
+  }
+
+  @Test
+  public void testConcurrentSortedPartitions() {
+    final RocksDBQueryExecution<GeoWaveRow> execution =
+        createExecution(createClient(-1, new AtomicInteger(0)), true);
+    final List<GeoWaveRow> rows = new ArrayList<>();
+    try (CloseableIterator<GeoWaveRow> results = execution.results()) {
+      results.forEachRemaining(rows::add);
+    }
+    assertEquals(PARTITIONS * ROWS_PER_PARTITION, rows.size());
+    for (int i = 0; i < rows.size(); i++) {
+      assertArrayEquals(sortKey(i / PARTITIONS), rows.get(i).getSortKey());
+    }
+  }
+
+  @Test
+  public void testConcurrentPartitionFailure() {
+    final AtomicInteger closedIterators = new AtomicInteger(0);
+    assertFailurePropagated(
+        createExecution(createClient(ROWS_PER_PARTITION / 2, closedIterators), false));
+    // the partitions that are still being read stop and close once the results are closed
+    awaitClosed(closedIterators);
+  }
+
+  @Test
+  public void testConcurrentSortedPartitionFailure() {
+    assertFailurePropagated(
+        createExecution(createClient(ROWS_PER_PARTITION / 2, new AtomicInteger(0)), true));
+  }
+
+  @Test
+  public void testConcurrentPartitionFailureAtStart() {
+    assertFailurePropagated(createExecution(createClient(0, new AtomicInteger(0)), false));
+  }
+
+  private static void awaitClosed(final AtomicInteger closedIterators) {
+    final long timeout = System.currentTimeMillis() + 10000;
+    while ((closedIterators.get() < PARTITIONS) && (System.currentTimeMillis() < timeout)) {
+      Thread.yield();
+    }
+    assertEquals(PARTITIONS, closedIterators.get());
+  }
+
+  private static void assertFailurePropagated(final RocksDBQueryExecution<GeoWaveRow> execution) {
+    int count = 0;
+    try (CloseableIterator<GeoWaveRow> results = execution.results()) {
+      while (results.hasNext()) {
+        results.next();
+        count++;
+      }
+      fail("The failure of a partition read should be rethrown");
+    } catch (final RuntimeException e) {
+      assertTrue(e.getCause() instanceof IllegalStateException);
+      assertEquals("Unable to read partition " + FAILING_PARTITION, e.getCause().getMessage());
+    }
+    // the failure must not be mistaken for the end of the complete results
+    assertTrue(count < (PARTITIONS * ROWS_PER_PARTITION));
+  }
+
+  private static RocksDBQueryExecution<GeoWaveRow> createExecution(
+      final RocksDBClient client,
+      final boolean sortBySortKey) {
+    final List<SinglePartitionQueryRanges> ranges = new ArrayList<>();
+    for (byte p = 0; p < PARTITIONS; p++) {
+      ranges.add(
+          new SinglePartitionQueryRanges(
+              new byte[] {p},
+              Collections.singletonList(new ByteArrayRange(new byte[0], new byte[] {127}))));
+    }
+    return new RocksDBQueryExecution<>(
+        client,
+        "prefix",
+        (short) 0,
+        GeoWaveRowIteratorTransformer.NO_OP_TRANSFORMER,
+        ranges,
+        r -> true,
+        false,
+        // a sorted query reads every partition concurrently only if there are enough read threads,
+        // an unsorted query shares fewer read threads than partitions
+        sortBySortKey ? PARTITIONS : PARTITIONS / 2,
+        Pair.of(false, false),
+        sortBySortKey);
+  }
+
+  /**
+   * @param failAfter the number of rows after which the failing partition throws, or a negative
+   *        value for no failure
+   */
+  private static RocksDBClient createClient(
+      final int failAfter,
+      final AtomicInteger closedIterators) {
+    final RocksDBClient client = Mockito.mock(RocksDBClient.class);
+    Mockito.when(
+        client.getIndexTable(
+            ArgumentMatchers.anyString(),
+            ArgumentMatchers.anyShort(),
+            ArgumentMatchers.any(byte[].class),
+            ArgumentMatchers.anyBoolean())).thenAnswer(invocation -> {
+              final byte partition = invocation.<byte[]>getArgument(2)[0];
+              final RocksDBIndexTable table = Mockito.mock(RocksDBIndexTable.class);
+              Mockito.when(table.iterator(ArgumentMatchers.any(ByteArrayRange.class))).thenAnswer(
+                  i -> new PartitionIterator(
+                      partition,
+                      partition == FAILING_PARTITION ? failAfter : -1,
+                      closedIterators));
+              return table;
+            });
+    return client;
+  }
+
+  private static byte[] sortKey(final int i) {
+    return new byte[] {(byte) (i >>> 8), (byte) i};
+  }
+
+  private static class PartitionIterator implements CloseableIterator<GeoWaveRow> {
+    private final byte partition;
+    private final int failAfter;
+    private final AtomicInteger closedIterators;
+    private int next = 0;
+
+    private PartitionIterator(
+        final byte partition,
+        final int failAfter,
+        final AtomicInteger closedIterators) {
+      this.partition = partition;
+      this.failAfter = failAfter;
+      this.closedIterators = closedIterators;
+    }
+
+    @Override
+    public boolean hasNext() {
+      if (next == failAfter) {
+        throw new IllegalStateException("Unable to read partition " + partition);
+      }
+      return next < ROWS_PER_PARTITION;
+    }
+
+    @Override
+    public GeoWaveRow next() {
+      final Iterator<GeoWaveRow> it =
+          Collections.<GeoWaveRow>singletonList(
+              new GeoWaveRowImpl(
+                  new GeoWaveKeyImpl(
+                      new byte[] {partition, (byte) next},
+                      (short) 0,
+                      new byte[] {partition},
+                      sortKey(next),
+                      0),
+                  new GeoWaveValue[0])).iterator();
+      next++;
+      return it.next();
+    }
+
+    @Override
+    public void close() {
+      closedIterators.incrementAndGet();
+    }
+  }
+}
@@ -0,0 +1,72 @@
+/**
+ * Copyright (c) 2013-2019 Contributors to the Eclipse Foundation
+ *
+ * <p> See the NOTICE file distributed with this work for additional information regarding copyright
+ * ownership. All rights reserved. This program and the accompanying materials are made available
+ * under the terms of the Apache License, Version 2.0 which accompanies this distribution and is
+ * available at http://www.apache.org/licenses/LICENSE-2.0.txt
+ */
+package org.locationtech.geowave.datastore.rocksdb.util;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.locationtech.geowave.core.store.CloseableIterator;
+import org.locationtech.geowave.core.store.entities.GeoWaveMetadata;
+import org.locationtech.geowave.core.store.operations.MetadataType;
+
+public class RocksDBClientCacheTest {
+  private static final long MEGABYTE = 1024L * 1024L;
+  private File directory;
+
+  @Before
+  public void setup() throws IOException {
+    directory = Files.createTempDirectory("RocksDBClientCacheTest").toFile();
+  }
+
+  @After
+  public void cleanup() throws IOException {
+    RocksDBClientCache.getInstance().closeAll();
+    FileUtils.deleteDirectory(directory);
+  }
+
+  @Test
+  public void testTuningValuesShareClient() {
+    final String dir = directory.getAbsolutePath();
+    final RocksDBClient client =
+        RocksDBClientCache.getInstance().getClient(dir, false, false, 1000, false, 8 * MEGABYTE, 0);
+    final RocksDBMetadataTable metadata =
+        RocksDBUtils.getMetadataTable(client, MetadataType.ADAPTER);
+    metadata.add(new GeoWaveMetadata(new byte[] {1}, null, null, new byte[] {42}));
+    metadata.flush();
+
+    // options that only differ by tuning values share the client that holds the directory open
+    final RocksDBClient tunedClient =
+        RocksDBClientCache.getInstance().getClient(
+            dir,
+            false,
+            false,
+            1000,
+            false,
+            256 * MEGABYTE,
+            16 * MEGABYTE);
+    assertSame(client, tunedClient);
+    try (CloseableIterator<GeoWaveMetadata> it =
+        RocksDBUtils.getMetadataTable(tunedClient, MetadataType.ADAPTER).iterator(new byte[] {1})) {
+      assertTrue(it.hasNext());
+      assertArrayEquals(new byte[] {42}, it.next().getValue());
+    }
+
+    // and closing with any tuning values closes it
+    RocksDBClientCache.getInstance().close(dir, false, false, 1000);
+    assertNotSame(client, RocksDBClientCache.getInstance().getClient(dir, false, false, 1000));
+  }
+}
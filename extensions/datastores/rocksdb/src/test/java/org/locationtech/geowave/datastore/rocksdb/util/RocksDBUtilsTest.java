@@ -8,8 +8,17 @@
  */
 package org.locationtech.geowave.datastore.rocksdb.util;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
 import org.junit.Test;
+import org.locationtech.geowave.core.store.entities.GeoWaveKeyImpl;
+import org.locationtech.geowave.core.store.entities.GeoWaveRow;
+import org.locationtech.geowave.core.store.entities.GeoWaveRowImpl;
+import org.locationtech.geowave.core.store.entities.GeoWaveValue;
 
 public class RocksDBUtilsTest {
 
@@ -22,4 +31,24 @@ public class RocksDBUtilsTest {
     assertEquals("prefix-empty", emptyPartitionKeyName);
   }
 
+  @Test
+  public void testMergeSortedBySortKey() {
+    final List<Iterator<GeoWaveRow>> iterators =
+        Arrays.asList(
+            Arrays.asList(row(1), row(4), row(7)).iterator(),
+            Arrays.<GeoWaveRow>asList().iterator(),
+            Arrays.asList(row(2), row(3), row(8)).iterator(),
+            Arrays.asList(row(0), row(5), row(6)).iterator());
+    final Iterator<GeoWaveRow> merged = RocksDBUtils.mergeSortedBySortKey(iterators);
+    for (int i = 0; i < 9; i++) {
+      assertArrayEquals(new byte[] {(byte) i}, merged.next().getSortKey());
+    }
+    assertFalse(merged.hasNext());
+  }
+
+  private static GeoWaveRow row(final int sortKey) {
+    return new GeoWaveRowImpl(
+        new GeoWaveKeyImpl(new byte[] {1}, (short) 0, new byte[0], new byte[] {(byte) sortKey}, 0),
+        new GeoWaveValue[0]);
+  }
 }
@@ -10,7 +10,6 @@ package org.locationtech.geowave.format.gdelt;
 
 import org.locationtech.geowave.adapter.vector.ingest.AbstractSimpleFeatureIngestFormat;
 import org.locationtech.geowave.adapter.vector.ingest.AbstractSimpleFeatureIngestPlugin;
-import org.locationtech.geowave.adapter.vector.ingest.DataSchemaOptionProvider;
 import org.locationtech.geowave.core.ingest.avro.AvroWholeFile;
 import org.locationtech.geowave.core.store.ingest.IngestFormatOptions;
 
@@ -21,8 +20,7 @@ import org.locationtech.geowave.core.store.ingest.IngestFormatOptions;
  */
 public class GDELTIngestFormat extends AbstractSimpleFeatureIngestFormat<AvroWholeFile> {
 
-  protected final DataSchemaOptionProvider dataSchemaOptionProvider =
-      new DataSchemaOptionProvider();
+  protected final GDELTOptionProvider dataSchemaOptionProvider = new GDELTOptionProvider();
 
   @Override
   protected AbstractSimpleFeatureIngestPlugin<AvroWholeFile> newPluginInstance(
@@ -18,6 +18,7 @@ import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.function.Supplier;
 import java.util.zip.ZipInputStream;
 import org.apache.avro.Schema;
 import org.apache.commons.io.IOUtils;
@@ -29,14 +30,18 @@ import org.locationtech.geowave.adapter.vector.util.SimpleFeatureUserDataConfigu
 import org.locationtech.geowave.core.geotime.store.dimension.GeometryWrapper;
 import org.locationtech.geowave.core.geotime.store.dimension.Time;
 import org.locationtech.geowave.core.index.StringUtils;
+import org.locationtech.geowave.core.ingest.DelimitedFieldParser;
 import org.locationtech.geowave.core.ingest.avro.AvroWholeFile;
+import org.locationtech.geowave.core.ingest.avro.WholeFileChunkIterator;
 import org.locationtech.geowave.core.ingest.hdfs.mapreduce.IngestWithMapper;
 import org.locationtech.geowave.core.ingest.hdfs.mapreduce.IngestWithReducer;
 import org.locationtech.geowave.core.store.CloseableIterator;
+import org.locationtech.geowave.core.store.CloseableIteratorWrapper;
 import org.locationtech.geowave.core.store.api.Index;
 import org.locationtech.geowave.core.store.index.CommonIndexValue;
 import org.locationtech.geowave.core.store.ingest.GeoWaveData;
 import org.locationtech.geowave.core.store.ingest.IngestPluginBase;
+import org.locationtech.geowave.core.store.ingest.SplittableLocalFileIngestPlugin;
 import org.locationtech.jts.geom.Coordinate;
 import org.locationtech.jts.geom.GeometryFactory;
 import org.opengis.feature.simple.SimpleFeature;
@@ -48,17 +53,19 @@ import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 
 /*
  */
-public class GDELTIngestPlugin extends AbstractSimpleFeatureIngestPlugin<AvroWholeFile> {
+public class GDELTIngestPlugin extends AbstractSimpleFeatureIngestPlugin<AvroWholeFile> implements
+    SplittableLocalFileIngestPlugin<SimpleFeature> {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(GDELTIngestPlugin.class);
 
-  private SimpleFeatureBuilder gdeltEventBuilder;
   private SimpleFeatureType gdeltEventType;
 
   private final String eventKey;
 
   private boolean includeSupplementalFields;
 
+  private int chunkSize = 0;
+
   public GDELTIngestPlugin() {
 
     // default to reduced data format
@@ -72,11 +79,15 @@ public class GDELTIngestPlugin extends AbstractSimpleFeatureIngestPlugin<AvroWho
     eventKey = GDELTUtils.GDELT_EVENT_FEATURE;
   }
 
+  public GDELTIngestPlugin(final GDELTOptionProvider optionProvider) {
+    this((DataSchemaOptionProvider) optionProvider);
+    chunkSize = optionProvider.getChunkSizeBytes();
+  }
+
   private void setIncludeSupplementalFields(final boolean includeSupplementalFields) {
     this.includeSupplementalFields = includeSupplementalFields;
 
     gdeltEventType = GDELTUtils.createGDELTEventDataType(includeSupplementalFields);
-    gdeltEventBuilder = new SimpleFeatureBuilder(gdeltEventType);
   }
 
   @Override
@@ -105,6 +116,18 @@ public class GDELTIngestPlugin extends AbstractSimpleFeatureIngestPlugin<AvroWho
 
   @Override
   public CloseableIterator<AvroWholeFile> toAvroObjects(final URL input) {
+    if (chunkSize > 0) {
+      // stage the uncompressed text in chunks that end on line boundaries
+      try {
+        final ZipInputStream zip = new ZipInputStream(input.openStream());
+        // Expected input is zipped single files (exactly one entry)
+        zip.getNextEntry();
+        return new WholeFileChunkIterator(zip, input.getPath(), chunkSize);
+      } catch (final IOException e) {
+        LOGGER.warn("Unable to read GDELT file: " + input.getPath(), e);
+        return new CloseableIterator.Empty<>();
+      }
+    }
     final AvroWholeFile avroFile = new AvroWholeFile();
     avroFile.setOriginalFilePath(input.getPath());
     try {
@@ -117,6 +140,21 @@ public class GDELTIngestPlugin extends AbstractSimpleFeatureIngestPlugin<AvroWho
     return new CloseableIterator.Wrapper<>(Iterators.singletonIterator(avroFile));
   }
 
+  @Override
+  public CloseableIterator<Supplier<CloseableIterator<GeoWaveData<SimpleFeature>>>> toGeoWaveDataParts(
+      final URL input,
+      final String[] indexNames,
+      final String globalVisibility) {
+    // each staged chunk is a part, which is converted with its own feature builder
+    final CloseableIterator<AvroWholeFile> chunks = toAvroObjects(input);
+    return new CloseableIteratorWrapper<>(
+        chunks,
+        Iterators.transform(
+            chunks,
+            chunk -> () -> wrapIteratorWithFilters(
+                toGeoWaveDataInternal(chunk, indexNames, globalVisibility))));
+  }
+
   @Override
   public boolean isUseReducerPreferred() {
     return false;
@@ -143,22 +181,31 @@ public class GDELTIngestPlugin extends AbstractSimpleFeatureIngestPlugin<AvroWho
       final String globalVisibility) {
 
     final List<GeoWaveData<SimpleFeature>> featureData = new ArrayList<>();
-
-    final InputStream in = new ByteArrayInputStream(hfile.getOriginalFile().array());
-    final ZipInputStream zip = new ZipInputStream(in);
-    try {
-      // Expected input is zipped single files (exactly one entry)
-      zip.getNextEntry();
-    } catch (final IOException e) {
-      LOGGER.error(
-          "Failed to read ZipEntry from GDELT input file: " + hfile.getOriginalFilePath(),
-          e);
+    final SimpleFeatureBuilder gdeltEventBuilder = new SimpleFeatureBuilder(gdeltEventType);
+
+    final byte[] data = hfile.getOriginalFile().array();
+    final InputStream in;
+    if (isZip(data)) {
+      final ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(data));
+      try {
+        // Expected input is zipped single files (exactly one entry)
+        zip.getNextEntry();
+      } catch (final IOException e) {
+        LOGGER.error(
+            "Failed to read ZipEntry from GDELT input file: " + hfile.getOriginalFilePath(),
+            e);
+      }
+      in = zip;
+    } else {
+      // a chunk of uncompressed text
+      in = new ByteArrayInputStream(data);
     }
 
-    final InputStreamReader isr = new InputStreamReader(zip, StringUtils.UTF8_CHARSET);
+    final InputStreamReader isr = new InputStreamReader(in, StringUtils.UTF8_CHARSET);
     final BufferedReader br = new BufferedReader(isr);
 
     final GeometryFactory geometryFactory = new GeometryFactory();
+    final DelimitedFieldParser vals = new DelimitedFieldParser('\t');
 
     Date timeStamp = null;
     String timestring = "";
@@ -172,10 +219,6 @@ public class GDELTIngestPlugin extends AbstractSimpleFeatureIngestPlugin<AvroWho
     String sourceUrl = "";
     String actor1CC = "";
     String actor2CC = "";
-    String numMentions = "";
-    String numSources = "";
-    String numArticles = "";
-    String avgTone = "";
 
     String line;
     int lineNumber = 0;
@@ -183,12 +226,12 @@ public class GDELTIngestPlugin extends AbstractSimpleFeatureIngestPlugin<AvroWho
       while ((line = br.readLine()) != null) {
         lineNumber++;
         try {
-          final String[] vals = line.split("\t");
-          if ((vals.length < GDELTUtils.GDELT_MIN_COLUMNS)
-              || (vals.length > GDELTUtils.GDELT_MAX_COLUMNS)) {
+          vals.parse(line);
+          if ((vals.getFieldCount() < GDELTUtils.GDELT_MIN_COLUMNS)
+              || (vals.getFieldCount() > GDELTUtils.GDELT_MAX_COLUMNS)) {
             LOGGER.debug(
                 "Invalid GDELT line length: "
-                    + vals.length
+                    + vals.getFieldCount()
                     + " tokens found on line "
                     + lineNumber
                     + " of "
@@ -196,13 +239,13 @@ public class GDELTIngestPlugin extends AbstractSimpleFeatureIngestPlugin<AvroWho
             continue;
           }
 
-          actionGeoType = Integer.parseInt(vals[GDELTUtils.GDELT_ACTION_GEO_TYPE_COLUMN_ID]);
+          actionGeoType = vals.getInt(GDELTUtils.GDELT_ACTION_GEO_TYPE_COLUMN_ID);
           if (actionGeoType == 0) {
             // No geo associated with this event
             continue;
           }
 
-          eventId = vals[GDELTUtils.GDELT_EVENT_ID_COLUMN_ID];
+          eventId = vals.getString(GDELTUtils.GDELT_EVENT_ID_COLUMN_ID);
 
           try {
             final Pair<Double, Double> latLon = GDELTUtils.parseLatLon(vals);
@@ -231,29 +274,29 @@ public class GDELTIngestPlugin extends AbstractSimpleFeatureIngestPlugin<AvroWho
 
           gdeltEventBuilder.set(GDELTUtils.GDELT_EVENT_ID_ATTRIBUTE, eventId);
 
-          timestring = vals[GDELTUtils.GDELT_TIMESTAMP_COLUMN_ID];
+          timestring = vals.getString(GDELTUtils.GDELT_TIMESTAMP_COLUMN_ID);
           timeStamp = GDELTUtils.parseDate(timestring);
           gdeltEventBuilder.set(GDELTUtils.GDELT_TIMESTAMP_ATTRIBUTE, timeStamp);
 
           gdeltEventBuilder.set(GDELTUtils.GDELT_LATITUDE_ATTRIBUTE, lat);
           gdeltEventBuilder.set(GDELTUtils.GDELT_LONGITUDE_ATTRIBUTE, lon);
 
-          actor1Name = vals[GDELTUtils.ACTOR_1_NAME_COLUMN_ID];
+          actor1Name = vals.getString(GDELTUtils.ACTOR_1_NAME_COLUMN_ID);
           if ((actor1Name != null) && !actor1Name.isEmpty()) {
             gdeltEventBuilder.set(GDELTUtils.ACTOR_1_NAME_ATTRIBUTE, actor1Name);
           }
 
-          actor2Name = vals[GDELTUtils.ACTOR_2_NAME_COLUMN_ID];
+          actor2Name = vals.getString(GDELTUtils.ACTOR_2_NAME_COLUMN_ID);
           if ((actor2Name != null) && !actor2Name.isEmpty()) {
             gdeltEventBuilder.set(GDELTUtils.ACTOR_2_NAME_ATTRIBUTE, actor2Name);
           }
 
-          countryCode = vals[GDELTUtils.ACTION_COUNTRY_CODE_COLUMN_ID];
+          countryCode = vals.getString(GDELTUtils.ACTION_COUNTRY_CODE_COLUMN_ID);
           if ((countryCode != null) && !countryCode.isEmpty()) {
             gdeltEventBuilder.set(GDELTUtils.ACTION_COUNTRY_CODE_ATTRIBUTE, countryCode);
           }
-          if (vals.length > GDELTUtils.SOURCE_URL_COLUMN_ID) {
-            sourceUrl = vals[GDELTUtils.SOURCE_URL_COLUMN_ID];
+          if (vals.getFieldCount() > GDELTUtils.SOURCE_URL_COLUMN_ID) {
+            sourceUrl = vals.getString(GDELTUtils.SOURCE_URL_COLUMN_ID);
           }
           if ((sourceUrl != null) && !sourceUrl.isEmpty()) {
             gdeltEventBuilder.set(GDELTUtils.SOURCE_URL_ATTRIBUTE, sourceUrl);
@@ -261,38 +304,38 @@ public class GDELTIngestPlugin extends AbstractSimpleFeatureIngestPlugin<AvroWho
 
           if (includeSupplementalFields) {
 
-            actor1CC = vals[GDELTUtils.ACTOR_1_COUNTRY_CODE_COLUMN_ID];
+            actor1CC = vals.getString(GDELTUtils.ACTOR_1_COUNTRY_CODE_COLUMN_ID);
             if ((actor1CC != null) && !actor1CC.isEmpty()) {
               gdeltEventBuilder.set(GDELTUtils.ACTOR_1_COUNTRY_CODE_ATTRIBUTE, actor1CC);
             }
 
-            actor2CC = vals[GDELTUtils.ACTOR_2_COUNTRY_CODE_COLUMN_ID];
+            actor2CC = vals.getString(GDELTUtils.ACTOR_2_COUNTRY_CODE_COLUMN_ID);
             if ((actor2CC != null) && !actor2CC.isEmpty()) {
               gdeltEventBuilder.set(GDELTUtils.ACTOR_2_COUNTRY_CODE_ATTRIBUTE, actor2CC);
             }
 
-            numMentions = vals[GDELTUtils.NUM_MENTIONS_COLUMN_ID];
-            if ((numMentions != null) && !numMentions.isEmpty()) {
+            if (!vals.isEmpty(GDELTUtils.NUM_MENTIONS_COLUMN_ID)) {
               gdeltEventBuilder.set(
                   GDELTUtils.NUM_MENTIONS_ATTRIBUTE,
-                  Integer.parseInt(numMentions));
+                  vals.getInt(GDELTUtils.NUM_MENTIONS_COLUMN_ID));
             }
 
-            numSources = vals[GDELTUtils.NUM_SOURCES_COLUMN_ID];
-            if ((numSources != null) && !numSources.isEmpty()) {
-              gdeltEventBuilder.set(GDELTUtils.NUM_SOURCES_ATTRIBUTE, Integer.parseInt(numSources));
+            if (!vals.isEmpty(GDELTUtils.NUM_SOURCES_COLUMN_ID)) {
+              gdeltEventBuilder.set(
+                  GDELTUtils.NUM_SOURCES_ATTRIBUTE,
+                  vals.getInt(GDELTUtils.NUM_SOURCES_COLUMN_ID));
             }
 
-            numArticles = vals[GDELTUtils.NUM_ARTICLES_COLUMN_ID];
-            if ((numArticles != null) && !numArticles.isEmpty()) {
+            if (!vals.isEmpty(GDELTUtils.NUM_ARTICLES_COLUMN_ID)) {
               gdeltEventBuilder.set(
                   GDELTUtils.NUM_ARTICLES_ATTRIBUTE,
-                  Integer.parseInt(numArticles));
+                  vals.getInt(GDELTUtils.NUM_ARTICLES_COLUMN_ID));
             }
 
-            avgTone = vals[GDELTUtils.AVG_TONE_COLUMN_ID];
-            if ((avgTone != null) && !avgTone.isEmpty()) {
-              gdeltEventBuilder.set(GDELTUtils.AVG_TONE_ATTRIBUTE, Double.parseDouble(avgTone));
+            if (!vals.isEmpty(GDELTUtils.AVG_TONE_COLUMN_ID)) {
+              gdeltEventBuilder.set(
+                  GDELTUtils.AVG_TONE_ATTRIBUTE,
+                  vals.getDouble(GDELTUtils.AVG_TONE_COLUMN_ID));
             }
           }
 
@@ -316,6 +359,15 @@ public class GDELTIngestPlugin extends AbstractSimpleFeatureIngestPlugin<AvroWho
     return new CloseableIterator.Wrapper<>(featureData.iterator());
   }
 
+  private static boolean isZip(final byte[] data) {
+    // the signature of a zip local file header
+    return (data.length >= 4)
+        && (data[0] == 'P')
+        && (data[1] == 'K')
+        && (data[2] == 3)
+        && (data[3] == 4);
+  }
+
   @Override
   public Index[] getRequiredIndices() {
     return new Index[] {};
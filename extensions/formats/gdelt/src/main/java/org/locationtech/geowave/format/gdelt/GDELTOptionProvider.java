@@ -0,0 +1,91 @@
+/**
+ * Copyright (c) 2013-2019 Contributors to the Eclipse Foundation
+ *
+ * <p> See the NOTICE file distributed with this work for additional information regarding copyright
+ * ownership. All rights reserved. This program and the accompanying materials are made available
+ * under the terms of the Apache License, Version 2.0 which accompanies this distribution and is
+ * available at http://www.apache.org/licenses/LICENSE-2.0.txt
+ */
+package org.locationtech.geowave.format.gdelt;
+
+import java.nio.ByteBuffer;
+import org.apache.commons.lang3.ArrayUtils;
+import org.locationtech.geowave.adapter.vector.ingest.DataSchemaOptionProvider;
+import org.locationtech.geowave.core.index.VarintUtils;
+import com.beust.jcommander.IParameterValidator;
+import com.beust.jcommander.Parameter;
+import com.beust.jcommander.ParameterException;
+
+public class GDELTOptionProvider extends DataSchemaOptionProvider {
+  /** The largest chunk size, which keeps the size of a chunk in bytes within the range of an int */
+  public static final int MAX_CHUNK_SIZE_MB = 1024;
+
+  @Parameter(
+      names = "--chunkSize",
+      validateWith = ChunkSizeValidator.class,
+      description = "Stage files in chunks of this many megabytes of uncompressed text, aligned on line boundaries, so that large files can be ingested in parallel. Must be between 0 and 1024. The default of 0 stages each file as a whole.")
+  private int chunkSizeMB = 0;
+
+  public int getChunkSizeMB() {
+    return chunkSizeMB;
+  }
+
+  /**
+   * @return the chunk size in bytes
+   * @throws IllegalArgumentException if the chunk size is negative or larger than
+   *         {@link #MAX_CHUNK_SIZE_MB}
+   */
+  public int getChunkSizeBytes() {
+    if ((chunkSizeMB < 0) || (chunkSizeMB > MAX_CHUNK_SIZE_MB)) {
+      throw new IllegalArgumentException(
+          "GDELT chunk size must be between 0 and "
+              + MAX_CHUNK_SIZE_MB
+              + " MB (found "
+              + chunkSizeMB
+              + ")");
+    }
+    return chunkSizeMB * 1024 * 1024;
+  }
+
+  public void setChunkSizeMB(final int chunkSizeMB) {
+    this.chunkSizeMB = chunkSizeMB;
+  }
+
+  @Override
+  public byte[] toBinary() {
+    return ArrayUtils.addAll(super.toBinary(), VarintUtils.writeUnsignedInt(chunkSizeMB));
+  }
+
+  @Override
+  public void fromBinary(final byte[] bytes) {
+    super.fromBinary(bytes);
+    if ((bytes != null) && (bytes.length > 1)) {
+      final ByteBuffer buf = ByteBuffer.wrap(bytes);
+      buf.get();
+      chunkSizeMB = VarintUtils.readUnsignedInt(buf);
+    }
+  }
+
+  public static class ChunkSizeValidator implements IParameterValidator {
+    @Override
+    public void validate(final String name, final String value) throws ParameterException {
+      final int chunkSizeMB;
+      try {
+        chunkSizeMB = Integer.parseInt(value);
+      } catch (final NumberFormatException e) {
+        throw new ParameterException(
+            "Parameter " + name + " must be an integer (found " + value + ")");
+      }
+      if ((chunkSizeMB < 0) || (chunkSizeMB > MAX_CHUNK_SIZE_MB)) {
+        throw new ParameterException(
+            "Parameter "
+                + name
+                + " must be between 0 and "
+                + MAX_CHUNK_SIZE_MB
+                + " (found "
+                + value
+                + ")");
+      }
+    }
+  }
+}
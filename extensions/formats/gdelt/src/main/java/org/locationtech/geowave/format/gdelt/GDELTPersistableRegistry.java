@@ -17,6 +17,7 @@ public class GDELTPersistableRegistry implements PersistableRegistrySpi {
   public PersistableIdAndConstructor[] getSupportedPersistables() {
     return new PersistableIdAndConstructor[] {
         new PersistableIdAndConstructor((short) 1000, GDELTIngestPlugin::new),
-        new PersistableIdAndConstructor((short) 1001, IngestGDELTFromHdfs::new),};
+        new PersistableIdAndConstructor((short) 1001, IngestGDELTFromHdfs::new),
+        new PersistableIdAndConstructor((short) 1002, GDELTOptionProvider::new),};
   }
 }
@@ -18,6 +18,7 @@ import org.apache.commons.io.FilenameUtils;
 import org.apache.commons.lang3.tuple.Pair;
 import org.geotools.feature.AttributeTypeBuilder;
 import org.geotools.feature.simple.SimpleFeatureTypeBuilder;
+import org.locationtech.geowave.core.ingest.DelimitedFieldParser;
 import org.locationtech.jts.geom.Point;
 import org.opengis.feature.simple.SimpleFeatureType;
 
@@ -164,6 +165,16 @@ public class GDELTUtils {
     return Pair.of(lat, lon);
   }
 
+  public static Pair<Double, Double> parseLatLon(final DelimitedFieldParser fields) {
+    if (fields.isEmpty(GDELT_ACTION_LATITUDE_COLUMN_ID)
+        || fields.isEmpty(GDELT_ACTION_LONGITUDE_COLUMN_ID)) {
+      return null;
+    }
+    return Pair.of(
+        fields.getDouble(GDELT_ACTION_LATITUDE_COLUMN_ID),
+        fields.getDouble(GDELT_ACTION_LONGITUDE_COLUMN_ID));
+  }
+
   public static boolean validate(final URL file) {
     return FilenameUtils.getName(file.getPath()).toLowerCase(Locale.ENGLISH).matches(
         "\\d{8}\\.export\\.csv\\.zip")
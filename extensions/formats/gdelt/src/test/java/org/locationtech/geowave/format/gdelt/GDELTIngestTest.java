@@ -8,15 +8,24 @@
  */
 package org.locationtech.geowave.format.gdelt;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 import java.io.IOException;
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 import org.junit.Before;
 import org.junit.Test;
 import org.locationtech.geowave.adapter.vector.ingest.DataSchemaOptionProvider;
+import org.locationtech.geowave.core.ingest.avro.AvroWholeFile;
 import org.locationtech.geowave.core.store.CloseableIterator;
 import org.locationtech.geowave.core.store.ingest.GeoWaveData;
 import org.opengis.feature.simple.SimpleFeature;
+import com.beust.jcommander.JCommander;
+import com.beust.jcommander.ParameterException;
 
 public class GDELTIngestTest {
   private DataSchemaOptionProvider optionsProvider;
@@ -90,6 +99,81 @@ public class GDELTIngestTest {
     assertTrue(readExpectedCountExt);
   }
 
+  @Test
+  public void testChunkedIngest() throws IOException {
+    final GDELTOptionProvider chunkedOptions = new GDELTOptionProvider();
+    chunkedOptions.setChunkSizeMB(1);
+    final GDELTIngestPlugin chunkedIngester = new GDELTIngestPlugin(chunkedOptions);
+    chunkedIngester.init(null);
+
+    final URL toIngest = this.getClass().getClassLoader().getResource(filePath);
+
+    int chunkCount = 0;
+    try (CloseableIterator<AvroWholeFile> chunks = chunkedIngester.toAvroObjects(toIngest)) {
+      while (chunks.hasNext()) {
+        chunks.next();
+        chunkCount++;
+      }
+    }
+    assertTrue(chunkCount > 1);
+
+    int featureCount = 0;
+    try (CloseableIterator<GeoWaveData<SimpleFeature>> features =
+        chunkedIngester.toGeoWaveData(toIngest, new String[] {"123"}, "")) {
+      while (features.hasNext()) {
+        if (isValidGDELTFeature(features.next())) {
+          featureCount++;
+        }
+      }
+    }
+    assertEquals(expectedCount, featureCount);
+
+    // the chunks can also be converted independently of each other
+    final List<Supplier<CloseableIterator<GeoWaveData<SimpleFeature>>>> parts = new ArrayList<>();
+    try (CloseableIterator<Supplier<CloseableIterator<GeoWaveData<SimpleFeature>>>> it =
+        chunkedIngester.toGeoWaveDataParts(toIngest, new String[] {"123"}, "")) {
+      while (it.hasNext()) {
+        parts.add(it.next());
+      }
+    }
+    assertEquals(chunkCount, parts.size());
+    final AtomicInteger partFeatureCount = new AtomicInteger();
+    parts.parallelStream().forEach(part -> {
+      try (CloseableIterator<GeoWaveData<SimpleFeature>> features = part.get()) {
+        while (features.hasNext()) {
+          if (isValidGDELTFeature(features.next())) {
+            partFeatureCount.incrementAndGet();
+          }
+        }
+      }
+    });
+    assertEquals(expectedCount, partFeatureCount.get());
+  }
+
+  @Test
+  public void testChunkSizeValidation() {
+    final GDELTOptionProvider options = new GDELTOptionProvider();
+    new JCommander(options).parse("--chunkSize", "1024");
+    assertEquals(1024 * 1024 * 1024, options.getChunkSizeBytes());
+
+    for (final String invalid : new String[] {"-1", "1025", "4096", "one"}) {
+      try {
+        new JCommander(new GDELTOptionProvider()).parse("--chunkSize", invalid);
+        fail("Expected chunk size " + invalid + " to be rejected");
+      } catch (final ParameterException e) {
+        // expected
+      }
+    }
+
+    options.setChunkSizeMB(-1);
+    try {
+      options.getChunkSizeBytes();
+      fail("Expected a negative chunk size to be rejected");
+    } catch (final IllegalArgumentException e) {
+      // expected
+    }
+  }
+
   private boolean isValidGDELTFeature(final GeoWaveData<SimpleFeature> feature) {
     if ((feature.getValue().getAttribute(GDELTUtils.GDELT_EVENT_ID_ATTRIBUTE) == null)
         || (feature.getValue().getAttribute(GDELTUtils.GDELT_GEOMETRY_ATTRIBUTE) == null)
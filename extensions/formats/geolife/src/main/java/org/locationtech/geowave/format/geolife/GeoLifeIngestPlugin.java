@@ -30,6 +30,7 @@ import org.locationtech.geowave.core.geotime.store.dimension.GeometryWrapper;
 import org.locationtech.geowave.core.geotime.store.dimension.Time;
 import org.locationtech.geowave.core.geotime.util.GeometryUtils;
 import org.locationtech.geowave.core.index.StringUtils;
+import org.locationtech.geowave.core.ingest.DelimitedFieldParser;
 import org.locationtech.geowave.core.ingest.avro.AvroWholeFile;
 import org.locationtech.geowave.core.ingest.hdfs.mapreduce.IngestWithMapper;
 import org.locationtech.geowave.core.ingest.hdfs.mapreduce.IngestWithReducer;
@@ -156,18 +157,17 @@ public class GeoLifeIngestPlugin extends AbstractSimpleFeatureIngestPlugin<AvroW
     final GeometryFactory geometryFactory = new GeometryFactory();
     double currLat;
     double currLng;
+    final DelimitedFieldParser vals = new DelimitedFieldParser(',');
     try {
       while ((line = br.readLine()) != null) {
 
-        final String[] vals = line.split(",");
-        if (vals.length != 7) {
+        vals.parse(line);
+        if (vals.getFieldCount() != 7) {
           continue;
         }
 
-        currLat =
-            GeometryUtils.adjustCoordinateDimensionToRange(Double.parseDouble(vals[0]), crs, 1);
-        currLng =
-            GeometryUtils.adjustCoordinateDimensionToRange(Double.parseDouble(vals[1]), crs, 0);
+        currLat = GeometryUtils.adjustCoordinateDimensionToRange(vals.getDouble(0), crs, 1);
+        currLng = GeometryUtils.adjustCoordinateDimensionToRange(vals.getDouble(1), crs, 0);
         final Coordinate cord = new Coordinate(currLng, currLat);
         pts.add(cord);
         geolifePointBuilder.set("geometry", geometryFactory.createPoint(cord));
@@ -175,7 +175,7 @@ public class GeoLifeIngestPlugin extends AbstractSimpleFeatureIngestPlugin<AvroW
         geolifePointBuilder.set("pointinstance", pointInstance);
         pointInstance++;
 
-        timestring = vals[5] + " " + vals[6];
+        timestring = vals.getString(5) + " " + vals.getString(6);
         final Date ts = GeoLifeUtils.parseDate(timestring);
         geolifePointBuilder.set("Timestamp", ts);
         if (startTimeStamp == null) {
@@ -186,7 +186,7 @@ public class GeoLifeIngestPlugin extends AbstractSimpleFeatureIngestPlugin<AvroW
         geolifePointBuilder.set("Latitude", currLat);
         geolifePointBuilder.set("Longitude", currLng);
 
-        Double elevation = Double.parseDouble(vals[3]);
+        Double elevation = vals.getDouble(3);
         if (elevation == -777) {
           elevation = null;
         }
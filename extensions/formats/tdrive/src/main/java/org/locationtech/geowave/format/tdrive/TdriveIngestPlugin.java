@@ -25,6 +25,7 @@ import org.locationtech.geowave.core.geotime.store.dimension.GeometryWrapper;
 import org.locationtech.geowave.core.geotime.store.dimension.Time;
 import org.locationtech.geowave.core.geotime.util.GeometryUtils;
 import org.locationtech.geowave.core.index.StringUtils;
+import org.locationtech.geowave.core.ingest.DelimitedFieldParser;
 import org.locationtech.geowave.core.ingest.hdfs.mapreduce.IngestWithMapper;
 import org.locationtech.geowave.core.ingest.hdfs.mapreduce.IngestWithReducer;
 import org.locationtech.geowave.core.store.CloseableIterator;
@@ -89,23 +90,25 @@ public class TdriveIngestPlugin extends AbstractSimpleFeatureIngestPlugin<AvroTd
       return new CloseableIterator<AvroTdrivePoint>() {
         AvroTdrivePoint next = null;
         long pointInstance = 0l;
+        final DelimitedFieldParser vals = new DelimitedFieldParser(',');
 
         private void computeNext() {
           if (next == null) {
             String line;
             try {
               if ((line = br.readLine()) != null) {
-                final String[] vals = line.split(",");
+                vals.parse(line);
                 next = new AvroTdrivePoint();
-                next.setTaxiid(Integer.parseInt(vals[0]));
+                next.setTaxiid(vals.getInt(0));
+                final String timestring = vals.getString(1);
                 try {
-                  next.setTimestamp(TdriveUtils.parseDate(vals[1]).getTime());
+                  next.setTimestamp(TdriveUtils.parseDate(timestring).getTime());
                 } catch (final ParseException e) {
                   next.setTimestamp(0l);
-                  LOGGER.warn("Couldn't parse time format: " + vals[1], e);
+                  LOGGER.warn("Couldn't parse time format: " + timestring, e);
                 }
-                next.setLongitude(Double.parseDouble(vals[2]));
-                next.setLatitude(Double.parseDouble(vals[3]));
+                next.setLongitude(vals.getDouble(2));
+                next.setLatitude(vals.getDouble(3));
                 next.setPointinstance(pointInstance);
                 pointInstance++;
               }
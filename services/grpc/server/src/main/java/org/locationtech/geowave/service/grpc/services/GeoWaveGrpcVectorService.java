@@ -22,6 +22,7 @@ import org.geotools.filter.text.cql2.CQL;
 import org.geotools.filter.text.cql2.CQLException;
 import org.geotools.geometry.jts.JTSFactoryFinder;
 import org.locationtech.geowave.adapter.vector.FeatureDataAdapter;
+import org.locationtech.geowave.adapter.vector.cli.CQLExplain;
 import org.locationtech.geowave.adapter.vector.plugin.GeoWaveGTDataStore;
 import org.locationtech.geowave.adapter.vector.plugin.GeoWavePluginConfig;
 import org.locationtech.geowave.adapter.vector.plugin.GeoWavePluginException;
@@ -34,6 +35,7 @@ import org.locationtech.geowave.core.store.adapter.PersistentAdapterStore;
 import org.locationtech.geowave.core.store.api.DataStore;
 import org.locationtech.geowave.core.store.api.DataTypeAdapter;
 import org.locationtech.geowave.core.store.api.Index;
+import org.locationtech.geowave.core.store.api.QueryExplanation;
 import org.locationtech.geowave.core.store.api.Writer;
 import org.locationtech.geowave.core.store.cli.remote.options.IndexLoader;
 import org.locationtech.geowave.core.store.cli.remote.options.IndexPluginOptions;
@@ -399,6 +401,35 @@ public class GeoWaveGrpcVectorService extends VectorGrpc.VectorImplBase implemen
     }
   }
 
+  @Override
+  public void cqlExplain(
+      final CQLQueryParametersProtos request,
+      final StreamObserver<StringResponseProtos> responseObserver) {
+    final String storeName = request.getBaseParams().getStoreName();
+    final StoreLoader storeLoader = new StoreLoader(storeName);
+
+    String typeName = request.getBaseParams().getTypeName();
+    String indexName = request.getBaseParams().getIndexName();
+
+    if (typeName.equalsIgnoreCase("")) {
+      typeName = null;
+    }
+    if (indexName.equalsIgnoreCase("")) {
+      indexName = null;
+    }
+
+    // first check to make sure the data store exists
+    if (!storeLoader.loadFromConfig(GeoWaveGrpcServiceOptions.geowaveConfigFile)) {
+      throw new ParameterException("Cannot find store name: " + storeLoader.getStoreName());
+    }
+
+    final QueryExplanation explanation =
+        CQLExplain.explain(storeLoader.createDataStore(), typeName, indexName, request.getCql());
+    responseObserver.onNext(
+        StringResponseProtos.newBuilder().setResponseValue(explanation.toString()).build());
+    responseObserver.onCompleted();
+  }
+
   @Override
   public void spatialQuery(
       final SpatialQueryParametersProtos request,
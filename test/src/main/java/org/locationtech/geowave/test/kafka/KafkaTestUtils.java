@@ -132,6 +132,8 @@ public class KafkaTestUtils {
     props.put("message.max.bytes", MAX_MESSAGE_BYTES);
     props.put("replica.fetch.max.bytes", MAX_MESSAGE_BYTES);
     props.put("num.partitions", "1");
+    // there is a single broker to hold the offsets committed by consumer groups
+    props.put("offsets.topic.replication.factor", "1");
     return new KafkaConfig(props);
   }
 }
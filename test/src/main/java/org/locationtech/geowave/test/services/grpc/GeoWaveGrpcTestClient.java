@@ -317,6 +317,21 @@ public class GeoWaveGrpcTestClient {
     return feature_list;
   }
 
+  public String cqlExplain() {
+    LOGGER.info("Performing CQL Explain...");
+    final VectorStoreParametersProtos baseParams =
+        VectorStoreParametersProtos.newBuilder().setStoreName(
+            GeoWaveGrpcTestUtils.storeName).setTypeName(GeoWaveGrpcTestUtils.typeName).setIndexName(
+                GeoWaveGrpcTestUtils.indexName).build();
+
+    final CQLQueryParametersProtos request =
+        CQLQueryParametersProtos.newBuilder().setBaseParams(baseParams).setCql(
+            GeoWaveGrpcTestUtils.cqlSpatialQuery).build();
+
+    final StringResponseProtos resp = vectorBlockingStub.cqlExplain(request);
+    return resp.getResponseValue();
+  }
+
   public ArrayList<FeatureProtos> spatialQuery() throws UnsupportedEncodingException {
     LOGGER.info("Performing Spatial Query...");
     final VectorStoreParametersProtos baseParams =
@@ -23,6 +23,7 @@ import org.locationtech.geowave.test.basic.GeoWaveVectorSerializationIT;
 import org.locationtech.geowave.test.basic.GeoWaveVisibilityIT;
 import org.locationtech.geowave.test.config.ConfigCacheIT;
 import org.locationtech.geowave.test.kafka.BasicKafkaIT;
+import org.locationtech.geowave.test.kafka.KafkaBatchConsumerIT;
 import org.locationtech.geowave.test.landsat.CustomCRSLandsatIT;
 import org.locationtech.geowave.test.mapreduce.BasicMapReduceIT;
 import org.locationtech.geowave.test.mapreduce.BulkIngestInputGenerationIT;
@@ -59,6 +60,7 @@ import org.locationtech.geowave.test.stability.GeoWaveStabilityIT;
     // GeowaveBasicURLIngestIT.class,
     GeoWaveVectorSerializationIT.class,
     BasicKafkaIT.class,
+    KafkaBatchConsumerIT.class,
     BasicMapReduceIT.class,
     SimpleQuerySecondaryIndexIT.class,
     BasicSecondaryIndexIT.class,
@@ -0,0 +1,360 @@
+/**
+ * Copyright (c) 2013-2019 Contributors to the Eclipse Foundation
+ *
+ * <p> See the NOTICE file distributed with this work for additional information regarding copyright
+ * ownership. All rights reserved. This program and the accompanying materials are made available
+ * under the terms of the Apache License, Version 2.0 which accompanies this distribution and is
+ * available at http://www.apache.org/licenses/LICENSE-2.0.txt
+ */
+package org.locationtech.geowave.test.kafka;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import java.io.File;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.locationtech.geowave.adapter.raster.util.ZipUtils;
+import org.locationtech.geowave.core.ingest.avro.GeoWaveAvroFormatPlugin;
+import org.locationtech.geowave.core.ingest.kafka.IngestFromKafkaDriver;
+import org.locationtech.geowave.core.ingest.kafka.KafkaConsumerCommandLineOptions;
+import org.locationtech.geowave.core.ingest.kafka.KafkaIngestMetrics;
+import org.locationtech.geowave.core.ingest.kafka.KafkaIngestRunData;
+import org.locationtech.geowave.core.ingest.operations.options.IngestFormatPluginOptions;
+import org.locationtech.geowave.core.store.adapter.exceptions.MismatchedIndexToAdapterMapping;
+import org.locationtech.geowave.core.store.api.DataStore;
+import org.locationtech.geowave.core.store.api.DataTypeAdapter;
+import org.locationtech.geowave.core.store.api.Index;
+import org.locationtech.geowave.core.store.api.WriteResults;
+import org.locationtech.geowave.core.store.api.Writer;
+import org.locationtech.geowave.core.store.cli.remote.options.DataStorePluginOptions;
+import org.locationtech.geowave.core.store.cli.remote.options.IndexPluginOptions;
+import org.locationtech.geowave.core.store.cli.remote.options.VisibilityOptions;
+import org.locationtech.geowave.core.store.data.VisibilityWriter;
+import org.locationtech.geowave.test.GeoWaveITRunner;
+import org.locationtech.geowave.test.TestUtils;
+import org.locationtech.geowave.test.annotation.Environments;
+import org.locationtech.geowave.test.annotation.Environments.Environment;
+import org.locationtech.geowave.test.annotation.GeoWaveTestStore;
+import org.locationtech.geowave.test.annotation.GeoWaveTestStore.GeoWaveStoreType;
+import org.locationtech.geowave.test.basic.AbstractGeoWaveIT;
+
+/**
+ * Verifies that the batch Kafka consumer only commits the offsets of records once they have been
+ * flushed to the data store, so records are consumed again rather than lost when ingest fails.
+ */
+@RunWith(GeoWaveITRunner.class)
+@Environments({Environment.KAFKA})
+public class KafkaBatchConsumerIT extends AbstractGeoWaveIT {
+  private static final String TOPIC = "gpx";
+  protected static final String TEST_DATA_ZIP_RESOURCE_PATH =
+      TestUtils.TEST_RESOURCE_PACKAGE + "mapreduce-testdata.zip";
+  protected static final String OSM_GPX_INPUT_DIR = TestUtils.TEST_CASE_BASE + "osm_gpx_test_case/";
+
+  @GeoWaveTestStore(
+      value = {
+          GeoWaveStoreType.ACCUMULO,
+          GeoWaveStoreType.BIGTABLE,
+          GeoWaveStoreType.HBASE,
+          GeoWaveStoreType.DYNAMODB,
+          GeoWaveStoreType.CASSANDRA,
+          GeoWaveStoreType.KUDU,
+          GeoWaveStoreType.REDIS,
+          GeoWaveStoreType.ROCKSDB})
+  protected DataStorePluginOptions dataStorePluginOptions;
+
+  @Override
+  protected DataStorePluginOptions getDataStorePluginOptions() {
+    return dataStorePluginOptions;
+  }
+
+  @BeforeClass
+  public static void extractTestFiles() throws URISyntaxException {
+    ZipUtils.unZipFile(
+        new File(
+            KafkaBatchConsumerIT.class.getClassLoader().getResource(
+                TEST_DATA_ZIP_RESOURCE_PATH).toURI()),
+        TestUtils.TEST_CASE_BASE);
+  }
+
+  @Test
+  public void testFailedWriteIsNotCommitted() throws Exception {
+    KafkaTestUtils.testKafkaStage(OSM_GPX_INPUT_DIR);
+    final String groupId = "failedWrite";
+    final KafkaIngestMetrics metrics = new KafkaIngestMetrics(TOPIC);
+    try {
+      consume(groupId, new FailingRunData(createDataStore(), true, false), metrics);
+      fail("the write failure should stop the consumer");
+    } catch (final IllegalStateException e) {
+      // expected
+    }
+    assertTrue(metrics.getConsumedRecords() > 0);
+    assertEquals(0, metrics.getCommittedRecords());
+    assertEquals(0, getCommittedOffset(groupId));
+  }
+
+  @Test
+  public void testOffsetsCommittedAfterFlush() throws Exception {
+    KafkaTestUtils.testKafkaStage(OSM_GPX_INPUT_DIR);
+    final String groupId = "failedFlush";
+    final long endOffset = getEndOffset();
+
+    // records are written before the flush fails, but their offsets are not committed
+    final KafkaIngestMetrics failedMetrics = new KafkaIngestMetrics(TOPIC);
+    final FailingRunData failingRunData = new FailingRunData(createDataStore(), false, true);
+    try {
+      consume(groupId, failingRunData, failedMetrics);
+      fail("the flush failure should stop the consumer");
+    } catch (final IllegalStateException e) {
+      // expected
+    }
+    assertTrue(failingRunData.writtenEntries > 0);
+    assertEquals(0, failedMetrics.getCommittedRecords());
+    assertEquals(0, getCommittedOffset(groupId));
+
+    // consuming again delivers every record that was not committed, and commits all of them once
+    // they are flushed
+    final KafkaIngestMetrics metrics = new KafkaIngestMetrics(TOPIC);
+    final FailingRunData runData = new FailingRunData(createDataStore(), false, false);
+    consume(groupId, runData, metrics);
+    assertEquals(endOffset, metrics.getConsumedRecords());
+    assertEquals(endOffset, metrics.getCommittedRecords());
+    assertEquals(endOffset, getCommittedOffset(groupId));
+    // every commit followed a flush that had nothing more to write
+    assertTrue(runData.flushes > 0);
+    assertEquals(runData.writtenEntries, runData.flushedEntries);
+  }
+
+  @Test
+  public void testFailedFlushOnRevokeStopsConsumer() throws Exception {
+    KafkaTestUtils.testKafkaStage(OSM_GPX_INPUT_DIR);
+    final String groupId = "failedRevoke";
+    final long endOffset = getEndOffset();
+    final ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      // once records are waiting to be flushed another consumer joins the group, so the partitions
+      // are revoked and flushing their records fails
+      final List<Future<?>> joined = new ArrayList<>();
+      final KafkaIngestMetrics joinedMetrics = new KafkaIngestMetrics(TOPIC);
+      final FailingRunData runData = new FailingRunData(createDataStore(), false, false);
+      runData.beforeFirstWrite = () -> {
+        runData.failNextFlush = true;
+        joined.add(executor.submit(() -> {
+          consume(groupId, new FailingRunData(createDataStore(), false, false), joinedMetrics, 1);
+          return null;
+        }));
+      };
+      final KafkaIngestMetrics metrics = new KafkaIngestMetrics(TOPIC);
+      try {
+        consume(groupId, runData, metrics, Integer.MAX_VALUE);
+        fail("the flush failure should stop the consumer");
+      } catch (final IllegalStateException e) {
+        // expected
+      }
+      assertTrue(runData.writtenEntries > 0);
+      assertEquals(0, metrics.getCommittedRecords());
+
+      // the consumer that joined takes over the partitions and consumes every record once
+      joined.get(0).get();
+      assertEquals(endOffset, joinedMetrics.getCommittedRecords());
+      assertEquals(endOffset, getCommittedOffset(groupId));
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private DataStore createDataStore() {
+    return dataStorePluginOptions.createDataStore();
+  }
+
+  private void consume(
+      final String groupId,
+      final KafkaIngestRunData runData,
+      final KafkaIngestMetrics metrics) throws Exception {
+    consume(groupId, runData, metrics, 1);
+  }
+
+  private void consume(
+      final String groupId,
+      final KafkaIngestRunData runData,
+      final KafkaIngestMetrics metrics,
+      final int batchSize) throws Exception {
+    final KafkaConsumerCommandLineOptions kafkaOptions = new KafkaConsumerCommandLineOptions();
+    kafkaOptions.setBatchConsumer(true);
+    kafkaOptions.setBootstrapServers("localhost:9092");
+    kafkaOptions.setGroupId(groupId);
+    kafkaOptions.setAutoOffsetReset("smallest");
+    kafkaOptions.setConsumerTimeoutMs("5000");
+    kafkaOptions.setReconnectOnTimeout(false);
+    kafkaOptions.setBatchSize(batchSize);
+
+    final IndexPluginOptions indexOption = new IndexPluginOptions();
+    indexOption.selectPlugin("spatial");
+    final IngestFormatPluginOptions formatOptions = new IngestFormatPluginOptions();
+    formatOptions.selectPlugin(TOPIC);
+    final Map<String, GeoWaveAvroFormatPlugin<?, ?>> plugins = formatOptions.createAvroPlugins();
+    final IngestFromKafkaDriver driver =
+        new IngestFromKafkaDriver(
+            dataStorePluginOptions,
+            Collections.singletonList(indexOption),
+            plugins,
+            kafkaOptions,
+            new VisibilityOptions());
+    driver.consumeFromTopicInBatches(
+        TOPIC,
+        plugins.get(TOPIC),
+        runData,
+        metrics,
+        new ArrayList<>(Collections.singletonList(TOPIC)));
+  }
+
+  private static KafkaConsumer<byte[], byte[]> createOffsetConsumer(final String groupId) {
+    final Properties properties = new Properties();
+    properties.setProperty(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, "localhost:9092");
+    properties.setProperty(ConsumerConfig.GROUP_ID_CONFIG, groupId);
+    properties.setProperty(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, "false");
+    return new KafkaConsumer<>(
+        properties,
+        new ByteArrayDeserializer(),
+        new ByteArrayDeserializer());
+  }
+
+  private static List<TopicPartition> getPartitions(final KafkaConsumer<?, ?> consumer) {
+    final List<TopicPartition> partitions = new ArrayList<>();
+    for (final PartitionInfo partition : consumer.partitionsFor(TOPIC)) {
+      partitions.add(new TopicPartition(TOPIC, partition.partition()));
+    }
+    return partitions;
+  }
+
+  private static long getEndOffset() {
+    try (KafkaConsumer<byte[], byte[]> consumer = createOffsetConsumer("endOffset")) {
+      final List<TopicPartition> partitions = getPartitions(consumer);
+      long endOffset = 0;
+      for (final Long offset : consumer.endOffsets(partitions).values()) {
+        endOffset += offset;
+      }
+      for (final Long offset : consumer.beginningOffsets(partitions).values()) {
+        endOffset -= offset;
+      }
+      return endOffset;
+    }
+  }
+
+  private static long getCommittedOffset(final String groupId) {
+    try (KafkaConsumer<byte[], byte[]> consumer = createOffsetConsumer(groupId)) {
+      long committedOffset = 0;
+      for (final TopicPartition partition : getPartitions(consumer)) {
+        final OffsetAndMetadata offset = consumer.committed(partition);
+        if (offset != null) {
+          committedOffset += offset.offset();
+        }
+      }
+      return committedOffset;
+    }
+  }
+
+  /** Run data that counts what is written and flushed, and can fail either */
+  private static class FailingRunData extends KafkaIngestRunData {
+    private final boolean failWrites;
+    private final boolean failFlush;
+    private boolean failNextFlush = false;
+    private Runnable beforeFirstWrite = null;
+    private long writtenEntries = 0;
+    private long flushedEntries = 0;
+    private int flushes = 0;
+
+    public FailingRunData(
+        final DataStore dataStore,
+        final boolean failWrites,
+        final boolean failFlush) {
+      super(Arrays.asList(getAdapters()), dataStore);
+      this.failWrites = failWrites;
+      this.failFlush = failFlush;
+    }
+
+    private static DataTypeAdapter<?>[] getAdapters() {
+      final IngestFormatPluginOptions formatOptions = new IngestFormatPluginOptions();
+      formatOptions.selectPlugin(TOPIC);
+      return formatOptions.createAvroPlugins().get(TOPIC).getIngestWithAvroPlugin().getDataAdapters(
+          null);
+    }
+
+    @Override
+    public synchronized Writer getIndexWriter(
+        final DataTypeAdapter<?> adapter,
+        final Index... requiredIndices) throws MismatchedIndexToAdapterMapping {
+      final Writer delegate = super.getIndexWriter(adapter, requiredIndices);
+      return new Writer() {
+        @Override
+        public WriteResults write(final Object entry) {
+          beforeWrite();
+          return delegate.write(entry);
+        }
+
+        @Override
+        public WriteResults write(
+            final Object entry,
+            final VisibilityWriter fieldVisibilityWriter) {
+          beforeWrite();
+          return delegate.write(entry, fieldVisibilityWriter);
+        }
+
+        @Override
+        public Index[] getIndices() {
+          return delegate.getIndices();
+        }
+
+        @Override
+        public void flush() {
+          delegate.flush();
+        }
+
+        @Override
+        public void close() {
+          delegate.close();
+        }
+      };
+    }
+
+    private void beforeWrite() {
+      if (failWrites) {
+        throw new IllegalStateException("Unable to write");
+      }
+      if (beforeFirstWrite != null) {
+        final Runnable firstWrite = beforeFirstWrite;
+        beforeFirstWrite = null;
+        firstWrite.run();
+      }
+      writtenEntries++;
+    }
+
+    @Override
+    public void flush() {
+      flushes++;
+      if (failFlush || failNextFlush) {
+        failNextFlush = false;
+        throw new IllegalStateException("Unable to flush");
+      }
+      super.flush();
+      flushedEntries = writtenEntries;
+    }
+  }
+}
@@ -262,6 +262,19 @@ public class GeoWaveGrpcIT extends AbstractGeoWaveBasicVectorIT {
 
     Assert.assertNotEquals(0, features.size());
 
+    // the explanation describes the ranges of the same query without returning any features
+    final String explanation = client.cqlExplain();
+    Assert.assertTrue(explanation, explanation.startsWith("Query plan:"));
+    Assert.assertTrue(
+        explanation,
+        explanation.contains(
+            "type '"
+                + GeoWaveGrpcTestUtils.typeName
+                + "' using index '"
+                + GeoWaveGrpcTestUtils.indexName
+                + "'"));
+    Assert.assertFalse(explanation, explanation.contains("full table scan"));
+
     features.clear();
     features = client.spatialQuery();
     LOGGER.warn("-----------------------------------------");